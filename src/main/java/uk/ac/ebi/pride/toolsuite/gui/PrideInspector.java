@@ -8,9 +8,11 @@ import uk.ac.ebi.pride.toolsuite.gui.action.impl.*;
 import uk.ac.ebi.pride.toolsuite.gui.component.exception.ThrowableEntry;
 import uk.ac.ebi.pride.toolsuite.gui.component.message.MessageType;
 import uk.ac.ebi.pride.toolsuite.gui.component.startup.MainDataVisualizer;
+import uk.ac.ebi.pride.toolsuite.gui.component.status.CacheMonitorPanel;
 import uk.ac.ebi.pride.toolsuite.gui.component.status.NotificationPanel;
 import uk.ac.ebi.pride.toolsuite.gui.component.status.StatusBar;
 import uk.ac.ebi.pride.toolsuite.gui.component.status.StatusBarPanel;
+import uk.ac.ebi.pride.toolsuite.gui.component.status.TaskMetricsPanel;
 import uk.ac.ebi.pride.toolsuite.gui.component.status.TaskMonitorPanel;
 import uk.ac.ebi.pride.toolsuite.gui.desktop.Desktop;
 import uk.ac.ebi.pride.toolsuite.gui.desktop.DesktopContext;
@@ -19,6 +21,7 @@ import uk.ac.ebi.pride.toolsuite.gui.task.TaskUtil;
 import uk.ac.ebi.pride.toolsuite.gui.task.impl.OpenMyAssayTask;
 import uk.ac.ebi.pride.toolsuite.gui.task.impl.OpenMyFolderProjectTask;
 import uk.ac.ebi.pride.toolsuite.gui.task.impl.OpenMyProjectTask;
+import uk.ac.ebi.pride.toolsuite.gui.utils.EdtWatchdog;
 import uk.ac.ebi.pride.utilities.util.IOUtilities;
 //
 //import javax.jnlp.ServiceManager;
@@ -50,13 +53,13 @@ public class PrideInspector extends Desktop {
     // command line option for password
     private static final String PASSWORD_CMD = "password";
 
-    private static final String FOLDER_CMD   = "folder";
+    static final String FOLDER_CMD   = "folder";
 
-    private static final String ID_FILE_CMD     = "idFile";
+    static final String ID_FILE_CMD     = "idFile";
 
-    private static String MZ_FILE = "mzFile";
+    static final String MZ_FILE = "mzFile";
 
-    private static String CMD_LINE_SPLIT     = "\\s+";
+    static final String CMD_LINE_SPLIT     = "\\s+";
 
     private JFrame mainFrame;
     private JMenuBar menuBar;
@@ -69,6 +72,12 @@ public class PrideInspector extends Desktop {
     private final static String PRIDE_GUI = "PRIDE Inspector";
 
     public static void main(String[] args) {
+        if (PrideInspectorHeadless.isHeadless(args)) {
+            // batch export, any number of instances can run at the same time
+            PrideInspectorHeadless.launch(args);
+            return;
+        }
+
         if (!ApplicationInstanceManager.registerInstance()) {
             // instance already running.
             System.out.println("Another instance of this application is already running.  Exiting.");
@@ -92,6 +101,10 @@ public class PrideInspector extends Desktop {
         storeCmdLineArgs(args);
         // load all properties
         loadProperties();
+        // monitor the event dispatch thread if enabled
+        installEdtWatchdog();
+        // set the memory budget of the spectrum peak cache
+        configureSpectrumPeakCache();
         // createAttributedSequence the main frame
         buildMainFrame();
         // init key controls
@@ -125,7 +138,18 @@ public class PrideInspector extends Desktop {
      */
     private void createCmdLineParser() {
         cmdOptions = new Options();
+        addCmdLineOptions(cmdOptions);
 
+        // create cmd line parser
+        cmdParser = new GnuParser();
+    }
+
+    /**
+     * Add all the command line options, including the headless mode options
+     *
+     * @param cmdOptions command line options
+     */
+    static void addCmdLineOptions(Options cmdOptions) {
         // add project accession option
         cmdOptions.addOption(PROJECT_ACCESSION_CMD, true, "project accession");
         // add assay accession option
@@ -143,8 +167,8 @@ public class PrideInspector extends Desktop {
 
         cmdOptions.addOption(MZ_FILE, true, "all the spectra files to be open ins inspector");
 
-        // create cmd line parser
-        cmdParser = new GnuParser();
+        // add headless export options
+        PrideInspectorHeadless.addCmdLineOptions(cmdOptions);
     }
 
     /**
@@ -250,6 +274,37 @@ public class PrideInspector extends Desktop {
         }
     }
 
+    /**
+     * Install the EDT watchdog when enabled in the settings
+     */
+    private void installEdtWatchdog() {
+        DesktopContext context = getDesktopContext();
+        if (Boolean.parseBoolean(context.getProperty("edt.watchdog.enabled"))) {
+            try {
+                long threshold = Long.parseLong(context.getProperty("edt.watchdog.threshold").trim());
+                long sampleInterval = Long.parseLong(context.getProperty("edt.watchdog.sample.interval").trim());
+                EdtWatchdog.install(threshold, sampleInterval);
+            } catch (RuntimeException e) {
+                logger.error("Failed to install the EDT watchdog", e);
+            }
+        }
+    }
+
+    /**
+     * Set the byte budget of the spectrum peak cache from the settings
+     */
+    private void configureSpectrumPeakCache() {
+        String size = getDesktopContext().getProperty("spectrum.peak.cache.size");
+        if (size != null) {
+            try {
+                long maxBytes = Long.parseLong(size.trim()) * 1024 * 1024;
+                PrideInspectorCacheManager.getInstance().getSpectrumPeakCache().setMaxBytes(maxBytes);
+            } catch (RuntimeException e) {
+                logger.error("Invalid spectrum peak cache size: " + size, e);
+            }
+        }
+    }
+
     /**
      * Initialize key controls for mac platform
      */
@@ -317,9 +372,15 @@ public class PrideInspector extends Desktop {
         // create task monitor panel
         StatusBarPanel taskMonitorPane = new TaskMonitorPanel();
 
+        // create cache monitor
+        StatusBarPanel cacheMonitorPane = new CacheMonitorPanel();
+
+        // create task metrics monitor
+        StatusBarPanel taskMetricsPane = new TaskMetricsPanel();
+
         // create notification handler
         StatusBarPanel notificationPane = new NotificationPanel();
-        statusBar = new StatusBar(taskMonitorPane, notificationPane);
+        statusBar = new StatusBar(cacheMonitorPane, taskMetricsPane, taskMonitorPane, notificationPane);
         mainFrame.getContentPane().add(statusBar, BorderLayout.PAGE_END);
     }
 
@@ -438,6 +499,10 @@ public class PrideInspector extends Desktop {
         String updateDescTitle = context.getProperty("check.update.desc.title");
         PrideAction updateAction = new UpdateAction(updateDescTitle, null);
 
+        // UI responsiveness report
+        String edtReportDesc = context.getProperty("edt.report.title");
+        PrideAction edtReportAction = new SaveEdtReportAction(edtReportDesc, null);
+
         // about
         String aboutDesc = context.getProperty("about.title");
         PrideAction aboutAction = new AboutAction(aboutDesc, null);
@@ -477,7 +542,7 @@ public class PrideInspector extends Desktop {
         JMenu helpMenu = MenuFactory.createMenu("Help",
                 helpAction, faqAction, MenuFactory.ACTION_SEPARATOR,
                 prideWebAction, inspectorWebAction,
-                MenuFactory.ACTION_SEPARATOR, feedBackAction,
+                MenuFactory.ACTION_SEPARATOR, feedBackAction, edtReportAction,
                 MenuFactory.ACTION_SEPARATOR, updateAction, aboutAction);
         helpMenu.setMnemonic(java.awt.event.KeyEvent.VK_H);
         menuBar.add(helpMenu);
@@ -5,17 +5,24 @@ import net.sf.ehcache.Ehcache;
 import net.sf.ehcache.Element;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import uk.ac.ebi.pride.utilities.util.Triple;
-import uk.ac.ebi.pride.utilities.util.Tuple;
 import uk.ac.ebi.pride.tools.protein_details_fetcher.model.Protein;
+import uk.ac.ebi.pride.toolsuite.gui.access.*;
+import uk.ac.ebi.pride.utilities.data.controller.DataAccessController;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Cache manager manages all the cache
  * <p/>
  * This class is a singleton
  * <p/>
+ * Caches holding the data of a data access controller are registered as {@link ControllerCache},
+ * they are all evicted by {@link #evict(DataAccessController)} when the controller is closed.
+ * <p/>
  * @author ypriverol, rwang
  * Date: 23/06/11
  * Time: 13:17
@@ -30,14 +37,27 @@ public class PrideInspectorCacheManager {
     private final Ehcache proteinNameCache;
 
     /**
-     * Protein sequence coverage cache
+     * Protein details kept on disk between sessions
      */
-    private final Ehcache sequenceCoverageCache;
+    private final ProteinDetailStore proteinDetailStore;
 
     /**
-     * Peptide fit cache
+     * Spectrum peaks kept outside of the java heap
      */
-    private final Ehcache peptideFitCache;
+    private final SpectrumPeakCache spectrumPeakCache;
+
+    /**
+     * Caches of data access controllers
+     */
+    private final List<ControllerCache> controllerCaches;
+
+    private final AtomicLong proteinNameHitCount = new AtomicLong();
+
+    private final AtomicLong proteinNameMissCount = new AtomicLong();
+
+    private final AtomicLong proteinDetailStoreHitCount = new AtomicLong();
+
+    private final AtomicLong proteinDetailStoreMissCount = new AtomicLong();
 
 
     private PrideInspectorCacheManager() {
@@ -46,12 +66,19 @@ public class PrideInspectorCacheManager {
 
         // protein name
         this.proteinNameCache = cacheManager.addCacheIfAbsent("proteinDetailsCache");
-
-        // protein sequence coverage
-        this.sequenceCoverageCache = cacheManager.addCacheIfAbsent("sequenceCoverageCache");
-
-        // peptide fit
-        this.peptideFitCache = cacheManager.addCacheIfAbsent("peptideFitCache");
+        this.proteinDetailStore = ProteinDetailStore.createDefaultStore();
+
+        // per controller caches
+        this.controllerCaches = new CopyOnWriteArrayList<ControllerCache>();
+        this.controllerCaches.add(DataAccessIdIndex.getControllerCache());
+        this.controllerCaches.add(ResolvedAccessionCache.getControllerCache());
+        this.controllerCaches.add(ProteinCoverageStore.getControllerCache());
+        this.controllerCaches.add(PsmStore.getControllerCache());
+        this.controllerCaches.add(NeighbourPrefetchCache.getControllerCache());
+
+        // spectrum peaks
+        this.spectrumPeakCache = new SpectrumPeakCache("Spectrum peaks", SpectrumPeakCache.DEFAULT_MAX_BYTES);
+        this.controllerCaches.add(spectrumPeakCache);
     }
 
     /**
@@ -63,18 +90,46 @@ public class PrideInspectorCacheManager {
         return instance;
     }
 
+    /**
+     * Get the cache of spectrum peaks, shared by all the data access controllers
+     *
+     * @return SpectrumPeakCache   spectrum peak cache
+     */
+    public SpectrumPeakCache getSpectrumPeakCache() {
+        return spectrumPeakCache;
+    }
+
     /**
      * Get protein name
+     * <p/>
+     * Proteins not in memory are read from the protein detail store, which keeps them between sessions
      *
      * @param protAcc protein accession
      * @return Protein    protein object which contains protein name ,protein sequence and etc
      */
     public Protein getProteinDetails(String protAcc) {
+        if (protAcc == null) {
+            return null;
+        }
+
         Element element = proteinNameCache.get(protAcc);
         Object val = null;
         if (element != null) {
             val = element.getObjectValue();
         }
+
+        if (val != null) {
+            proteinNameHitCount.incrementAndGet();
+        } else {
+            proteinNameMissCount.incrementAndGet();
+            val = proteinDetailStore.get(protAcc);
+            if (val != null) {
+                proteinDetailStoreHitCount.incrementAndGet();
+                proteinNameCache.put(new Element(protAcc, val));
+            } else {
+                proteinDetailStoreMissCount.incrementAndGet();
+            }
+        }
         return val == null ? null : (Protein) val;
     }
 
@@ -91,6 +146,7 @@ public class PrideInspectorCacheManager {
             throw new IllegalArgumentException(msg);
         }
         proteinNameCache.put(new Element(protein.getAccession(), protein));
+        proteinDetailStore.put(protein);
     }
 
     /**
@@ -108,73 +164,82 @@ public class PrideInspectorCacheManager {
         // add protein details
         for (Protein protein : proteins) {
             proteinNameCache.put(new Element(protein.getAccession(), protein));
+            proteinDetailStore.put(protein);
         }
     }
 
-
     /**
-     * Get protein sequence coverage
+     * Register a cache which holds data of data access controllers
      *
-     * @param uid     unique id for the data access controller
-     * @param identId protein identification id
-     * @return Double  sequence coverage
+     * @param controllerCache controller cache
      */
-    public Double getSequenceCoverage(String uid, Comparable identId) {
-        Element element = sequenceCoverageCache.get(new Tuple<String, Comparable>(uid, identId));
-        Object val = null;
-        if (element != null) {
-            val = element.getObjectValue();
+    public void addControllerCache(ControllerCache controllerCache) {
+        if (controllerCache == null) {
+            String msg = "Controller cache cannot be null";
+            logger.error(msg);
+            throw new IllegalArgumentException(msg);
         }
-        return val == null ? null : (Double) val;
+        controllerCaches.add(controllerCache);
+    }
+
+    public void removeControllerCache(ControllerCache controllerCache) {
+        controllerCaches.remove(controllerCache);
     }
 
     /**
-     * Add protein sequence coverage
+     * Remove all the cached data of a data access controller,
+     * protein details are shared between data access controllers and they are kept
      *
-     * @param uid      unique for data access controller
-     * @param identId  protein identification id
-     * @param coverage protein sequence coverage
+     * @param controller data access controller
      */
-    public void addSequenceCoverage(String uid, Comparable identId, Double coverage) {
-        if (uid == null || identId == null || coverage == null) {
-            String msg = "Input arguments can not be null";
-            logger.error(msg);
-            throw new IllegalArgumentException(msg);
+    public void evict(DataAccessController controller) {
+        for (ControllerCache controllerCache : controllerCaches) {
+            try {
+                controllerCache.evict(controller);
+            } catch (RuntimeException e) {
+                logger.error("Failed to evict " + controllerCache.getName() + " cache", e);
+            }
         }
-        sequenceCoverageCache.put(new Element(new Tuple<String, Comparable>(uid, identId), coverage));
     }
 
     /**
-     * Get the state on whether the peptide fit protein sequence
+     * Get the usage of all the caches
      *
-     * @param uid       unqiue id
-     * @param identId   protein identification id
-     * @param peptideId peptide id
-     * @return Integer peptide fit state
+     * @return List<CacheStatistics>   cache statistics, one per cache
      */
-    public Integer getPeptideFitState(String uid, Comparable identId, Comparable peptideId) {
-        Element element = peptideFitCache.get(new Triple<String, Comparable, Comparable>(uid, identId, peptideId));
-        Object val = null;
-        if (element != null) {
-            val = element.getObjectValue();
+    public List<CacheStatistics> getCacheStatistics() {
+        List<CacheStatistics> statistics = new ArrayList<CacheStatistics>();
+
+        statistics.add(new CacheStatistics("Protein details", proteinNameCache.getSize(), getProteinNameCacheBytes(),
+                proteinNameHitCount.get(), proteinNameMissCount.get()));
+        // the statistics do not open the store file, it is opened by the first protein lookup
+        if (proteinDetailStore.isLoaded()) {
+            statistics.add(new CacheStatistics("Protein details (disk)", proteinDetailStore.size(), proteinDetailStore.getEstimatedIndexBytes(),
+                    proteinDetailStoreHitCount.get(), proteinDetailStoreMissCount.get()));
+        } else {
+            statistics.add(new CacheStatistics("Protein details (disk, not loaded)", 0, 0,
+                    proteinDetailStoreHitCount.get(), proteinDetailStoreMissCount.get()));
         }
-        return val == null ? null : (Integer) val;
+
+        for (ControllerCache controllerCache : controllerCaches) {
+            statistics.add(controllerCache.getStatistics());
+        }
+
+        return statistics;
     }
 
-    /**
-     * Add peptide fit state to cache
-     *
-     * @param uid       unique id
-     * @param identId   protein identification id
-     * @param peptideId peptide id
-     * @param state     peptide fit state
-     */
-    public void addPeptideFitState(String uid, Comparable identId, Comparable peptideId, Integer state) {
-        if (uid == null || identId == null || peptideId == null || state == null) {
-            String msg = "Input arguments can not be null";
-            logger.error(msg);
-            throw new IllegalArgumentException(msg);
+    private long getProteinNameCacheBytes() {
+        long size = 0;
+        for (Object key : proteinNameCache.getKeys()) {
+            Element element = proteinNameCache.getQuiet(key);
+            if (element != null && element.getObjectValue() != null) {
+                Protein protein = (Protein) element.getObjectValue();
+                size += MemoryEstimator.HASH_ENTRY + MemoryEstimator.OBJECT_HEADER * 4
+                        + MemoryEstimator.sizeOf(protein.getAccession())
+                        + MemoryEstimator.sizeOf(protein.getName())
+                        + MemoryEstimator.sizeOf(protein.getSequenceString());
+            }
         }
-        peptideFitCache.put(new Element(new Triple<String, Comparable, Comparable>(uid, identId, peptideId), state));
+        return size;
     }
 }
@@ -0,0 +1,465 @@
+package uk.ac.ebi.pride.toolsuite.gui;
+
+import org.apache.commons.cli.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import uk.ac.ebi.pride.toolsuite.gui.component.status.StatusBar;
+import uk.ac.ebi.pride.toolsuite.gui.desktop.Desktop;
+import uk.ac.ebi.pride.toolsuite.gui.desktop.DesktopContext;
+import uk.ac.ebi.pride.toolsuite.gui.task.Task;
+import uk.ac.ebi.pride.toolsuite.gui.task.impl.ExportIdentificationPeptideTask;
+import uk.ac.ebi.pride.toolsuite.gui.task.impl.ExportSpectrumMGFTask;
+import uk.ac.ebi.pride.toolsuite.gui.task.impl.ExportTomzTabTask;
+import uk.ac.ebi.pride.utilities.data.controller.DataAccessController;
+import uk.ac.ebi.pride.utilities.data.controller.impl.ControllerImpl.*;
+import uk.ac.ebi.pride.utilities.data.core.SpectraData;
+
+import javax.swing.*;
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Constructor;
+import java.util.*;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static uk.ac.ebi.pride.toolsuite.gui.utils.Constants.MGF_FILE;
+import static uk.ac.ebi.pride.toolsuite.gui.utils.Constants.MZTAB_SEP_FILE;
+import static uk.ac.ebi.pride.toolsuite.gui.utils.Constants.TAB_SEP_FILE;
+
+/**
+ * PrideInspectorHeadless runs the PRIDE Inspector exporters without any Swing component,
+ * it is started by {@link PrideInspector} when the -headless option is given.
+ * <p/>
+ * Files are given using the same options as the desktop mode: -idFile, -mzFile or -folder.
+ * Each identification file is opened with all the spectrum files, if there is no identification file,
+ * each spectrum file is opened on its own. The exports given by -export are run through the
+ * {@link uk.ac.ebi.pride.toolsuite.gui.task.TaskManager}, one after the other, into the -output folder.
+ * <p/>
+ * The time spent on each stage is printed when all the files are done, the exit code is 1 if any stage failed.
+ *
+ * @author Rui Wang
+ * @version $Id$
+ */
+public class PrideInspectorHeadless extends Desktop {
+    private static final Logger logger = LoggerFactory.getLogger(PrideInspectorHeadless.class);
+
+    // command line option to run without graphical user interface
+    static final String HEADLESS_CMD = "headless";
+    // command line option for the exports to run
+    static final String EXPORT_CMD = "export";
+    // command line option for the output folder
+    static final String OUTPUT_CMD = "output";
+
+    private String[] cmdArgs;
+
+    /**
+     * Whether the command line arguments ask for headless mode
+     *
+     * @param args command line arguments
+     * @return boolean  true if -headless is given
+     */
+    public static boolean isHeadless(String[] args) {
+        return args != null && Arrays.asList(args).contains("-" + HEADLESS_CMD);
+    }
+
+    /**
+     * Launch the headless mode
+     *
+     * @param args command line arguments
+     */
+    public static void launch(String[] args) {
+        System.setProperty("java.awt.headless", "true");
+        Desktop.launch(PrideInspectorHeadless.class, PrideInspectorContext.class, args);
+    }
+
+    /**
+     * Add the headless options to the command line options
+     *
+     * @param cmdOptions command line options
+     */
+    static void addCmdLineOptions(Options cmdOptions) {
+        cmdOptions.addOption(HEADLESS_CMD, false, "run the exports without graphical user interface");
+        cmdOptions.addOption(EXPORT_CMD, true, "exports to run in headless mode: " + ExportFormat.getNames());
+        cmdOptions.addOption(OUTPUT_CMD, true, "output folder of the exports in headless mode");
+    }
+
+    @Override
+    public void init(String[] args) {
+        this.cmdArgs = args;
+
+        DesktopContext context = getDesktopContext();
+        try {
+            context.loadSystemProps(this.getClass().getClassLoader().getResourceAsStream("prop/gui.prop"));
+            context.loadSystemProps(this.getClass().getClassLoader().getResourceAsStream("prop/settings.prop"));
+        } catch (IOException e) {
+            logger.error("Error while loading properties", e);
+        }
+    }
+
+    @Override
+    public void ready() {
+    }
+
+    @Override
+    public void show() {
+    }
+
+    @Override
+    public void postShow() {
+        // keep the event dispatch thread free for the task listeners
+        Thread batchThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                int exitCode;
+                try {
+                    exitCode = runExports(cmdArgs);
+                } catch (Exception ex) {
+                    logger.error("Headless export failed", ex);
+                    exitCode = 1;
+                }
+                getDesktopContext().getTaskManager().shutdown();
+                Runtime.getRuntime().exit(exitCode);
+            }
+        }, "headless-export");
+        batchThread.start();
+    }
+
+    @Override
+    public void finish() {
+    }
+
+    @Override
+    public JFrame getMainComponent() {
+        return null;
+    }
+
+    @Override
+    public JMenuBar getMenuBar() {
+        return null;
+    }
+
+    @Override
+    public StatusBar getStatusBar() {
+        return null;
+    }
+
+    /**
+     * Open the input files and run the exports
+     *
+     * @param args command line arguments
+     * @return int exit code
+     * @throws Exception failed to read the command line arguments
+     */
+    private int runExports(String[] args) throws Exception {
+        Options cmdOptions = new Options();
+        PrideInspector.addCmdLineOptions(cmdOptions);
+        CommandLine cmd = new GnuParser().parse(cmdOptions, args);
+
+        List<ExportFormat> formats = new ArrayList<ExportFormat>();
+        if (cmd.hasOption(EXPORT_CMD)) {
+            for (String value : cmd.getOptionValues(EXPORT_CMD)) {
+                for (String name : value.split("[,\\s]+")) {
+                    ExportFormat format = ExportFormat.findByName(name);
+                    if (format == null) {
+                        logger.error("Unknown export: {}, the exports are: {}", name, ExportFormat.getNames());
+                        return 1;
+                    }
+                    formats.add(format);
+                }
+            }
+        }
+        if (formats.isEmpty()) {
+            logger.error("No export given, the exports are: {}", ExportFormat.getNames());
+            return 1;
+        }
+
+        File outputFolder = new File(cmd.hasOption(OUTPUT_CMD) ? cmd.getOptionValue(OUTPUT_CMD) : System.getProperty("user.dir"));
+        if (!outputFolder.isDirectory() && !outputFolder.mkdirs()) {
+            logger.error("Failed to create the output folder: {}", outputFolder.getAbsolutePath());
+            return 1;
+        }
+
+        // sort the input files
+        List<File> idFiles = new ArrayList<File>();
+        List<File> mzFiles = new ArrayList<File>();
+        List<Stage> stages = new ArrayList<Stage>();
+
+        long start = System.nanoTime();
+        List<File> inputFiles = new ArrayList<File>();
+        if (cmd.hasOption(PrideInspector.FOLDER_CMD)) {
+            File[] folderFiles = new File(cmd.getOptionValue(PrideInspector.FOLDER_CMD)).listFiles();
+            if (folderFiles != null) {
+                inputFiles.addAll(Arrays.asList(folderFiles));
+            }
+        }
+        inputFiles.addAll(getFiles(cmd, PrideInspector.ID_FILE_CMD));
+        inputFiles.addAll(getFiles(cmd, PrideInspector.MZ_FILE));
+        for (File file : inputFiles) {
+            Class<? extends DataAccessController> controllerClass = file.isFile() ? getControllerClass(file) : null;
+            if (controllerClass == null) {
+                logger.warn("Skip file not in a supported format: {}", file.getAbsolutePath());
+            } else if (isSpectrumController(controllerClass)) {
+                mzFiles.add(file);
+            } else {
+                idFiles.add(file);
+            }
+        }
+        stages.add(new Stage("scan", inputFiles.size() + " files", start, true));
+
+        if (idFiles.isEmpty() && mzFiles.isEmpty()) {
+            logger.error("No input file in a supported format");
+            return 1;
+        }
+
+        if (idFiles.isEmpty()) {
+            for (File mzFile : mzFiles) {
+                export(mzFile, null, formats, outputFolder, stages);
+            }
+        } else {
+            for (File idFile : idFiles) {
+                export(idFile, mzFiles, formats, outputFolder, stages);
+            }
+        }
+
+        stages.add(new Stage("total", "", start, true));
+        printStages(stages);
+
+        return getExitCode(stages);
+    }
+
+    /**
+     * Get the exit code of the stages
+     *
+     * @param stages stages run
+     * @return int 1 if any stage failed, 0 otherwise
+     */
+    static int getExitCode(List<Stage> stages) {
+        for (Stage stage : stages) {
+            if (!stage.succeeded) {
+                return 1;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Open one file and run all the exports on it
+     */
+    private void export(File file, List<File> mzFiles, List<ExportFormat> formats, File outputFolder, List<Stage> stages) {
+        long start = System.nanoTime();
+        DataAccessController controller;
+        try {
+            controller = openController(file, mzFiles);
+            stages.add(new Stage("open", file.getName(), start, true));
+        } catch (Exception ex) {
+            logger.error("Failed to open file: " + file.getAbsolutePath(), ex);
+            stages.add(new Stage("open", file.getName(), start, false));
+            return;
+        }
+
+        try {
+            String baseName = file.getName().replaceFirst("\\.[^.]*$", "");
+            for (ExportFormat format : formats) {
+                String stageName = "export " + format.getName();
+                start = System.nanoTime();
+                if (!format.isSupported(controller)) {
+                    logger.info("Skip {} of {}, no matching content", stageName, file.getName());
+                    continue;
+                }
+
+                File outputFile = new File(outputFolder, baseName + format.getFileSuffix());
+                Task task = format.createTask(controller, outputFile.getAbsolutePath());
+                getDesktopContext().addTask(task, false);
+                boolean succeeded = waitFor(task, stageName + " of " + file.getName());
+                stages.add(new Stage(stageName, outputFile.getName(), start, succeeded));
+            }
+        } finally {
+            controller.close();
+        }
+    }
+
+    /**
+     * Wait for a task to finish, a task fails if it throws an exception or an error, or if it is cancelled
+     *
+     * @return boolean true if the task succeeded
+     */
+    static boolean waitFor(Task task, String stageName) {
+        try {
+            task.get();
+            return true;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            logger.error("Interrupted while waiting for " + stageName, ex);
+        } catch (ExecutionException ex) {
+            logger.error("Failed to run " + stageName, ex.getCause());
+        } catch (java.util.concurrent.CancellationException ex) {
+            logger.error("Cancelled " + stageName);
+        }
+        return false;
+    }
+
+    private DataAccessController openController(File file, List<File> mzFiles) throws Exception {
+        Class<? extends DataAccessController> controllerClass = getControllerClass(file);
+        Constructor<? extends DataAccessController> cstruct = controllerClass.getDeclaredConstructor(File.class);
+        DataAccessController controller = cstruct.newInstance(file);
+
+        if (controller instanceof MzIdentMLControllerImpl && mzFiles != null && !mzFiles.isEmpty()) {
+            Map<SpectraData, File> msFileMap = ((MzIdentMLControllerImpl) controller).checkMScontrollers(mzFiles);
+            ((MzIdentMLControllerImpl) controller).addMSController(msFileMap);
+        }
+
+        return controller;
+    }
+
+    private List<File> getFiles(CommandLine cmd, String option) {
+        List<File> files = new ArrayList<File>();
+        if (cmd.hasOption(option)) {
+            for (String value : cmd.getOptionValues(option)) {
+                for (String fileName : value.split(PrideInspector.CMD_LINE_SPLIT)) {
+                    if (fileName.length() > 0) {
+                        files.add(new File(fileName));
+                    }
+                }
+            }
+        }
+        return files;
+    }
+
+    /**
+     * Check the file type, same as the order used by the open file action
+     *
+     * @param file input file
+     * @return Class    the class type of the data access controller, null if the format is not supported
+     * @throws IOException exception while checking the file type
+     */
+    private Class<? extends DataAccessController> getControllerClass(File file) throws IOException {
+        if (MzMLControllerImpl.isValidFormat(file)) {
+            return MzMLControllerImpl.class;
+        } else if (PrideXmlControllerImpl.isValidFormat(file)) {
+            return PrideXmlControllerImpl.class;
+        } else if (MzIdentMLControllerImpl.isValidFormat(file)) {
+            return MzIdentMLControllerImpl.class;
+        } else if (MzXmlControllerImpl.isValidFormat(file)) {
+            return MzXmlControllerImpl.class;
+        } else if (MzDataControllerImpl.isValidFormat(file)) {
+            return MzDataControllerImpl.class;
+        } else if (PeakControllerImpl.isValidFormat(file) != null) {
+            return PeakControllerImpl.class;
+        } else if (NetCDFControllerImpl.isValidFormat(file)) {
+            return NetCDFControllerImpl.class;
+        } else if (MzTabControllerImpl.isValidFormat(file)) {
+            return MzTabControllerImpl.class;
+        }
+        return null;
+    }
+
+    private boolean isSpectrumController(Class<? extends DataAccessController> classType) {
+        return classType == MzMLControllerImpl.class || classType == MzXmlControllerImpl.class
+                || classType == MzDataControllerImpl.class || classType == PeakControllerImpl.class
+                || classType == NetCDFControllerImpl.class;
+    }
+
+    private void printStages(List<Stage> stages) {
+        StringBuilder report = new StringBuilder();
+        report.append(String.format("%-20s %-40s %12s %s%n", "Stage", "File", "Time (ms)", "Status"));
+        for (Stage stage : stages) {
+            report.append(String.format("%-20s %-40s %12d %s%n", stage.name, stage.file, stage.millis,
+                    stage.succeeded ? "OK" : "FAILED"));
+        }
+        System.out.print(report);
+    }
+
+    /**
+     * Exports available in headless mode
+     */
+    private enum ExportFormat {
+        MGF("mgf", "_spectrum" + MGF_FILE) {
+            @Override
+            boolean isSupported(DataAccessController controller) {
+                return controller.hasSpectrum();
+            }
+
+            @Override
+            Task createTask(DataAccessController controller, String outputFilePath) {
+                return new ExportSpectrumMGFTask(controller, outputFilePath);
+            }
+        },
+        MZTAB("mztab", MZTAB_SEP_FILE) {
+            @Override
+            boolean isSupported(DataAccessController controller) {
+                return controller instanceof PrideXmlControllerImpl || controller instanceof MzIdentMLControllerImpl;
+            }
+
+            @Override
+            Task createTask(DataAccessController controller, String outputFilePath) {
+                return new ExportTomzTabTask(controller, outputFilePath);
+            }
+        },
+        PEPTIDE("peptide", "_peptide" + TAB_SEP_FILE) {
+            @Override
+            boolean isSupported(DataAccessController controller) {
+                return controller.hasProtein();
+            }
+
+            @Override
+            Task createTask(DataAccessController controller, String outputFilePath) {
+                return new ExportIdentificationPeptideTask(controller, outputFilePath);
+            }
+        };
+
+        private final String name;
+        private final String fileSuffix;
+
+        private ExportFormat(String name, String fileSuffix) {
+            this.name = name;
+            this.fileSuffix = fileSuffix;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getFileSuffix() {
+            return fileSuffix;
+        }
+
+        abstract boolean isSupported(DataAccessController controller);
+
+        abstract Task createTask(DataAccessController controller, String outputFilePath);
+
+        static ExportFormat findByName(String name) {
+            for (ExportFormat format : values()) {
+                if (format.name.equalsIgnoreCase(name)) {
+                    return format;
+                }
+            }
+            return null;
+        }
+
+        static String getNames() {
+            List<String> names = new ArrayList<String>();
+            for (ExportFormat format : values()) {
+                names.add(format.name);
+            }
+            return names.toString();
+        }
+    }
+
+    /**
+     * Time spent on one stage
+     */
+    static class Stage {
+        private final String name;
+        private final String file;
+        private final long millis;
+        private final boolean succeeded;
+
+        Stage(String name, String file, long startNanos, boolean succeeded) {
+            this.name = name;
+            this.file = file;
+            this.millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+            this.succeeded = succeeded;
+        }
+    }
+}
@@ -0,0 +1,632 @@
+package uk.ac.ebi.pride.toolsuite.gui;
+
+import net.jcip.annotations.GuardedBy;
+import net.jcip.annotations.ThreadSafe;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import uk.ac.ebi.pride.tools.protein_details_fetcher.model.Protein;
+import uk.ac.ebi.pride.toolsuite.gui.access.MemoryEstimator;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.Charset;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * ProteinDetailStore keeps the downloaded protein details on disk, so they survive restarts.
+ * <p/>
+ * The store is a single append-only file under ~/.pride-inspector/cache. Each record holds the
+ * accession, status, name and sequence of one protein, the sequence takes one byte per residue.
+ * Records are read directly from the file channel, the file is not memory mapped, so that it can be
+ * replaced by its compacted copy on any platform.
+ * <p/>
+ * The file is opened lazily on first access and its index is rebuilt by a single scan. Storing the same
+ * details again does not append a record. The file is compacted, on load or while it is being written,
+ * when more than half of it is taken by replaced or evicted records. The total size of the live records
+ * is bounded, the least recently used proteins are evicted first.
+ * <p/>
+ * A file written by a different format version is discarded, the file is cut at the first corrupt record
+ * when loading, and a corrupt record found on read is dropped. If the file cannot be used, for instance
+ * when it is locked by another running instance, the store is disabled and acts as a miss.
+ * <p/>
+ * Proteins replaced by another entry are stored with the name and sequence of their replacement.
+ *
+ * @author Rui Wang
+ * @version $Id$
+ */
+@ThreadSafe
+public class ProteinDetailStore {
+    private static final Logger logger = LoggerFactory.getLogger(ProteinDetailStore.class);
+
+    private static final int MAGIC_NUMBER = 0x50495044;
+
+    private static final int VERSION = 1;
+
+    private static final int HEADER_LENGTH = 8;
+
+    /**
+     * record length and record type
+     */
+    private static final int RECORD_HEADER_LENGTH = 5;
+
+    private static final byte PROTEIN_RECORD = 1;
+
+    private static final byte REMOVED_RECORD = 0;
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private static final Charset ISO_8859_1 = Charset.forName("ISO-8859-1");
+
+    /**
+     * default bound on the size of the live records
+     */
+    public static final long DEFAULT_MAX_SIZE = 64L * 1024 * 1024;
+
+    public static final String DEFAULT_STORE_FILE_NAME = "protein-details.store";
+
+    /**
+     * the file is not compacted while the dead records take less than this fraction of the maximum size
+     */
+    private static final int MIN_COMPACTION_FRACTION = 8;
+
+    private final File file;
+
+    private final long maxSize;
+
+    @GuardedBy("this")
+    private boolean loaded;
+
+    @GuardedBy("this")
+    private boolean disabled;
+
+    @GuardedBy("this")
+    private RandomAccessFile randomAccessFile;
+
+    @GuardedBy("this")
+    private FileChannel channel;
+
+    @GuardedBy("this")
+    private FileLock lock;
+
+    /**
+     * accession to record location, in access order
+     */
+    @GuardedBy("this")
+    private final LinkedHashMap<String, long[]> index;
+
+    @GuardedBy("this")
+    private long fileSize;
+
+    @GuardedBy("this")
+    private long liveSize;
+
+    /**
+     * size of the replaced and evicted records, and of the records marking them as removed
+     */
+    @GuardedBy("this")
+    private long garbageSize;
+
+    /**
+     * Create a store in the default location, ~/.pride-inspector/cache
+     *
+     * @return ProteinDetailStore  protein detail store
+     */
+    public static ProteinDetailStore createDefaultStore() {
+        File cacheDir = new File(System.getProperty("user.home"), ".pride-inspector" + File.separator + "cache");
+        return new ProteinDetailStore(new File(cacheDir, DEFAULT_STORE_FILE_NAME), DEFAULT_MAX_SIZE);
+    }
+
+    /**
+     * Constructor, the file is only opened on first access
+     *
+     * @param file    store file
+     * @param maxSize maximum size of the live records in bytes
+     */
+    public ProteinDetailStore(File file, long maxSize) {
+        this.file = file;
+        this.maxSize = maxSize;
+        this.index = new LinkedHashMap<String, long[]>(1024, 0.75f, true);
+    }
+
+    /**
+     * Get protein details
+     *
+     * @param accession mapped protein accession
+     * @return Protein protein details, null if not in the store
+     */
+    public synchronized Protein get(String accession) {
+        if (accession == null || !ensureLoaded()) {
+            return null;
+        }
+
+        long[] location = index.get(accession);
+        if (location == null) {
+            return null;
+        }
+
+        try {
+            Protein protein = readProtein(location[0], (int) location[1]);
+            if (!accession.equals(protein.getAccession())) {
+                throw new CorruptRecordException("Record of " + accession + " holds " + protein.getAccession());
+            }
+            return protein;
+        } catch (CorruptRecordException e) {
+            logger.warn("Drop corrupt protein details of " + accession + " from " + file, e);
+            try {
+                remove(accession, location);
+            } catch (IOException ex) {
+                disable("Failed to write protein details to " + file, ex);
+            }
+            return null;
+        } catch (IOException e) {
+            disable("Failed to read protein details from " + file, e);
+            return null;
+        }
+    }
+
+    /**
+     * Store protein details, replaces any existing details of the same accession
+     *
+     * @param protein protein details
+     */
+    public synchronized void put(Protein protein) {
+        if (protein == null || protein.getAccession() == null || !isPersistent(protein) || !ensureLoaded()) {
+            return;
+        }
+
+        try {
+            ByteBuffer payload = encode(protein);
+            long[] previous = index.get(protein.getAccession());
+            if (previous != null && payload.equals(readPayload(previous[0], (int) previous[1]))) {
+                // same details, the lookup has marked them as recently used
+                return;
+            }
+
+            long[] location = append(PROTEIN_RECORD, payload);
+            index.put(protein.getAccession(), location);
+            if (previous != null) {
+                liveSize -= previous[1];
+                garbageSize += previous[1];
+            }
+            liveSize += location[1];
+
+            evict();
+            if (needsCompaction()) {
+                compact();
+            }
+        } catch (IOException e) {
+            disable("Failed to write protein details to " + file, e);
+        }
+    }
+
+    /**
+     * Get the number of proteins in the store
+     *
+     * @return int number of proteins
+     */
+    public synchronized int size() {
+        return ensureLoaded() ? index.size() : 0;
+    }
+
+    /**
+     * Whether the store file has been opened, it is opened on first access
+     *
+     * @return boolean true if the store has been loaded and is usable
+     */
+    public synchronized boolean isLoaded() {
+        return loaded && !disabled;
+    }
+
+    /**
+     * Get the size of the store file
+     *
+     * @return long    number of bytes, 0 if the store has not been opened
+     */
+    synchronized long getFileSize() {
+        return fileSize;
+    }
+
+    synchronized long getLiveSize() {
+        return liveSize;
+    }
+
+    synchronized long getGarbageSize() {
+        return garbageSize;
+    }
+
+    /**
+     * Get the estimated memory used by the index of the store, the proteins themselves are on disk
+     *
+     * @return long    number of bytes
+     */
+    public synchronized long getEstimatedIndexBytes() {
+        if (!ensureLoaded()) {
+            return 0;
+        }
+
+        long size = 0;
+        for (String accession : index.keySet()) {
+            // linked hash entry, accession and file location
+            size += MemoryEstimator.HASH_ENTRY + 2 * MemoryEstimator.REFERENCE
+                    + MemoryEstimator.sizeOf(accession) + MemoryEstimator.sizeOfArray(2, 8);
+        }
+        return size;
+    }
+
+    /**
+     * Release the file, the store is opened again on next access
+     */
+    public synchronized void close() {
+        closeFile();
+        index.clear();
+        loaded = false;
+        disabled = false;
+    }
+
+    /**
+     * Proteins which failed to download are not stored, they need to be downloaded again.
+     * Neither are proteins with unknown status, they can come from the sequences in a data file.
+     */
+    private boolean isPersistent(Protein protein) {
+        Protein.STATUS status = protein.getStatus();
+        return status != null && status != Protein.STATUS.ERROR && status != Protein.STATUS.UNKNOWN;
+    }
+
+    /**
+     * Remove the least recently used proteins until the live records fit in the maximum size
+     */
+    private void evict() throws IOException {
+        while (liveSize > maxSize && !index.isEmpty()) {
+            Map.Entry<String, long[]> eldest = index.entrySet().iterator().next();
+            remove(eldest.getKey(), eldest.getValue());
+        }
+    }
+
+    private void remove(String accession, long[] location) throws IOException {
+        long[] removal = append(REMOVED_RECORD, encodeString(accession));
+        index.remove(accession);
+        liveSize -= location[1];
+        garbageSize += location[1] + removal[1];
+    }
+
+    /**
+     * The file is compacted when the dead records take more space than the live ones,
+     * small amounts of dead records are left alone
+     */
+    private boolean needsCompaction() {
+        return garbageSize > liveSize && garbageSize >= maxSize / MIN_COMPACTION_FRACTION;
+    }
+
+    private boolean ensureLoaded() {
+        if (!loaded) {
+            loaded = true;
+            try {
+                load();
+            } catch (IOException e) {
+                disable("Failed to open protein detail store " + file, e);
+            }
+        }
+        return !disabled;
+    }
+
+    private void load() throws IOException {
+        File dir = file.getParentFile();
+        if (dir != null && !dir.exists() && !dir.mkdirs()) {
+            throw new IOException("Failed to create directory " + dir);
+        }
+
+        openFile();
+        if (lock == null) {
+            disable("Protein detail store is used by another instance: " + file, null);
+            return;
+        }
+
+        if (!readHeader()) {
+            // new file or different version
+            channel.truncate(0);
+            writeHeader();
+        } else {
+            scan();
+            if (garbageSize > liveSize) {
+                compact();
+            }
+        }
+
+        fileSize = channel.size();
+        logger.debug("Protein detail store {} loaded: {} proteins, {} bytes", file, index.size(), fileSize);
+    }
+
+    private void openFile() throws IOException {
+        randomAccessFile = new RandomAccessFile(file, "rw");
+        channel = randomAccessFile.getChannel();
+        try {
+            lock = channel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            // already opened by another store in this application
+            lock = null;
+        }
+    }
+
+    private boolean readHeader() throws IOException {
+        if (channel.size() < HEADER_LENGTH) {
+            return false;
+        }
+        ByteBuffer header = ByteBuffer.allocate(HEADER_LENGTH);
+        readFully(header, 0);
+        header.flip();
+        return header.getInt() == MAGIC_NUMBER && header.getInt() == VERSION;
+    }
+
+    private void writeHeader() throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_LENGTH);
+        header.putInt(MAGIC_NUMBER).putInt(VERSION).flip();
+        writeFully(header, 0);
+    }
+
+    /**
+     * Rebuild the index, the file is cut at the first truncated or corrupt record
+     */
+    private void scan() throws IOException {
+        long size = channel.size();
+
+        // read through the locked channel, closing the stream would close the channel
+        channel.position(HEADER_LENGTH);
+        DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel), 64 * 1024));
+
+        long position = HEADER_LENGTH;
+        while (position + RECORD_HEADER_LENGTH <= size) {
+            int length = in.readInt();
+            if (length < 2 || position + RECORD_HEADER_LENGTH + length > size) {
+                break;
+            }
+            byte type = in.readByte();
+            byte[] payload = new byte[length];
+            in.readFully(payload);
+            String accession;
+            try {
+                accession = decodeString(ByteBuffer.wrap(payload));
+            } catch (CorruptRecordException e) {
+                logger.warn("Corrupt record in protein detail store " + file + " at " + position, e);
+                break;
+            }
+            long recordLength = RECORD_HEADER_LENGTH + length;
+
+            long[] previous;
+            if (type == PROTEIN_RECORD) {
+                previous = index.put(accession, new long[]{position, recordLength});
+                liveSize += recordLength;
+            } else {
+                previous = index.remove(accession);
+                garbageSize += recordLength;
+            }
+
+            if (previous != null) {
+                liveSize -= previous[1];
+                garbageSize += previous[1];
+            }
+            position += recordLength;
+        }
+
+        if (position < size) {
+            logger.warn("Cut protein detail store {} at {}", file, position);
+            channel.truncate(position);
+        }
+    }
+
+    /**
+     * Rewrite the live records in least recently used order
+     */
+    private void compact() throws IOException {
+        logger.debug("Compact protein detail store {}: {} live bytes, {} dead bytes", file, liveSize, garbageSize);
+
+        File compactFile = new File(file.getPath() + ".compact");
+        RandomAccessFile compactRandomAccessFile = new RandomAccessFile(compactFile, "rw");
+        try {
+            FileChannel compactChannel = compactRandomAccessFile.getChannel();
+            compactChannel.truncate(0);
+            ByteBuffer header = ByteBuffer.allocate(HEADER_LENGTH);
+            header.putInt(MAGIC_NUMBER).putInt(VERSION).flip();
+            compactChannel.write(header);
+
+            long position = HEADER_LENGTH;
+            for (long[] location : index.values()) {
+                ByteBuffer record = ByteBuffer.allocate((int) location[1]);
+                readFully(record, location[0]);
+                record.flip();
+                while (record.hasRemaining()) {
+                    compactChannel.write(record);
+                }
+                location[0] = position;
+                position += location[1];
+            }
+            compactChannel.force(false);
+        } finally {
+            compactRandomAccessFile.close();
+        }
+
+        closeFile();
+        if (!file.delete() || !compactFile.renameTo(file)) {
+            throw new IOException("Failed to replace " + file + " with its compacted copy");
+        }
+        openFile();
+        if (lock == null) {
+            throw new IOException("Failed to lock " + file);
+        }
+        garbageSize = 0;
+        fileSize = channel.size();
+    }
+
+    private long[] append(byte type, ByteBuffer payload) throws IOException {
+        int length = payload.remaining();
+        ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER_LENGTH + length);
+        record.putInt(length).put(type).put(payload).flip();
+
+        long position = fileSize;
+        writeFully(record, position);
+        fileSize += record.capacity();
+        return new long[]{position, record.capacity()};
+    }
+
+    private Protein readProtein(long position, int length) throws IOException {
+        return decode(readPayload(position, length));
+    }
+
+    /**
+     * Read the payload of a record
+     *
+     * @param position position of the record
+     * @param length   length of the record, including its header
+     * @return ByteBuffer  payload
+     */
+    private ByteBuffer readPayload(long position, int length) throws IOException {
+        ByteBuffer payload = ByteBuffer.allocate(length - RECORD_HEADER_LENGTH);
+        readFully(payload, position + RECORD_HEADER_LENGTH);
+        payload.flip();
+        return payload;
+    }
+
+    private static ByteBuffer encode(Protein protein) {
+        String name = protein.getName();
+        String sequence = protein.getSequenceString();
+
+        // keep the details of the replacement, as AnnotatedProtein does
+        List<Protein> replacements = protein.getReplacingProteins();
+        if ((protein.getStatus() == Protein.STATUS.CHANGED || protein.getStatus() == Protein.STATUS.MERGED)
+                && replacements != null && !replacements.isEmpty()) {
+            name = replacements.get(0).getName();
+            sequence = replacements.get(0).getSequenceString();
+        }
+
+        byte[] accessionBytes = protein.getAccession().getBytes(UTF_8);
+        byte[] statusBytes = protein.getStatus().name().getBytes(UTF_8);
+        byte[] nameBytes = name == null ? null : name.getBytes(UTF_8);
+        byte[] sequenceBytes = sequence == null ? null : sequence.getBytes(ISO_8859_1);
+
+        ByteBuffer buffer = ByteBuffer.allocate(2 + accessionBytes.length + 2 + statusBytes.length
+                + 4 + (nameBytes == null ? 0 : nameBytes.length) + 4 + (sequenceBytes == null ? 0 : sequenceBytes.length));
+        buffer.putShort((short) accessionBytes.length).put(accessionBytes);
+        buffer.putShort((short) statusBytes.length).put(statusBytes);
+        putBytes(buffer, nameBytes);
+        putBytes(buffer, sequenceBytes);
+        buffer.flip();
+        return buffer;
+    }
+
+    private static Protein decode(ByteBuffer buffer) throws CorruptRecordException {
+        Protein protein = new Protein(decodeString(buffer));
+
+        String status = decodeString(buffer);
+        try {
+            protein.setStatus(Protein.STATUS.valueOf(status));
+        } catch (IllegalArgumentException e) {
+            protein.setStatus(Protein.STATUS.UNKNOWN);
+        }
+
+        byte[] nameBytes = getBytes(buffer);
+        if (nameBytes != null) {
+            protein.setName(new String(nameBytes, UTF_8));
+        }
+
+        byte[] sequenceBytes = getBytes(buffer);
+        if (sequenceBytes != null) {
+            protein.setSequenceString(new String(sequenceBytes, ISO_8859_1));
+        }
+        return protein;
+    }
+
+    private static ByteBuffer encodeString(String value) {
+        byte[] bytes = value.getBytes(UTF_8);
+        ByteBuffer buffer = ByteBuffer.allocate(2 + bytes.length);
+        buffer.putShort((short) bytes.length).put(bytes).flip();
+        return buffer;
+    }
+
+    private static String decodeString(ByteBuffer buffer) throws CorruptRecordException {
+        if (buffer.remaining() < 2) {
+            throw new CorruptRecordException("Missing string length");
+        }
+        return new String(getBytes(buffer, buffer.getShort() & 0xFFFF), UTF_8);
+    }
+
+    private static void putBytes(ByteBuffer buffer, byte[] bytes) {
+        if (bytes == null) {
+            buffer.putInt(-1);
+        } else {
+            buffer.putInt(bytes.length).put(bytes);
+        }
+    }
+
+    private static byte[] getBytes(ByteBuffer buffer) throws CorruptRecordException {
+        if (buffer.remaining() < 4) {
+            throw new CorruptRecordException("Missing byte array length");
+        }
+        int length = buffer.getInt();
+        return length == -1 ? null : getBytes(buffer, length);
+    }
+
+    private static byte[] getBytes(ByteBuffer buffer, int length) throws CorruptRecordException {
+        if (length < 0 || length > buffer.remaining()) {
+            throw new CorruptRecordException("Invalid length " + length + ", " + buffer.remaining() + " bytes left");
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return bytes;
+    }
+
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                throw new EOFException("Unexpected end of " + file);
+            }
+            position += read;
+        }
+    }
+
+    private void writeFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+
+    private void disable(String msg, Exception e) {
+        if (e == null) {
+            logger.warn(msg);
+        } else {
+            logger.warn(msg, e);
+        }
+        disabled = true;
+        closeFile();
+    }
+
+    private void closeFile() {
+        try {
+            if (lock != null) {
+                lock.release();
+            }
+            if (randomAccessFile != null) {
+                randomAccessFile.close();
+            }
+        } catch (IOException e) {
+            logger.warn("Failed to close protein detail store " + file, e);
+        }
+        lock = null;
+        channel = null;
+        randomAccessFile = null;
+    }
+
+    /**
+     * A record which cannot be decoded
+     */
+    private static class CorruptRecordException extends IOException {
+        private CorruptRecordException(String message) {
+            super(message);
+        }
+    }
+}
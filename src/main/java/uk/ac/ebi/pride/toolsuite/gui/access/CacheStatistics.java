@@ -0,0 +1,59 @@
+package uk.ac.ebi.pride.toolsuite.gui.access;
+
+/**
+ * A snapshot of the usage of a cache.
+ *
+ * @author Rui Wang
+ * @version $Id$
+ */
+public class CacheStatistics {
+
+    private final String name;
+    private final long numOfEntries;
+    private final long estimatedBytes;
+    private final long hitCount;
+    private final long missCount;
+
+    public CacheStatistics(String name, long numOfEntries, long estimatedBytes, long hitCount, long missCount) {
+        this.name = name;
+        this.numOfEntries = numOfEntries;
+        this.estimatedBytes = estimatedBytes;
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getNumOfEntries() {
+        return numOfEntries;
+    }
+
+    /**
+     * Get the estimated memory used by the entries, this is a rough estimate of the retained size
+     *
+     * @return long    number of bytes
+     */
+    public long getEstimatedBytes() {
+        return estimatedBytes;
+    }
+
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    public long getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * Get the proportion of lookups which found an entry
+     *
+     * @return double  hit ratio between 0 and 1, NaN if there has been no lookup
+     */
+    public double getHitRatio() {
+        long numOfLookups = hitCount + missCount;
+        return numOfLookups == 0 ? Double.NaN : (double) hitCount / numOfLookups;
+    }
+}
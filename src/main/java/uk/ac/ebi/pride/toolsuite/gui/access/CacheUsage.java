@@ -0,0 +1,24 @@
+package uk.ac.ebi.pride.toolsuite.gui.access;
+
+/**
+ * CacheUsage is implemented by the per controller caches, so that their usage
+ * can be summed up by {@link ControllerCacheRegistry}.
+ *
+ * @author Rui Wang
+ * @version $Id$
+ */
+public interface CacheUsage {
+
+    int getNumOfEntries();
+
+    /**
+     * Get the estimated memory used by the entries
+     *
+     * @return long    number of bytes
+     */
+    long getEstimatedBytes();
+
+    long getHitCount();
+
+    long getMissCount();
+}
@@ -0,0 +1,24 @@
+package uk.ac.ebi.pride.toolsuite.gui.access;
+
+import uk.ac.ebi.pride.utilities.data.controller.DataAccessController;
+
+/**
+ * ControllerCache is a cache holding data of data access controllers,
+ * the data of a controller must be evicted when the controller is closed.
+ *
+ * @author Rui Wang
+ * @version $Id$
+ */
+public interface ControllerCache {
+
+    String getName();
+
+    /**
+     * Remove all the data of a data access controller
+     *
+     * @param controller data access controller
+     */
+    void evict(DataAccessController controller);
+
+    CacheStatistics getStatistics();
+}
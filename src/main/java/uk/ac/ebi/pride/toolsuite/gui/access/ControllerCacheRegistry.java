@@ -0,0 +1,117 @@
+package uk.ac.ebi.pride.toolsuite.gui.access;
+
+import net.jcip.annotations.ThreadSafe;
+import uk.ac.ebi.pride.utilities.data.controller.DataAccessController;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * ControllerCacheRegistry keeps one instance of a per controller cache for each data access controller,
+ * mapped by controller uid.
+ * <p/>
+ * Instances are created lazily on first access and released by {@link #evict(DataAccessController)},
+ * which is called by {@link DataAccessMonitor} when a controller is closed.
+ * A controller stays evicted: tasks still running for a closed controller get a new instance
+ * which is not registered, so it is released with the task.
+ *
+ * @author Rui Wang
+ * @version $Id$
+ */
+@ThreadSafe
+public abstract class ControllerCacheRegistry<T extends CacheUsage> implements ControllerCache {
+
+    private final String name;
+
+    /**
+     * instances mapped by data access controller uid
+     */
+    private final ConcurrentMap<String, T> instances;
+
+    /**
+     * uids of the evicted data access controllers
+     */
+    private final Set<String> evictedUids;
+
+    protected ControllerCacheRegistry(String name) {
+        this.name = name;
+        this.instances = new ConcurrentHashMap<String, T>();
+        this.evictedUids = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+    }
+
+    /**
+     * Create a new instance for a data access controller
+     *
+     * @param controller data access controller
+     * @return T   new instance
+     */
+    protected abstract T create(DataAccessController controller);
+
+    /**
+     * Get the instance of a data access controller, a new instance is created if none exists.
+     * The instance of an evicted controller is not registered.
+     *
+     * @param controller data access controller
+     * @return T   instance of the controller
+     */
+    public T get(DataAccessController controller) {
+        String uid = controller.getUid();
+        T instance = instances.get(uid);
+        if (instance == null) {
+            T newInstance = create(controller);
+            if (evictedUids.contains(uid)) {
+                return newInstance;
+            }
+
+            instance = instances.putIfAbsent(uid, newInstance);
+            if (instance == null) {
+                instance = newInstance;
+                // evicted in the meantime
+                if (evictedUids.contains(uid)) {
+                    instances.remove(uid, newInstance);
+                }
+            }
+        }
+        return instance;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public void evict(DataAccessController controller) {
+        String uid = controller.getUid();
+        evictedUids.add(uid);
+        instances.remove(uid);
+    }
+
+    public int getNumOfControllers() {
+        return instances.size();
+    }
+
+    /**
+     * Sum up the usage of the instances of all the controllers
+     *
+     * @return CacheStatistics cache statistics
+     */
+    @Override
+    public CacheStatistics getStatistics() {
+        long numOfEntries = 0;
+        long estimatedBytes = 0;
+        long hitCount = 0;
+        long missCount = 0;
+
+        for (T instance : instances.values()) {
+            numOfEntries += instance.getNumOfEntries();
+            estimatedBytes += instance.getEstimatedBytes();
+            hitCount += instance.getHitCount();
+            missCount += instance.getMissCount();
+        }
+
+        return new CacheStatistics(name, numOfEntries, estimatedBytes, hitCount, missCount);
+    }
+}
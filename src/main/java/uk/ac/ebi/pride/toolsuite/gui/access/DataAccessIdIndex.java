@@ -0,0 +1,270 @@
+package uk.ac.ebi.pride.toolsuite.gui.access;
+
+import net.jcip.annotations.GuardedBy;
+import net.jcip.annotations.ThreadSafe;
+import uk.ac.ebi.pride.utilities.data.controller.DataAccessController;
+import uk.ac.ebi.pride.utilities.data.controller.DataAccessException;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * DataAccessIdIndex keeps an int-indexed snapshot of the protein, peptide, spectrum
+ * and chromatogram ids of a data access controller.
+ * <p/>
+ * The id collections returned by a data access controller are not indexed, fetching the
+ * i-th element means walking the collection. Table paging goes through this index instead,
+ * so that fetching any page of a table costs the same.
+ * <p/>
+ * Each snapshot is created lazily on first access, one index is kept per controller uid
+ * in a {@link ControllerCacheRegistry}, and it is released when the controller is closed.
+ *
+ * @author rwang
+ * @version $Id$
+ */
+@ThreadSafe
+public class DataAccessIdIndex implements CacheUsage {
+
+    /**
+     * indexes mapped by data access controller uid
+     */
+    private static final ControllerCacheRegistry<DataAccessIdIndex> indexes = new ControllerCacheRegistry<DataAccessIdIndex>("Id index") {
+        @Override
+        protected DataAccessIdIndex create(DataAccessController controller) {
+            return new DataAccessIdIndex(controller);
+        }
+    };
+
+    private final DataAccessController controller;
+
+    @GuardedBy("this")
+    private Comparable[] proteinIds;
+
+    @GuardedBy("this")
+    private Map<Comparable, Integer> proteinIndexes;
+
+    @GuardedBy("this")
+    private Comparable[][] peptideIds;
+
+    @GuardedBy("this")
+    private Comparable[] spectrumIds;
+
+    @GuardedBy("this")
+    private Comparable[] chromatogramIds;
+
+    /**
+     * number of id lookups served by the snapshots
+     */
+    private final AtomicLong hitCount = new AtomicLong();
+
+    /**
+     * number of id lookups which had to read the controller
+     */
+    private final AtomicLong missCount = new AtomicLong();
+
+    private DataAccessIdIndex(DataAccessController controller) {
+        this.controller = controller;
+    }
+
+    /**
+     * Get the id index of a data access controller, a new index is created if none exists,
+     * it is not kept once the controller has been closed
+     *
+     * @param controller data access controller
+     * @return DataAccessIdIndex   id index
+     */
+    public static DataAccessIdIndex getIndex(DataAccessController controller) {
+        return indexes.get(controller);
+    }
+
+    /**
+     * Get the registry of all the id indexes
+     *
+     * @return ControllerCache registry of id indexes
+     */
+    public static ControllerCache getControllerCache() {
+        return indexes;
+    }
+
+    public int getNumberOfProteins() throws DataAccessException {
+        return getProteinIds().length;
+    }
+
+    /**
+     * Get protein identification id at a given index
+     *
+     * @param index index of the protein identification
+     * @return Comparable  protein identification id
+     * @throws DataAccessException data access exception
+     */
+    public Comparable getProteinId(int index) throws DataAccessException {
+        return getProteinIds()[index];
+    }
+
+    /**
+     * Get the index of a protein identification id
+     *
+     * @param proteinId protein identification id
+     * @return int index of the protein identification, -1 if not found
+     * @throws DataAccessException data access exception
+     */
+    public synchronized int indexOfProtein(Comparable proteinId) throws DataAccessException {
+        if (proteinIndexes == null) {
+            Comparable[] ids = getProteinIds();
+            Map<Comparable, Integer> map = new HashMap<Comparable, Integer>(ids.length * 2);
+            for (int i = 0; i < ids.length; i++) {
+                map.put(ids[i], i);
+            }
+            proteinIndexes = map;
+        }
+        Integer index = proteinIndexes.get(proteinId);
+        return index == null ? -1 : index;
+    }
+
+    /**
+     * Get the peptide ids of the protein identification at the given index
+     *
+     * @param proteinIndex index of the protein identification
+     * @return Comparable[]    peptide ids, empty if there is none
+     * @throws DataAccessException data access exception
+     */
+    public Comparable[] getPeptideIds(int proteinIndex) throws DataAccessException {
+        Comparable[] proteins = getProteinIds();
+
+        Comparable[] ids;
+        synchronized (this) {
+            if (peptideIds == null) {
+                peptideIds = new Comparable[proteins.length][];
+            }
+            ids = peptideIds[proteinIndex];
+        }
+
+        // read from the controller outside the lock, so that concurrent readers do not queue up
+        if (ids != null) {
+            hitCount.incrementAndGet();
+        } else {
+            missCount.incrementAndGet();
+            ids = toArray(controller.getPeptideIds(proteins[proteinIndex]));
+            synchronized (this) {
+                peptideIds[proteinIndex] = ids;
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Get the index of a peptide within the peptides of a protein identification
+     *
+     * @param proteinIndex index of the protein identification
+     * @param peptideId    peptide id
+     * @return int index of the peptide, -1 if not found
+     * @throws DataAccessException data access exception
+     */
+    public int indexOfPeptide(int proteinIndex, Comparable peptideId) throws DataAccessException {
+        Comparable[] ids = getPeptideIds(proteinIndex);
+        for (int i = 0; i < ids.length; i++) {
+            if (ids[i].equals(peptideId)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public int getNumberOfSpectra() throws DataAccessException {
+        return getSpectrumIds().length;
+    }
+
+    public Comparable getSpectrumId(int index) throws DataAccessException {
+        return getSpectrumIds()[index];
+    }
+
+    public int getNumberOfChromatograms() throws DataAccessException {
+        return getChromatogramIds().length;
+    }
+
+    public Comparable getChromatogramId(int index) throws DataAccessException {
+        return getChromatogramIds()[index];
+    }
+
+    private synchronized Comparable[] getProteinIds() throws DataAccessException {
+        if (proteinIds == null) {
+            missCount.incrementAndGet();
+            proteinIds = toArray(controller.getProteinIds());
+        } else {
+            hitCount.incrementAndGet();
+        }
+        return proteinIds;
+    }
+
+    private synchronized Comparable[] getSpectrumIds() throws DataAccessException {
+        if (spectrumIds == null) {
+            missCount.incrementAndGet();
+            spectrumIds = toArray(controller.getSpectrumIds());
+        } else {
+            hitCount.incrementAndGet();
+        }
+        return spectrumIds;
+    }
+
+    private synchronized Comparable[] getChromatogramIds() throws DataAccessException {
+        if (chromatogramIds == null) {
+            missCount.incrementAndGet();
+            chromatogramIds = toArray(controller.getChromatogramIds());
+        } else {
+            hitCount.incrementAndGet();
+        }
+        return chromatogramIds;
+    }
+
+    /**
+     * Get the number of ids in the snapshots
+     *
+     * @return int number of ids
+     */
+    @Override
+    public synchronized int getNumOfEntries() {
+        int numOfEntries = length(proteinIds) + length(spectrumIds) + length(chromatogramIds);
+        if (peptideIds != null) {
+            for (Comparable[] ids : peptideIds) {
+                numOfEntries += length(ids);
+            }
+        }
+        return numOfEntries;
+    }
+
+    @Override
+    public synchronized long getEstimatedBytes() {
+        long size = MemoryEstimator.sizeOf(proteinIds) + MemoryEstimator.sizeOf(spectrumIds) + MemoryEstimator.sizeOf(chromatogramIds);
+        if (peptideIds != null) {
+            size += MemoryEstimator.sizeOfArray(peptideIds.length, MemoryEstimator.REFERENCE);
+            for (Comparable[] ids : peptideIds) {
+                size += MemoryEstimator.sizeOf(ids);
+            }
+        }
+        if (proteinIndexes != null) {
+            // the keys are shared with the protein id snapshot
+            size += (long) proteinIndexes.size() * (MemoryEstimator.HASH_ENTRY + MemoryEstimator.OBJECT_HEADER + MemoryEstimator.REFERENCE);
+        }
+        return size;
+    }
+
+    @Override
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    @Override
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    private static int length(Object[] values) {
+        return values == null ? 0 : values.length;
+    }
+
+    private static Comparable[] toArray(Collection<Comparable> ids) {
+        return ids == null ? new Comparable[0] : ids.toArray(new Comparable[ids.size()]);
+    }
+}
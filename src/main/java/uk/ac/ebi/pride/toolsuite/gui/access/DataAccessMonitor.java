@@ -3,6 +3,7 @@ package uk.ac.ebi.pride.toolsuite.gui.access;
 import net.jcip.annotations.GuardedBy;
 import net.jcip.annotations.ThreadSafe;
 import org.bushe.swing.event.EventBus;
+import uk.ac.ebi.pride.toolsuite.gui.PrideInspectorCacheManager;
 import uk.ac.ebi.pride.toolsuite.gui.event.AddDataSourceEvent;
 import uk.ac.ebi.pride.toolsuite.gui.event.ForegroundDataSourceEvent;
 import uk.ac.ebi.pride.toolsuite.gui.event.ProcessingDataSourceEvent;
@@ -114,6 +115,7 @@ public class DataAccessMonitor extends PropertyChangeHelper {
                     setForegroundDataAccessController(nextIndex >= 0 ? controllers.get(nextIndex) : null, message);
                 }
                 controller.close();
+                evict(controller);
                 newControllers = new ArrayList<DataAccessController>(controllers);
 
                 EventBus.publish(new RemoveDataSourceEvent<DataAccessController>(this, oldControllers, newControllers));
@@ -140,6 +142,7 @@ public class DataAccessMonitor extends PropertyChangeHelper {
                     setForegroundDataAccessController(replacement, welcomeMessage);
                 }
                 original.close();
+                evict(original);
                 newControllers = new ArrayList<DataAccessController>(controllers);
                 // notify others
                 EventBus.publish(new AddDataSourceEvent<DataAccessController>(this, oldControllers, newControllers));
@@ -201,10 +204,24 @@ public class DataAccessMonitor extends PropertyChangeHelper {
         synchronized (controllersLock) {
             for (DataAccessController controller : controllers) {
                 controller.close();
+                evict(controller);
             }
         }
     }
 
+    /**
+     * Release everything kept for a closed data access controller
+     *
+     * @param controller data access controller
+     */
+    private void evict(DataAccessController controller) {
+        PrideInspectorCacheManager.getInstance().evict(controller);
+
+        synchronized (dataAccessControllerStatusLock) {
+            dataAccessControllerStatus.remove(controller);
+        }
+    }
+
     private List<DataAccessController> copyControllerList() {
         synchronized (controllersLock) {
             if (controllers.isEmpty()) {
@@ -232,6 +249,10 @@ public class DataAccessMonitor extends PropertyChangeHelper {
     public void removeStatusController(DataAccessController controller, ProcessingDataSourceEvent.Status status) {
         synchronized (dataAccessControllerStatusLock) {
             List<ProcessingDataSourceEvent.Status> statuses = dataAccessControllerStatus.get(controller);
+            if (statuses == null) {
+                // controller already closed
+                return;
+            }
             statuses.remove(status);
             if (statuses.contains(ProcessingDataSourceEvent.Status.INIT_LOADING))
                 statuses.remove(ProcessingDataSourceEvent.Status.INIT_LOADING);
@@ -0,0 +1,57 @@
+package uk.ac.ebi.pride.toolsuite.gui.access;
+
+/**
+ * Rough estimates of the retained size of the objects kept in the per controller caches,
+ * assuming a 64 bit JVM without compressed references.
+ *
+ * @author Rui Wang
+ * @version $Id$
+ */
+public final class MemoryEstimator {
+
+    public static final int OBJECT_HEADER = 16;
+
+    public static final int REFERENCE = 8;
+
+    /**
+     * size of an entry of a hash map, excluding key and value
+     */
+    public static final int HASH_ENTRY = 48;
+
+    private MemoryEstimator() {
+    }
+
+    public static long sizeOfArray(int length, int elementSize) {
+        return OBJECT_HEADER + (long) length * elementSize;
+    }
+
+    /**
+     * Estimate the size of an id, a string or a number in most data files
+     *
+     * @param value id
+     * @return long    number of bytes
+     */
+    public static long sizeOf(Object value) {
+        if (value == null) {
+            return 0;
+        } else if (value instanceof String) {
+            return OBJECT_HEADER + REFERENCE + sizeOfArray(((String) value).length(), 2);
+        } else if (value instanceof Long || value instanceof Double) {
+            return OBJECT_HEADER + 8;
+        } else {
+            return OBJECT_HEADER + REFERENCE;
+        }
+    }
+
+    public static long sizeOf(Object[] values) {
+        if (values == null) {
+            return 0;
+        }
+
+        long size = sizeOfArray(values.length, REFERENCE);
+        for (Object value : values) {
+            size += sizeOf(value);
+        }
+        return size;
+    }
+}
@@ -0,0 +1,267 @@
+package uk.ac.ebi.pride.toolsuite.gui.access;
+
+import net.jcip.annotations.GuardedBy;
+import net.jcip.annotations.ThreadSafe;
+import uk.ac.ebi.pride.utilities.data.controller.DataAccessController;
+import uk.ac.ebi.pride.utilities.data.core.BinaryDataArray;
+import uk.ac.ebi.pride.utilities.data.core.Chromatogram;
+import uk.ac.ebi.pride.utilities.data.core.Spectrum;
+import uk.ac.ebi.pride.utilities.util.Tuple;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+/**
+ * NeighbourPrefetchCache keeps the spectra and chromatograms of the table rows next to the selected row,
+ * they are read in the background so that stepping through a table does not wait for the data source.
+ * <p/>
+ * The cache is bounded by the estimated size of the entries, which is dominated by their peak arrays,
+ * the least recently used entries are removed first. An entry larger than the whole budget is not kept.
+ * One cache is kept per controller uid in a {@link ControllerCacheRegistry}.
+ *
+ * @author Rui Wang
+ * @version $Id$
+ */
+@ThreadSafe
+public class NeighbourPrefetchCache implements CacheUsage {
+
+    /**
+     * maximum estimated bytes of the entries of a controller
+     */
+    public static final long DEFAULT_MAX_BYTES = 16L * 1024 * 1024;
+
+    /**
+     * estimated bytes of an entry without its arrays: the hash entry, the key and the value
+     */
+    static final long ENTRY_OVERHEAD = MemoryEstimator.HASH_ENTRY + 3 * MemoryEstimator.OBJECT_HEADER;
+
+    static final String SPECTRUM = "spectrum";
+
+    static final String PSM = "psm";
+
+    static final String CHROMATOGRAM = "chromatogram";
+
+    /**
+     * caches mapped by data access controller uid
+     */
+    private static final ControllerCacheRegistry<NeighbourPrefetchCache> caches = new ControllerCacheRegistry<NeighbourPrefetchCache>("Prefetched spectra") {
+        @Override
+        protected NeighbourPrefetchCache create(DataAccessController controller) {
+            return new NeighbourPrefetchCache(DEFAULT_MAX_BYTES);
+        }
+    };
+
+    private final long maxBytes;
+
+    /**
+     * entries in access order, mapped by entry type and id, the eldest entry is the least recently used
+     */
+    @GuardedBy("this")
+    private final LinkedHashMap<Tuple<String, Object>, Entry> entries;
+
+    /**
+     * estimated bytes of all the entries
+     */
+    @GuardedBy("this")
+    private long estimatedBytes;
+
+    @GuardedBy("this")
+    private long hitCount;
+
+    @GuardedBy("this")
+    private long missCount;
+
+    NeighbourPrefetchCache(long maxBytes) {
+        this.maxBytes = maxBytes;
+        this.entries = new LinkedHashMap<Tuple<String, Object>, Entry>(16, 0.75f, true);
+    }
+
+    /**
+     * Get the cache of a data access controller, a new cache is created if none exists
+     *
+     * @param controller data access controller
+     * @return NeighbourPrefetchCache  prefetch cache
+     */
+    public static NeighbourPrefetchCache getInstance(DataAccessController controller) {
+        return caches.get(controller);
+    }
+
+    /**
+     * Get the registry of all the prefetch caches
+     *
+     * @return ControllerCache registry of prefetch caches
+     */
+    public static ControllerCache getControllerCache() {
+        return caches;
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    /**
+     * Get a spectrum selected by spectrum id
+     *
+     * @param spectrumId spectrum id
+     * @return Spectrum    spectrum, null if it has not been prefetched
+     */
+    public Spectrum getSpectrum(Comparable spectrumId) {
+        return (Spectrum) get(createKey(SPECTRUM, spectrumId));
+    }
+
+    public boolean containsSpectrum(Comparable spectrumId) {
+        return contains(createKey(SPECTRUM, spectrumId));
+    }
+
+    public void putSpectrum(Comparable spectrumId, Spectrum spectrum) {
+        put(createKey(SPECTRUM, spectrumId), spectrum, sizeOf(spectrum));
+    }
+
+    /**
+     * Get the spectrum of a PSM, with the peptide of the PSM assigned
+     *
+     * @param identId   protein identification id
+     * @param peptideId peptide id
+     * @return Spectrum    spectrum, null if it has not been prefetched
+     */
+    public Spectrum getPsmSpectrum(Comparable identId, Comparable peptideId) {
+        return (Spectrum) get(createPsmKey(identId, peptideId));
+    }
+
+    public boolean containsPsmSpectrum(Comparable identId, Comparable peptideId) {
+        return contains(createPsmKey(identId, peptideId));
+    }
+
+    public void putPsmSpectrum(Comparable identId, Comparable peptideId, Spectrum spectrum) {
+        put(createPsmKey(identId, peptideId), spectrum, sizeOf(spectrum));
+    }
+
+    /**
+     * Get a chromatogram
+     *
+     * @param chromatogramId chromatogram id
+     * @return Chromatogram    chromatogram, null if it has not been prefetched
+     */
+    public Chromatogram getChromatogram(Comparable chromatogramId) {
+        return (Chromatogram) get(createKey(CHROMATOGRAM, chromatogramId));
+    }
+
+    public boolean containsChromatogram(Comparable chromatogramId) {
+        return contains(createKey(CHROMATOGRAM, chromatogramId));
+    }
+
+    public void putChromatogram(Comparable chromatogramId, Chromatogram chromatogram) {
+        put(createKey(CHROMATOGRAM, chromatogramId), chromatogram, sizeOf(chromatogram));
+    }
+
+    /**
+     * The spectrum of a PSM has the peptide of the PSM assigned, it is kept apart from the spectrum read by id
+     */
+    static Tuple<String, Object> createPsmKey(Comparable identId, Comparable peptideId) {
+        return createKey(PSM, new Tuple<Comparable, Comparable>(identId, peptideId));
+    }
+
+    static Tuple<String, Object> createKey(String type, Object id) {
+        return new Tuple<String, Object>(type, id);
+    }
+
+    synchronized Object get(Tuple<String, Object> key) {
+        Entry entry = entries.get(key);
+        if (entry != null) {
+            hitCount++;
+            return entry.value;
+        }
+
+        missCount++;
+        return null;
+    }
+
+    /**
+     * Check for an entry without counting a lookup or changing the access order
+     */
+    private synchronized boolean contains(Tuple<String, Object> key) {
+        return entries.containsKey(key);
+    }
+
+    /**
+     * Add an entry, the least recently used entries are removed until the entries fit in the budget
+     *
+     * @param key        entry type and id
+     * @param value      entry, null is ignored
+     * @param numOfBytes estimated bytes of the entry
+     */
+    synchronized void put(Tuple<String, Object> key, Object value, long numOfBytes) {
+        if (value == null) {
+            return;
+        }
+
+        Entry previous = entries.remove(key);
+        if (previous != null) {
+            estimatedBytes -= previous.numOfBytes;
+        }
+
+        if (numOfBytes > maxBytes) {
+            return;
+        }
+
+        Iterator<Entry> eldest = entries.values().iterator();
+        while (estimatedBytes + numOfBytes > maxBytes && eldest.hasNext()) {
+            estimatedBytes -= eldest.next().numOfBytes;
+            eldest.remove();
+        }
+
+        entries.put(key, new Entry(value, numOfBytes));
+        estimatedBytes += numOfBytes;
+    }
+
+    @Override
+    public synchronized long getHitCount() {
+        return hitCount;
+    }
+
+    @Override
+    public synchronized long getMissCount() {
+        return missCount;
+    }
+
+    @Override
+    public synchronized int getNumOfEntries() {
+        return entries.size();
+    }
+
+    @Override
+    public synchronized long getEstimatedBytes() {
+        return estimatedBytes;
+    }
+
+    /**
+     * Estimate the bytes of a spectrum from its arrays and a hash entry, other details are not counted
+     */
+    private static long sizeOf(Spectrum spectrum) {
+        return spectrum == null ? 0 : ENTRY_OVERHEAD
+                + sizeOf(spectrum.getMzBinaryDataArray()) + sizeOf(spectrum.getIntensityBinaryDataArray());
+    }
+
+    private static long sizeOf(Chromatogram chromatogram) {
+        return chromatogram == null ? 0 : ENTRY_OVERHEAD
+                + sizeOf(chromatogram.getTimeArray()) + sizeOf(chromatogram.getIntensityArray());
+    }
+
+    private static long sizeOf(BinaryDataArray binaryDataArray) {
+        double[] values = binaryDataArray == null ? null : binaryDataArray.getDoubleArray();
+        return values == null ? 0 : MemoryEstimator.sizeOfArray(values.length, 8);
+    }
+
+    /**
+     * A prefetched spectrum or chromatogram with its estimated bytes
+     */
+    private static class Entry {
+        private final Object value;
+        private final long numOfBytes;
+
+        private Entry(Object value, long numOfBytes) {
+            this.value = value;
+            this.numOfBytes = numOfBytes;
+        }
+    }
+}
@@ -0,0 +1,238 @@
+package uk.ac.ebi.pride.toolsuite.gui.access;
+
+import net.jcip.annotations.GuardedBy;
+import net.jcip.annotations.ThreadSafe;
+import uk.ac.ebi.pride.utilities.data.controller.DataAccessController;
+import uk.ac.ebi.pride.utilities.data.controller.DataAccessException;
+
+import java.util.Arrays;
+
+/**
+ * ProteinCoverageStore keeps the sequence coverage of each protein identification
+ * and the fit state of each peptide of a data access controller.
+ * <p/>
+ * Values are stored in primitive arrays addressed by the dense protein and peptide indexes
+ * of {@link DataAccessIdIndex}: one float per protein and one byte per peptide.
+ * <p/>
+ * One store is kept per controller uid in a {@link ControllerCacheRegistry},
+ * it is released when the controller is closed.
+ *
+ * @author Rui Wang
+ * @version $Id$
+ */
+@ThreadSafe
+public class ProteinCoverageStore implements CacheUsage {
+
+    /**
+     * marks a peptide without fit state
+     */
+    private static final byte NO_FIT_STATE = Byte.MIN_VALUE;
+
+    /**
+     * stores mapped by data access controller uid
+     */
+    private static final ControllerCacheRegistry<ProteinCoverageStore> stores = new ControllerCacheRegistry<ProteinCoverageStore>("Protein coverage") {
+        @Override
+        protected ProteinCoverageStore create(DataAccessController controller) {
+            return new ProteinCoverageStore(controller);
+        }
+    };
+
+    private final DataAccessIdIndex idIndex;
+
+    /**
+     * sequence coverage by protein index, NaN if unknown
+     */
+    @GuardedBy("this")
+    private float[] sequenceCoverages;
+
+    /**
+     * peptide fit states by protein index then peptide index
+     */
+    @GuardedBy("this")
+    private byte[][] peptideFitStates;
+
+    @GuardedBy("this")
+    private int numOfSequenceCoverages;
+
+    @GuardedBy("this")
+    private int numOfPeptideFitStates;
+
+    @GuardedBy("this")
+    private long hitCount;
+
+    @GuardedBy("this")
+    private long missCount;
+
+    private ProteinCoverageStore(DataAccessController controller) {
+        this.idIndex = DataAccessIdIndex.getIndex(controller);
+    }
+
+    /**
+     * Get the store of a data access controller, a new store is created if none exists
+     *
+     * @param controller data access controller
+     * @return ProteinCoverageStore    protein coverage store
+     */
+    public static ProteinCoverageStore getInstance(DataAccessController controller) {
+        return stores.get(controller);
+    }
+
+    /**
+     * Get the registry of all the protein coverage stores
+     *
+     * @return ControllerCache registry of protein coverage stores
+     */
+    public static ControllerCache getControllerCache() {
+        return stores;
+    }
+
+    /**
+     * Get protein sequence coverage
+     *
+     * @param proteinId protein identification id
+     * @return Double  sequence coverage, null if unknown
+     * @throws DataAccessException data access exception
+     */
+    public Double getSequenceCoverage(Comparable proteinId) throws DataAccessException {
+        int proteinIndex = idIndex.indexOfProtein(proteinId);
+        return proteinIndex < 0 ? null : getSequenceCoverage(proteinIndex);
+    }
+
+    public synchronized Double getSequenceCoverage(int proteinIndex) {
+        if (sequenceCoverages == null || Float.isNaN(sequenceCoverages[proteinIndex])) {
+            missCount++;
+            return null;
+        }
+        hitCount++;
+        return (double) sequenceCoverages[proteinIndex];
+    }
+
+    /**
+     * Add protein sequence coverage
+     *
+     * @param proteinId protein identification id
+     * @param coverage  sequence coverage
+     * @throws DataAccessException data access exception
+     */
+    public void addSequenceCoverage(Comparable proteinId, double coverage) throws DataAccessException {
+        int proteinIndex = idIndex.indexOfProtein(proteinId);
+        if (proteinIndex >= 0) {
+            addSequenceCoverage(proteinIndex, coverage);
+        }
+    }
+
+    public void addSequenceCoverage(int proteinIndex, double coverage) throws DataAccessException {
+        int numOfProteins = idIndex.getNumberOfProteins();
+        synchronized (this) {
+            if (sequenceCoverages == null) {
+                sequenceCoverages = new float[numOfProteins];
+                Arrays.fill(sequenceCoverages, Float.NaN);
+            }
+            if (Float.isNaN(sequenceCoverages[proteinIndex])) {
+                numOfSequenceCoverages++;
+            }
+            sequenceCoverages[proteinIndex] = (float) coverage;
+        }
+    }
+
+    /**
+     * Get the state on whether the peptide fit protein sequence
+     *
+     * @param proteinId protein identification id
+     * @param peptideId peptide id
+     * @return Integer peptide fit state, null if unknown
+     * @throws DataAccessException data access exception
+     */
+    public Integer getPeptideFitState(Comparable proteinId, Comparable peptideId) throws DataAccessException {
+        int proteinIndex = idIndex.indexOfProtein(proteinId);
+        int peptideIndex = proteinIndex < 0 ? -1 : idIndex.indexOfPeptide(proteinIndex, peptideId);
+        return peptideIndex < 0 ? null : getPeptideFitState(proteinIndex, peptideIndex);
+    }
+
+    public synchronized Integer getPeptideFitState(int proteinIndex, int peptideIndex) {
+        byte state = (peptideFitStates == null || peptideFitStates[proteinIndex] == null) ? NO_FIT_STATE : peptideFitStates[proteinIndex][peptideIndex];
+        if (state == NO_FIT_STATE) {
+            missCount++;
+            return null;
+        }
+        hitCount++;
+        return (int) state;
+    }
+
+    /**
+     * Add peptide fit state
+     *
+     * @param proteinId protein identification id
+     * @param peptideId peptide id
+     * @param state     peptide fit state
+     * @throws DataAccessException data access exception
+     */
+    public void addPeptideFitState(Comparable proteinId, Comparable peptideId, int state) throws DataAccessException {
+        int proteinIndex = idIndex.indexOfProtein(proteinId);
+        int peptideIndex = proteinIndex < 0 ? -1 : idIndex.indexOfPeptide(proteinIndex, peptideId);
+        if (peptideIndex >= 0) {
+            addPeptideFitState(proteinIndex, peptideIndex, state);
+        }
+    }
+
+    public void addPeptideFitState(int proteinIndex, int peptideIndex, int state) throws DataAccessException {
+        int numOfProteins = idIndex.getNumberOfProteins();
+        int numOfPeptides = idIndex.getPeptideIds(proteinIndex).length;
+        synchronized (this) {
+            if (peptideFitStates == null) {
+                peptideFitStates = new byte[numOfProteins][];
+            }
+            byte[] states = peptideFitStates[proteinIndex];
+            if (states == null) {
+                states = new byte[numOfPeptides];
+                Arrays.fill(states, NO_FIT_STATE);
+                peptideFitStates[proteinIndex] = states;
+            }
+            if (states[peptideIndex] == NO_FIT_STATE) {
+                numOfPeptideFitStates++;
+            }
+            states[peptideIndex] = (byte) state;
+        }
+    }
+
+    public synchronized int getNumOfSequenceCoverages() {
+        return numOfSequenceCoverages;
+    }
+
+    public synchronized int getNumOfPeptideFitStates() {
+        return numOfPeptideFitStates;
+    }
+
+    @Override
+    public synchronized int getNumOfEntries() {
+        return numOfSequenceCoverages + numOfPeptideFitStates;
+    }
+
+    @Override
+    public synchronized long getEstimatedBytes() {
+        long size = 0;
+        if (sequenceCoverages != null) {
+            size += MemoryEstimator.sizeOfArray(sequenceCoverages.length, 4);
+        }
+        if (peptideFitStates != null) {
+            size += MemoryEstimator.sizeOfArray(peptideFitStates.length, MemoryEstimator.REFERENCE);
+            for (byte[] states : peptideFitStates) {
+                if (states != null) {
+                    size += MemoryEstimator.sizeOfArray(states.length, 1);
+                }
+            }
+        }
+        return size;
+    }
+
+    @Override
+    public synchronized long getHitCount() {
+        return hitCount;
+    }
+
+    @Override
+    public synchronized long getMissCount() {
+        return missCount;
+    }
+}
@@ -0,0 +1,33 @@
+package uk.ac.ebi.pride.toolsuite.gui.access;
+
+import uk.ac.ebi.pride.tools.protein_details_fetcher.model.Protein;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Listener to the batches completed by {@link ProteinDetailService}.
+ * <p/>
+ * Notifications are sent from the download threads, listeners updating Swing components
+ * need to switch to the event dispatch thread.
+ *
+ * @author Rui Wang
+ * @version $Id$
+ */
+public interface ProteinDetailListener {
+
+    /**
+     * A batch of protein details has been downloaded
+     *
+     * @param proteins protein accession to protein details
+     */
+    void proteinDetailsFetched(Map<String, Protein> proteins);
+
+    /**
+     * A batch of protein details failed to download
+     *
+     * @param accessions protein accessions of the batch
+     * @param cause      cause of the failure
+     */
+    void proteinDetailsFailed(Collection<String> accessions, Throwable cause);
+}
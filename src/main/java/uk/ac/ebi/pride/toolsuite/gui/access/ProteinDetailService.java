@@ -0,0 +1,343 @@
+package uk.ac.ebi.pride.toolsuite.gui.access;
+
+import net.jcip.annotations.GuardedBy;
+import net.jcip.annotations.ThreadSafe;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import uk.ac.ebi.pride.tools.protein_details_fetcher.model.Protein;
+import uk.ac.ebi.pride.toolsuite.gui.PrideInspectorCacheManager;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * ProteinDetailService downloads protein details in batches.
+ * <p/>
+ * Requested accessions are split into batches which are downloaded concurrently,
+ * so a caller can work on the first batch while the next ones are on their way.
+ * <p/>
+ * An accession which is being downloaded is never requested twice: when several tasks ask for
+ * the same accessions at the same time, they share the batch already in flight.
+ * <p/>
+ * Each batch counts the callers waiting for it. A caller which stops waiting, because it is cancelled
+ * or has what it needs, releases its batches, and a batch no other caller waits for is cancelled,
+ * whether it is still queued or already downloading.
+ * <p/>
+ * Listeners are notified of every completed batch, the shared instance adds all the downloaded
+ * protein details to {@link PrideInspectorCacheManager} before the batch leaves the in flight list.
+ *
+ * @author Rui Wang
+ * @version $Id$
+ */
+@ThreadSafe
+public class ProteinDetailService {
+    private static final Logger logger = LoggerFactory.getLogger(ProteinDetailService.class);
+
+    /**
+     * The number of proteins for each batch download
+     */
+    public static final int DEFAULT_BATCH_SIZE = 10;
+
+    /**
+     * The number of batches downloaded at the same time
+     */
+    public static final int DEFAULT_NUMBER_OF_CONCURRENT_BATCHES = 4;
+
+    private static final ProteinDetailService instance = createInstance();
+
+    private final ProteinDetailSource source;
+
+    private final int batchSize;
+
+    private final ExecutorService executor;
+
+    /**
+     * accessions being downloaded to their batch
+     */
+    private final ConcurrentMap<String, ProteinDetailBatch> inFlightBatches;
+
+    private final List<ProteinDetailListener> listeners;
+
+    private final AtomicLong numOfBatches = new AtomicLong();
+
+    private final AtomicLong numOfSharedAccessions = new AtomicLong();
+
+    /**
+     * Constructor
+     *
+     * @param source                 protein detail source
+     * @param batchSize              number of proteins for each batch
+     * @param numOfConcurrentBatches number of batches downloaded at the same time
+     */
+    public ProteinDetailService(ProteinDetailSource source, int batchSize, int numOfConcurrentBatches) {
+        if (source == null || batchSize < 1 || numOfConcurrentBatches < 1) {
+            String msg = "Protein detail source cannot be null, batch size and number of concurrent batches must be positive";
+            logger.error(msg);
+            throw new IllegalArgumentException(msg);
+        }
+
+        this.source = source;
+        this.batchSize = batchSize;
+        this.inFlightBatches = new ConcurrentHashMap<String, ProteinDetailBatch>();
+        this.listeners = new CopyOnWriteArrayList<ProteinDetailListener>();
+        this.executor = Executors.newFixedThreadPool(numOfConcurrentBatches, new ProteinDetailThreadFactory());
+    }
+
+    private static ProteinDetailService createInstance() {
+        ProteinDetailService service = new ProteinDetailService(new WebServiceProteinDetailSource(),
+                DEFAULT_BATCH_SIZE, DEFAULT_NUMBER_OF_CONCURRENT_BATCHES);
+
+        // cache the results before they are removed from the in flight list
+        service.addProteinDetailListener(new ProteinDetailListener() {
+            @Override
+            public void proteinDetailsFetched(Map<String, Protein> proteins) {
+                PrideInspectorCacheManager.getInstance().addProteinDetails(proteins.values());
+            }
+
+            @Override
+            public void proteinDetailsFailed(Collection<String> accessions, Throwable cause) {
+                logger.warn("Failed to download protein details for " + accessions, cause);
+            }
+        });
+
+        return service;
+    }
+
+    /**
+     * Get the shared protein detail service using the protein details web services
+     *
+     * @return ProteinDetailService    protein detail service
+     */
+    public static ProteinDetailService getInstance() {
+        return instance;
+    }
+
+    /**
+     * Request the details of a collection of proteins.
+     * <p/>
+     * The call returns straight away, accessions already in flight join their existing batch,
+     * the others are split into new batches.
+     *
+     * @param accessions mapped protein accessions
+     * @return Map<String, Future<Map<String, Protein>>>   accession to the batch downloading it,
+     *         in the order of the accessions. The result of a batch may contain other accessions,
+     *         and accessions not found are missing
+     */
+    public Map<String, Future<Map<String, Protein>>> fetch(Collection<String> accessions) {
+        Map<String, Future<Map<String, Protein>>> batches = new LinkedHashMap<String, Future<Map<String, Protein>>>();
+        // the caller waits once for each batch, however many of its accessions the batch holds
+        Set<ProteinDetailBatch> joinedBatches = Collections.newSetFromMap(new IdentityHashMap<ProteinDetailBatch, Boolean>());
+
+        List<String> batchAccessions = new ArrayList<String>(batchSize);
+        for (String accession : accessions) {
+            if (accession == null || batches.containsKey(accession)) {
+                continue;
+            }
+
+            ProteinDetailBatch inFlightBatch = inFlightBatches.get(accession);
+            if (inFlightBatch != null && join(inFlightBatch, joinedBatches)) {
+                numOfSharedAccessions.incrementAndGet();
+                batches.put(accession, inFlightBatch);
+            } else if (!batchAccessions.contains(accession)) {
+                batchAccessions.add(accession);
+                if (batchAccessions.size() == batchSize) {
+                    submit(batchAccessions, batches, joinedBatches);
+                    batchAccessions = new ArrayList<String>(batchSize);
+                }
+            }
+        }
+
+        if (!batchAccessions.isEmpty()) {
+            submit(batchAccessions, batches, joinedBatches);
+        }
+
+        return batches;
+    }
+
+    /**
+     * Stop waiting for the batches returned by {@link #fetch(java.util.Collection)},
+     * the batches no other caller waits for are cancelled. Releasing finished batches has no effect.
+     *
+     * @param batches accession to the batch downloading it, as returned by fetch
+     */
+    public void release(Map<String, Future<Map<String, Protein>>> batches) {
+        Set<ProteinDetailBatch> releasedBatches = Collections.newSetFromMap(new IdentityHashMap<ProteinDetailBatch, Boolean>());
+        for (Future<Map<String, Protein>> batch : batches.values()) {
+            if (batch instanceof ProteinDetailBatch && releasedBatches.add((ProteinDetailBatch) batch)) {
+                ((ProteinDetailBatch) batch).removeWaiter();
+            }
+        }
+    }
+
+    /**
+     * Claim the accessions for a new batch and start it
+     */
+    private void submit(List<String> accessions, Map<String, Future<Map<String, Protein>>> batches,
+                        Set<ProteinDetailBatch> joinedBatches) {
+        List<String> claimedAccessions = new ArrayList<String>(accessions.size());
+        ProteinDetailBatch batch = new ProteinDetailBatch(claimedAccessions);
+
+        for (String accession : accessions) {
+            while (true) {
+                ProteinDetailBatch inFlightBatch = inFlightBatches.putIfAbsent(accession, batch);
+                if (inFlightBatch == null) {
+                    claimedAccessions.add(accession);
+                    batches.put(accession, batch);
+                    break;
+                } else if (join(inFlightBatch, joinedBatches)) {
+                    // claimed by another caller in the meantime
+                    numOfSharedAccessions.incrementAndGet();
+                    batches.put(accession, inFlightBatch);
+                    break;
+                }
+                // cancelled in the meantime, it is leaving the in flight list
+                inFlightBatches.remove(accession, inFlightBatch);
+            }
+        }
+
+        if (!claimedAccessions.isEmpty()) {
+            numOfBatches.incrementAndGet();
+            executor.execute(batch);
+        }
+    }
+
+    /**
+     * Wait for a batch in flight, unless it has been cancelled
+     *
+     * @return boolean true if the caller waits for the batch
+     */
+    private boolean join(ProteinDetailBatch batch, Set<ProteinDetailBatch> joinedBatches) {
+        return joinedBatches.contains(batch) || (batch.addWaiter() && joinedBatches.add(batch));
+    }
+
+    public void addProteinDetailListener(ProteinDetailListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeProteinDetailListener(ProteinDetailListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Get the number of accessions being downloaded
+     *
+     * @return int number of accessions
+     */
+    public int getNumOfInFlightAccessions() {
+        return inFlightBatches.size();
+    }
+
+    /**
+     * Get the number of batches started
+     *
+     * @return long    number of batches
+     */
+    public long getNumOfBatches() {
+        return numOfBatches.get();
+    }
+
+    /**
+     * Get the number of requested accessions which joined a batch already in flight
+     *
+     * @return long    number of shared accessions
+     */
+    public long getNumOfSharedAccessions() {
+        return numOfSharedAccessions.get();
+    }
+
+    /**
+     * One batch of protein accessions
+     */
+    private class ProteinDetailBatch extends FutureTask<Map<String, Protein>> {
+        private final List<String> accessions;
+
+        /**
+         * number of callers waiting for the batch, starting with the caller which created it
+         */
+        @GuardedBy("this")
+        private int numOfWaiters = 1;
+
+        private ProteinDetailBatch(final List<String> accessions) {
+            super(new Callable<Map<String, Protein>>() {
+                @Override
+                public Map<String, Protein> call() throws Exception {
+                    Map<String, Protein> proteins = source.getProteinDetails(accessions);
+                    return proteins == null ? new HashMap<String, Protein>() : proteins;
+                }
+            });
+            this.accessions = accessions;
+        }
+
+        private synchronized boolean addWaiter() {
+            if (isCancelled()) {
+                return false;
+            }
+            numOfWaiters++;
+            return true;
+        }
+
+        /**
+         * Cancel the batch when its last waiter leaves, under the lock so that no caller joins it meanwhile
+         */
+        private synchronized void removeWaiter() {
+            numOfWaiters--;
+            if (numOfWaiters == 0 && !isDone()) {
+                cancel(true);
+            }
+        }
+
+        @Override
+        protected void done() {
+            try {
+                if (!isCancelled()) {
+                    notifyListeners();
+                }
+            } finally {
+                for (String accession : accessions) {
+                    inFlightBatches.remove(accession, this);
+                }
+            }
+        }
+
+        private void notifyListeners() {
+            Map<String, Protein> proteins = null;
+            Throwable cause = null;
+            try {
+                proteins = Collections.unmodifiableMap(get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                cause = e;
+            } catch (ExecutionException e) {
+                cause = e.getCause();
+            }
+
+            for (ProteinDetailListener listener : listeners) {
+                try {
+                    if (proteins != null) {
+                        listener.proteinDetailsFetched(proteins);
+                    } else {
+                        listener.proteinDetailsFailed(Collections.unmodifiableList(accessions), cause);
+                    }
+                } catch (RuntimeException e) {
+                    logger.error("Protein detail listener failed", e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Daemon threads, so that pending downloads do not keep the application alive
+     */
+    private static class ProteinDetailThreadFactory implements ThreadFactory {
+        private final AtomicInteger threadCount = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "protein-detail-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package uk.ac.ebi.pride.toolsuite.gui.access;
+
+import uk.ac.ebi.pride.tools.protein_details_fetcher.model.Protein;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * ProteinDetailSource downloads the details of a batch of proteins, such as name, status and sequence.
+ * <p/>
+ * Implementations are called concurrently by {@link ProteinDetailService}, so they must be thread safe.
+ *
+ * @author Rui Wang
+ * @version $Id$
+ */
+public interface ProteinDetailSource {
+
+    /**
+     * Get the details of a batch of proteins
+     *
+     * @param accessions mapped protein accessions
+     * @return Map<String, Protein>    protein accession to protein details, accessions not found can be missing
+     * @throws Exception exception while downloading the protein details
+     */
+    Map<String, Protein> getProteinDetails(Collection<String> accessions) throws Exception;
+}
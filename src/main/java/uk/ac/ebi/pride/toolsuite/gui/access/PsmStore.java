@@ -0,0 +1,674 @@
+package uk.ac.ebi.pride.toolsuite.gui.access;
+
+import net.jcip.annotations.GuardedBy;
+import net.jcip.annotations.ThreadSafe;
+import uk.ac.ebi.pride.toolsuite.gui.utils.ProteinAccession;
+import uk.ac.ebi.pride.utilities.data.controller.DataAccessController;
+import uk.ac.ebi.pride.utilities.data.core.Modification;
+import uk.ac.ebi.pride.utilities.data.core.PeptideSequence;
+
+import java.util.*;
+
+/**
+ * PsmStore keeps the peptide spectrum matches (PSMs) shown by the peptide tables of a data access controller.
+ * <p/>
+ * Values are stored column by column in primitive arrays, split into chunks of fixed size,
+ * so that adding rows never copies the existing ones. Peptide sequences, protein accessions and
+ * identification ids are dictionary encoded: each distinct value is kept once and the rows hold its code.
+ * Missing values are {@link #NO_VALUE} in integer columns and NaN in decimal columns.
+ * <p/>
+ * Rows are registered by the dense protein and peptide indexes of {@link DataAccessIdIndex},
+ * so that a PSM retrieved by several tasks is stored once. A row which loses the race to register
+ * a PSM is cleared and handed out again by {@link #addRow()}. New rows are appended under the store lock,
+ * values are read without locking: a row reaches the other threads through the publication of the task
+ * which built it.
+ * <p/>
+ * One store is kept per controller uid in a {@link ControllerCacheRegistry},
+ * it is released when the controller is closed.
+ *
+ * @author Rui Wang
+ * @version $Id$
+ */
+@ThreadSafe
+public class PsmStore implements CacheUsage {
+
+    /**
+     * marks a missing value in an integer column
+     */
+    public static final int NO_VALUE = Integer.MIN_VALUE;
+
+    private static final int CHUNK_BITS = 12;
+
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    /**
+     * stores mapped by data access controller uid
+     */
+    private static final ControllerCacheRegistry<PsmStore> stores = new ControllerCacheRegistry<PsmStore>("PSM store") {
+        @Override
+        protected PsmStore create(DataAccessController controller) {
+            Collection<?> scores = controller.getAvailablePeptideLevelScores();
+            return new PsmStore(scores == null ? 0 : scores.size());
+        }
+    };
+
+    private final int numOfScores;
+
+    private volatile Chunk[] chunks = new Chunk[0];
+
+    @GuardedBy("this")
+    private int numOfRows;
+
+    /**
+     * rows built for a PSM registered by another task in the meantime, they are reused by {@link #addRow()}
+     */
+    @GuardedBy("this")
+    private final Deque<Integer> freeRows = new ArrayDeque<Integer>();
+
+    /**
+     * row + 1 by protein index then peptide index, 0 if the PSM is not stored
+     */
+    @GuardedBy("this")
+    private int[][] indexedRows = new int[0][];
+
+    /**
+     * rows which cannot be addressed by the id index, such as quantitation peptides
+     */
+    @GuardedBy("this")
+    private final Map<Object, Integer> keyedRows = new HashMap<Object, Integer>();
+
+    private final Dictionary<SequenceEntry> sequences = new Dictionary<SequenceEntry>();
+
+    private final Dictionary<AccessionEntry> accessions = new Dictionary<AccessionEntry>();
+
+    private final Dictionary<ProteinEntry> proteins = new Dictionary<ProteinEntry>();
+
+    @GuardedBy("this")
+    private long hitCount;
+
+    @GuardedBy("this")
+    private long missCount;
+
+    /**
+     * Constructor
+     *
+     * @param numOfScores number of peptide scores of each PSM
+     */
+    PsmStore(int numOfScores) {
+        this.numOfScores = numOfScores;
+    }
+
+    /**
+     * Get the store of a data access controller, a new store is created if none exists
+     *
+     * @param controller data access controller
+     * @return PsmStore    PSM store
+     */
+    public static PsmStore getInstance(DataAccessController controller) {
+        return stores.get(controller);
+    }
+
+    /**
+     * Get the registry of all the PSM stores
+     *
+     * @return ControllerCache registry of PSM stores
+     */
+    public static ControllerCache getControllerCache() {
+        return stores;
+    }
+
+    public int getNumOfScores() {
+        return numOfScores;
+    }
+
+    /**
+     * Append an empty row, it can be found by the other tasks once registered
+     *
+     * @return int new row
+     */
+    public synchronized int addRow() {
+        if (!freeRows.isEmpty()) {
+            return freeRows.pop();
+        }
+
+        int row = numOfRows;
+        int chunkIndex = row >>> CHUNK_BITS;
+        if (chunkIndex == chunks.length) {
+            Chunk[] newChunks = Arrays.copyOf(chunks, chunkIndex + 1);
+            newChunks[chunkIndex] = new Chunk(numOfScores);
+            chunks = newChunks;
+        }
+        numOfRows++;
+        return row;
+    }
+
+    /**
+     * Get the row of a PSM
+     *
+     * @param proteinIndex protein index in {@link DataAccessIdIndex}
+     * @param peptideIndex peptide index in {@link DataAccessIdIndex}
+     * @return int row, -1 if the PSM is not stored
+     */
+    public synchronized int getRow(int proteinIndex, int peptideIndex) {
+        int row = (proteinIndex < indexedRows.length && indexedRows[proteinIndex] != null
+                && peptideIndex < indexedRows[proteinIndex].length) ? indexedRows[proteinIndex][peptideIndex] - 1 : -1;
+        countLookup(row);
+        return row;
+    }
+
+    /**
+     * Register a filled row, unless the PSM has been registered by another task in the meantime
+     *
+     * @param row          row returned by {@link #addRow()}
+     * @param proteinIndex protein index in {@link DataAccessIdIndex}
+     * @param peptideIndex peptide index in {@link DataAccessIdIndex}
+     * @return int registered row of the PSM
+     */
+    public synchronized int register(int row, int proteinIndex, int peptideIndex) {
+        if (proteinIndex >= indexedRows.length) {
+            indexedRows = Arrays.copyOf(indexedRows, Math.max(proteinIndex + 1, indexedRows.length * 2));
+        }
+        int[] rows = indexedRows[proteinIndex];
+        if (rows == null || peptideIndex >= rows.length) {
+            rows = rows == null ? new int[peptideIndex + 1] : Arrays.copyOf(rows, Math.max(peptideIndex + 1, rows.length * 2));
+            indexedRows[proteinIndex] = rows;
+        }
+        if (rows[peptideIndex] == 0) {
+            rows[peptideIndex] = row + 1;
+        } else {
+            release(row);
+        }
+        return rows[peptideIndex] - 1;
+    }
+
+    /**
+     * Get the row of a PSM registered by key
+     *
+     * @param key key of the PSM
+     * @return int row, -1 if the PSM is not stored
+     */
+    public synchronized int getRow(Object key) {
+        Integer row = keyedRows.get(key);
+        countLookup(row == null ? -1 : row);
+        return row == null ? -1 : row;
+    }
+
+    /**
+     * Register a filled row by key, for PSMs which cannot be addressed by {@link DataAccessIdIndex}
+     *
+     * @param row row returned by {@link #addRow()}
+     * @param key key of the PSM
+     * @return int registered row of the PSM
+     */
+    public synchronized int register(int row, Object key) {
+        Integer registeredRow = keyedRows.get(key);
+        if (registeredRow == null) {
+            keyedRows.put(key, row);
+            return row;
+        }
+        release(row);
+        return registeredRow;
+    }
+
+    /**
+     * Release a row returned by {@link #addRow()} which is not going to be registered,
+     * for instance because the PSM could not be read
+     *
+     * @param row row returned by {@link #addRow()}
+     */
+    public synchronized void releaseRow(int row) {
+        release(row);
+    }
+
+    /**
+     * Clear a row which has not been registered, so that {@link #addRow()} can hand it out again.
+     * The row has only been seen by the task which built it, the next task gets it through the store lock.
+     */
+    @GuardedBy("this")
+    private void release(int row) {
+        chunk(row).clear(row & CHUNK_MASK, numOfScores);
+        freeRows.push(row);
+    }
+
+    private void countLookup(int row) {
+        if (row < 0) {
+            missCount++;
+        } else {
+            hitCount++;
+        }
+    }
+
+    public synchronized int getNumOfRows() {
+        return numOfRows;
+    }
+
+    private Chunk chunk(int row) {
+        return chunks[row >>> CHUNK_BITS];
+    }
+
+    public PeptideSequence getSequence(int row) {
+        SequenceEntry entry = sequences.get(chunk(row).sequences[row & CHUNK_MASK]);
+        return entry == null ? null : entry.sequence;
+    }
+
+    public void setSequence(int row, PeptideSequence sequence) {
+        int code = sequence == null ? -1 : sequences.encode(getSequenceKey(sequence), new SequenceEntry(sequence));
+        chunk(row).sequences[row & CHUNK_MASK] = code;
+    }
+
+    /**
+     * Get the names of the modifications of the peptide, separated by semicolons
+     *
+     * @param row row
+     * @return String  modification names, null if the row has no sequence
+     */
+    public String getModificationNames(int row) {
+        SequenceEntry entry = sequences.get(chunk(row).sequences[row & CHUNK_MASK]);
+        if (entry == null) {
+            return null;
+        }
+
+        String modificationNames = entry.modificationNames;
+        if (modificationNames == null) {
+            modificationNames = getModificationNames(entry.sequence);
+            entry.modificationNames = modificationNames;
+        }
+        return modificationNames;
+    }
+
+    public ProteinAccession getProteinAccession(int row) {
+        AccessionEntry entry = accessions.get(chunk(row).accessions[row & CHUNK_MASK]);
+        return entry == null ? null : entry.accession;
+    }
+
+    public void setProteinAccession(int row, ProteinAccession proteinAccession) {
+        int code = proteinAccession == null ? -1 : accessions.encode(proteinAccession, new AccessionEntry(proteinAccession));
+        chunk(row).accessions[row & CHUNK_MASK] = code;
+    }
+
+    /**
+     * Protein name and status are kept by protein accession, they are shared by all the rows of the accession
+     */
+    public String getProteinName(int row) {
+        AccessionEntry entry = accessions.get(chunk(row).accessions[row & CHUNK_MASK]);
+        return entry == null ? null : entry.name;
+    }
+
+    /**
+     * Set the protein name of the accession of a row, a null name does not replace a known one
+     */
+    public void setProteinName(int row, String proteinName) {
+        AccessionEntry entry = accessions.get(chunk(row).accessions[row & CHUNK_MASK]);
+        if (entry != null && proteinName != null) {
+            entry.name = proteinName;
+        }
+    }
+
+    public String getProteinAccessionStatus(int row) {
+        AccessionEntry entry = accessions.get(chunk(row).accessions[row & CHUNK_MASK]);
+        return entry == null ? null : entry.status;
+    }
+
+    public void setProteinAccessionStatus(int row, String status) {
+        AccessionEntry entry = accessions.get(chunk(row).accessions[row & CHUNK_MASK]);
+        if (entry != null && status != null) {
+            entry.status = status;
+        }
+    }
+
+    public Comparable getProteinId(int row) {
+        ProteinEntry entry = proteins.get(chunk(row).proteins[row & CHUNK_MASK]);
+        return entry == null ? null : entry.id;
+    }
+
+    public void setProteinId(int row, Comparable proteinId) {
+        int code = proteinId == null ? -1 : proteins.encode(proteinId, new ProteinEntry(proteinId));
+        chunk(row).proteins[row & CHUNK_MASK] = code;
+    }
+
+    /**
+     * Sequence coverage is kept by protein identification, it is shared by all the rows of the identification
+     */
+    public Double getSequenceCoverage(int row) {
+        ProteinEntry entry = proteins.get(chunk(row).proteins[row & CHUNK_MASK]);
+        return entry == null || Double.isNaN(entry.sequenceCoverage) ? null : entry.sequenceCoverage;
+    }
+
+    /**
+     * Set the sequence coverage of the identification of a row, a null coverage does not replace a known one
+     */
+    public void setSequenceCoverage(int row, Double sequenceCoverage) {
+        ProteinEntry entry = proteins.get(chunk(row).proteins[row & CHUNK_MASK]);
+        if (entry != null && sequenceCoverage != null) {
+            entry.sequenceCoverage = sequenceCoverage;
+        }
+    }
+
+    public int getPeptideFitState(int row) {
+        return chunk(row).peptideFitStates[row & CHUNK_MASK];
+    }
+
+    public void setPeptideFitState(int row, int peptideFitState) {
+        chunk(row).peptideFitStates[row & CHUNK_MASK] = (byte) peptideFitState;
+    }
+
+    public Integer getRanking(int row) {
+        return toInteger(chunk(row).rankings[row & CHUNK_MASK]);
+    }
+
+    public void setRanking(int row, Integer ranking) {
+        chunk(row).rankings[row & CHUNK_MASK] = toInt(ranking);
+    }
+
+    public Integer getPrecursorCharge(int row) {
+        return toInteger(chunk(row).precursorCharges[row & CHUNK_MASK]);
+    }
+
+    public void setPrecursorCharge(int row, Integer precursorCharge) {
+        chunk(row).precursorCharges[row & CHUNK_MASK] = toInt(precursorCharge);
+    }
+
+    public Double getPrecursorMz(int row) {
+        return toDouble(chunk(row).precursorMzs[row & CHUNK_MASK]);
+    }
+
+    public void setPrecursorMz(int row, Double precursorMz) {
+        chunk(row).precursorMzs[row & CHUNK_MASK] = toPrimitive(precursorMz);
+    }
+
+    public Double getDeltaMz(int row) {
+        return toDouble(chunk(row).deltaMzs[row & CHUNK_MASK]);
+    }
+
+    public void setDeltaMz(int row, Double deltaMz) {
+        chunk(row).deltaMzs[row & CHUNK_MASK] = toPrimitive(deltaMz);
+    }
+
+    public Integer getNumberOfFragmentIons(int row) {
+        return toInteger(chunk(row).numOfFragmentIons[row & CHUNK_MASK]);
+    }
+
+    public void setNumberOfFragmentIons(int row, Integer numberOfFragmentIons) {
+        chunk(row).numOfFragmentIons[row & CHUNK_MASK] = toInt(numberOfFragmentIons);
+    }
+
+    public Integer getSequenceStartPosition(int row) {
+        return toInteger(chunk(row).startPositions[row & CHUNK_MASK]);
+    }
+
+    public void setSequenceStartPosition(int row, Integer start) {
+        chunk(row).startPositions[row & CHUNK_MASK] = toInt(start);
+    }
+
+    public Integer getSequenceEndPosition(int row) {
+        return toInteger(chunk(row).endPositions[row & CHUNK_MASK]);
+    }
+
+    public void setSequenceEndPosition(int row, Integer end) {
+        chunk(row).endPositions[row & CHUNK_MASK] = toInt(end);
+    }
+
+    /**
+     * Get a peptide score
+     *
+     * @param row        row
+     * @param scoreIndex index of the score in the available peptide level scores
+     * @return Double  score, null if missing
+     */
+    public Double getScore(int row, int scoreIndex) {
+        return toDouble(chunk(row).scores[(row & CHUNK_MASK) * numOfScores + scoreIndex]);
+    }
+
+    public void setScore(int row, int scoreIndex, Double score) {
+        chunk(row).scores[(row & CHUNK_MASK) * numOfScores + scoreIndex] = toPrimitive(score);
+    }
+
+    public Comparable getSpectrumId(int row) {
+        return chunk(row).spectrumIds[row & CHUNK_MASK];
+    }
+
+    public void setSpectrumId(int row, Comparable spectrumId) {
+        chunk(row).spectrumIds[row & CHUNK_MASK] = spectrumId;
+    }
+
+    public Comparable getPeptideId(int row) {
+        return chunk(row).peptideIds[row & CHUNK_MASK];
+    }
+
+    public void setPeptideId(int row, Comparable peptideId) {
+        chunk(row).peptideIds[row & CHUNK_MASK] = peptideId;
+    }
+
+    private static Integer toInteger(int value) {
+        return value == NO_VALUE ? null : value;
+    }
+
+    private static int toInt(Integer value) {
+        return value == null ? NO_VALUE : value;
+    }
+
+    private static Double toDouble(double value) {
+        return Double.isNaN(value) ? null : value;
+    }
+
+    private static double toPrimitive(Double value) {
+        return value == null ? Double.NaN : value;
+    }
+
+    /**
+     * Key of a peptide sequence, two sequences with the same key are displayed the same way
+     */
+    private static String getSequenceKey(PeptideSequence sequence) {
+        List<Modification> mods = sequence.getModifications();
+        if (mods == null || mods.isEmpty()) {
+            return sequence.getSequence();
+        }
+
+        StringBuilder key = new StringBuilder(sequence.getSequence());
+        for (Modification mod : mods) {
+            key.append('|').append(mod.getLocation())
+                    .append(',').append(mod.getId())
+                    .append(',').append(mod.getName())
+                    .append(',').append(mod.getMonoisotopicMassDelta());
+        }
+        return key.toString();
+    }
+
+    private static String getModificationNames(PeptideSequence sequence) {
+        Set<String> modificationNames = new LinkedHashSet<String>();
+        for (Modification mod : sequence.getModifications()) {
+            String modName = mod.getName();
+            if (modName == null) {
+                // use mod accession instead
+                modName = mod.getId().toString().trim();
+            }
+            modificationNames.add(modName);
+        }
+
+        StringBuilder concatenatedModificationNames = new StringBuilder();
+        for (String modName : modificationNames) {
+            if (concatenatedModificationNames.length() > 0) {
+                concatenatedModificationNames.append("; ");
+            }
+            concatenatedModificationNames.append(modName);
+        }
+        return concatenatedModificationNames.toString();
+    }
+
+    @Override
+    public synchronized int getNumOfEntries() {
+        return numOfRows - freeRows.size();
+    }
+
+    @Override
+    public synchronized long getEstimatedBytes() {
+        long size = MemoryEstimator.sizeOfArray(chunks.length, MemoryEstimator.REFERENCE);
+        // 8 int columns, 2 + scores double columns, 2 reference columns, 1 byte column
+        long rowSize = 8 * 4 + (2 + numOfScores) * 8 + 2 * MemoryEstimator.REFERENCE + 1;
+        size += (long) chunks.length * (CHUNK_SIZE * rowSize + 14 * MemoryEstimator.OBJECT_HEADER);
+
+        size += MemoryEstimator.sizeOfArray(indexedRows.length, MemoryEstimator.REFERENCE);
+        for (int[] rows : indexedRows) {
+            if (rows != null) {
+                size += MemoryEstimator.sizeOfArray(rows.length, 4);
+            }
+        }
+        size += keyedRows.size() * (long) (MemoryEstimator.HASH_ENTRY + 2 * MemoryEstimator.OBJECT_HEADER);
+
+        // dictionary entries, the values are shared with the rows of the tables
+        long entrySize = MemoryEstimator.HASH_ENTRY + 2 * MemoryEstimator.OBJECT_HEADER + 2 * MemoryEstimator.REFERENCE;
+        size += (sequences.size() + accessions.size() + proteins.size()) * entrySize;
+
+        return size;
+    }
+
+    @Override
+    public synchronized long getHitCount() {
+        return hitCount;
+    }
+
+    @Override
+    public synchronized long getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * Columns of a block of rows
+     */
+    private static final class Chunk {
+        private final int[] sequences = newIntColumn(-1);
+        private final int[] accessions = newIntColumn(-1);
+        private final int[] proteins = newIntColumn(-1);
+        private final int[] rankings = newIntColumn(NO_VALUE);
+        private final int[] precursorCharges = newIntColumn(NO_VALUE);
+        private final int[] numOfFragmentIons = newIntColumn(NO_VALUE);
+        private final int[] startPositions = newIntColumn(NO_VALUE);
+        private final int[] endPositions = newIntColumn(NO_VALUE);
+        private final double[] precursorMzs = newDoubleColumn(1);
+        private final double[] deltaMzs = newDoubleColumn(1);
+        private final double[] scores;
+        private final byte[] peptideFitStates = new byte[CHUNK_SIZE];
+        private final Comparable[] spectrumIds = new Comparable[CHUNK_SIZE];
+        private final Comparable[] peptideIds = new Comparable[CHUNK_SIZE];
+
+        private Chunk(int numOfScores) {
+            this.scores = newDoubleColumn(numOfScores);
+        }
+
+        /**
+         * Reset a row to the values of a new row
+         */
+        private void clear(int index, int numOfScores) {
+            sequences[index] = -1;
+            accessions[index] = -1;
+            proteins[index] = -1;
+            rankings[index] = NO_VALUE;
+            precursorCharges[index] = NO_VALUE;
+            numOfFragmentIons[index] = NO_VALUE;
+            startPositions[index] = NO_VALUE;
+            endPositions[index] = NO_VALUE;
+            precursorMzs[index] = Double.NaN;
+            deltaMzs[index] = Double.NaN;
+            Arrays.fill(scores, index * numOfScores, (index + 1) * numOfScores, Double.NaN);
+            peptideFitStates[index] = 0;
+            spectrumIds[index] = null;
+            peptideIds[index] = null;
+        }
+
+        private static int[] newIntColumn(int value) {
+            int[] column = new int[CHUNK_SIZE];
+            Arrays.fill(column, value);
+            return column;
+        }
+
+        private static double[] newDoubleColumn(int numOfValuesPerRow) {
+            double[] column = new double[CHUNK_SIZE * numOfValuesPerRow];
+            Arrays.fill(column, Double.NaN);
+            return column;
+        }
+    }
+
+    /**
+     * Distinct values and their codes, codes are given in order from 0
+     */
+    private final class Dictionary<T> {
+
+        @GuardedBy("PsmStore.this")
+        private final Map<Object, Integer> codes = new HashMap<Object, Integer>();
+
+        /**
+         * values by code, replaced when full, so that it can be read without locking
+         */
+        private volatile Object[] values = new Object[16];
+
+        @GuardedBy("PsmStore.this")
+        private int size;
+
+        /**
+         * Get the code of a value, the value is added if it is new
+         *
+         * @param key   key of the value
+         * @param value value, kept if the key is new
+         * @return int code of the value
+         */
+        private int encode(Object key, T value) {
+            synchronized (PsmStore.this) {
+                Integer code = codes.get(key);
+                if (code == null) {
+                    code = size;
+                    Object[] currentValues = values;
+                    if (size == currentValues.length) {
+                        Object[] newValues = Arrays.copyOf(currentValues, size * 2);
+                        newValues[size] = value;
+                        values = newValues;
+                    } else {
+                        currentValues[size] = value;
+                    }
+                    codes.put(key, code);
+                    size++;
+                }
+                return code;
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private T get(int code) {
+            return code < 0 ? null : (T) values[code];
+        }
+
+        @GuardedBy("PsmStore.this")
+        private int size() {
+            return size;
+        }
+    }
+
+    private static final class SequenceEntry {
+        private final PeptideSequence sequence;
+        private volatile String modificationNames;
+
+        private SequenceEntry(PeptideSequence sequence) {
+            this.sequence = sequence;
+        }
+    }
+
+    private static final class AccessionEntry {
+        private final ProteinAccession accession;
+        private volatile String name;
+        private volatile String status;
+
+        private AccessionEntry(ProteinAccession accession) {
+            this.accession = accession;
+        }
+    }
+
+    private static final class ProteinEntry {
+        private final Comparable id;
+        private volatile double sequenceCoverage = Double.NaN;
+
+        private ProteinEntry(Comparable id) {
+            this.id = id;
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package uk.ac.ebi.pride.toolsuite.gui.access;
+
+import uk.ac.ebi.pride.toolsuite.gui.utils.ProteinAccession;
+
+/**
+ * The outcome of resolving the accession of a protein identification,
+ * together with the name of the search database it was resolved against.
+ *
+ * @author Rui Wang
+ * @version $Id$
+ */
+public class ResolvedAccession {
+
+    private final ProteinAccession proteinAccession;
+    private final String database;
+    private final boolean resolvable;
+
+    public ResolvedAccession(String accession, String mappedAccession, String database, boolean resolvable) {
+        this.proteinAccession = new ProteinAccession(accession, mappedAccession);
+        this.database = database;
+        this.resolvable = resolvable;
+    }
+
+    /**
+     * Original protein accession and its mapped accession, this instance can be shared between table rows
+     *
+     * @return ProteinAccession    protein accession
+     */
+    public ProteinAccession getProteinAccession() {
+        return proteinAccession;
+    }
+
+    public String getAccession() {
+        return proteinAccession.getAccession();
+    }
+
+    /**
+     * Get mapped protein accession
+     *
+     * @return String  mapped accession, null if the accession is not valid
+     */
+    public String getMappedAccession() {
+        return proteinAccession.getMappedAccession();
+    }
+
+    public String getDatabase() {
+        return database;
+    }
+
+    /**
+     * Whether the accession resolver could be applied to the accession at all
+     *
+     * @return boolean false if the accession resolver rejected the accession
+     */
+    public boolean isResolvable() {
+        return resolvable;
+    }
+}
@@ -0,0 +1,147 @@
+package uk.ac.ebi.pride.toolsuite.gui.access;
+
+import net.jcip.annotations.ThreadSafe;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import uk.ac.ebi.pride.tools.utils.AccessionResolver;
+import uk.ac.ebi.pride.utilities.data.controller.DataAccessController;
+import uk.ac.ebi.pride.utilities.data.controller.DataAccessException;
+import uk.ac.ebi.pride.utilities.data.core.SearchDataBase;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * ResolvedAccessionCache memorizes the resolved accession and search database name
+ * of each protein identification of a data access controller.
+ * <p/>
+ * All the peptides of a protein share the same accession, so the accession resolver
+ * only needs to run once per protein, no matter which table or task asks for it.
+ * <p/>
+ * One cache is kept per controller uid in a {@link ControllerCacheRegistry},
+ * it is released when the controller is closed.
+ *
+ * @author Rui Wang
+ * @version $Id$
+ */
+@ThreadSafe
+public class ResolvedAccessionCache implements CacheUsage {
+    private static final Logger logger = LoggerFactory.getLogger(ResolvedAccessionCache.class);
+
+    /**
+     * caches mapped by data access controller uid
+     */
+    private static final ControllerCacheRegistry<ResolvedAccessionCache> caches = new ControllerCacheRegistry<ResolvedAccessionCache>("Resolved accessions") {
+        @Override
+        protected ResolvedAccessionCache create(DataAccessController controller) {
+            return new ResolvedAccessionCache(controller);
+        }
+    };
+
+    private final DataAccessController controller;
+
+    /**
+     * protein identification id to resolved accession
+     */
+    private final ConcurrentMap<Comparable, ResolvedAccession> accessions;
+
+    private final AtomicLong hitCount = new AtomicLong();
+
+    private final AtomicLong missCount = new AtomicLong();
+
+    private ResolvedAccessionCache(DataAccessController controller) {
+        this.controller = controller;
+        this.accessions = new ConcurrentHashMap<Comparable, ResolvedAccession>();
+    }
+
+    /**
+     * Get the cache of a data access controller, a new cache is created if none exists
+     *
+     * @param controller data access controller
+     * @return ResolvedAccessionCache  resolved accession cache
+     */
+    public static ResolvedAccessionCache getInstance(DataAccessController controller) {
+        return caches.get(controller);
+    }
+
+    /**
+     * Get the registry of all the resolved accession caches
+     *
+     * @return ControllerCache registry of resolved accession caches
+     */
+    public static ControllerCache getControllerCache() {
+        return caches;
+    }
+
+    /**
+     * Get the resolved accession of a protein identification, resolve it if it is not in the cache
+     *
+     * @param proteinId protein identification id
+     * @return ResolvedAccession   resolved accession
+     * @throws DataAccessException data access exception
+     */
+    public ResolvedAccession getResolvedAccession(Comparable proteinId) throws DataAccessException {
+        ResolvedAccession resolvedAccession = accessions.get(proteinId);
+        if (resolvedAccession != null) {
+            hitCount.incrementAndGet();
+            return resolvedAccession;
+        }
+
+        missCount.incrementAndGet();
+        resolvedAccession = resolve(proteinId);
+        ResolvedAccession existing = accessions.putIfAbsent(proteinId, resolvedAccession);
+        return existing == null ? resolvedAccession : existing;
+    }
+
+    @Override
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    @Override
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    public int size() {
+        return accessions.size();
+    }
+
+    @Override
+    public int getNumOfEntries() {
+        return accessions.size();
+    }
+
+    @Override
+    public long getEstimatedBytes() {
+        // resolved accession, protein accession and hash entry
+        long size = 0;
+        for (Map.Entry<Comparable, ResolvedAccession> entry : accessions.entrySet()) {
+            ResolvedAccession resolvedAccession = entry.getValue();
+            size += MemoryEstimator.HASH_ENTRY + 2 * MemoryEstimator.OBJECT_HEADER + 5 * MemoryEstimator.REFERENCE
+                    + MemoryEstimator.sizeOf(entry.getKey())
+                    + MemoryEstimator.sizeOf(resolvedAccession.getAccession())
+                    + MemoryEstimator.sizeOf(resolvedAccession.getMappedAccession())
+                    + MemoryEstimator.sizeOf(resolvedAccession.getDatabase());
+        }
+        return size;
+    }
+
+    private ResolvedAccession resolve(Comparable proteinId) throws DataAccessException {
+        String protAcc = controller.getProteinAccession(proteinId);
+        String protAccVersion = controller.getProteinAccessionVersion(proteinId);
+        SearchDataBase searchDatabase = controller.getSearchDatabase(proteinId);
+        String database = (searchDatabase == null || searchDatabase.getName() == null) ? "" : searchDatabase.getName();
+
+        try {
+            AccessionResolver resolver = new AccessionResolver(protAcc, protAccVersion, database, true);
+            String mappedProtAcc = resolver.isValidAccession() ? resolver.getAccession() : null;
+            return new ResolvedAccession(protAcc, mappedProtAcc, database, true);
+        } catch (IllegalArgumentException ex) {
+            logger.debug("Failed to resolve protein accession: {}", protAcc);
+            return new ResolvedAccession(protAcc, null, database, false);
+        }
+    }
+}
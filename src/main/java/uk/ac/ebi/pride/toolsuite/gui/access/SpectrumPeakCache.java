@@ -0,0 +1,327 @@
+package uk.ac.ebi.pride.toolsuite.gui.access;
+
+import net.jcip.annotations.GuardedBy;
+import net.jcip.annotations.ThreadSafe;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import uk.ac.ebi.pride.utilities.data.controller.DataAccessController;
+import uk.ac.ebi.pride.utilities.data.core.BinaryDataArray;
+import uk.ac.ebi.pride.utilities.data.core.Spectrum;
+import uk.ac.ebi.pride.utilities.util.Tuple;
+
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * SpectrumPeakCache keeps the m/z and intensity arrays of the spectra outside of the java heap,
+ * mapped by data access controller uid and spectrum id.
+ * <p/>
+ * The peaks are stored in fixed size blocks of a direct buffer, which is allocated on the first use
+ * and never grows beyond the byte budget. The least recently used spectra are evicted to make room.
+ * <p/>
+ * The spectra shown by the spectrum viewer and the fragmentation table are added to the cache,
+ * so that exporting them does not read them from the data source again. Exports only read from the cache.
+ * <p/>
+ * The cache does not save the spectrum viewer any read: the selected spectrum is still read by
+ * the retrieve spectrum task, for its metadata and annotations. Selecting a cached spectrum in the
+ * spectrum table only shows its peaks before that read completes, selecting a PSM does not use the cache.
+ *
+ * @author Rui Wang
+ * @version $Id$
+ */
+@ThreadSafe
+public class SpectrumPeakCache implements ControllerCache {
+    private static final Logger logger = LoggerFactory.getLogger(SpectrumPeakCache.class);
+
+    public static final long DEFAULT_MAX_BYTES = 64L * 1024 * 1024;
+
+    /**
+     * size of a block in bytes, a multiple of the size of a double
+     */
+    static final int BLOCK_SIZE = 4096;
+
+    private static final int DOUBLE_SIZE = 8;
+
+    /**
+     * largest direct buffer which can be allocated
+     */
+    private static final long MAX_BUFFER_SIZE = (Integer.MAX_VALUE / BLOCK_SIZE) * (long) BLOCK_SIZE;
+
+    private final String name;
+
+    @GuardedBy("this")
+    private long maxBytes;
+
+    /**
+     * blocks of peaks, null until the first spectrum is added
+     */
+    @GuardedBy("this")
+    private ByteBuffer buffer;
+
+    /**
+     * stack of free block indexes
+     */
+    @GuardedBy("this")
+    private int[] freeBlocks;
+
+    @GuardedBy("this")
+    private int numOfFreeBlocks;
+
+    /**
+     * entries in access order, the eldest entry is the least recently used
+     */
+    @GuardedBy("this")
+    private final LinkedHashMap<Tuple<String, Comparable>, Entry> entries;
+
+    @GuardedBy("this")
+    private long hitCount;
+
+    @GuardedBy("this")
+    private long missCount;
+
+    /**
+     * Constructor
+     *
+     * @param name     name of the cache
+     * @param maxBytes maximum number of bytes used by the peaks, 0 disables the cache
+     */
+    public SpectrumPeakCache(String name, long maxBytes) {
+        this.name = name;
+        this.entries = new LinkedHashMap<Tuple<String, Comparable>, Entry>(16, 0.75f, true);
+        setMaxBytes(maxBytes);
+    }
+
+    public synchronized long getMaxBytes() {
+        return maxBytes;
+    }
+
+    /**
+     * Change the byte budget, all the cached peaks are removed
+     *
+     * @param maxBytes maximum number of bytes used by the peaks, 0 disables the cache
+     */
+    public synchronized void setMaxBytes(long maxBytes) {
+        if (maxBytes < 0) {
+            String msg = "Maximum number of bytes cannot be negative: " + maxBytes;
+            logger.error(msg);
+            throw new IllegalArgumentException(msg);
+        }
+
+        entries.clear();
+        buffer = null;
+        freeBlocks = null;
+        numOfFreeBlocks = 0;
+        this.maxBytes = Math.min(maxBytes, MAX_BUFFER_SIZE);
+    }
+
+    /**
+     * Get the peaks of a spectrum
+     *
+     * @param controller data access controller
+     * @param spectrumId spectrum id
+     * @return Peaks   a copy of the peaks, null if the spectrum is not in the cache
+     */
+    public synchronized Peaks getPeaks(DataAccessController controller, Comparable spectrumId) {
+        Entry entry = entries.get(new Tuple<String, Comparable>(controller.getUid(), spectrumId));
+        if (entry == null) {
+            missCount++;
+            return null;
+        }
+
+        hitCount++;
+        return new Peaks(read(entry, 0, entry.numOfMzs), read(entry, entry.numOfMzs, entry.numOfIntensities));
+    }
+
+    /**
+     * Add the peaks of a spectrum, a spectrum without m/z or intensity array is ignored
+     *
+     * @param controller data access controller
+     * @param spectrum   spectrum
+     */
+    public void put(DataAccessController controller, Spectrum spectrum) {
+        if (spectrum == null) {
+            return;
+        }
+
+        BinaryDataArray mzBinary = spectrum.getMzBinaryDataArray();
+        BinaryDataArray intensityBinary = spectrum.getIntensityBinaryDataArray();
+        if (mzBinary != null && intensityBinary != null) {
+            put(controller, spectrum.getId(), mzBinary.getDoubleArray(), intensityBinary.getDoubleArray());
+        }
+    }
+
+    /**
+     * Add the peaks of a spectrum, the spectrum is ignored if it is larger than the byte budget
+     *
+     * @param controller data access controller
+     * @param spectrumId spectrum id
+     * @param mz         m/z array
+     * @param intensity  intensity array
+     */
+    public synchronized void put(DataAccessController controller, Comparable spectrumId, double[] mz, double[] intensity) {
+        if (spectrumId == null || mz == null || intensity == null) {
+            return;
+        }
+
+        Tuple<String, Comparable> key = new Tuple<String, Comparable>(controller.getUid(), spectrumId);
+        if (entries.get(key) != null || !allocate()) {
+            return;
+        }
+
+        long numOfBytes = (long) (mz.length + intensity.length) * DOUBLE_SIZE;
+        int numOfBlocks = (int) ((numOfBytes + BLOCK_SIZE - 1) / BLOCK_SIZE);
+        if (numOfBlocks > freeBlocks.length) {
+            logger.debug("Spectrum {} is larger than the spectrum peak cache", spectrumId);
+            return;
+        }
+
+        while (numOfFreeBlocks < numOfBlocks) {
+            Iterator<Entry> eldest = entries.values().iterator();
+            release(eldest.next());
+            eldest.remove();
+        }
+
+        int[] blocks = new int[numOfBlocks];
+        for (int i = 0; i < numOfBlocks; i++) {
+            blocks[i] = freeBlocks[--numOfFreeBlocks];
+        }
+
+        Entry entry = new Entry(blocks, mz.length, intensity.length);
+        write(entry, 0, mz);
+        write(entry, mz.length, intensity);
+        entries.put(key, entry);
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public synchronized void evict(DataAccessController controller) {
+        String uid = controller.getUid();
+        Iterator<Map.Entry<Tuple<String, Comparable>, Entry>> iterator = entries.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Tuple<String, Comparable>, Entry> entry = iterator.next();
+            if (uid.equals(entry.getKey().getKey())) {
+                release(entry.getValue());
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * Get the usage of the cache, the estimated bytes include the blocks used outside of the java heap
+     *
+     * @return CacheStatistics cache statistics
+     */
+    @Override
+    public synchronized CacheStatistics getStatistics() {
+        long usedBlocks = freeBlocks == null ? 0 : freeBlocks.length - numOfFreeBlocks;
+        long estimatedBytes = usedBlocks * BLOCK_SIZE
+                + entries.size() * (MemoryEstimator.HASH_ENTRY + 2 * MemoryEstimator.OBJECT_HEADER + 3 * MemoryEstimator.REFERENCE)
+                + usedBlocks * 4;
+        return new CacheStatistics(name, entries.size(), estimatedBytes, hitCount, missCount);
+    }
+
+    /**
+     * Allocate the buffer if needed
+     *
+     * @return boolean true if the cache has a buffer
+     */
+    @GuardedBy("this")
+    private boolean allocate() {
+        if (buffer == null && maxBytes >= BLOCK_SIZE) {
+            int numOfBlocks = (int) (maxBytes / BLOCK_SIZE);
+            try {
+                buffer = ByteBuffer.allocateDirect(numOfBlocks * BLOCK_SIZE);
+            } catch (OutOfMemoryError e) {
+                logger.warn("Failed to allocate " + maxBytes + " bytes for the spectrum peak cache, the cache is disabled", e);
+                maxBytes = 0;
+                return false;
+            }
+
+            freeBlocks = new int[numOfBlocks];
+            for (int i = 0; i < numOfBlocks; i++) {
+                freeBlocks[i] = numOfBlocks - 1 - i;
+            }
+            numOfFreeBlocks = numOfBlocks;
+        }
+        return buffer != null;
+    }
+
+    @GuardedBy("this")
+    private void release(Entry entry) {
+        for (int block : entry.blocks) {
+            freeBlocks[numOfFreeBlocks++] = block;
+        }
+    }
+
+    /**
+     * @param entry  entry
+     * @param offset offset of the first value, in number of doubles
+     * @param values values to write
+     */
+    @GuardedBy("this")
+    private void write(Entry entry, int offset, double[] values) {
+        for (int i = 0; i < values.length; i++) {
+            buffer.putDouble(getPosition(entry, offset + i), values[i]);
+        }
+    }
+
+    @GuardedBy("this")
+    private double[] read(Entry entry, int offset, int length) {
+        double[] values = new double[length];
+        for (int i = 0; i < length; i++) {
+            values[i] = buffer.getDouble(getPosition(entry, offset + i));
+        }
+        return values;
+    }
+
+    private static int getPosition(Entry entry, int index) {
+        long position = (long) index * DOUBLE_SIZE;
+        return entry.blocks[(int) (position / BLOCK_SIZE)] * BLOCK_SIZE + (int) (position % BLOCK_SIZE);
+    }
+
+    /**
+     * The blocks of a spectrum, the m/z values are followed by the intensities
+     */
+    private static class Entry {
+        private final int[] blocks;
+        private final int numOfMzs;
+        private final int numOfIntensities;
+
+        private Entry(int[] blocks, int numOfMzs, int numOfIntensities) {
+            this.blocks = blocks;
+            this.numOfMzs = numOfMzs;
+            this.numOfIntensities = numOfIntensities;
+        }
+    }
+
+    /**
+     * The m/z and intensity arrays of a spectrum
+     */
+    public static class Peaks {
+        private final double[] mz;
+        private final double[] intensity;
+
+        public Peaks(double[] mz, double[] intensity) {
+            this.mz = mz;
+            this.intensity = intensity;
+        }
+
+        public double[] getMz() {
+            return mz;
+        }
+
+        public double[] getIntensity() {
+            return intensity;
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package uk.ac.ebi.pride.toolsuite.gui.access;
+
+import uk.ac.ebi.pride.tools.protein_details_fetcher.ProteinDetailFetcher;
+import uk.ac.ebi.pride.tools.protein_details_fetcher.model.Protein;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Protein detail source using the protein details web services.
+ * <p/>
+ * Each thread uses its own ProteinDetailFetcher.
+ *
+ * @author Rui Wang
+ * @version $Id$
+ */
+public class WebServiceProteinDetailSource implements ProteinDetailSource {
+
+    private final ThreadLocal<ProteinDetailFetcher> fetchers = new ThreadLocal<ProteinDetailFetcher>() {
+        @Override
+        protected ProteinDetailFetcher initialValue() {
+            return new ProteinDetailFetcher();
+        }
+    };
+
+    @Override
+    public Map<String, Protein> getProteinDetails(Collection<String> accessions) throws Exception {
+        return fetchers.get().getProteinDetails(accessions);
+    }
+}
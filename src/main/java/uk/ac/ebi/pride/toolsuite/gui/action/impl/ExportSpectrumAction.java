@@ -20,6 +20,7 @@ import java.awt.event.ActionEvent;
 import java.io.File;
 
 import static uk.ac.ebi.pride.toolsuite.gui.utils.Constants.DOT;
+import static uk.ac.ebi.pride.toolsuite.gui.utils.Constants.GZIPPED_FILE;
 import static uk.ac.ebi.pride.toolsuite.gui.utils.Constants.MGF_FILE;
 
 /**
@@ -58,7 +59,9 @@ public class ExportSpectrumAction extends PrideAction {
             String filePath = selectedFile.getPath();
             context.setOpenFilePath(filePath.replace(selectedFile.getName(), ""));
 
-            ExportSpectrumMGFTask newTask = new ExportSpectrumMGFTask(controller, filePath + (filePath.endsWith(MGF_FILE) ? "" : MGF_FILE));
+            // keep gzipped mgf file names, the output is compressed
+            boolean hasExtension = filePath.endsWith(MGF_FILE) || filePath.endsWith(MGF_FILE + GZIPPED_FILE);
+            ExportSpectrumMGFTask newTask = new ExportSpectrumMGFTask(controller, filePath + (hasExtension ? "" : MGF_FILE));
             TaskUtil.startBackgroundTask(newTask, controller);
         }
     }
@@ -0,0 +1,69 @@
+package uk.ac.ebi.pride.toolsuite.gui.action.impl;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import uk.ac.ebi.pride.toolsuite.gui.PrideInspectorContext;
+import uk.ac.ebi.pride.toolsuite.gui.action.PrideAction;
+import uk.ac.ebi.pride.toolsuite.gui.component.dialog.SimpleFileDialog;
+import uk.ac.ebi.pride.toolsuite.gui.desktop.Desktop;
+import uk.ac.ebi.pride.toolsuite.gui.utils.EdtWatchdog;
+
+import javax.swing.*;
+import java.awt.event.ActionEvent;
+import java.io.*;
+
+/**
+ * Save the report of the EDT watchdog, the action is disabled when the watchdog is not installed.
+ *
+ * @author Rui Wang
+ * @version $Id$
+ */
+public class SaveEdtReportAction extends PrideAction {
+    private static final Logger logger = LoggerFactory.getLogger(SaveEdtReportAction.class);
+
+    private static final String DEFAULT_FILE_NAME = "ui_responsiveness_report";
+    private static final String TEXT_FILE = ".txt";
+
+    public SaveEdtReportAction(String name, Icon icon) {
+        super(name, icon);
+
+        this.setEnabled(EdtWatchdog.getInstance() != null);
+    }
+
+    @Override
+    public void actionPerformed(ActionEvent e) {
+        EdtWatchdog watchdog = EdtWatchdog.getInstance();
+        if (watchdog == null) {
+            return;
+        }
+
+        PrideInspectorContext context = (PrideInspectorContext) Desktop.getInstance().getDesktopContext();
+        SimpleFileDialog ofd = new SimpleFileDialog(context.getOpenFilePath(), "Save UI Responsiveness Report", true, DEFAULT_FILE_NAME, false, TEXT_FILE);
+        ofd.setMultiSelectionEnabled(false);
+        int result = ofd.showDialog(Desktop.getInstance().getMainComponent(), null);
+        if (result == JFileChooser.APPROVE_OPTION) {
+            File selectedFile = ofd.getSelectedFile();
+            String filePath = selectedFile.getPath();
+            context.setOpenFilePath(filePath.replace(selectedFile.getName(), ""));
+            File file = new File(filePath + (filePath.endsWith(TEXT_FILE) ? "" : TEXT_FILE));
+
+            Writer writer = null;
+            try {
+                writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), "UTF-8"));
+                watchdog.writeReport(writer);
+            } catch (IOException ex) {
+                logger.error("Failed to save the UI responsiveness report", ex);
+                JOptionPane.showMessageDialog(Desktop.getInstance().getMainComponent(),
+                        "Failed to save the report: " + ex.getMessage(), "Save Report", JOptionPane.ERROR_MESSAGE);
+            } finally {
+                if (writer != null) {
+                    try {
+                        writer.close();
+                    } catch (IOException ex) {
+                        logger.error("Failed to close the UI responsiveness report", ex);
+                    }
+                }
+            }
+        }
+    }
+}
@@ -11,6 +11,7 @@ import uk.ac.ebi.pride.utilities.data.core.Chromatogram;
 import uk.ac.ebi.pride.utilities.data.core.MzGraph;
 import uk.ac.ebi.pride.utilities.data.core.Spectrum;
 import uk.ac.ebi.pride.toolsuite.gui.GUIUtilities;
+import uk.ac.ebi.pride.toolsuite.gui.access.DataAccessIdIndex;
 import uk.ac.ebi.pride.toolsuite.gui.action.impl.ExportSpectrumAction;
 import uk.ac.ebi.pride.toolsuite.gui.component.DataAccessControllerPane;
 import uk.ac.ebi.pride.toolsuite.gui.component.EventBusSubscribable;
@@ -27,6 +28,7 @@ import uk.ac.ebi.pride.toolsuite.gui.event.container.SpectrumEvent;
 import uk.ac.ebi.pride.toolsuite.gui.task.Task;
 import uk.ac.ebi.pride.toolsuite.gui.task.TaskListener;
 import uk.ac.ebi.pride.toolsuite.gui.task.TaskUtil;
+import uk.ac.ebi.pride.toolsuite.gui.task.impl.PrefetchNeighbourTask;
 import uk.ac.ebi.pride.toolsuite.gui.task.impl.RetrieveChromatogramTableTask;
 import uk.ac.ebi.pride.toolsuite.gui.task.impl.RetrieveSpectrumTableTask;
 
@@ -37,6 +39,8 @@ import javax.swing.table.TableModel;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * MzDataSelectionPane contains two tabs: one for spectra and one for chromatogram.
@@ -399,8 +403,9 @@ public class MzDataSelectionPane extends DataAccessControllerPane<MzGraph, Void>
             //
             int index = tabPane.getSelectedIndex();
             try {
+                DataAccessIdIndex idIndex = DataAccessIdIndex.getIndex(controller);
                 if (index == SPECTRUM_TAB_INDEX) {
-                    int numOfSpectra = controller.getNumberOfSpectra();
+                    int numOfSpectra = idIndex.getNumberOfSpectra();
                     // set offset
                     if (LoadBatchEvent.Type.ALL.equals(event.getType())) {
                         offset = numOfSpectra - startForSpec;
@@ -410,7 +415,7 @@ public class MzDataSelectionPane extends DataAccessControllerPane<MzGraph, Void>
                         updateTable((SpectrumTableModel) spectrumTable.getModel(), Spectrum.class, offset);
                     }
                 } else {
-                    int numOfChromas = controller.getNumberOfChromatograms();
+                    int numOfChromas = idIndex.getNumberOfChromatograms();
 
                     // set offset
                     if (LoadBatchEvent.Type.ALL.equals(event.getType())) {
@@ -461,14 +466,36 @@ public class MzDataSelectionPane extends DataAccessControllerPane<MzGraph, Void>
                         columnNum = ((SpectrumTableModel) tableModel).getColumnIndex(SpectrumTableModel.TableHeader.SPECTRUM_ID_COLUMN.getHeader());
                         Comparable id = (Comparable) table.getValueAt(rowNum, columnNum);
                         eventBus.publish(new SpectrumEvent(this, controller, id));
+
+                        // read the next and previous spectra in the background
+                        Task prefetchTask = PrefetchNeighbourTask.createSpectrumTask(controller, getNeighbourIds(rowNum, columnNum));
+                        TaskUtil.startLatestBackgroundTask(prefetchTask, controller, table);
                     } else if (tableModel instanceof ChromatogramTableModel) {
                         columnNum = ((ChromatogramTableModel) tableModel).getColumnIndex(ChromatogramTableModel.TableHeader.CHROMATOGRAM_ID_COLUMN.getHeader());
                         Comparable id = (Comparable) table.getValueAt(rowNum, columnNum);
                         eventBus.publish(new ChromatogramEvent(this, controller, id));
+
+                        // read the next and previous chromatograms in the background
+                        Task prefetchTask = PrefetchNeighbourTask.createChromatogramTask(controller, getNeighbourIds(rowNum, columnNum));
+                        TaskUtil.startLatestBackgroundTask(prefetchTask, controller, table);
                     }
                 }
             }
         }
+
+        /**
+         * Get the ids of the rows next to the selected row, in the current order of the table
+         */
+        private List<Comparable> getNeighbourIds(int rowNum, int columnNum) {
+            List<Comparable> ids = new ArrayList<Comparable>();
+            for (int row : PrefetchNeighbourTask.getNeighbourRows(rowNum, table.getRowCount(), PrefetchNeighbourTask.DEFAULT_DISTANCE)) {
+                Comparable id = (Comparable) table.getValueAt(row, columnNum);
+                if (id != null) {
+                    ids.add(id);
+                }
+            }
+            return ids;
+        }
     }
 
     /**
@@ -110,7 +110,7 @@ public class ChromatogramViewPane extends DataAccessControllerPane<Chromatogram,
             if (chromaId != null) {
                 Task newTask = new RetrieveChromatogramTask(controller, chromaId);
                 newTask.addTaskListener(ChromatogramViewPane.this);
-                TaskUtil.startBackgroundTask(newTask, controller);
+                TaskUtil.startLatestBackgroundTask(newTask, controller, ChromatogramViewPane.this);
             }
         }
     }
@@ -9,6 +9,7 @@ import uk.ac.ebi.pride.utilities.data.controller.DataAccessController;
 import uk.ac.ebi.pride.utilities.data.controller.DataAccessException;
 import uk.ac.ebi.pride.utilities.data.core.*;
 import uk.ac.ebi.pride.toolsuite.gui.GUIUtilities;
+import uk.ac.ebi.pride.toolsuite.gui.PrideInspectorCacheManager;
 import uk.ac.ebi.pride.toolsuite.gui.action.PrideAction;
 import uk.ac.ebi.pride.toolsuite.gui.action.impl.OpenHelpAction;
 import uk.ac.ebi.pride.toolsuite.gui.component.DataAccessControllerPane;
@@ -172,6 +173,9 @@ public class FragmentationTablePane extends DataAccessControllerPane<Peptide, Vo
         BinaryDataArray intentBinary = (peptide == null || peptide.getSpectrum() == null) ? null : peptide.getSpectrum().getIntensityBinaryDataArray();
 
         if (tabbedPane != null && mzBinary != null && intentBinary != null && !mzBinary.isEmpty() && !intentBinary.isEmpty()) {
+            // keep the peaks for the exports
+            PrideInspectorCacheManager.getInstance().getSpectrumPeakCache().put(controller, peptide.getSpectrum());
+
             int charge = getCharge(peptide);
 
             uk.ac.ebi.pride.utilities.mol.Peptide newPeptide = new PeptideTranslate(peptide).translate();
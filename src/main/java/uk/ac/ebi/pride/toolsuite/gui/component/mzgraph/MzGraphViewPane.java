@@ -232,7 +232,7 @@ public class MzGraphViewPane extends DataAccessControllerPane {
             Comparable protId = event.getIdentificationId();
 
             Task newTask = new RetrievePeptideTask(controller, protId, peptideId);
-            TaskUtil.startBackgroundTask(newTask, controller);
+            TaskUtil.startLatestBackgroundTask(newTask, controller, MzGraphViewPane.this);
         }
     }
 }
@@ -8,9 +8,11 @@ import uk.ac.ebi.pride.utilities.data.controller.DataAccessController;
 import uk.ac.ebi.pride.utilities.data.controller.DataAccessException;
 import uk.ac.ebi.pride.utilities.data.core.*;
 import uk.ac.ebi.pride.toolsuite.gui.GUIUtilities;
+import uk.ac.ebi.pride.toolsuite.gui.PrideInspectorCacheManager;
 import uk.ac.ebi.pride.toolsuite.gui.SideToolBarPanel;
 import uk.ac.ebi.pride.toolsuite.gui.action.PrideAction;
 import uk.ac.ebi.pride.toolsuite.gui.action.impl.OpenHelpAction;
+import uk.ac.ebi.pride.toolsuite.gui.access.SpectrumPeakCache;
 import uk.ac.ebi.pride.toolsuite.gui.component.DataAccessControllerPane;
 import uk.ac.ebi.pride.toolsuite.gui.component.EventBusSubscribable;
 import uk.ac.ebi.pride.toolsuite.gui.event.container.PSMEvent;
@@ -164,13 +166,34 @@ public class SpectrumViewPane extends DataAccessControllerPane<Spectrum, Void> i
 
         // subscriber
         spectrumSubscriber = new PeptideSpectrumEventSubscriber(controller, this);
-        spectrumSelectSubscriber = new SpectrumEventSubscriber(controller, this);
+        spectrumSelectSubscriber = new SpectrumEventSubscriber(controller, this) {
+            @Override
+            public void onEvent(SpectrumEvent event) {
+                showCachedPeaks(event.getSpectrumId());
+                super.onEvent(event);
+            }
+        };
 
         // subscribeToEventBus
         eventBus.subscribe(PSMEvent.class, spectrumSubscriber);
         eventBus.subscribe(SpectrumEvent.class, spectrumSelectSubscriber);
     }
 
+    /**
+     * Show the peaks of a selected spectrum straight away if they are in the spectrum peak cache,
+     * the spectrum itself is still read by the retrieve spectrum task for its metadata and annotations
+     *
+     * @param spectrumId spectrum id
+     */
+    private void showCachedPeaks(Comparable spectrumId) {
+        SpectrumPeakCache.Peaks peaks = PrideInspectorCacheManager.getInstance().getSpectrumPeakCache().getPeaks(controller, spectrumId);
+        if (peaks != null && peaks.getMz().length > 0) {
+            spectrumBrowser.setPeaks(peaks.getMz(), peaks.getIntensity());
+            spectrumBrowser.setId(spectrumId);
+            spectrumBrowser.clearMassDifferences();
+        }
+    }
+
     private int getCharge(Peptide peptide) {
         int chartState = peptide.getSpectrumIdentification().getChargeState();
         return chartState;
@@ -223,6 +246,8 @@ public class SpectrumViewPane extends DataAccessControllerPane<Spectrum, Void> i
         BinaryDataArray intentBinary = spectrum == null ? null : spectrum.getIntensityBinaryDataArray();
 
         if (spectrum != null && mzBinary != null && intentBinary != null && !mzBinary.isEmpty() && !intentBinary.isEmpty()) {
+            // keep the peaks for the exports
+            PrideInspectorCacheManager.getInstance().getSpectrumPeakCache().put(controller, spectrum);
             spectrumBrowser.setPeaks(mzBinary.getDoubleArray(), intentBinary.getDoubleArray());
             // set source name
             if (controller.getType().equals(DataAccessController.Type.XML_FILE)) {
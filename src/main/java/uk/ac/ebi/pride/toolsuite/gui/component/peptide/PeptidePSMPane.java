@@ -18,11 +18,16 @@ import uk.ac.ebi.pride.toolsuite.gui.component.table.model.TableContentType;
 import uk.ac.ebi.pride.toolsuite.gui.event.container.ChangeRankingThresholdEvent;
 import uk.ac.ebi.pride.toolsuite.gui.event.container.PSMEvent;
 import uk.ac.ebi.pride.toolsuite.gui.event.container.PeptideSpeciesEvent;
+import uk.ac.ebi.pride.toolsuite.gui.task.Task;
+import uk.ac.ebi.pride.toolsuite.gui.task.TaskUtil;
+import uk.ac.ebi.pride.toolsuite.gui.task.impl.PrefetchNeighbourTask;
 
 import javax.swing.*;
 import javax.swing.event.ListSelectionEvent;
 import javax.swing.event.ListSelectionListener;
 import java.awt.*;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * This pane is to display the PTMs details for a peptide
@@ -171,6 +176,22 @@ public class PeptidePSMPane extends DataAccessControllerPane<Peptide, Void> impl
                         EventService eventBus = ContainerEventServiceFinder.getEventService(PeptidePSMPane.this);
                         eventBus.publish(new PSMEvent(PeptidePSMPane.this, controller, identId, peptideId));
                     }
+
+                    // read the spectra of the next and previous rows in the background
+                    List<Tuple<Comparable, Comparable>> psms = new ArrayList<Tuple<Comparable, Comparable>>();
+                    for (int row : PrefetchNeighbourTask.getNeighbourRows(rowNum, table.getRowCount(), PrefetchNeighbourTask.DEFAULT_DISTANCE)) {
+                        int neighbourRowIndex = table.convertRowIndexToModel(row);
+                        Comparable neighbourIdentId = (Comparable) pepTableModel.getValueAt(neighbourRowIndex, identColNum);
+                        Comparable neighbourPeptideId = (Comparable) pepTableModel.getValueAt(neighbourRowIndex, peptideColNum);
+                        if (neighbourIdentId != null && neighbourPeptideId != null) {
+                            psms.add(new Tuple<Comparable, Comparable>(neighbourIdentId, neighbourPeptideId));
+                        }
+                    }
+
+                    if (!psms.isEmpty()) {
+                        Task prefetchTask = PrefetchNeighbourTask.createPsmTask(controller, psms);
+                        TaskUtil.startLatestBackgroundTask(prefetchTask, controller, table);
+                    }
                 }
             }
         }
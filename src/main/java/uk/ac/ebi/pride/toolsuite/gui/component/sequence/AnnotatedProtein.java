@@ -33,6 +33,10 @@ public class AnnotatedProtein extends Protein {
      * the number of amino acids covered
      */
     private int numOfAminoAcidCovered = -1;
+    /**
+     * placement of the peptides on the protein sequence
+     */
+    private SequenceCoverage coverage;
 
     /**
      * Create an annotable protein from an existing protein
@@ -54,6 +58,10 @@ public class AnnotatedProtein extends Protein {
                     Protein replacement = replacements.get(0);
                     setName(replacement.getName());
                     setSequenceString(replacement.getSequenceString());
+                } else {
+                    // read from the protein detail store, which keeps the details of the replacement
+                    setName(name);
+                    setSequenceString(protein.getSequenceString());
                 }
                 break;
             case MERGED:
@@ -61,6 +69,10 @@ public class AnnotatedProtein extends Protein {
                     Protein replacement = replacements.get(0);
                     setName(replacement.getName());
                     setSequenceString(replacement.getSequenceString());
+                } else {
+                    // read from the protein detail store, which keeps the details of the replacement
+                    setName(name);
+                    setSequenceString(protein.getSequenceString());
                 }
                 break;
             case DEMERGED:
@@ -144,10 +156,12 @@ public class AnnotatedProtein extends Protein {
 
     public void addAnnotation(PeptideAnnotation annotation) {
         this.annotations.add(annotation);
+        resetCoverage();
     }
 
     public void removeAnnotation(PeptideAnnotation annotation) {
         this.annotations.remove(annotation);
+        resetCoverage();
     }
 
     public List<PeptideAnnotation> getAnnotations() {
@@ -208,6 +222,21 @@ public class AnnotatedProtein extends Protein {
         return searchStartingPosition(annotation.getSequence());
     }
 
+    /**
+     * Search the starting positions of a list of peptides in one pass over the protein sequence
+     *
+     * @param annotations peptide annotations
+     * @return Map<String, Set<Integer>>  peptide sequence to its 0-based starting positions,
+     *         peptides which can not be found in the protein sequence are not included
+     */
+    public Map<String, Set<Integer>> searchStartingPositions(Collection<PeptideAnnotation> annotations) {
+        List<String> peptideSequences = new ArrayList<String>(annotations.size());
+        for (PeptideAnnotation annotation : annotations) {
+            peptideSequences.add(annotation.getSequence());
+        }
+        return new PeptideSequenceMatcher(peptideSequences).search(getSequenceString());
+    }
+
     public double getSequenceCoverage() {
 
         String sequence = getSequenceString();
@@ -234,71 +263,38 @@ public class AnnotatedProtein extends Protein {
         return numOfAminoAcidCovered;
     }
 
-    private void populateCoverage() {
-        java.util.List<PeptideAnnotation> peptides = this.getAnnotations();
-        if (peptides.size() > 0) {
-            int numOfValidPeptides = 0;
-
-            // remove invalid peptide
-            String sequence = this.getSequenceString();
-            if (sequence != null && !"".equals(sequence)) {
-                Iterator<PeptideAnnotation> peptideIter = peptides.iterator();
-                while (peptideIter.hasNext()) {
-                    PeptideAnnotation peptideAnnotation = peptideIter.next();
-                    if (!this.isValidPeptideAnnotation(peptideAnnotation)) {
-                        peptideIter.remove();
-                    } else {
-                        numOfValidPeptides++;
-                    }
-                }
-            }
-
-            // set number of Valid peptides
-            setNumOfValidPeptides(numOfValidPeptides);
-
-            // keep only unique peptides
-            Set<PeptideAnnotation> uniquePeptides = new LinkedHashSet<PeptideAnnotation>();
-            uniquePeptides.addAll(peptides);
-            setNumOfUniquePeptides(uniquePeptides.size());
-
-            // peptide coverage array
-            // it is the length of the protein sequence, and contains the count of sequence coverage for each position
-            int length = sequence == null ? 0 : sequence.length();
-            int[] coverageArr = new int[length];
-            for (PeptideAnnotation uniquePeptide : uniquePeptides) {
-                Set<Integer> startingPos = new HashSet<Integer>();
-                boolean strictValidPeptideAnnotation = isStrictValidPeptideAnnotation(uniquePeptide);
-                if (strictValidPeptideAnnotation) {
-                    startingPos.add(uniquePeptide.getStart() - 1);
-                } else {
-                    startingPos.addAll(searchStartingPosition(uniquePeptide));
-                }
-
-                for (Integer start : startingPos) {
-                    // if the position does match
-                    int peptideLen = uniquePeptide.getSequence().length();
-                    int end = start + peptideLen - 1;
-
-                    // iterate peptide
-                    for (int i = start; i <= end; i++) {
-                        coverageArr[i] += 1;
-                    }
-                }
-            }
-
-            // colour code the peptide positions
-            int numOfAminoAcidCovered = 0;
-            for (int count : coverageArr) {
-                if (count != 0) {
-                    numOfAminoAcidCovered++;
-                }
-            }
+    /**
+     * Get the placement of the peptide annotations on the protein sequence,
+     * it is computed once and reused until the annotations change
+     *
+     * @return SequenceCoverage    sequence coverage
+     */
+    public synchronized SequenceCoverage getCoverage() {
+        if (coverage == null) {
+            coverage = SequenceCoverage.compute(this);
+        }
+        return coverage;
+    }
 
-            // set number of amino acid being covered
-            setNumOfAminoAcidCovered(numOfAminoAcidCovered);
+    private void populateCoverage() {
+        if (getNumOfPeptides() > 0) {
+            SequenceCoverage sequenceCoverage = getCoverage();
+            setNumOfValidPeptides(sequenceCoverage.getNumOfValidPeptides());
+            setNumOfUniquePeptides(sequenceCoverage.getNumOfUniquePeptides());
+            setNumOfAminoAcidCovered(sequenceCoverage.getNumOfAminoAcidCovered());
         }
     }
 
+    /**
+     * Annotations have changed, the coverage needs to be computed again
+     */
+    private synchronized void resetCoverage() {
+        coverage = null;
+        numOfValidPeptides = -1;
+        numOfUniquePeptides = -1;
+        numOfAminoAcidCovered = -1;
+    }
+
     public void setNumOfAminoAcidCovered(int numOfAminoAcidCovered) {
         this.numOfAminoAcidCovered = numOfAminoAcidCovered;
     }
@@ -5,10 +5,7 @@ import uk.ac.ebi.pride.toolsuite.gui.utils.Constants;
 import java.awt.*;
 import java.awt.font.TextAttribute;
 import java.text.AttributedString;
-import java.util.HashSet;
-import java.util.Iterator;
-import java.util.LinkedHashSet;
-import java.util.Set;
+import java.util.Map;
 
 /**
  * This class converts a AnnotatedProtein into a AttributedSequence for drawing
@@ -67,106 +64,20 @@ public class AttributedSequenceBuilder {
      * @param formattedSequence formmated protein sequence
      */
     private static void addPeptideAnnotations(AnnotatedProtein protein, AttributedString formattedSequence) {
-        java.util.List<PeptideAnnotation> peptides = protein.getAnnotations();
-        if (peptides.size() > 0) {
-            int numOfValidPeptides = 0;
-
-            // remove invalid peptide
-            String sequence = protein.getSequenceString();
-            if (sequence != null && !"".equals(sequence)) {
-                Iterator<PeptideAnnotation> peptideIter = peptides.iterator();
-                while (peptideIter.hasNext()) {
-                    PeptideAnnotation peptideAnnotation = peptideIter.next();
-                    if (!protein.isValidPeptideAnnotation(peptideAnnotation)) {
-                        peptideIter.remove();
-                    } else {
-                        numOfValidPeptides++;
-                    }
-                }
-            }
-
-            // set number of Valid peptides
-            protein.setNumOfValidPeptides(numOfValidPeptides);
-
-            // keep only unique peptides
-            Set<PeptideAnnotation> uniquePeptides = new LinkedHashSet<PeptideAnnotation>();
-            uniquePeptides.addAll(peptides);
-            protein.setNumOfUniquePeptides(uniquePeptides.size());
-
-            // peptide coverage array
-            // it is the length of the protein sequence, and contains the count of sequence coverage for each position
-            int length = protein.getSequenceString().trim().length();
-            int[] coverageArr = new int[length];
-            int[] ptmArr = new int[length];
-            for (PeptideAnnotation uniquePeptide : uniquePeptides) {
-                Set<Integer> startingPos = new HashSet<Integer>();
-                boolean strictValidPeptideAnnotation = protein.isStrictValidPeptideAnnotation(uniquePeptide);
-                if (strictValidPeptideAnnotation) {
-                    startingPos.add(uniquePeptide.getStart() - 1);
-                } else {
-                    startingPos.addAll(protein.searchStartingPosition(uniquePeptide));
-                }
-
-                for (Integer start : startingPos) {
-                    // if the position does match
-                    int peptideLen = uniquePeptide.getSequence().length();
-                    int end = start + peptideLen - 1;
-                    boolean selected = uniquePeptide.equals(protein.getSelectedAnnotation());
-
-                    // iterate peptide
-                    for (int i = start; i <= end; i++) {
-                        if (selected) {
-                            // selected
-                            coverageArr[i] = PeptideFitState.SELECTED;
-                        } else if (coverageArr[i] != PeptideFitState.SELECTED) {
-                            // not selected
-                            switch (coverageArr[i]) {
-                                case PeptideFitState.STRICT_FIT:
-                                    coverageArr[i] = PeptideFitState.OVERLAP;
-                                    break;
-                                case PeptideFitState.FIT:
-                                    coverageArr[i] = PeptideFitState.OVERLAP;
-                                    break;
-                                case PeptideFitState.NOT_FIT:
-                                    coverageArr[i] = strictValidPeptideAnnotation ? PeptideFitState.STRICT_FIT : PeptideFitState.FIT;
-                                    break;
-                            }
-                        }
-                    }
-
-                    // ptms
-                    java.util.List<PTMAnnotation> ptms = uniquePeptide.getPtmAnnotations();
-                    for (PTMAnnotation ptm : ptms) {
-                        int location = ptm.getLocation();
-                        if (location >= 0) {
-                            if (location > 0 && location <= peptideLen) {
-                                location -= 1;
-                            } else if (location == peptideLen + 1) {
-                                location -= 2;
-                            }
-
-                            ptmArr[start + location] = selected ? PTMFitState.SELECTED : PTMFitState.FIT;
-                        }
-                    }
-                }
-            }
+        if (protein.getNumOfPeptides() > 0) {
+            // peptide placements are computed once per protein
+            SequenceCoverage coverage = protein.getCoverage();
+            PeptideAnnotation selectedPeptide = protein.getSelectedAnnotation();
 
             // colour code the peptide positions
-            int numOfAminoAcidCovered = 0;
-            for (int i = 0; i < coverageArr.length; i++) {
-                int count = coverageArr[i];
-                int index = mapIndex(i);
-                if (count != PeptideFitState.NOT_FIT) {
-                    numOfAminoAcidCovered++;
-                }
-                addAminoAcidAttributes(formattedSequence, index, count);
+            int[] fitStates = coverage.getResidueFitStates(selectedPeptide);
+            int length = Math.min(fitStates.length, protein.getSequenceString().trim().length());
+            for (int i = 0; i < length; i++) {
+                addAminoAcidAttributes(formattedSequence, mapIndex(i), fitStates[i]);
             }
-            // set number of amino acid being covered
-            protein.setNumOfAminoAcidCovered(numOfAminoAcidCovered);
-
 
             // colour code the ptm positions
-            addPTMAttributes(formattedSequence, ptmArr);
+            addPTMAttributes(formattedSequence, coverage.getPTMFitStates(selectedPeptide), length);
         }
     }
 
@@ -204,14 +115,17 @@ public class AttributedSequenceBuilder {
      * Add text attributes for ptms
      *
      * @param formattedSequence attributed string
-     * @param ptmArr            ptm array contains ptm information
+     * @param ptmStates         ptm position to ptm fit state
+     * @param length            length of the protein sequence
      */
-    private static void addPTMAttributes(AttributedString formattedSequence, int[] ptmArr) {
-        for (int i = 0; i < ptmArr.length; i++) {
-            int count = ptmArr[i];
-            int index = mapIndex(i);
+    private static void addPTMAttributes(AttributedString formattedSequence, Map<Integer, Integer> ptmStates, int length) {
+        for (Map.Entry<Integer, Integer> ptmState : ptmStates.entrySet()) {
+            if (ptmState.getKey() >= length) {
+                continue;
+            }
+            int index = mapIndex(ptmState.getKey());
 
-            switch (count) {
+            switch (ptmState.getValue()) {
                 case PTMFitState.FIT:
                     formattedSequence.addAttribute(TextAttribute.BACKGROUND, Constants.PTM_BACKGROUND_COLOUR, index, index + 1);
                     break;
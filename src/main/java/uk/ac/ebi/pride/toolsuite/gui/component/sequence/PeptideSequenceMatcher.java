@@ -0,0 +1,242 @@
+package uk.ac.ebi.pride.toolsuite.gui.component.sequence;
+
+import java.util.*;
+
+/**
+ * PeptideSequenceMatcher finds all the starting positions of a set of peptides
+ * in a protein sequence.
+ * <p/>
+ * An Aho-Corasick automaton is built once over all the peptide sequences, a protein sequence
+ * is then searched in a single pass regardless of the number of peptides. Overlapping matches
+ * are all reported. The comparison is case insensitive.
+ * <p/>
+ * Peptides containing non-ASCII characters are rare, they are searched using String.indexOf.
+ *
+ * @author Rui Wang
+ * @version $Id$
+ */
+public class PeptideSequenceMatcher {
+
+    private static final int ASCII_SIZE = 128;
+
+    private static final int ROOT = 0;
+
+    /**
+     * distinct peptide sequences, the index is the peptide id used in the automaton
+     */
+    private final List<String> peptides;
+
+    /**
+     * peptides which are not part of the automaton
+     */
+    private final List<String> nonAsciiPeptides;
+
+    /**
+     * ascii character to alphabet symbol, -1 if the character is not used by any peptide
+     */
+    private final int[] symbols;
+
+    private int alphabetSize;
+
+    /**
+     * state transitions, indexed by state and symbol
+     */
+    private int[][] transitions;
+
+    /**
+     * peptide ending at each state, -1 if none
+     */
+    private int[] outputs;
+
+    /**
+     * the next peptide ending at the same state, for peptides differing only in case, -1 if none
+     */
+    private int[] sameOutputs;
+
+    /**
+     * the next state along the failure links which has an output, -1 if none
+     */
+    private int[] outputLinks;
+
+    private int numOfStates;
+
+    /**
+     * Build a matcher for the given peptide sequences
+     *
+     * @param peptideSequences peptide sequences, null, empty and duplicated sequences are ignored
+     */
+    public PeptideSequenceMatcher(Collection<String> peptideSequences) {
+        this.peptides = new ArrayList<String>();
+        this.nonAsciiPeptides = new ArrayList<String>();
+        this.symbols = new int[ASCII_SIZE];
+        Arrays.fill(symbols, -1);
+
+        int maxNumOfStates = 1;
+        Set<String> distinctPeptides = new LinkedHashSet<String>();
+        for (String peptideSequence : peptideSequences) {
+            if (peptideSequence != null && peptideSequence.length() > 0 && distinctPeptides.add(peptideSequence)) {
+                if (isAscii(peptideSequence)) {
+                    peptides.add(peptideSequence);
+                    maxNumOfStates += peptideSequence.length();
+                    for (int i = 0; i < peptideSequence.length(); i++) {
+                        int c = toUpperCase(peptideSequence.charAt(i));
+                        if (symbols[c] == -1) {
+                            symbols[c] = alphabetSize++;
+                        }
+                    }
+                } else {
+                    nonAsciiPeptides.add(peptideSequence);
+                }
+            }
+        }
+
+        buildTrie(maxNumOfStates);
+        buildFailureLinks();
+    }
+
+    /**
+     * Search all the peptides in a protein sequence
+     *
+     * @param sequence protein sequence
+     * @return Map<String, Set<Integer>>  peptide sequence to its 0-based starting positions in ascending order,
+     *         peptides which are not found are not included
+     */
+    public Map<String, Set<Integer>> search(String sequence) {
+        Map<String, Set<Integer>> results = new HashMap<String, Set<Integer>>();
+        if (sequence == null || sequence.length() == 0) {
+            return results;
+        }
+
+        if (!peptides.isEmpty()) {
+            int state = ROOT;
+            for (int i = 0; i < sequence.length(); i++) {
+                char c = sequence.charAt(i);
+                int symbol = c < ASCII_SIZE ? symbols[toUpperCase(c)] : -1;
+                if (symbol == -1) {
+                    // no peptide contains this character
+                    state = ROOT;
+                    continue;
+                }
+
+                state = transitions[state][symbol];
+                int outputState = outputs[state] == -1 ? outputLinks[state] : state;
+                while (outputState != -1) {
+                    for (int peptideIndex = outputs[outputState]; peptideIndex != -1; peptideIndex = sameOutputs[peptideIndex]) {
+                        String peptide = peptides.get(peptideIndex);
+                        addPosition(results, peptide, i - peptide.length() + 1);
+                    }
+                    outputState = outputLinks[outputState];
+                }
+            }
+        }
+
+        if (!nonAsciiPeptides.isEmpty()) {
+            String upperCaseSequence = sequence.toUpperCase();
+            for (String peptide : nonAsciiPeptides) {
+                String upperCasePeptide = peptide.toUpperCase();
+                int start = upperCaseSequence.indexOf(upperCasePeptide);
+                while (start != -1) {
+                    addPosition(results, peptide, start);
+                    start = upperCaseSequence.indexOf(upperCasePeptide, start + 1);
+                }
+            }
+        }
+
+        return results;
+    }
+
+    private void buildTrie(int maxNumOfStates) {
+        transitions = new int[maxNumOfStates][];
+        outputs = new int[maxNumOfStates];
+        outputLinks = new int[maxNumOfStates];
+        sameOutputs = new int[peptides.size()];
+        numOfStates = 1;
+        transitions[ROOT] = newTransitions();
+        outputs[ROOT] = -1;
+
+        for (int peptideIndex = 0; peptideIndex < peptides.size(); peptideIndex++) {
+            String peptide = peptides.get(peptideIndex);
+            int state = ROOT;
+            for (int i = 0; i < peptide.length(); i++) {
+                int symbol = symbols[toUpperCase(peptide.charAt(i))];
+                int next = transitions[state][symbol];
+                if (next == -1) {
+                    next = numOfStates++;
+                    transitions[next] = newTransitions();
+                    outputs[next] = -1;
+                    transitions[state][symbol] = next;
+                }
+                state = next;
+            }
+
+            sameOutputs[peptideIndex] = outputs[state];
+            outputs[state] = peptideIndex;
+        }
+    }
+
+    /**
+     * Convert the trie into a deterministic automaton by breadth first traversal,
+     * missing transitions are replaced by the transitions of the failure state
+     */
+    private void buildFailureLinks() {
+        int[] failures = new int[numOfStates];
+        int[] queue = new int[numOfStates];
+        int head = 0;
+        int tail = 0;
+
+        outputLinks[ROOT] = -1;
+        for (int symbol = 0; symbol < alphabetSize; symbol++) {
+            int next = transitions[ROOT][symbol];
+            if (next == -1) {
+                transitions[ROOT][symbol] = ROOT;
+            } else {
+                failures[next] = ROOT;
+                outputLinks[next] = -1;
+                queue[tail++] = next;
+            }
+        }
+
+        while (head < tail) {
+            int state = queue[head++];
+            for (int symbol = 0; symbol < alphabetSize; symbol++) {
+                int next = transitions[state][symbol];
+                int fallback = transitions[failures[state]][symbol];
+                if (next == -1) {
+                    transitions[state][symbol] = fallback;
+                } else {
+                    failures[next] = fallback;
+                    outputLinks[next] = outputs[fallback] != -1 ? fallback : outputLinks[fallback];
+                    queue[tail++] = next;
+                }
+            }
+        }
+    }
+
+    private int[] newTransitions() {
+        int[] stateTransitions = new int[alphabetSize];
+        Arrays.fill(stateTransitions, -1);
+        return stateTransitions;
+    }
+
+    private static void addPosition(Map<String, Set<Integer>> results, String peptide, int start) {
+        Set<Integer> positions = results.get(peptide);
+        if (positions == null) {
+            positions = new LinkedHashSet<Integer>();
+            results.put(peptide, positions);
+        }
+        positions.add(start);
+    }
+
+    private static boolean isAscii(String sequence) {
+        for (int i = 0; i < sequence.length(); i++) {
+            if (sequence.charAt(i) >= ASCII_SIZE) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int toUpperCase(char c) {
+        return c >= 'a' && c <= 'z' ? c - ('a' - 'A') : c;
+    }
+}
@@ -558,7 +558,7 @@ public class ProteinSequencePane extends DataAccessControllerPane<AnnotatedProte
                 task.addTaskListener(ProteinSequencePane.this);
             }
 
-            TaskUtil.startBackgroundTask(task, controller);
+            TaskUtil.startLatestBackgroundTask(task, controller, ProteinSequencePane.this);
         }
     }
 }
@@ -0,0 +1,279 @@
+package uk.ac.ebi.pride.toolsuite.gui.component.sequence;
+
+import java.util.*;
+
+/**
+ * SequenceCoverage places the peptide annotations of a protein on its sequence.
+ * <p/>
+ * The placements are computed once per protein and kept as intervals on primitive arrays,
+ * the covered residues are stored in a BitSet. The number of covered amino acids, the fit state
+ * of each residue and the PTM positions are all derived from the same placements, so the protein
+ * tables and the protein sequence pane share the same computation.
+ *
+ * @author Rui Wang
+ * @version $Id$
+ */
+public class SequenceCoverage {
+
+    private final int sequenceLength;
+
+    private final int numOfValidPeptides;
+
+    private final int numOfUniquePeptides;
+
+    /**
+     * residues covered by at least one peptide
+     */
+    private final BitSet coveredResidues;
+
+    /**
+     * unique peptides, indexed by peptideIndexes
+     */
+    private final List<PeptideAnnotation> uniquePeptides;
+
+    /**
+     * placement intervals, start inclusive, end exclusive, both 0-based
+     */
+    private final int[] starts;
+    private final int[] ends;
+
+    /**
+     * whether a placement is at the position reported by the peptide
+     */
+    private final boolean[] strict;
+
+    /**
+     * index of the unique peptide of each placement
+     */
+    private final int[] peptideIndexes;
+
+    /**
+     * 0-based residue positions of the ptms of each placement
+     */
+    private final int[][] ptmPositions;
+
+    private SequenceCoverage(int sequenceLength, int numOfValidPeptides, List<PeptideAnnotation> uniquePeptides,
+                             int numOfPlacements) {
+        this.sequenceLength = sequenceLength;
+        this.numOfValidPeptides = numOfValidPeptides;
+        this.numOfUniquePeptides = uniquePeptides.size();
+        this.uniquePeptides = uniquePeptides;
+        this.coveredResidues = new BitSet(sequenceLength);
+        this.starts = new int[numOfPlacements];
+        this.ends = new int[numOfPlacements];
+        this.strict = new boolean[numOfPlacements];
+        this.peptideIndexes = new int[numOfPlacements];
+        this.ptmPositions = new int[numOfPlacements][];
+    }
+
+    /**
+     * Compute the sequence coverage of an annotated protein
+     * <p/>
+     * Peptides not found in the protein sequence are ignored, a peptide which is not at its reported
+     * position is placed at all the positions where it can be found.
+     *
+     * @param protein annotated protein
+     * @return SequenceCoverage    sequence coverage
+     */
+    public static SequenceCoverage compute(AnnotatedProtein protein) {
+        List<PeptideAnnotation> peptides = protein.getAnnotations();
+        String sequence = protein.getSequenceString();
+        boolean hasSequence = sequence != null && !"".equals(sequence);
+
+        // search all the peptides at once
+        Map<String, Set<Integer>> startingPositions = hasSequence ?
+                protein.searchStartingPositions(peptides) : Collections.<String, Set<Integer>>emptyMap();
+
+        // remove invalid peptide
+        int numOfValidPeptides = 0;
+        if (hasSequence) {
+            Iterator<PeptideAnnotation> peptideIter = peptides.iterator();
+            while (peptideIter.hasNext()) {
+                if (!startingPositions.containsKey(peptideIter.next().getSequence())) {
+                    peptideIter.remove();
+                } else {
+                    numOfValidPeptides++;
+                }
+            }
+        }
+
+        // keep only unique peptides
+        List<PeptideAnnotation> uniquePeptides = new ArrayList<PeptideAnnotation>(new LinkedHashSet<PeptideAnnotation>(peptides));
+
+        // starting positions of each unique peptide
+        int numOfPlacements = 0;
+        int[][] peptideStarts = new int[uniquePeptides.size()][];
+        boolean[] strictPeptides = new boolean[uniquePeptides.size()];
+        for (int i = 0; i < uniquePeptides.size(); i++) {
+            PeptideAnnotation peptide = uniquePeptides.get(i);
+            if (protein.isStrictValidPeptideAnnotation(peptide)) {
+                strictPeptides[i] = true;
+                peptideStarts[i] = new int[]{peptide.getStart() - 1};
+            } else {
+                Set<Integer> positions = startingPositions.get(peptide.getSequence());
+                peptideStarts[i] = new int[positions == null ? 0 : positions.size()];
+                if (positions != null) {
+                    int j = 0;
+                    for (Integer position : positions) {
+                        peptideStarts[i][j++] = position;
+                    }
+                }
+            }
+            numOfPlacements += peptideStarts[i].length;
+        }
+
+        int sequenceLength = hasSequence ? sequence.length() : 0;
+        SequenceCoverage coverage = new SequenceCoverage(sequenceLength, numOfValidPeptides, uniquePeptides, numOfPlacements);
+
+        int placement = 0;
+        for (int i = 0; i < uniquePeptides.size(); i++) {
+            PeptideAnnotation peptide = uniquePeptides.get(i);
+            int peptideLen = peptide.getSequence() == null ? 0 : peptide.getSequence().length();
+            for (int start : peptideStarts[i]) {
+                int end = Math.min(start + peptideLen, sequenceLength);
+                coverage.starts[placement] = start;
+                coverage.ends[placement] = end;
+                coverage.strict[placement] = strictPeptides[i];
+                coverage.peptideIndexes[placement] = i;
+                coverage.ptmPositions[placement] = getPTMPositions(peptide, start, peptideLen, sequenceLength);
+                if (start < end) {
+                    coverage.coveredResidues.set(start, end);
+                }
+                placement++;
+            }
+        }
+
+        return coverage;
+    }
+
+    /**
+     * Get the 0-based positions of the ptms of a peptide placed at a given start position
+     */
+    private static int[] getPTMPositions(PeptideAnnotation peptide, int start, int peptideLen, int sequenceLength) {
+        List<PTMAnnotation> ptms = peptide.getPtmAnnotations();
+        int[] positions = new int[ptms.size()];
+        int numOfPositions = 0;
+        for (PTMAnnotation ptm : ptms) {
+            int location = ptm.getLocation();
+            if (location >= 0) {
+                // n-terminal and c-terminal modifications are placed on the first and the last residue
+                if (location > 0 && location <= peptideLen) {
+                    location -= 1;
+                } else if (location == peptideLen + 1) {
+                    location -= 2;
+                }
+
+                int position = start + location;
+                if (position < sequenceLength) {
+                    positions[numOfPositions++] = position;
+                }
+            }
+        }
+        return numOfPositions == positions.length ? positions : Arrays.copyOf(positions, numOfPositions);
+    }
+
+    public int getNumOfValidPeptides() {
+        return numOfValidPeptides;
+    }
+
+    public int getNumOfUniquePeptides() {
+        return numOfUniquePeptides;
+    }
+
+    public int getNumOfAminoAcidCovered() {
+        return coveredResidues.cardinality();
+    }
+
+    /**
+     * Get the sequence coverage
+     *
+     * @return double  fraction of the amino acids covered, -1 if there is no protein sequence
+     */
+    public double getSequenceCoverage() {
+        return sequenceLength == 0 ? -1 : (double) getNumOfAminoAcidCovered() / sequenceLength;
+    }
+
+    /**
+     * Get the residues covered by at least one peptide
+     *
+     * @return BitSet  a copy of the covered residues
+     */
+    public BitSet getCoveredResidues() {
+        return (BitSet) coveredResidues.clone();
+    }
+
+    /**
+     * Get the fit state of each residue of the protein sequence, see PeptideFitState
+     * <p/>
+     * A residue covered by the selected peptide is SELECTED, a residue covered by more than one
+     * peptide is OVERLAP, otherwise it takes the fit state of the peptide covering it.
+     *
+     * @param selectedPeptide selected peptide, can be null
+     * @return int[]   peptide fit state of each residue
+     */
+    public int[] getResidueFitStates(PeptideAnnotation selectedPeptide) {
+        // interval boundaries, resolved by a single sweep
+        int[] counts = new int[sequenceLength + 1];
+        int[] strictCounts = new int[sequenceLength + 1];
+        int[] selectedCounts = new int[sequenceLength + 1];
+        for (int i = 0; i < starts.length; i++) {
+            if (starts[i] >= ends[i]) {
+                continue;
+            }
+
+            if (isSelected(i, selectedPeptide)) {
+                selectedCounts[starts[i]]++;
+                selectedCounts[ends[i]]--;
+            } else {
+                counts[starts[i]]++;
+                counts[ends[i]]--;
+                if (strict[i]) {
+                    strictCounts[starts[i]]++;
+                    strictCounts[ends[i]]--;
+                }
+            }
+        }
+
+        int[] states = new int[sequenceLength];
+        int count = 0;
+        int strictCount = 0;
+        int selectedCount = 0;
+        for (int i = 0; i < sequenceLength; i++) {
+            count += counts[i];
+            strictCount += strictCounts[i];
+            selectedCount += selectedCounts[i];
+            if (selectedCount > 0) {
+                states[i] = PeptideFitState.SELECTED;
+            } else if (count > 1) {
+                states[i] = PeptideFitState.OVERLAP;
+            } else if (count == 1) {
+                states[i] = strictCount == 1 ? PeptideFitState.STRICT_FIT : PeptideFitState.FIT;
+            } else {
+                states[i] = PeptideFitState.NOT_FIT;
+            }
+        }
+
+        return states;
+    }
+
+    /**
+     * Get the ptm positions on the protein sequence, see PTMFitState
+     *
+     * @param selectedPeptide selected peptide, can be null
+     * @return Map<Integer, Integer>   0-based residue position to ptm fit state
+     */
+    public Map<Integer, Integer> getPTMFitStates(PeptideAnnotation selectedPeptide) {
+        Map<Integer, Integer> states = new TreeMap<Integer, Integer>();
+        for (int i = 0; i < ptmPositions.length; i++) {
+            int state = isSelected(i, selectedPeptide) ? PTMFitState.SELECTED : PTMFitState.FIT;
+            for (int position : ptmPositions[i]) {
+                states.put(position, state);
+            }
+        }
+        return states;
+    }
+
+    private boolean isSelected(int placement, PeptideAnnotation selectedPeptide) {
+        return selectedPeptide != null && uniquePeptides.get(peptideIndexes[placement]).equals(selectedPeptide);
+    }
+}
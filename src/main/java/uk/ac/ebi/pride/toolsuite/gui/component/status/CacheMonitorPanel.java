@@ -0,0 +1,139 @@
+package uk.ac.ebi.pride.toolsuite.gui.component.status;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import uk.ac.ebi.pride.toolsuite.gui.PrideInspectorCacheManager;
+import uk.ac.ebi.pride.toolsuite.gui.access.CacheStatistics;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.awt.event.HierarchyEvent;
+import java.awt.event.HierarchyListener;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.beans.PropertyChangeEvent;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * CacheMonitorPanel shows the estimated memory used by all the caches,
+ * clicking on it opens a dialog with the statistics of each cache.
+ * <p/>
+ * The statistics are collected in the background, some caches are locked while data is read from a data source.
+ * They are only refreshed while the panel is showing.
+ *
+ * @author Rui Wang
+ * @version $Id$
+ */
+public class CacheMonitorPanel extends StatusBarPanel {
+    private static final Logger logger = LoggerFactory.getLogger(CacheMonitorPanel.class);
+
+    /**
+     * interval between two refreshes in milliseconds
+     */
+    private static final int REFRESH_INTERVAL = 5000;
+
+    private JLabel cacheLabel;
+
+    /**
+     * dialog for displaying the statistics of each cache
+     */
+    private CacheStatisticsDialog cacheStatisticsDialog;
+
+    /**
+     * the running refresh, null if there is none
+     */
+    private SwingWorker<List<CacheStatistics>, Void> refreshWorker;
+
+    public CacheMonitorPanel() {
+        super(0, true);
+        this.setLayout(new BorderLayout());
+        this.setOpaque(false);
+
+        ActionListener refreshListener = new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                refresh();
+            }
+        };
+
+        // create a dialog to display the cache statistics
+        cacheStatisticsDialog = new CacheStatisticsDialog(uk.ac.ebi.pride.toolsuite.gui.desktop.Desktop.getInstance().getMainComponent(), refreshListener);
+        cacheStatisticsDialog.setVisible(false);
+
+        cacheLabel = new JLabel("Cache: -");
+        cacheLabel.setToolTipText("Click to show cache statistics");
+        cacheLabel.addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                cacheStatisticsDialog.setVisible(true);
+                refresh();
+            }
+        });
+        this.add(cacheLabel, BorderLayout.CENTER);
+
+        final Timer timer = new Timer(REFRESH_INTERVAL, refreshListener);
+        timer.setInitialDelay(0);
+        this.addHierarchyListener(new HierarchyListener() {
+            @Override
+            public void hierarchyChanged(HierarchyEvent e) {
+                if ((e.getChangeFlags() & HierarchyEvent.SHOWING_CHANGED) != 0) {
+                    if (isShowing()) {
+                        timer.restart();
+                    } else {
+                        timer.stop();
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Collect the cache statistics in the background, skipped if a refresh is still running.
+     * The estimation walks through the caches, it never runs on the event dispatch thread.
+     */
+    private void refresh() {
+        if (refreshWorker != null) {
+            return;
+        }
+
+        refreshWorker = new SwingWorker<List<CacheStatistics>, Void>() {
+            @Override
+            protected List<CacheStatistics> doInBackground() throws Exception {
+                return PrideInspectorCacheManager.getInstance().getCacheStatistics();
+            }
+
+            @Override
+            protected void done() {
+                refreshWorker = null;
+                try {
+                    showStatistics(get());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (ExecutionException e) {
+                    logger.error("Failed to collect cache statistics", e.getCause());
+                }
+            }
+        };
+        refreshWorker.execute();
+    }
+
+    private void showStatistics(List<CacheStatistics> statistics) {
+        long estimatedBytes = 0;
+        for (CacheStatistics cacheStatistics : statistics) {
+            estimatedBytes += cacheStatistics.getEstimatedBytes();
+        }
+        cacheLabel.setText("Cache: " + CacheStatisticsDialog.formatBytes(estimatedBytes));
+
+        if (cacheStatisticsDialog.isVisible()) {
+            cacheStatisticsDialog.setStatistics(statistics);
+        }
+    }
+
+    @Override
+    public void propertyChange(PropertyChangeEvent evt) {
+        // refreshed by timer
+    }
+}
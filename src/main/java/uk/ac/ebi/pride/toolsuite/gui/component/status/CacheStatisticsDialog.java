@@ -0,0 +1,144 @@
+package uk.ac.ebi.pride.toolsuite.gui.component.status;
+
+import uk.ac.ebi.pride.toolsuite.gui.access.CacheStatistics;
+
+import javax.swing.*;
+import javax.swing.table.AbstractTableModel;
+import javax.swing.table.DefaultTableCellRenderer;
+import java.awt.*;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * CacheStatisticsDialog is displayed when CacheMonitorPanel is clicked,
+ * it shows the number of entries, the estimated size and the hit ratio of each cache.
+ *
+ * @author Rui Wang
+ * @version $Id$
+ */
+public class CacheStatisticsDialog extends JDialog {
+    private static final String CACHE_DIALOG_TITLE = "Cache Statistics";
+    private static final String REFRESH = "Refresh";
+    private static final String CLOSE = "Close";
+
+    private final CacheStatisticsTableModel tableModel;
+
+    public CacheStatisticsDialog(JFrame owner, ActionListener refreshListener) {
+        super(owner, CACHE_DIALOG_TITLE);
+        this.setLayout(new BorderLayout());
+        this.setSize(new Dimension(570, 300));
+
+        // main panel
+        JPanel mainPanel = new JPanel(new BorderLayout());
+        mainPanel.setBorder(BorderFactory.createEmptyBorder(5, 5, 5, 5));
+
+        // statistics table
+        tableModel = new CacheStatisticsTableModel();
+        JTable table = new JTable(tableModel);
+        DefaultTableCellRenderer rightRenderer = new DefaultTableCellRenderer();
+        rightRenderer.setHorizontalAlignment(SwingConstants.RIGHT);
+        for (int i = 1; i < tableModel.getColumnCount(); i++) {
+            table.getColumnModel().getColumn(i).setCellRenderer(rightRenderer);
+        }
+
+        JScrollPane scrollPane = new JScrollPane(table, JScrollPane.VERTICAL_SCROLLBAR_AS_NEEDED, JScrollPane.HORIZONTAL_SCROLLBAR_AS_NEEDED);
+        mainPanel.add(scrollPane, BorderLayout.CENTER);
+
+        // button panel
+        JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+        JButton refreshButton = new JButton(REFRESH);
+        refreshButton.addActionListener(refreshListener);
+        buttonPanel.add(refreshButton);
+        JButton closeButton = new JButton(CLOSE);
+        closeButton.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                setVisible(false);
+            }
+        });
+        buttonPanel.add(closeButton);
+
+        mainPanel.add(buttonPanel, BorderLayout.SOUTH);
+
+        this.add(mainPanel, BorderLayout.CENTER);
+
+        // set display location
+        Dimension d = Toolkit.getDefaultToolkit().getScreenSize();
+        this.setLocation((d.width - getWidth()) / 2, (d.height - getHeight()) / 2);
+    }
+
+    /**
+     * Show the latest cache statistics, this must be called on the event dispatch thread
+     *
+     * @param statistics cache statistics
+     */
+    public void setStatistics(List<CacheStatistics> statistics) {
+        tableModel.setStatistics(statistics);
+    }
+
+    /**
+     * Format a number of bytes, such as 12.3 MB
+     *
+     * @param bytes number of bytes
+     * @return String  formatted size
+     */
+    static String formatBytes(long bytes) {
+        if (bytes < 1024) {
+            return bytes + " B";
+        }
+
+        String[] units = {"KB", "MB", "GB", "TB"};
+        double size = bytes / 1024.0;
+        int unit = 0;
+        while (size >= 1024 && unit < units.length - 1) {
+            size /= 1024;
+            unit++;
+        }
+        return String.format("%.1f %s", size, units[unit]);
+    }
+
+    private static class CacheStatisticsTableModel extends AbstractTableModel {
+        private static final String[] COLUMN_NAMES = {"Cache", "Entries", "Estimated Size", "Hit Ratio"};
+
+        private List<CacheStatistics> statistics = Collections.emptyList();
+
+        public void setStatistics(List<CacheStatistics> statistics) {
+            this.statistics = new ArrayList<CacheStatistics>(statistics);
+            fireTableDataChanged();
+        }
+
+        @Override
+        public int getRowCount() {
+            return statistics.size();
+        }
+
+        @Override
+        public int getColumnCount() {
+            return COLUMN_NAMES.length;
+        }
+
+        @Override
+        public String getColumnName(int column) {
+            return COLUMN_NAMES[column];
+        }
+
+        @Override
+        public Object getValueAt(int rowIndex, int columnIndex) {
+            CacheStatistics cacheStatistics = statistics.get(rowIndex);
+            switch (columnIndex) {
+                case 0:
+                    return cacheStatistics.getName();
+                case 1:
+                    return cacheStatistics.getNumOfEntries();
+                case 2:
+                    return formatBytes(cacheStatistics.getEstimatedBytes());
+                default:
+                    double hitRatio = cacheStatistics.getHitRatio();
+                    return Double.isNaN(hitRatio) ? "-" : String.format("%.1f%%", hitRatio * 100);
+            }
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package uk.ac.ebi.pride.toolsuite.gui.component.status;
+
+import uk.ac.ebi.pride.toolsuite.gui.desktop.Desktop;
+import uk.ac.ebi.pride.toolsuite.gui.task.TaskLane;
+import uk.ac.ebi.pride.toolsuite.gui.task.TaskManager;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.awt.event.HierarchyEvent;
+import java.awt.event.HierarchyListener;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.beans.PropertyChangeEvent;
+
+/**
+ * TaskMetricsPanel shows the number of running and waiting tasks,
+ * clicking on it opens a dialog with the metrics of each class of tasks.
+ * The panel is refreshed while it is showing.
+ *
+ * @author Rui Wang
+ * @version $Id$
+ */
+public class TaskMetricsPanel extends StatusBarPanel {
+
+    /**
+     * interval between two refreshes in milliseconds
+     */
+    private static final int REFRESH_INTERVAL = 1000;
+
+    private final TaskManager taskManager;
+
+    private JLabel taskLabel;
+
+    /**
+     * dialog for displaying the metrics of each class of tasks
+     */
+    private TaskStatisticsDialog taskStatisticsDialog;
+
+    public TaskMetricsPanel() {
+        super(0, true);
+        this.setLayout(new BorderLayout());
+        this.setOpaque(false);
+
+        this.taskManager = Desktop.getInstance().getDesktopContext().getTaskManager();
+
+        // create a dialog to display the task metrics
+        taskStatisticsDialog = new TaskStatisticsDialog(Desktop.getInstance().getMainComponent(), taskManager);
+        taskStatisticsDialog.setVisible(false);
+
+        taskLabel = new JLabel("Tasks: -");
+        taskLabel.setToolTipText("Click to show task metrics");
+        taskLabel.addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                taskStatisticsDialog.setVisible(true);
+                taskStatisticsDialog.refresh();
+            }
+        });
+        this.add(taskLabel, BorderLayout.CENTER);
+
+        final Timer timer = new Timer(REFRESH_INTERVAL, new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                refresh();
+            }
+        });
+        timer.setInitialDelay(0);
+        this.addHierarchyListener(new HierarchyListener() {
+            @Override
+            public void hierarchyChanged(HierarchyEvent e) {
+                if ((e.getChangeFlags() & HierarchyEvent.SHOWING_CHANGED) != 0) {
+                    if (isShowing()) {
+                        timer.restart();
+                    } else {
+                        timer.stop();
+                    }
+                }
+            }
+        });
+    }
+
+    private void refresh() {
+        int running = 0;
+        int waiting = 0;
+        StringBuilder toolTip = new StringBuilder("<html>Click to show task metrics");
+        for (TaskLane lane : TaskLane.values()) {
+            int laneRunning = taskManager.getNumberOfRunningTasks(lane);
+            int laneWaiting = taskManager.getNumberOfWaitingTasks(lane);
+            running += laneRunning;
+            waiting += laneWaiting;
+            toolTip.append("<br>").append(lane.getName()).append(": ")
+                    .append(laneRunning).append(" running, ").append(laneWaiting).append(" waiting");
+        }
+        toolTip.append("</html>");
+
+        taskLabel.setText("Tasks: " + running + " / " + waiting);
+        taskLabel.setToolTipText(toolTip.toString());
+
+        if (taskStatisticsDialog.isVisible()) {
+            taskStatisticsDialog.refresh();
+        }
+    }
+
+    @Override
+    public void propertyChange(PropertyChangeEvent evt) {
+        // refreshed by timer
+    }
+}
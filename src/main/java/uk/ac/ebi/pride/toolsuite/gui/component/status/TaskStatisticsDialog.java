@@ -0,0 +1,211 @@
+package uk.ac.ebi.pride.toolsuite.gui.component.status;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import uk.ac.ebi.pride.toolsuite.gui.PrideInspectorContext;
+import uk.ac.ebi.pride.toolsuite.gui.component.dialog.SimpleFileDialog;
+import uk.ac.ebi.pride.toolsuite.gui.desktop.Desktop;
+import uk.ac.ebi.pride.toolsuite.gui.task.TaskManager;
+import uk.ac.ebi.pride.toolsuite.gui.task.TaskStatistics;
+
+import javax.swing.*;
+import javax.swing.table.AbstractTableModel;
+import javax.swing.table.DefaultTableCellRenderer;
+import java.awt.*;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.io.*;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static uk.ac.ebi.pride.toolsuite.gui.utils.Constants.JSON_FILE;
+
+/**
+ * TaskStatisticsDialog is displayed when TaskMetricsPanel is clicked, it shows for each class of tasks
+ * the number of tasks, how long they waited and ran, and the time spent on the event dispatch thread.
+ * <p/>
+ * Durations are in milliseconds, shown as median / 95th percentile.
+ *
+ * @author Rui Wang
+ * @version $Id$
+ */
+public class TaskStatisticsDialog extends JDialog {
+    private static final Logger logger = LoggerFactory.getLogger(TaskStatisticsDialog.class);
+
+    private static final String TASK_DIALOG_TITLE = "Task Metrics";
+    private static final String REFRESH = "Refresh";
+    private static final String SAVE = "Save...";
+    private static final String CLOSE = "Close";
+    private static final String DEFAULT_FILE_NAME = "task_metrics";
+
+    private final TaskManager taskManager;
+
+    private final TaskStatisticsTableModel tableModel;
+
+    public TaskStatisticsDialog(JFrame owner, TaskManager taskManager) {
+        super(owner, TASK_DIALOG_TITLE);
+        this.taskManager = taskManager;
+        this.setLayout(new BorderLayout());
+        this.setSize(new Dimension(900, 350));
+
+        // main panel
+        JPanel mainPanel = new JPanel(new BorderLayout());
+        mainPanel.setBorder(BorderFactory.createEmptyBorder(5, 5, 5, 5));
+
+        // statistics table
+        tableModel = new TaskStatisticsTableModel();
+        JTable table = new JTable(tableModel);
+        table.setAutoCreateRowSorter(true);
+        DefaultTableCellRenderer rightRenderer = new DefaultTableCellRenderer();
+        rightRenderer.setHorizontalAlignment(SwingConstants.RIGHT);
+        for (int i = 1; i < tableModel.getColumnCount(); i++) {
+            table.getColumnModel().getColumn(i).setCellRenderer(rightRenderer);
+        }
+
+        JScrollPane scrollPane = new JScrollPane(table, JScrollPane.VERTICAL_SCROLLBAR_AS_NEEDED, JScrollPane.HORIZONTAL_SCROLLBAR_AS_NEEDED);
+        mainPanel.add(scrollPane, BorderLayout.CENTER);
+
+        // button panel
+        JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+        JButton refreshButton = new JButton(REFRESH);
+        refreshButton.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                refresh();
+            }
+        });
+        buttonPanel.add(refreshButton);
+        JButton saveButton = new JButton(SAVE);
+        saveButton.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                save();
+            }
+        });
+        buttonPanel.add(saveButton);
+        JButton closeButton = new JButton(CLOSE);
+        closeButton.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                setVisible(false);
+            }
+        });
+        buttonPanel.add(closeButton);
+
+        mainPanel.add(buttonPanel, BorderLayout.SOUTH);
+
+        this.add(mainPanel, BorderLayout.CENTER);
+
+        // set display location
+        Dimension d = Toolkit.getDefaultToolkit().getScreenSize();
+        this.setLocation((d.width - getWidth()) / 2, (d.height - getHeight()) / 2);
+    }
+
+    /**
+     * Show the latest task statistics, this must be called on the event dispatch thread
+     */
+    public void refresh() {
+        tableModel.setStatistics(taskManager.getTaskStatistics());
+    }
+
+    /**
+     * Save the task statistics to a JSON file
+     */
+    private void save() {
+        PrideInspectorContext context = (PrideInspectorContext) Desktop.getInstance().getDesktopContext();
+        SimpleFileDialog ofd = new SimpleFileDialog(context.getOpenFilePath(), "Save Task Metrics", true, DEFAULT_FILE_NAME, false, JSON_FILE);
+        ofd.setMultiSelectionEnabled(false);
+        int result = ofd.showDialog(this, null);
+        if (result == JFileChooser.APPROVE_OPTION) {
+            File selectedFile = ofd.getSelectedFile();
+            String filePath = selectedFile.getPath();
+            context.setOpenFilePath(filePath.replace(selectedFile.getName(), ""));
+            File file = new File(filePath + (filePath.endsWith(JSON_FILE) ? "" : JSON_FILE));
+
+            Writer writer = null;
+            try {
+                writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), "UTF-8"));
+                taskManager.writeTaskStatistics(writer);
+            } catch (IOException ex) {
+                logger.error("Failed to save task metrics", ex);
+                JOptionPane.showMessageDialog(this, "Failed to save task metrics: " + ex.getMessage(),
+                        TASK_DIALOG_TITLE, JOptionPane.ERROR_MESSAGE);
+            } finally {
+                if (writer != null) {
+                    try {
+                        writer.close();
+                    } catch (IOException ex) {
+                        logger.error("Failed to close task metrics file", ex);
+                    }
+                }
+            }
+        }
+    }
+
+    private static String formatTiming(TaskStatistics.Timing timing) {
+        if (timing.getCount() == 0) {
+            return "-";
+        }
+        return String.format("%.1f / %.1f", timing.getMedianNanos() / 1e6, timing.getPercentile95Nanos() / 1e6);
+    }
+
+    private static class TaskStatisticsTableModel extends AbstractTableModel {
+        private static final String[] COLUMN_NAMES = {"Task", "Submitted", "Finished", "Cancelled", "Superseded",
+                "Published Items", "Queue Wait (ms)", "Run Time (ms)", "EDT Publish Total (ms)", "EDT Completion (ms)"};
+
+        private List<TaskStatistics> statistics = Collections.emptyList();
+
+        public void setStatistics(List<TaskStatistics> statistics) {
+            this.statistics = new ArrayList<TaskStatistics>(statistics);
+            fireTableDataChanged();
+        }
+
+        @Override
+        public int getRowCount() {
+            return statistics.size();
+        }
+
+        @Override
+        public int getColumnCount() {
+            return COLUMN_NAMES.length;
+        }
+
+        @Override
+        public String getColumnName(int column) {
+            return COLUMN_NAMES[column];
+        }
+
+        @Override
+        public Class<?> getColumnClass(int columnIndex) {
+            return columnIndex >= 1 && columnIndex <= 5 ? Long.class : String.class;
+        }
+
+        @Override
+        public Object getValueAt(int rowIndex, int columnIndex) {
+            TaskStatistics taskStatistics = statistics.get(rowIndex);
+            switch (columnIndex) {
+                case 0:
+                    return taskStatistics.getName();
+                case 1:
+                    return taskStatistics.getNumOfSubmitted();
+                case 2:
+                    return taskStatistics.getNumOfFinished();
+                case 3:
+                    return taskStatistics.getNumOfCancelled();
+                case 4:
+                    return taskStatistics.getNumOfSuperseded();
+                case 5:
+                    return taskStatistics.getNumOfPublishedItems();
+                case 6:
+                    return formatTiming(taskStatistics.getQueueWait());
+                case 7:
+                    return formatTiming(taskStatistics.getRunTime());
+                case 8:
+                    return String.format("%.1f", taskStatistics.getPublishTime().getTotalNanos() / 1e6);
+                default:
+                    return formatTiming(taskStatistics.getCompletionTime());
+            }
+        }
+    }
+}
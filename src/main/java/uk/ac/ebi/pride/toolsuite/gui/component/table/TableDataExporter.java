@@ -0,0 +1,207 @@
+package uk.ac.ebi.pride.toolsuite.gui.component.table;
+
+import uk.ac.ebi.pride.toolsuite.gui.component.table.model.RowObjectTableModel;
+import uk.ac.ebi.pride.toolsuite.gui.utils.Constants;
+
+import javax.swing.*;
+import javax.swing.table.TableModel;
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * TableDataExporter writes the content of a table model as tab or comma separated values.
+ * <p/>
+ * The rows and columns to export are taken from a table when the exporter is created,
+ * in view order, so the current row filter, sort order and hidden columns are respected.
+ * Values are then read from the table model, not through the table, the sorter or the renderers.
+ * For a {@link RowObjectTableModel}, the row objects are kept at creation time and the values
+ * are read straight from them, so rows added to the model during the export are ignored.
+ *
+ * @author Rui Wang
+ * @version $Id$
+ */
+public class TableDataExporter {
+
+    /**
+     * Output formats
+     */
+    public enum Format {
+        TSV(Constants.TAB.charAt(0), Constants.TAB_SEP_FILE),
+        CSV(Constants.COMMA.charAt(0), Constants.CSV_FILE);
+
+        private final char separator;
+        private final String fileExtension;
+
+        private Format(char separator, String fileExtension) {
+            this.separator = separator;
+            this.fileExtension = fileExtension;
+        }
+
+        public char getSeparator() {
+            return separator;
+        }
+
+        public String getFileExtension() {
+            return fileExtension;
+        }
+
+        /**
+         * Get the format using the extension of a file name, TSV by default
+         *
+         * @param fileName file name
+         * @return Format  output format
+         */
+        public static Format getFormat(String fileName) {
+            return fileName != null && fileName.toLowerCase().endsWith(CSV.fileExtension) ? CSV : TSV;
+        }
+    }
+
+    private final TableModel model;
+
+    /**
+     * model indexes of the rows to export, in export order
+     */
+    private final int[] rows;
+
+    /**
+     * row objects of the rows to export, null if the model is not a RowObjectTableModel
+     */
+    private final Object[] rowObjects;
+
+    /**
+     * model indexes of the columns to export, in export order
+     */
+    private final int[] columns;
+
+    private final String[] columnNames;
+
+    /**
+     * Constructor
+     *
+     * @param model   table model
+     * @param rows    model indexes of the rows to export, null for all the rows
+     * @param columns model indexes of the columns to export, null for all the columns
+     */
+    public TableDataExporter(TableModel model, int[] rows, int[] columns) {
+        this.model = model;
+        this.rows = rows == null ? range(model.getRowCount()) : rows.clone();
+        this.columns = columns == null ? range(model.getColumnCount()) : columns.clone();
+
+        // resolve column names once
+        this.columnNames = new String[this.columns.length];
+        for (int i = 0; i < this.columns.length; i++) {
+            columnNames[i] = model.getColumnName(this.columns[i]);
+        }
+
+        if (model instanceof RowObjectTableModel) {
+            RowObjectTableModel rowObjectModel = (RowObjectTableModel) model;
+            this.rowObjects = new Object[this.rows.length];
+            for (int i = 0; i < this.rows.length; i++) {
+                rowObjects[i] = rowObjectModel.getRowObject(this.rows[i]);
+            }
+        } else {
+            this.rowObjects = null;
+        }
+    }
+
+    /**
+     * Create an exporter with the rows and the columns shown by a table,
+     * this must be called on the event dispatch thread
+     *
+     * @param table table
+     * @return TableDataExporter   exporter of the table model
+     */
+    public static TableDataExporter createExporter(JTable table) {
+        int[] rows = new int[table.getRowCount()];
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = table.convertRowIndexToModel(i);
+        }
+
+        int[] columns = new int[table.getColumnCount()];
+        for (int i = 0; i < columns.length; i++) {
+            columns[i] = table.convertColumnIndexToModel(i);
+        }
+
+        return new TableDataExporter(table.getModel(), rows, columns);
+    }
+
+    public int getNumOfRows() {
+        return rows.length;
+    }
+
+    public int getNumOfColumns() {
+        return columns.length;
+    }
+
+    /**
+     * Write the header and all the rows, the writer is neither flushed nor closed
+     *
+     * @param writer output writer, it should be buffered
+     * @param format output format
+     * @throws IOException          failed to write
+     * @throws InterruptedException the current thread has been interrupted
+     */
+    public void write(Writer writer, Format format) throws IOException, InterruptedException {
+        char separator = format.getSeparator();
+
+        // header
+        for (int j = 0; j < columns.length; j++) {
+            if (j > 0) {
+                writer.write(separator);
+            }
+            writeValue(writer, columnNames[j], format);
+        }
+        writer.write(Constants.LINE_SEPARATOR);
+
+        // rows
+        RowObjectTableModel rowObjectModel = rowObjects == null ? null : (RowObjectTableModel) model;
+        for (int i = 0; i < rows.length; i++) {
+            for (int j = 0; j < columns.length; j++) {
+                if (j > 0) {
+                    writer.write(separator);
+                }
+                Object value = rowObjectModel == null ? model.getValueAt(rows[i], columns[j])
+                        : rowObjectModel.getValue(rowObjects[i], columns[j], columnNames[j]);
+                if (value != null) {
+                    writeValue(writer, value.toString(), format);
+                }
+            }
+            writer.write(Constants.LINE_SEPARATOR);
+
+            // this is important for cancelling
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+        }
+    }
+
+    /**
+     * Write one value, quoted for CSV when needed, separators and line breaks replaced for TSV
+     */
+    private void writeValue(Writer writer, String value, Format format) throws IOException {
+        int length = value.length();
+        boolean plain = true;
+        for (int k = 0; k < length && plain; k++) {
+            char c = value.charAt(k);
+            plain = c != format.getSeparator() && c != '\n' && c != '\r' && (format != Format.CSV || c != '"');
+        }
+
+        if (plain) {
+            writer.write(value);
+        } else if (format == Format.CSV) {
+            writer.write('"');
+            writer.write(value.replace("\"", "\"\""));
+            writer.write('"');
+        } else {
+            writer.write(value.replace('\t', ' ').replace('\r', ' ').replace('\n', ' '));
+        }
+    }
+
+    private static int[] range(int size) {
+        int[] indexes = new int[size];
+        for (int i = 0; i < size; i++) {
+            indexes[i] = i;
+        }
+        return indexes;
+    }
+}
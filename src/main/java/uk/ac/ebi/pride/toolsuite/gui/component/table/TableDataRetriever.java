@@ -1,12 +1,18 @@
 package uk.ac.ebi.pride.toolsuite.gui.component.table;
 
 import uk.ac.ebi.pride.tools.protein_details_fetcher.model.Protein;
-import uk.ac.ebi.pride.tools.utils.AccessionResolver;
 import uk.ac.ebi.pride.toolsuite.gui.PrideInspectorCacheManager;
+import uk.ac.ebi.pride.toolsuite.gui.access.DataAccessIdIndex;
+import uk.ac.ebi.pride.toolsuite.gui.access.ProteinCoverageStore;
+import uk.ac.ebi.pride.toolsuite.gui.access.PsmStore;
+import uk.ac.ebi.pride.toolsuite.gui.access.ResolvedAccession;
+import uk.ac.ebi.pride.toolsuite.gui.access.ResolvedAccessionCache;
 import uk.ac.ebi.pride.toolsuite.gui.component.sequence.AnnotatedProtein;
 import uk.ac.ebi.pride.toolsuite.gui.component.sequence.PeptideFitState;
+import uk.ac.ebi.pride.toolsuite.gui.component.sequence.PeptideSequenceMatcher;
 import uk.ac.ebi.pride.toolsuite.gui.component.table.model.PeptideTableRow;
 import uk.ac.ebi.pride.toolsuite.gui.component.table.model.ProteinTableRow;
+import uk.ac.ebi.pride.toolsuite.gui.component.table.model.TableContentType;
 import uk.ac.ebi.pride.toolsuite.gui.utils.Constants;
 import uk.ac.ebi.pride.toolsuite.gui.utils.ProteinAccession;
 import uk.ac.ebi.pride.utilities.data.controller.DataAccessController;
@@ -17,11 +23,15 @@ import uk.ac.ebi.pride.utilities.mol.MoleculeUtilities;
 import uk.ac.ebi.pride.utilities.term.QuantCvTermReference;
 import uk.ac.ebi.pride.utilities.term.SearchEngineScoreCvTermReference;
 import uk.ac.ebi.pride.utilities.util.NumberUtilities;
+import uk.ac.ebi.pride.utilities.util.Tuple;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * <code>TableDataRetriever </code> provides methods for retrieving row data for tables.
@@ -44,8 +54,122 @@ public class TableDataRetriever {
     public static PeptideTableRow getPeptideTableRow(DataAccessController controller,
                                                      Comparable identId,
                                                      Comparable peptideId) throws DataAccessException {
-        PeptideTableRow peptideTableRow = new PeptideTableRow();
+        return getPeptideTableRows(controller, identId, Collections.singletonList(peptideId)).get(0);
+    }
+
+    /**
+     * Get all the rows of data for peptide table which belong to one protein identification.
+     *
+     * @param controller data access controller
+     * @param identId    identification id
+     * @return List<PeptideTableRow>   peptide rows, in the order of the peptide ids
+     * @throws DataAccessException data access exception
+     */
+    public static List<PeptideTableRow> getPeptideTableRows(DataAccessController controller,
+                                                            Comparable identId) throws DataAccessException {
+        return getPeptideTableRows(controller, identId, controller.getPeptideIds(identId));
+    }
+
+    /**
+     * Get the rows of data for peptide table for a given set of peptides of one protein identification.
+     * <p/>
+     * Rows are kept in the {@link PsmStore} of the controller, a PSM already in the store is not read again.
+     * <p/>
+     * Protein level details, such as accession, protein details and sequence coverage, are loaded once
+     * the first PSM missing from the store is read, and shared by all the new rows.
+     * The peptide fit states of the new rows are computed in one pass over the protein sequence.
+     *
+     * @param controller data access controller
+     * @param identId    identification id
+     * @param peptideIds peptide ids
+     * @return List<PeptideTableRow>   peptide rows, in the order of the peptide ids
+     * @throws DataAccessException data access exception
+     */
+    public static List<PeptideTableRow> getPeptideTableRows(DataAccessController controller,
+                                                            Comparable identId,
+                                                            Collection<Comparable> peptideIds) throws DataAccessException {
+        if (peptideIds == null || peptideIds.isEmpty()) {
+            return new ArrayList<PeptideTableRow>();
+        }
+
+        PsmStore store = PsmStore.getInstance(controller);
+        DataAccessIdIndex idIndex = DataAccessIdIndex.getIndex(controller);
+        int proteinIndex = idIndex.indexOfProtein(identId);
+        Comparable[] indexedPeptideIds = proteinIndex < 0 ? null : idIndex.getPeptideIds(proteinIndex);
+
+        List<PeptideTableRow> peptideTableRows = new ArrayList<PeptideTableRow>(peptideIds.size());
+        List<PeptideTableRow> newPeptideTableRows = new ArrayList<PeptideTableRow>();
+        ProteinRowDetails proteinRowDetails = null;
+        int nextPeptideIndex = 0;
+        for (Comparable peptideId : peptideIds) {
+            // peptide ids usually come in the order of the id index
+            int peptideIndex = -1;
+            if (indexedPeptideIds != null) {
+                peptideIndex = nextPeptideIndex < indexedPeptideIds.length && indexedPeptideIds[nextPeptideIndex].equals(peptideId) ?
+                        nextPeptideIndex : idIndex.indexOfPeptide(proteinIndex, peptideId);
+                nextPeptideIndex = peptideIndex + 1;
+            }
+
+            int row;
+            Object key = null;
+            if (peptideIndex >= 0) {
+                row = store.getRow(proteinIndex, peptideIndex);
+            } else {
+                key = new Tuple<TableContentType, Tuple<Comparable, Comparable>>(TableContentType.PEPTIDE, new Tuple<Comparable, Comparable>(identId, peptideId));
+                row = store.getRow(key);
+            }
+
+            if (row < 0) {
+                if (proteinRowDetails == null) {
+                    proteinRowDetails = new ProteinRowDetails(controller, identId);
+                }
+
+                int newRow = createPeptideTableRow(controller, store, identId, peptideId, proteinRowDetails);
+                row = key == null ? store.register(newRow, proteinIndex, peptideIndex) : store.register(newRow, key);
+                if (row == newRow) {
+                    newPeptideTableRows.add(new PeptideTableRow(store, row));
+                }
+            }
+            peptideTableRows.add(new PeptideTableRow(store, row));
+        }
+
+        // peptide present, the rows already in the store keep their fit states
+        if (proteinRowDetails != null) {
+            proteinRowDetails.setPeptideFitStates(newPeptideTableRows);
+        }
+
+        return peptideTableRows;
+    }
+
+    /**
+     * Read a PSM into a new row of the store, the row is not registered.
+     * The row is released if the PSM cannot be read.
+     *
+     * @return int new row
+     */
+    private static int createPeptideTableRow(DataAccessController controller,
+                                             PsmStore store,
+                                             Comparable identId,
+                                             Comparable peptideId,
+                                             ProteinRowDetails proteinRowDetails) throws DataAccessException {
+        int row = store.addRow();
+        boolean filled = false;
+        try {
+            fillPeptideTableRow(new PeptideTableRow(store, row), controller, identId, peptideId, proteinRowDetails);
+            filled = true;
+        } finally {
+            if (!filled) {
+                store.releaseRow(row);
+            }
+        }
+        return row;
+    }
 
+    private static void fillPeptideTableRow(PeptideTableRow peptideTableRow,
+                                            DataAccessController controller,
+                                            Comparable identId,
+                                            Comparable peptideId,
+                                            ProteinRowDetails proteinRowDetails) throws DataAccessException {
         // peptide sequence with modifications
         List<Modification> mods = new ArrayList<Modification>(controller.getPTMs(identId, peptideId));
         String sequence = controller.getPeptideSequence(identId, peptideId);
@@ -56,43 +180,16 @@ public class TableDataRetriever {
         int end = controller.getPeptideSequenceEnd(identId, peptideId);
 
         // Protein Accession
-        String protAcc = controller.getProteinAccession(identId);
-        String protAccVersion = controller.getProteinAccessionVersion(identId);
-        String database = (controller.getSearchDatabase(identId).getName() == null) ? "" : controller.getSearchDatabase(identId).getName();
-        AccessionResolver resolver = new AccessionResolver(protAcc, protAccVersion, database, true);
-        String mappedProtAcc = resolver.isValidAccession() ? resolver.getAccession() : null;
-        peptideTableRow.setProteinAccession(new ProteinAccession(protAcc, mappedProtAcc));
-
-        // get protein details
-        Protein protein = PrideInspectorCacheManager.getInstance().getProteinDetails(mappedProtAcc);
-        if (protein != null) {
-            protein = new AnnotatedProtein(protein);
-        }
+        peptideTableRow.setProteinAccession(proteinRowDetails.getProteinAccession());
 
         // Protein name
-        peptideTableRow.setProteinName(protein == null ? null : protein.getName());
+        peptideTableRow.setProteinName(proteinRowDetails.getProteinName());
 
         // protein status
-        peptideTableRow.setProteinAccessionStatus(protein == null ? null : protein.getStatus().name());
+        peptideTableRow.setProteinAccessionStatus(proteinRowDetails.getProteinAccessionStatus());
 
         // sequence coverage
-        Double coverage = PrideInspectorCacheManager.getInstance().getSequenceCoverage(controller.getUid(), identId);
-        peptideTableRow.setSequenceCoverage(coverage);
-
-        // peptide present
-        int peptideFitState;
-        if (protein == null || protein.getSequenceString() == null || "".equals(protein.getSequenceString())) {
-            peptideFitState = PeptideFitState.UNKNOWN;
-        } else {
-            if (protein.hasSubSequenceString(sequence, start, end)) {
-                peptideFitState = PeptideFitState.STRICT_FIT;
-            } else if (protein.hasSubSequenceString(sequence)) {
-                peptideFitState = PeptideFitState.FIT;
-            } else {
-                peptideFitState = PeptideFitState.NOT_FIT;
-            }
-        }
-        peptideTableRow.setPeptideFitState(peptideFitState);
+        peptideTableRow.setSequenceCoverage(proteinRowDetails.getSequenceCoverage());
 
         // ranking
         int rank = controller.getPeptideRank(identId, peptideId);
@@ -161,8 +258,6 @@ public class TableDataRetriever {
 
         // peptide index
         peptideTableRow.setPeptideId(peptideId);
-
-        return peptideTableRow;
     }
 
     /**
@@ -178,8 +273,33 @@ public class TableDataRetriever {
     public static PeptideTableRow getPeptideQuantDataTableRow(DataAccessController controller,
                                                      Comparable identId,
                                                      Comparable peptideId) throws DataAccessException {
-        PeptideTableRow peptideTableRow = new PeptideTableRow();
+        // quantitation peptide ids are not in the id index
+        PsmStore store = PsmStore.getInstance(controller);
+        Object key = new Tuple<TableContentType, Tuple<Comparable, Comparable>>(TableContentType.PEPTIDE_QUANTITATION, new Tuple<Comparable, Comparable>(identId, peptideId));
+        int row = store.getRow(key);
+        if (row >= 0) {
+            return new PeptideTableRow(store, row);
+        }
+
+        // the new row is released if the PSM cannot be read
+        int newRow = store.addRow();
+        boolean filled = false;
+        try {
+            fillPeptideQuantDataTableRow(new PeptideTableRow(store, newRow), controller, identId, peptideId);
+            filled = true;
+        } finally {
+            if (!filled) {
+                store.releaseRow(newRow);
+            }
+        }
+
+        return new PeptideTableRow(store, store.register(newRow, key));
+    }
 
+    private static void fillPeptideQuantDataTableRow(PeptideTableRow peptideTableRow,
+                                                     DataAccessController controller,
+                                                     Comparable identId,
+                                                     Comparable peptideId) throws DataAccessException {
         // peptide sequence with modifications
         List<Modification> mods = new ArrayList<Modification>(controller.getNumberOfQuantPTMs(identId, peptideId));
         String sequence = controller.getQuantPeptideSequence(identId, peptideId);
@@ -189,44 +309,22 @@ public class TableDataRetriever {
         int start = -1;
         int end   = -1;
 
-        // Protein Accession
-        String protAcc = controller.getProteinAccession(identId);
-        String protAccVersion = controller.getProteinAccessionVersion(identId);
-        String database = (controller.getSearchDatabase(identId).getName() == null) ? "" : controller.getSearchDatabase(identId).getName();
-        AccessionResolver resolver = new AccessionResolver(protAcc, protAccVersion, database, true);
-        String mappedProtAcc = resolver.isValidAccession() ? resolver.getAccession() : null;
-        peptideTableRow.setProteinAccession(new ProteinAccession(protAcc, mappedProtAcc));
+        ProteinRowDetails proteinRowDetails = new ProteinRowDetails(controller, identId);
 
-        // get protein details
-        Protein protein = PrideInspectorCacheManager.getInstance().getProteinDetails(mappedProtAcc);
-        if (protein != null) {
-            protein = new AnnotatedProtein(protein);
-        }
+        // Protein Accession
+        peptideTableRow.setProteinAccession(proteinRowDetails.getProteinAccession());
 
         // Protein name
-        peptideTableRow.setProteinName(protein == null ? null : protein.getName());
+        peptideTableRow.setProteinName(proteinRowDetails.getProteinName());
 
         // protein status
-        peptideTableRow.setProteinAccessionStatus(protein == null ? null : protein.getStatus().name());
+        peptideTableRow.setProteinAccessionStatus(proteinRowDetails.getProteinAccessionStatus());
 
         // sequence coverage
-        Double coverage = PrideInspectorCacheManager.getInstance().getSequenceCoverage(controller.getUid(), identId);
-        peptideTableRow.setSequenceCoverage(coverage);
+        peptideTableRow.setSequenceCoverage(proteinRowDetails.getSequenceCoverage());
 
         // peptide present
-        int peptideFitState;
-        if (protein == null || protein.getSequenceString() == null || "".equals(protein.getSequenceString())) {
-            peptideFitState = PeptideFitState.UNKNOWN;
-        } else {
-            if (protein.hasSubSequenceString(sequence, start, end)) {
-                peptideFitState = PeptideFitState.STRICT_FIT;
-            } else if (protein.hasSubSequenceString(sequence)) {
-                peptideFitState = PeptideFitState.FIT;
-            } else {
-                peptideFitState = PeptideFitState.NOT_FIT;
-            }
-        }
-        peptideTableRow.setPeptideFitState(peptideFitState);
+        peptideTableRow.setPeptideFitState(proteinRowDetails.getPeptideFitState(sequence, start, end));
 
         // ranking
         int rank = -1;
@@ -283,52 +381,36 @@ public class TableDataRetriever {
 
         // peptide index
         peptideTableRow.setPeptideId(peptideId);
-
-        return peptideTableRow;
     }
 
     private static void addPeptideScores(PeptideTableRow peptideTableRow, DataAccessController controller,
                                          Comparable identId, Comparable peptideId) {
-        Score score = controller.getPeptideScore(identId, peptideId);
-        Collection<SearchEngineScoreCvTermReference> availablePeptideLevelScores = controller.getAvailablePeptideLevelScores();
-        if (score != null) {
-            for (SearchEngineScoreCvTermReference availablePeptideLevelScore : availablePeptideLevelScores) {
-                List<Number> values = score.getScores(availablePeptideLevelScore);
-                if (!values.isEmpty()) {
-                    // take the first by default
-                    //content.add(values.get(0));
-                    Double value =  (values.get(0) != null)?NumberUtilities.scaleDouble(values.get(0).doubleValue(),4):-1.0;
-                    peptideTableRow.addScore(value);
-
-                } else {
-                    peptideTableRow.addScore(null);
-                }
-            }
-        } else {
-            for (SearchEngineScoreCvTermReference availablePeptideLevelScore : availablePeptideLevelScores) {
-                peptideTableRow.addScore(null);
-            }
-        }
+        addScores(peptideTableRow, controller.getPeptideScore(identId, peptideId), controller.getAvailablePeptideLevelScores());
     }
 
     private static void addQuantPeptideScores(PeptideTableRow peptideTableRow, DataAccessController controller,
                                               Comparable identId, Comparable peptideId) {
-        Score score = controller.getQuantPeptideScore(identId, peptideId);
-        Collection<SearchEngineScoreCvTermReference> availablePeptideLevelScores = controller.getAvailablePeptideLevelScores();
+        addScores(peptideTableRow, controller.getQuantPeptideScore(identId, peptideId), controller.getAvailablePeptideLevelScores());
+    }
+
+    /**
+     * Set the scores of a row, in the order of the available scores, missing scores are left empty
+     */
+    private static void addScores(PeptideTableRow peptideTableRow, Score score,
+                                  Collection<SearchEngineScoreCvTermReference> availablePeptideLevelScores) {
         if (score != null) {
+            int scoreIndex = 0;
             for (SearchEngineScoreCvTermReference availablePeptideLevelScore : availablePeptideLevelScores) {
+                if (scoreIndex >= peptideTableRow.getNumOfScores()) {
+                    break;
+                }
                 List<Number> values = score.getScores(availablePeptideLevelScore);
                 if (!values.isEmpty()) {
+                    // take the first by default
                     Double value =  (values.get(0) != null)?NumberUtilities.scaleDouble(values.get(0).doubleValue(),4):-1.0;
-                    peptideTableRow.addScore(value);
-
-                } else {
-                    peptideTableRow.addScore(null);
+                    peptideTableRow.setScore(scoreIndex, value);
                 }
-            }
-        } else {
-            for (SearchEngineScoreCvTermReference availablePeptideLevelScore : availablePeptideLevelScores) {
-                peptideTableRow.addScore(null);
+                scoreIndex++;
             }
         }
     }
@@ -348,11 +430,9 @@ public class TableDataRetriever {
         ProteinTableRow proteinTableRow = new ProteinTableRow();
 
         // Original Protein Accession
-        String protAcc = controller.getProteinAccession(proteinId);
-        String protAccVersion = controller.getProteinAccessionVersion(proteinId);
-        String database = (controller.getSearchDatabase(proteinId).getName() == null) ? "" : controller.getSearchDatabase(proteinId).getName();
-        AccessionResolver resolver = new AccessionResolver(protAcc, protAccVersion, database, true);
-        String mappedProtAcc = resolver.isValidAccession() ? resolver.getAccession() : protAcc;
+        ResolvedAccession resolvedAccession = ResolvedAccessionCache.getInstance(controller).getResolvedAccession(proteinId);
+        String protAcc = resolvedAccession.getAccession();
+        String mappedProtAcc = resolvedAccession.getMappedAccession() != null ? resolvedAccession.getMappedAccession() : protAcc;
         proteinTableRow.setProteinAccession(new ProteinAccession(protAcc, mappedProtAcc));
 
         // get protein details
@@ -371,7 +451,7 @@ public class TableDataRetriever {
         proteinTableRow.setProteinAccessionStatus(protein == null ? null : protein.getStatus().name());
 
         // sequence coverage
-        Double coverage = PrideInspectorCacheManager.getInstance().getSequenceCoverage(controller.getUid(), proteinId);
+        Double coverage = ProteinCoverageStore.getInstance(controller).getSequenceCoverage(proteinId);
         proteinTableRow.setSequenceCoverage(coverage);
 
         // isoelectric points
@@ -836,4 +916,93 @@ public class TableDataRetriever {
 
         return contents;
     }
+
+    /**
+     * Protein level details shared by all the peptide rows of the same protein identification
+     */
+    private static class ProteinRowDetails {
+        private final ProteinAccession proteinAccession;
+        private final Protein protein;
+        private final Double sequenceCoverage;
+
+        private ProteinRowDetails(DataAccessController controller, Comparable identId) throws DataAccessException {
+            ResolvedAccession resolvedAccession = ResolvedAccessionCache.getInstance(controller).getResolvedAccession(identId);
+            this.proteinAccession = resolvedAccession.getProteinAccession();
+
+            // get protein details
+            Protein proteinDetails = PrideInspectorCacheManager.getInstance().getProteinDetails(resolvedAccession.getMappedAccession());
+            this.protein = proteinDetails == null ? null : new AnnotatedProtein(proteinDetails);
+
+            this.sequenceCoverage = ProteinCoverageStore.getInstance(controller).getSequenceCoverage(identId);
+        }
+
+        public ProteinAccession getProteinAccession() {
+            return proteinAccession;
+        }
+
+        public String getProteinName() {
+            return protein == null ? null : protein.getName();
+        }
+
+        public String getProteinAccessionStatus() {
+            return protein == null ? null : protein.getStatus().name();
+        }
+
+        public Double getSequenceCoverage() {
+            return sequenceCoverage;
+        }
+
+        /**
+         * Set the peptide fit states of a list of peptide rows,
+         * all the peptides are searched in one pass over the protein sequence
+         *
+         * @param peptideTableRows peptide rows
+         */
+        public void setPeptideFitStates(List<PeptideTableRow> peptideTableRows) {
+            List<String> sequences = new ArrayList<String>(peptideTableRows.size());
+            for (PeptideTableRow peptideTableRow : peptideTableRows) {
+                sequences.add(peptideTableRow.getSequence().getSequence());
+            }
+
+            Map<String, Set<Integer>> startingPositions = searchStartingPositions(sequences);
+            for (int i = 0; i < peptideTableRows.size(); i++) {
+                PeptideTableRow peptideTableRow = peptideTableRows.get(i);
+                Integer start = peptideTableRow.getSequenceStartPosition();
+                Integer end = peptideTableRow.getSequenceEndPosition();
+                peptideTableRow.setPeptideFitState(getPeptideFitState(startingPositions, sequences.get(i),
+                        start == null ? -1 : start, end == null ? -1 : end));
+            }
+        }
+
+        /**
+         * Get the state on whether the peptide fits the protein sequence
+         *
+         * @param sequence peptide sequence
+         * @param start    peptide start position
+         * @param end      peptide end position
+         * @return int peptide fit state
+         */
+        public int getPeptideFitState(String sequence, int start, int end) {
+            return getPeptideFitState(searchStartingPositions(Collections.singletonList(sequence)), sequence, start, end);
+        }
+
+        private Map<String, Set<Integer>> searchStartingPositions(List<String> sequences) {
+            if (protein == null) {
+                return Collections.emptyMap();
+            }
+            return new PeptideSequenceMatcher(sequences).search(protein.getSequenceString());
+        }
+
+        private int getPeptideFitState(Map<String, Set<Integer>> startingPositions, String sequence, int start, int end) {
+            if (protein == null || sequence == null || protein.getSequenceString() == null || "".equals(protein.getSequenceString())) {
+                return PeptideFitState.UNKNOWN;
+            }
+
+            if (protein.hasSubSequenceString(sequence, start, end)) {
+                return PeptideFitState.STRICT_FIT;
+            }
+
+            return startingPositions.containsKey(sequence) ? PeptideFitState.FIT : PeptideFitState.NOT_FIT;
+        }
+    }
 }
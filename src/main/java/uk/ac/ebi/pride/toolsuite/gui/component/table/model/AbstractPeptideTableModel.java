@@ -7,22 +7,57 @@ import uk.ac.ebi.pride.toolsuite.gui.utils.Constants;
 import uk.ac.ebi.pride.toolsuite.gui.utils.ProteinAccession;
 import uk.ac.ebi.pride.tools.protein_details_fetcher.model.Protein;
 
+import java.util.Arrays;
 import java.util.Collection;
-import java.util.List;
+import java.util.HashMap;
 import java.util.Map;
 
 /**
  * Abstract class for peptide table model
  * <p/>
+ * The columns are resolved into slots once per column layout: the name, the peptide table header or
+ * the score index of each column, so that reading a cell neither walks the column names nor compares them.
+ * <p/>
  * @author rwang
  * @author ypriverol
  * Date: 24/08/2011
  * Time: 16:36
  */
-public abstract class AbstractPeptideTableModel extends ProgressiveListTableModel<Void, Tuple<TableContentType, Object>> {
+public abstract class AbstractPeptideTableModel extends ProgressiveListTableModel<Void, Tuple<TableContentType, Object>> implements RowObjectTableModel {
+
+    /**
+     * peptide table headers mapped by column name
+     */
+    private static final Map<String, PeptideTableHeader> headersByName = new HashMap<String, PeptideTableHeader>();
+
+    static {
+        for (PeptideTableHeader header : PeptideTableHeader.values()) {
+            headersByName.put(header.getHeader(), header);
+        }
+    }
 
     protected Collection<SearchEngineScoreCvTermReference> listScores;
 
+    /**
+     * name of each column, null until the slots are resolved for the current columns
+     */
+    private String[] slotNames;
+
+    /**
+     * peptide table header of each column, null for the other columns
+     */
+    private PeptideTableHeader[] slotHeaders;
+
+    /**
+     * score index of each column, -1 if the column is not a score
+     */
+    private int[] slotScoreIndexes;
+
+    /**
+     * column index of each peptide table header, by header ordinal, -1 if the header is not shown
+     */
+    private int[] headerColumnIndexes;
+
     AbstractPeptideTableModel(Collection<SearchEngineScoreCvTermReference> listPeptideScores) {
         this.listScores = listPeptideScores;
         initializeTableModel();
@@ -47,6 +82,82 @@ public abstract class AbstractPeptideTableModel extends ProgressiveListTableMode
                 }
             }
         }
+        slotNames = null;
+    }
+
+    /**
+     * The columns have changed, the slots are resolved again on next access
+     */
+    @Override
+    public void fireTableStructureChanged() {
+        slotNames = null;
+        super.fireTableStructureChanged();
+    }
+
+    @Override
+    public String getColumnName(int index) {
+        resolveColumnSlots();
+        if (index < 0 || index >= slotNames.length) {
+            return super.getColumnName(index);
+        }
+        return slotNames[index];
+    }
+
+    /**
+     * Get the index of the column of a peptide table header
+     *
+     * @param header peptide table header
+     * @return int  column index, -1 if the header is not shown
+     */
+    protected int getColumnIndex(PeptideTableHeader header) {
+        resolveColumnSlots();
+        return headerColumnIndexes[header.ordinal()];
+    }
+
+    /**
+     * Resolve the slots when the columns have changed, the number of columns is checked as well,
+     * because columns can be removed without an event
+     */
+    private void resolveColumnSlots() {
+        int numOfColumns = columnNames.size();
+        if (slotNames != null && slotNames.length == numOfColumns) {
+            return;
+        }
+
+        String[] names = new String[numOfColumns];
+        PeptideTableHeader[] headers = new PeptideTableHeader[numOfColumns];
+        int[] scoreIndexes = new int[numOfColumns];
+        int[] columnIndexes = new int[PeptideTableHeader.values().length];
+        Arrays.fill(columnIndexes, -1);
+
+        int column = 0;
+        for (String name : columnNames.keySet()) {
+            names[column] = name;
+            headers[column] = headersByName.get(name);
+            scoreIndexes[column] = headers[column] == null ? indexOfScore(name) : -1;
+            if (headers[column] != null && columnIndexes[headers[column].ordinal()] < 0) {
+                columnIndexes[headers[column].ordinal()] = column;
+            }
+            column++;
+        }
+
+        slotHeaders = headers;
+        slotScoreIndexes = scoreIndexes;
+        headerColumnIndexes = columnIndexes;
+        slotNames = names;
+    }
+
+    private int indexOfScore(String columnName) {
+        if (listScores != null) {
+            int scoreIndex = 0;
+            for (SearchEngineScoreCvTermReference scoreTermReference : listScores) {
+                if (scoreTermReference.getName().equals(columnName)) {
+                    return scoreIndex;
+                }
+                scoreIndex++;
+            }
+        }
+        return -1;
     }
 
     @Override
@@ -104,7 +215,7 @@ public abstract class AbstractPeptideTableModel extends ProgressiveListTableMode
      */
     protected void addSequenceCoverageData(Object newData) {
         // column index for protein sequence coverage
-        int coverageIndex = getColumnIndex(PeptideTableHeader.PROTEIN_SEQUENCE_COVERAGE.getHeader());
+        int coverageIndex = getColumnIndex(PeptideTableHeader.PROTEIN_SEQUENCE_COVERAGE);
 
         // map contains sequence coverage
         Map<Comparable, Double> coverageMap = (Map<Comparable, Double>) newData;
@@ -133,7 +244,7 @@ public abstract class AbstractPeptideTableModel extends ProgressiveListTableMode
         Map<Tuple<Comparable, Comparable>, Integer> peptideFits = (Map<Tuple<Comparable, Comparable>, Integer>) newDataValue;
 
         // column index for peptide fit
-        int peptideFitIndex = getColumnIndex(PeptideTableHeader.PEPTIDE_FIT.getHeader());
+        int peptideFitIndex = getColumnIndex(PeptideTableHeader.PEPTIDE_FIT);
 
         // iterate over each row, set the protein name
         for (int row = 0; row < contents.size(); row++) {
@@ -160,7 +271,7 @@ public abstract class AbstractPeptideTableModel extends ProgressiveListTableMode
         Map<Tuple<Comparable, Comparable>, Double> deltaMzs = (Map<Tuple<Comparable, Comparable>, Double>) newDataValue;
 
         // column index for peptide fit
-        int deltaMzIndex = getColumnIndex(PeptideTableHeader.DELTA_MZ_COLUMN.getHeader());
+        int deltaMzIndex = getColumnIndex(PeptideTableHeader.DELTA_MZ_COLUMN);
 
         // iterate over each row, set the protein name
         for (int row = 0; row < contents.size(); row++) {
@@ -187,7 +298,7 @@ public abstract class AbstractPeptideTableModel extends ProgressiveListTableMode
         Map<Tuple<Comparable, Comparable>, Double> precursorMzs = (Map<Tuple<Comparable, Comparable>, Double>) newDataValue;
 
         // column index for peptide fit
-        int peptideFitIndex = getColumnIndex(PeptideTableHeader.PRECURSOR_MZ_COLUMN.getHeader());
+        int peptideFitIndex = getColumnIndex(PeptideTableHeader.PRECURSOR_MZ_COLUMN);
 
         // iterate over each row, set the protein name
         for (int row = 0; row < contents.size(); row++) {
@@ -206,70 +317,77 @@ public abstract class AbstractPeptideTableModel extends ProgressiveListTableMode
 
     @Override
     public Object getValueAt(int rowIndex, int columnIndex) {
-        PeptideTableRow peptideTableRow = (PeptideTableRow) contents.get(rowIndex);
-
-        String columnName = getColumnName(columnIndex);
-
-        if (PeptideTableHeader.PEPTIDE_COLUMN.getHeader().equals(columnName)) {
-            return peptideTableRow.getSequence();
-        } else if (PeptideTableHeader.PROTEIN_ACCESSION_COLUMN.getHeader().equals(columnName)) {
-            return peptideTableRow.getProteinAccession();
-        } else if (PeptideTableHeader.PROTEIN_NAME.getHeader().equals(columnName)) {
-            return peptideTableRow.getProteinName();
-        } else if (PeptideTableHeader.PROTEIN_STATUS.getHeader().equals(columnName)) {
-            return peptideTableRow.getProteinAccessionStatus();
-        } else if (PeptideTableHeader.PROTEIN_SEQUENCE_COVERAGE.getHeader().equals(columnName)) {
-            return peptideTableRow.getSequenceCoverage();
-        } else if (PeptideTableHeader.PEPTIDE_FIT.getHeader().equals(columnName)) {
-            return peptideTableRow.getPeptideFitState();
-        } else if (PeptideTableHeader.RANKING.getHeader().equals(columnName)) {
-            return peptideTableRow.getRanking();
-        } else if (PeptideTableHeader.DELTA_MZ_COLUMN.getHeader().equals(columnName)) {
-            return peptideTableRow.getDeltaMz();
-        } else if (PeptideTableHeader.PRECURSOR_CHARGE_COLUMN.getHeader().equals(columnName)) {
-            return peptideTableRow.getPrecursorCharge();
-        } else if (PeptideTableHeader.PRECURSOR_MZ_COLUMN.getHeader().equals(columnName)) {
-            return peptideTableRow.getPrecursorMz();
-        } else if (PeptideTableHeader.PEPTIDE_MODIFICATION_COLUMN.getHeader().equals(columnName)) {
-            return peptideTableRow.getModificationNames();
-        } else if (PeptideTableHeader.NUMBER_OF_FRAGMENT_IONS_COLUMN.getHeader().equals(columnName)) {
-            return peptideTableRow.getNumberOfFragmentIons();
-        } else if (PeptideTableHeader.PEPTIDE_SEQUENCE_LENGTH_COLUMN.getHeader().equals(columnName)) {
-            return peptideTableRow.getSequenceLength();
-        } else if (PeptideTableHeader.SEQUENCE_START_COLUMN.getHeader().equals(columnName)) {
-            return peptideTableRow.getSequenceStartPosition();
-        } else if (PeptideTableHeader.SEQUENCE_END_COLUMN.getHeader().equals(columnName)) {
-            return peptideTableRow.getSequenceEndPosition();
-        } else if (PeptideTableHeader.SPECTRUM_ID.getHeader().equals(columnName)) {
-            return peptideTableRow.getSpectrumId();
-        } else if (PeptideTableHeader.IDENTIFICATION_ID.getHeader().equals(columnName)) {
-            return peptideTableRow.getProteinId();
-        } else if (PeptideTableHeader.PEPTIDE_ID.getHeader().equals(columnName)) {
-            return peptideTableRow.getPeptideId();
-        } else if( PeptideTableHeader.COMPARE.getHeader().equals(columnName)){
-            return peptideTableRow.getComparisonState();
-        } else if (PeptideTableHeader.ADDITIONAL.getHeader().equals(columnName)) {
-            Comparable proteinId = peptideTableRow.getProteinId();
-            Comparable peptideId = peptideTableRow.getPeptideId();
-            return proteinId + Constants.COMMA + peptideId;
-        } else {
-            return getPeptideScore(peptideTableRow, columnName);
-        }
+        return getValue(contents.get(rowIndex), columnIndex, getColumnName(columnIndex));
     }
 
+    @Override
+    public Object getRowObject(int rowIndex) {
+        return contents.get(rowIndex);
+    }
 
-    private Double getPeptideScore(PeptideTableRow peptideTableRow, String columnName) {
-        List<Double> scores = peptideTableRow.getScores();
+    /**
+     * Get the value of a column, the column is looked up by index in the column slots
+     */
+    @Override
+    public Object getValue(Object rowObject, int columnIndex, String columnName) {
+        PeptideTableRow peptideTableRow = (PeptideTableRow) rowObject;
 
-        int scoreIndex = 0;
+        resolveColumnSlots();
+        if (columnIndex < 0 || columnIndex >= slotNames.length) {
+            return null;
+        }
 
-        for (SearchEngineScoreCvTermReference scoreTermReference : listScores) {
-            if (scoreTermReference.getName().equals(columnName)) {
-                return scores.get(scoreIndex);
-            }
-            scoreIndex++;
+        PeptideTableHeader header = slotHeaders[columnIndex];
+        if (header == null) {
+            int scoreIndex = slotScoreIndexes[columnIndex];
+            return scoreIndex >= 0 && scoreIndex < peptideTableRow.getNumOfScores() ? peptideTableRow.getScore(scoreIndex) : null;
         }
 
-        return null;
+        switch (header) {
+            case PEPTIDE_COLUMN:
+                return peptideTableRow.getSequence();
+            case PROTEIN_ACCESSION_COLUMN:
+                return peptideTableRow.getProteinAccession();
+            case PROTEIN_NAME:
+                return peptideTableRow.getProteinName();
+            case PROTEIN_STATUS:
+                return peptideTableRow.getProteinAccessionStatus();
+            case PROTEIN_SEQUENCE_COVERAGE:
+                return peptideTableRow.getSequenceCoverage();
+            case PEPTIDE_FIT:
+                return peptideTableRow.getPeptideFitState();
+            case RANKING:
+                return peptideTableRow.getRanking();
+            case DELTA_MZ_COLUMN:
+                return peptideTableRow.getDeltaMz();
+            case PRECURSOR_CHARGE_COLUMN:
+                return peptideTableRow.getPrecursorCharge();
+            case PRECURSOR_MZ_COLUMN:
+                return peptideTableRow.getPrecursorMz();
+            case PEPTIDE_MODIFICATION_COLUMN:
+                return peptideTableRow.getModificationNames();
+            case NUMBER_OF_FRAGMENT_IONS_COLUMN:
+                return peptideTableRow.getNumberOfFragmentIons();
+            case PEPTIDE_SEQUENCE_LENGTH_COLUMN:
+                return peptideTableRow.getSequenceLength();
+            case SEQUENCE_START_COLUMN:
+                return peptideTableRow.getSequenceStartPosition();
+            case SEQUENCE_END_COLUMN:
+                return peptideTableRow.getSequenceEndPosition();
+            case SPECTRUM_ID:
+                return peptideTableRow.getSpectrumId();
+            case IDENTIFICATION_ID:
+                return peptideTableRow.getProteinId();
+            case PEPTIDE_ID:
+                return peptideTableRow.getPeptideId();
+            case COMPARE:
+                return peptideTableRow.getComparisonState();
+            case ADDITIONAL:
+                Comparable proteinId = peptideTableRow.getProteinId();
+                Comparable peptideId = peptideTableRow.getPeptideId();
+                return proteinId + Constants.COMMA + peptideId;
+            default:
+                return null;
+        }
     }
 }
@@ -18,7 +18,7 @@ import java.util.Map;
  * Date: 24/08/2011
  * Time: 16:21
  */
-public class AbstractProteinTableModel extends ProgressiveListTableModel<Void, Tuple<TableContentType, Object>> {
+public class AbstractProteinTableModel extends ProgressiveListTableModel<Void, Tuple<TableContentType, Object>> implements RowObjectTableModel {
 
     protected Collection<SearchEngineScoreCvTermReference> listScores;
 
@@ -122,9 +122,17 @@ public class AbstractProteinTableModel extends ProgressiveListTableModel<Void, T
 
     @Override
     public Object getValueAt(int rowIndex, int columnIndex) {
-        ProteinTableRow proteinTableRow = (ProteinTableRow) contents.get(rowIndex);
+        return getValue(contents.get(rowIndex), columnIndex, getColumnName(columnIndex));
+    }
 
-        String columnName = getColumnName(columnIndex);
+    @Override
+    public Object getRowObject(int rowIndex) {
+        return contents.get(rowIndex);
+    }
+
+    @Override
+    public Object getValue(Object rowObject, int columnIndex, String columnName) {
+        ProteinTableRow proteinTableRow = (ProteinTableRow) rowObject;
 
         if (ProteinTableHeader.COMPARE.getHeader().equals(columnName)) {
             return proteinTableRow.getComparisonState();
@@ -109,41 +109,39 @@ public abstract class ListTableModel<T> extends AbstractTableModel {
      * @return int  index of the column in int
      */
     public int getColumnIndex(String header) {
-        int index = -1;
-
-        List<Map.Entry<String, String>> entries = new LinkedList<Map.Entry<String, String>>(columnNames.entrySet());
-
-        for (Map.Entry<String, String> entry : entries) {
-            if (entry.getKey().equals(header)) {
-                index = entries.indexOf(entry);
+        int index = 0;
+        for (String columnName : columnNames.keySet()) {
+            if (columnName.equals(header)) {
+                return index;
             }
+            index++;
         }
 
-        return index;
+        return -1;
     }
 
     public String getColumnName(int index) {
-        String columnName = null;
-
-        List<Map.Entry<String, String>> entries = new LinkedList<Map.Entry<String, String>>(columnNames.entrySet());
-        Map.Entry<String, String> entry = entries.get(index);
-        if (entry != null) {
-            columnName = entry.getKey();
-        }
-
-        return columnName;
+        return getColumnEntry(index).getKey();
     }
 
     public String getColumnTooltip(int index) {
-        String tooltip = null;
+        return getColumnEntry(index).getValue();
+    }
 
-        List<Map.Entry<String, String>> entries = new LinkedList<Map.Entry<String, String>>(columnNames.entrySet());
-        Map.Entry<String, String> entry = entries.get(index);
-        if (entry != null) {
-            tooltip = entry.getValue();
+    /**
+     * Walk the column entries, without copying them
+     */
+    private Map.Entry<String, String> getColumnEntry(int index) {
+        if (index >= 0) {
+            int i = 0;
+            for (Map.Entry<String, String> entry : columnNames.entrySet()) {
+                if (i++ == index) {
+                    return entry;
+                }
+            }
         }
 
-        return tooltip;
+        throw new IndexOutOfBoundsException("Column index: " + index + ", number of columns: " + columnNames.size());
     }
 //
 //
@@ -20,6 +20,10 @@ public class PeptideSpecies {
     private double theoreticalIsoelectricPoint;
     private int length;
     private final List<PeptideTableRow> peptideTableRowData;
+    /**
+     * spectrum ids of the PSMs, for checking duplicated PSMs without walking the rows
+     */
+    private final Set<Comparable> spectrumIds;
 
     public PeptideSpecies(PeptideSequence sequence) {
         this.numberOfPSMs = 0;
@@ -29,6 +33,7 @@ public class PeptideSpecies {
         this.proteinAccessions = new LinkedHashSet<ProteinAccession>();
         this.modifications = null;
         this.peptideTableRowData = new ArrayList<PeptideTableRow>();
+        this.spectrumIds = new HashSet<Comparable>();
         setSequence(sequence);
     }
 
@@ -52,6 +57,7 @@ public class PeptideSpecies {
         this.proteinAccessions.clear();
         this.modifications = null;
         this.peptideTableRowData.clear();
+        this.spectrumIds.clear();
     }
 
     public int getNumberOfPSMs() {
@@ -100,6 +106,21 @@ public class PeptideSpecies {
 
     public void addPeptideTableRowData(PeptideTableRow peptideData) {
         this.peptideTableRowData.add(peptideData);
+
+        Comparable spectrumId = peptideData.getSpectrumId();
+        if (spectrumId != null) {
+            this.spectrumIds.add(spectrumId);
+        }
+    }
+
+    /**
+     * Check whether this peptide species already has a PSM for the given spectrum
+     *
+     * @param spectrumId spectrum id
+     * @return boolean true if there is a PSM of the spectrum
+     */
+    public boolean hasSpectrum(Comparable spectrumId) {
+        return spectrumId != null && spectrumIds.contains(spectrumId);
     }
 
     public void setModifications(String modifications) {
@@ -9,10 +9,15 @@ import uk.ac.ebi.pride.utilities.util.NumberUtilities;
 import java.util.*;
 
 /**
+ * Table model for peptide species, PSMs sharing the same modified peptide sequence are grouped into one row.
+ * <p/>
+ * Rows are looked up through an index, so that loading large data sets stays linear,
+ * the table events of each batch of PSMs are coalesced by {@link ProgressiveListTableModel}.
+ *
  * @author Rui Wang
  * @version $Id$
  */
-public class PeptideSpeciesTableModel extends ProgressiveListTableModel<Void, Tuple<TableContentType, Object>> {
+public class PeptideSpeciesTableModel extends ProgressiveListTableModel<Void, Tuple<TableContentType, Object>> implements RowObjectTableModel {
 
     public enum TableHeader {
         PEPTIDE_COLUMN("Peptide", "Peptide Sequence"),
@@ -45,10 +50,15 @@ public class PeptideSpeciesTableModel extends ProgressiveListTableModel<Void, Tu
     private final double minDeltaMz;
     private final double maxDeltaMz;
     private final List<PeptideSpecies> showingPeptideSpecies;
+    /**
+     * row index of each showing peptide species
+     */
+    private final Map<PeptideSpecies, Integer> showingPeptideSpeciesIndexes;
     private final Map<String, PeptideSpecies> peptideSequenceToPeptideSpeciesMappings;
 
     public PeptideSpeciesTableModel(int rankingThreshold, double minDeltaMz, double maxDeltaMz) {
         this.showingPeptideSpecies = new ArrayList<PeptideSpecies>();
+        this.showingPeptideSpeciesIndexes = new HashMap<PeptideSpecies, Integer>();
         this.peptideSequenceToPeptideSpeciesMappings = new LinkedHashMap<String, PeptideSpecies>();
         this.rankingThreshold = rankingThreshold;
         this.minDeltaMz = minDeltaMz;
@@ -73,23 +83,33 @@ public class PeptideSpeciesTableModel extends ProgressiveListTableModel<Void, Tu
 
     @Override
     public Object getValueAt(int rowIndex, int columnIndex) {
-        PeptideSpecies peptideSpecies = showingPeptideSpecies.get(rowIndex);
+        return getValue(showingPeptideSpecies.get(rowIndex), columnIndex, getColumnName(columnIndex));
+    }
+
+    @Override
+    public Object getRowObject(int rowIndex) {
+        return showingPeptideSpecies.get(rowIndex);
+    }
 
-        if (getColumnName(columnIndex).equals(TableHeader.PEPTIDE_COLUMN.getHeader())) {
+    @Override
+    public Object getValue(Object rowObject, int columnIndex, String columnName) {
+        PeptideSpecies peptideSpecies = (PeptideSpecies) rowObject;
+
+        if (columnName.equals(TableHeader.PEPTIDE_COLUMN.getHeader())) {
             return peptideSpecies.getSequence();
-        } else if (getColumnName(columnIndex).equals(TableHeader.NUMBER_OF_PSM_COLUMN.getHeader())) {
+        } else if (columnName.equals(TableHeader.NUMBER_OF_PSM_COLUMN.getHeader())) {
             return peptideSpecies.getNumberOfPSMs();
-        } else if (getColumnName(columnIndex).equals(TableHeader.PROTEIN_COLUMN.getHeader())) {
+        } else if (columnName.equals(TableHeader.PROTEIN_COLUMN.getHeader())) {
             return peptideSpecies.getProteinAccessions();
-        } else if (getColumnName(columnIndex).equals(TableHeader.MODIFICATION_COLUMN.getHeader())) {
+        } else if (columnName.equals(TableHeader.MODIFICATION_COLUMN.getHeader())) {
             return peptideSpecies.getModifications();
-        } else if (getColumnName(columnIndex).equals(TableHeader.NUMBER_OF_DELTA_MZ_ERROR_COLUMN.getHeader())) {
+        } else if (columnName.equals(TableHeader.NUMBER_OF_DELTA_MZ_ERROR_COLUMN.getHeader())) {
             return peptideSpecies.getNumberOfDeltaMzErrors();
-        } else if (getColumnName(columnIndex).equals(TableHeader.PEPTIDE_LENGTH_COLUMN.getHeader())) {
+        } else if (columnName.equals(TableHeader.PEPTIDE_LENGTH_COLUMN.getHeader())) {
             return peptideSpecies.getLength();
-        } else if (getColumnName(columnIndex).equals(TableHeader.THEORETICAL_ISOELECTRIC_POINT_COLUMN.getHeader())) {
+        } else if (columnName.equals(TableHeader.THEORETICAL_ISOELECTRIC_POINT_COLUMN.getHeader())) {
             return peptideSpecies.getTheoreticalIsoelectricPoint();
-        } else if (getColumnName(columnIndex).equals(TableHeader.PEPTIDE_SPECIES_COLUMN.getHeader())) {
+        } else if (columnName.equals(TableHeader.PEPTIDE_SPECIES_COLUMN.getHeader())) {
             return peptideSpecies;
         } else {
             return null;
@@ -101,6 +121,7 @@ public class PeptideSpeciesTableModel extends ProgressiveListTableModel<Void, Tu
             this.rankingThreshold = rankingThreshold;
 
             showingPeptideSpecies.clear();
+            showingPeptideSpeciesIndexes.clear();
 
             for (PeptideSpecies peptideSpecies : peptideSequenceToPeptideSpeciesMappings.values()) {
                 peptideSpecies.clearStats();
@@ -110,6 +131,7 @@ public class PeptideSpeciesTableModel extends ProgressiveListTableModel<Void, Tu
                 }
 
                 if (peptideSpecies.getNumberOfPSMs() > 0) {
+                    showingPeptideSpeciesIndexes.put(peptideSpecies, showingPeptideSpecies.size());
                     showingPeptideSpecies.add(peptideSpecies);
                 }
 
@@ -129,7 +151,7 @@ public class PeptideSpeciesTableModel extends ProgressiveListTableModel<Void, Tu
 
             PeptideSpecies peptideSpecies = getPeptideSpecies(peptideTableRowData);
 
-            if (!hasPSM(peptideSpecies, peptideTableRowData)) {
+            if (!peptideSpecies.hasSpectrum(peptideTableRowData.getSpectrumId())) {
                 peptideSpecies.addPeptideTableRowData(peptideTableRowData);
 
                 updatePeptideSpeciesStats(peptideSpecies, peptideTableRowData);
@@ -141,20 +163,24 @@ public class PeptideSpeciesTableModel extends ProgressiveListTableModel<Void, Tu
     }
 
     private void notifyTableModelUpdate(PeptideSpecies peptideSpecies) {
-        boolean peptideSpeciesAlreadyExist = showingPeptideSpecies.contains(peptideSpecies);
+        Integer rowIndex = showingPeptideSpeciesIndexes.get(peptideSpecies);
 
         if (isShowablePeptideSpecies(peptideSpecies)) {
-            if (peptideSpeciesAlreadyExist) {
-                int rowIndex = showingPeptideSpecies.indexOf(peptideSpecies);
+            if (rowIndex != null) {
                 fireTableRowsUpdated(rowIndex, rowIndex);
             } else {
                 int maxRow = showingPeptideSpecies.size();
+                showingPeptideSpeciesIndexes.put(peptideSpecies, maxRow);
                 showingPeptideSpecies.add(peptideSpecies);
                 fireTableRowsInserted(maxRow, maxRow);
             }
-        } else if (showingPeptideSpecies.contains(peptideSpecies)) {
-            int rowIndex = showingPeptideSpecies.indexOf(peptideSpecies);
-            showingPeptideSpecies.remove(peptideSpecies);
+        } else if (rowIndex != null) {
+            showingPeptideSpecies.remove((int) rowIndex);
+            showingPeptideSpeciesIndexes.remove(peptideSpecies);
+            // shift the rows below
+            for (int i = rowIndex; i < showingPeptideSpecies.size(); i++) {
+                showingPeptideSpeciesIndexes.put(showingPeptideSpecies.get(i), i);
+            }
             fireTableRowsDeleted(rowIndex, rowIndex);
         }
 
@@ -259,23 +285,4 @@ public class PeptideSpeciesTableModel extends ProgressiveListTableModel<Void, Tu
         }
     }
 
-
-    private boolean hasPSM(PeptideSpecies peptideSpecies, PeptideTableRow peptideTableRowData) {
-        List<PeptideTableRow> peptideTableRows = peptideSpecies.getPeptideTableRowData();
-
-        if (peptideTableRows.size() != 0) {
-            Object spectrumId = peptideTableRowData.getSpectrumId();
-
-            for (PeptideTableRow peptideTableRow : peptideTableRows) {
-                PeptideTableRow peptideDetails = peptideTableRow;
-                Object existingSpectrumId = peptideDetails.getSpectrumId();
-
-                if (existingSpectrumId != null && existingSpectrumId.equals(spectrumId)) {
-                    return true;
-                }
-            }
-        }
-
-        return false;
-    }
 }
@@ -1,44 +1,45 @@
 package uk.ac.ebi.pride.toolsuite.gui.component.table.model;
 
-import uk.ac.ebi.pride.utilities.data.core.Modification;
+import uk.ac.ebi.pride.toolsuite.gui.access.PsmStore;
 import uk.ac.ebi.pride.utilities.data.core.PeptideSequence;
-import uk.ac.ebi.pride.toolsuite.gui.utils.Constants;
 import uk.ac.ebi.pride.toolsuite.gui.utils.ProteinAccession;
 
 import java.util.*;
 
 /**
+ * A row of the peptide tables, the values of the PSM are kept in a {@link PsmStore}.
+ * <p/>
+ * Only the state of the quantitation tables, the comparison state and the quantifications,
+ * is kept by the row itself. Rows of the same PSM share the same values, they are equal.
+ *
  * @author rwang
  * @author ypriverol
  * @version $Id$
  */
 public class PeptideTableRow{
 
-    private Boolean comparisonState;
-    private PeptideSequence sequence;
-    private ProteinAccession proteinAccession;
-    private String proteinName;
-    private String proteinAccessionStatus;
-    private Double sequenceCoverage;
-    private int peptideFitState;
-    private Integer ranking;
-    private Double deltaMz;
-    private Integer precursorCharge;
-    private Double precursorMz;
-    private Integer numberOfFragmentIons;
-    private final List<Double> scores;
-    private Integer sequenceStartPosition;
-    private Integer sequenceEndPosition;
-    private Comparable spectrumId;
-    private Comparable proteinId;
-    private Comparable peptideId;
-    private final List<Object> quantifications;
-
-
-    public PeptideTableRow() {
-        this.scores = new ArrayList<Double>();
-        this.quantifications = new ArrayList<Object>();
-        this.comparisonState = false;
+    private final PsmStore store;
+    private final int row;
+    private boolean comparisonState;
+    private List<Object> quantifications;
+
+    /**
+     * Constructor
+     *
+     * @param store PSM store
+     * @param row   row in the store
+     */
+    public PeptideTableRow(PsmStore store, int row) {
+        this.store = store;
+        this.row = row;
+    }
+
+    public PsmStore getStore() {
+        return store;
+    }
+
+    public int getRow() {
+        return row;
     }
 
     public Boolean getComparisonState() {
@@ -46,174 +47,169 @@ public class PeptideTableRow{
     }
 
     public void setComparisonState(Boolean comparisonState) {
-        this.comparisonState = comparisonState;
+        this.comparisonState = comparisonState != null && comparisonState;
     }
 
     public PeptideSequence getSequence() {
-        return sequence;
+        return store.getSequence(row);
     }
 
     public void setSequence(PeptideSequence sequence) {
-        this.sequence = sequence;
+        store.setSequence(row, sequence);
     }
 
     public ProteinAccession getProteinAccession() {
-        return proteinAccession;
+        return store.getProteinAccession(row);
     }
 
     public void setProteinAccession(ProteinAccession proteinAccession) {
-        this.proteinAccession = proteinAccession;
+        store.setProteinAccession(row, proteinAccession);
     }
 
     public String getModificationNames() {
-        Set<String> modificationNames = new HashSet<String>();
-        String concatenatedModificationNames = "";
-
-        for (Modification mod : sequence.getModifications()) {
-            String modName = mod.getName();
-            if (modName == null) {
-                // use mod accession instead
-                modName = mod.getId().toString().trim();
-            }
-
-            if (modName != null && !modificationNames.contains(modName)) {
-                concatenatedModificationNames += modName + "; ";
-                modificationNames.add(modName);
-            }
-        }
-
-        if (concatenatedModificationNames.length() > 1) {
-            concatenatedModificationNames = concatenatedModificationNames.substring(0, concatenatedModificationNames.length() - 2);
-        }
-
-        return concatenatedModificationNames;
+        return store.getModificationNames(row);
     }
 
     public String getProteinName() {
-        return proteinName;
+        return store.getProteinName(row);
     }
 
     public void setProteinName(String proteinName) {
-        this.proteinName = proteinName;
+        store.setProteinName(row, proteinName);
     }
 
     public String getProteinAccessionStatus() {
-        return proteinAccessionStatus;
+        return store.getProteinAccessionStatus(row);
     }
 
     public void setProteinAccessionStatus(String proteinAccessionStatus) {
-        this.proteinAccessionStatus = proteinAccessionStatus;
+        store.setProteinAccessionStatus(row, proteinAccessionStatus);
     }
 
     public Double getSequenceCoverage() {
-        return sequenceCoverage;
+        return store.getSequenceCoverage(row);
     }
 
     public void setSequenceCoverage(Double sequenceCoverage) {
-        this.sequenceCoverage = sequenceCoverage;
+        store.setSequenceCoverage(row, sequenceCoverage);
     }
 
     public int getPeptideFitState() {
-        return peptideFitState;
+        return store.getPeptideFitState(row);
     }
 
     public void setPeptideFitState(int peptideFitState) {
-        this.peptideFitState = peptideFitState;
+        store.setPeptideFitState(row, peptideFitState);
     }
 
     public Integer getRanking() {
-        return ranking;
+        return store.getRanking(row);
     }
 
     public void setRanking(Integer ranking) {
-        this.ranking = ranking;
+        store.setRanking(row, ranking);
     }
 
     public Double getDeltaMz() {
-        return deltaMz;
+        return store.getDeltaMz(row);
     }
 
     public void setDeltaMz(Double deltaMz) {
-        this.deltaMz = deltaMz;
+        store.setDeltaMz(row, deltaMz);
     }
 
     public Integer getPrecursorCharge() {
-        return precursorCharge;
+        return store.getPrecursorCharge(row);
     }
 
     public void setPrecursorCharge(Integer precursorCharge) {
-        this.precursorCharge = precursorCharge;
+        store.setPrecursorCharge(row, precursorCharge);
     }
 
     public Double getPrecursorMz() {
-        return precursorMz;
+        return store.getPrecursorMz(row);
     }
 
     public void setPrecursorMz(Double precursorMz) {
-        this.precursorMz = precursorMz;
+        store.setPrecursorMz(row, precursorMz);
     }
 
     public Integer getNumberOfFragmentIons() {
-        return numberOfFragmentIons;
+        return store.getNumberOfFragmentIons(row);
     }
 
     public void setNumberOfFragmentIons(Integer numberOfFragmentIons) {
-        this.numberOfFragmentIons = numberOfFragmentIons;
+        store.setNumberOfFragmentIons(row, numberOfFragmentIons);
     }
 
-    public List<Double> getScores() {
-        return scores;
+    public int getNumOfScores() {
+        return store.getNumOfScores();
+    }
+
+    public Double getScore(int scoreIndex) {
+        return store.getScore(row, scoreIndex);
+    }
+
+    public void setScore(int scoreIndex, Double score) {
+        store.setScore(row, scoreIndex, score);
     }
 
-    public void addScore(Double score) {
-        scores.add(score);
+    /**
+     * Get all the peptide scores
+     *
+     * @return List<Double>    a new list of scores, in the order of the available peptide level scores
+     */
+    public List<Double> getScores() {
+        int numOfScores = store.getNumOfScores();
+        List<Double> scores = new ArrayList<Double>(numOfScores);
+        for (int i = 0; i < numOfScores; i++) {
+            scores.add(store.getScore(row, i));
+        }
+        return scores;
     }
 
     public Integer getSequenceStartPosition() {
-        return sequenceStartPosition;
+        return store.getSequenceStartPosition(row);
     }
 
     public void setSequenceStartPosition(Integer sequenceStartPosition) {
-        this.sequenceStartPosition = sequenceStartPosition;
+        store.setSequenceStartPosition(row, sequenceStartPosition);
     }
 
     public Integer getSequenceEndPosition() {
-        return sequenceEndPosition;
+        return store.getSequenceEndPosition(row);
     }
 
     public void setSequenceEndPosition(Integer sequenceEndPosition) {
-        this.sequenceEndPosition = sequenceEndPosition;
+        store.setSequenceEndPosition(row, sequenceEndPosition);
     }
 
     public Comparable getSpectrumId() {
-        return spectrumId;
+        return store.getSpectrumId(row);
     }
 
     public void setSpectrumId(Comparable spectrumId) {
-        this.spectrumId = spectrumId;
+        store.setSpectrumId(row, spectrumId);
     }
 
     public Comparable getProteinId() {
-        return proteinId;
+        return store.getProteinId(row);
     }
 
     public void setProteinId(Comparable proteinId) {
-        this.proteinId = proteinId;
+        store.setProteinId(row, proteinId);
     }
 
     public Comparable getPeptideId() {
-        return peptideId;
+        return store.getPeptideId(row);
     }
 
     public void setPeptideId(Comparable peptideId) {
-        this.peptideId = peptideId;
-    }
-
-    public void setPeptideIndex(String peptideIndex) {
-        this.peptideId = peptideIndex;
+        store.setPeptideId(row, peptideId);
     }
 
     public int getSequenceLength() {
+        PeptideSequence sequence = getSequence();
         if (sequence != null) {
             return sequence.getSequence().length();
         } else {
@@ -222,11 +218,15 @@ public class PeptideTableRow{
     }
 
     public List<Object> getQuantifications() {
-        return quantifications;
+        return quantifications == null ? Collections.<Object>emptyList() : quantifications;
     }
 
     public void addQuantifications(List<Object> quantifications) {
-        this.quantifications.addAll(quantifications);
+        if (this.quantifications == null) {
+            this.quantifications = new ArrayList<Object>(quantifications);
+        } else {
+            this.quantifications.addAll(quantifications);
+        }
     }
 
     public List<Object> flatten() {
@@ -256,17 +256,6 @@ public class PeptideTableRow{
         return flattenedPeptideTableRow;
     }
 
-    private String getProteinAccessionText(Collection<ProteinAccession> accessions) {
-        String accessionText = "";
-
-        for (ProteinAccession accession : accessions) {
-            accessionText += accession + Constants.COMMA;
-        }
-
-        return accessionText.substring(0, accessionText.length() - 1);
-    }
-
-
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -274,59 +263,11 @@ public class PeptideTableRow{
 
         PeptideTableRow that = (PeptideTableRow) o;
 
-        if (peptideFitState != that.peptideFitState) return false;
-        if (comparisonState != null ? !comparisonState.equals(that.comparisonState) : that.comparisonState != null)
-            return false;
-        if (deltaMz != null ? !deltaMz.equals(that.deltaMz) : that.deltaMz != null) return false;
-        if (numberOfFragmentIons != null ? !numberOfFragmentIons.equals(that.numberOfFragmentIons) : that.numberOfFragmentIons != null)
-            return false;
-        if (!peptideId.equals(that.peptideId)) return false;
-        if (precursorCharge != null ? !precursorCharge.equals(that.precursorCharge) : that.precursorCharge != null)
-            return false;
-        if (precursorMz != null ? !precursorMz.equals(that.precursorMz) : that.precursorMz != null) return false;
-        if (proteinAccession != null ? !proteinAccession.equals(that.proteinAccession) : that.proteinAccession != null)
-            return false;
-        if (proteinAccessionStatus != null ? !proteinAccessionStatus.equals(that.proteinAccessionStatus) : that.proteinAccessionStatus != null)
-            return false;
-        if (!proteinId.equals(that.proteinId)) return false;
-        if (proteinName != null ? !proteinName.equals(that.proteinName) : that.proteinName != null) return false;
-        if (quantifications != null ? !quantifications.equals(that.quantifications) : that.quantifications != null)
-            return false;
-        if (ranking != null ? !ranking.equals(that.ranking) : that.ranking != null) return false;
-        if (scores != null ? !scores.equals(that.scores) : that.scores != null) return false;
-        if (sequence != null ? !sequence.equals(that.sequence) : that.sequence != null) return false;
-        if (sequenceCoverage != null ? !sequenceCoverage.equals(that.sequenceCoverage) : that.sequenceCoverage != null)
-            return false;
-        if (sequenceEndPosition != null ? !sequenceEndPosition.equals(that.sequenceEndPosition) : that.sequenceEndPosition != null)
-            return false;
-        if (sequenceStartPosition != null ? !sequenceStartPosition.equals(that.sequenceStartPosition) : that.sequenceStartPosition != null)
-            return false;
-        if (spectrumId != null ? !spectrumId.equals(that.spectrumId) : that.spectrumId != null) return false;
-
-        return true;
+        return row == that.row && store == that.store;
     }
 
     @Override
     public int hashCode() {
-        int result = comparisonState != null ? comparisonState.hashCode() : 0;
-        result = 31 * result + (sequence != null ? sequence.hashCode() : 0);
-        result = 31 * result + (proteinAccession != null ? proteinAccession.hashCode() : 0);
-        result = 31 * result + (proteinName != null ? proteinName.hashCode() : 0);
-        result = 31 * result + (proteinAccessionStatus != null ? proteinAccessionStatus.hashCode() : 0);
-        result = 31 * result + (sequenceCoverage != null ? sequenceCoverage.hashCode() : 0);
-        result = 31 * result + peptideFitState;
-        result = 31 * result + (ranking != null ? ranking.hashCode() : 0);
-        result = 31 * result + (deltaMz != null ? deltaMz.hashCode() : 0);
-        result = 31 * result + (precursorCharge != null ? precursorCharge.hashCode() : 0);
-        result = 31 * result + (precursorMz != null ? precursorMz.hashCode() : 0);
-        result = 31 * result + (numberOfFragmentIons != null ? numberOfFragmentIons.hashCode() : 0);
-        result = 31 * result + (scores != null ? scores.hashCode() : 0);
-        result = 31 * result + (sequenceStartPosition != null ? sequenceStartPosition.hashCode() : 0);
-        result = 31 * result + (sequenceEndPosition != null ? sequenceEndPosition.hashCode() : 0);
-        result = 31 * result + (spectrumId != null ? spectrumId.hashCode() : 0);
-        result = 31 * result + proteinId.hashCode();
-        result = 31 * result + peptideId.hashCode();
-        result = 31 * result + (quantifications != null ? quantifications.hashCode() : 0);
-        return result;
+        return 31 * System.identityHashCode(store) + row;
     }
 }
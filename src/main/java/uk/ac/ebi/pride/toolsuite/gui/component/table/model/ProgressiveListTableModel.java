@@ -3,10 +3,14 @@ package uk.ac.ebi.pride.toolsuite.gui.component.table.model;
 import uk.ac.ebi.pride.toolsuite.gui.task.TaskEvent;
 import uk.ac.ebi.pride.toolsuite.gui.task.TaskListener;
 
+import javax.swing.event.TableModelEvent;
 import java.util.List;
 
 /**
  * Extend this table model to update data progressively.
+ * <p/>
+ * The table events fired while adding the values of one process call are coalesced,
+ * so that the table is notified once per published list rather than once per row.
  * 
  * User: rwang
  * Date: 14-Apr-2010
@@ -14,12 +18,82 @@ import java.util.List;
  */
 public abstract class ProgressiveListTableModel<T, V> extends ListTableModel<V> implements TaskListener<T, V> {
 
+    /**
+     * Table events collected while adding a batch of data
+     */
+    private boolean batchUpdate = false;
+    private int batchRowCount;
+    private int firstUpdatedRow = -1;
+    private int lastUpdatedRow = -1;
+    private boolean dataChanged = false;
+    private boolean structureChanged = false;
+
     @Override
     public void process(TaskEvent<List<V>> listTaskEvent) {
         List<V> newDataList = listTaskEvent.getValue();
-        for (V newData : newDataList) {
-            addData(newData);
+
+        beginBatchUpdate();
+        try {
+            for (V newData : newDataList) {
+                addData(newData);
+            }
+        } finally {
+            endBatchUpdate();
+        }
+    }
+
+    @Override
+    public void fireTableChanged(TableModelEvent e) {
+        if (!batchUpdate) {
+            super.fireTableChanged(e);
+            return;
+        }
+
+        int firstRow = e.getFirstRow();
+        int lastRow = e.getLastRow();
+
+        if (firstRow == TableModelEvent.HEADER_ROW) {
+            structureChanged = true;
+        } else if (e.getType() == TableModelEvent.INSERT) {
+            // rows appended after the start of the batch are reported by endBatchUpdate
+            if (firstRow < batchRowCount) {
+                dataChanged = true;
+            }
+        } else if (e.getType() == TableModelEvent.DELETE || lastRow == Integer.MAX_VALUE) {
+            dataChanged = true;
+        } else if (firstRow < batchRowCount) {
+            lastRow = Math.min(lastRow, batchRowCount - 1);
+            firstUpdatedRow = firstUpdatedRow < 0 ? firstRow : Math.min(firstUpdatedRow, firstRow);
+            lastUpdatedRow = Math.max(lastUpdatedRow, lastRow);
+        }
+    }
+
+    private void beginBatchUpdate() {
+        batchUpdate = true;
+        batchRowCount = getRowCount();
+    }
+
+    private void endBatchUpdate() {
+        batchUpdate = false;
+
+        if (structureChanged) {
+            fireTableStructureChanged();
+        } else if (dataChanged) {
+            fireTableDataChanged();
+        } else {
+            int rowCount = getRowCount();
+            if (rowCount > batchRowCount) {
+                fireTableRowsInserted(batchRowCount, rowCount - 1);
+            }
+            if (firstUpdatedRow >= 0) {
+                fireTableRowsUpdated(firstUpdatedRow, lastUpdatedRow);
+            }
         }
+
+        firstUpdatedRow = -1;
+        lastUpdatedRow = -1;
+        dataChanged = false;
+        structureChanged = false;
     }
 
     @Override
@@ -122,17 +122,17 @@ public class QuantPeptideTableModel extends AbstractPeptideTableModel {
     }
 
     @Override
-    public Object getValueAt(int rowIndex, int columnIndex) {
-        PeptideTableRow peptideTableRow = (PeptideTableRow)contents.get(rowIndex);
+    public Object getValue(Object rowObject, int columnIndex, String columnName) {
+        PeptideTableRow peptideTableRow = (PeptideTableRow)rowObject;
 
-        int additionalColumnIndex = getColumnIndex(PeptideTableHeader.ADDITIONAL.getHeader());
+        int additionalColumnIndex = getColumnIndex(PeptideTableHeader.ADDITIONAL);
 
         if (columnIndex > additionalColumnIndex) {
             // quantification columns will always be at the end of the table
             List<Object> quantifications = peptideTableRow.getQuantifications();
             return quantifications.get(columnIndex - additionalColumnIndex - 1);
         } else {
-            return super.getValueAt(rowIndex, columnIndex);
+            return super.getValue(rowObject, columnIndex, columnName);
         }
     }
 }
\ No newline at end of file
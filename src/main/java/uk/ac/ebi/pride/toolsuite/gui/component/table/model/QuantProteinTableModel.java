@@ -107,8 +107,8 @@ public class QuantProteinTableModel extends AbstractProteinTableModel {
     }
 
     @Override
-    public Object getValueAt(int rowIndex, int columnIndex) {
-        ProteinTableRow proteinTableRow = (ProteinTableRow)contents.get(rowIndex);
+    public Object getValue(Object rowObject, int columnIndex, String columnName) {
+        ProteinTableRow proteinTableRow = (ProteinTableRow)rowObject;
 
         int additionalColumnIndex = getColumnIndex(ProteinTableHeader.ADDITIONAL.getHeader());
 
@@ -117,7 +117,7 @@ public class QuantProteinTableModel extends AbstractProteinTableModel {
             List<Object> quantifications = proteinTableRow.getQuantifications();
             return quantifications.get(columnIndex - additionalColumnIndex - 1);
         } else {
-            return super.getValueAt(rowIndex, columnIndex);
+            return super.getValue(rowObject, columnIndex, columnName);
         }
     }
 }
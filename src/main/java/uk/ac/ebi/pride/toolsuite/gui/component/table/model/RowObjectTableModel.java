@@ -0,0 +1,33 @@
+package uk.ac.ebi.pride.toolsuite.gui.component.table.model;
+
+import javax.swing.table.TableModel;
+
+/**
+ * Table model backed by one object per row, such as {@link PeptideTableRow} or {@link ProteinTableRow}.
+ * <p/>
+ * Cell values can be read from the row objects directly, using column indexes and names resolved once,
+ * so that exporting a large table does not look up the row and the column name of every cell.
+ *
+ * @author Rui Wang
+ * @version $Id$
+ */
+public interface RowObjectTableModel extends TableModel {
+
+    /**
+     * Get the object behind a row
+     *
+     * @param rowIndex row index in the model
+     * @return Object  row object
+     */
+    Object getRowObject(int rowIndex);
+
+    /**
+     * Get the value of a column for a row object
+     *
+     * @param rowObject   row object returned by {@link #getRowObject(int)}
+     * @param columnIndex column index in the model
+     * @param columnName  name of the column
+     * @return Object  cell value
+     */
+    Object getValue(Object rowObject, int columnIndex, String columnName);
+}
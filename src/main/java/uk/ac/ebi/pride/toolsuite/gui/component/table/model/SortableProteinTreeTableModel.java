@@ -5,6 +5,7 @@ import org.jdesktop.swingx.treetable.TreeTableNode;
 import uk.ac.ebi.pride.tools.protein_details_fetcher.model.Protein;
 import uk.ac.ebi.pride.toolsuite.gui.component.sequence.AnnotatedProtein;
 import uk.ac.ebi.pride.toolsuite.gui.component.table.sorttreetable.SortableTreeTableModel;
+import uk.ac.ebi.pride.toolsuite.gui.component.table.sorttreetable.SortableTreeTableNode;
 import uk.ac.ebi.pride.toolsuite.gui.task.TaskEvent;
 import uk.ac.ebi.pride.toolsuite.gui.task.TaskListener;
 import uk.ac.ebi.pride.toolsuite.gui.utils.ProteinAccession;
@@ -23,6 +24,18 @@ public class SortableProteinTreeTableModel extends SortableTreeTableModel
 
     private final Random random;
     private final Map<Comparable, SortableProteinNode> proteinGroupIdToProteinTableRow;
+    /**
+     * reverse index for protein details, mapped protein accession to the nodes with that accession
+     */
+    private final Map<String, List<SortableProteinNode>> mappedAccessionToNodes;
+    /**
+     * reverse index for sequence coverages, protein id to the nodes with that protein id
+     */
+    private final Map<Comparable, List<SortableProteinNode>> proteinIdToNodes;
+    /**
+     * index of each node in the children of its parent, in model order, nodes are only appended
+     */
+    private final Map<SortableProteinNode, Integer> nodeToModelIndex;
     private boolean structureChanged = false;
 
 
@@ -36,6 +49,9 @@ public class SortableProteinTreeTableModel extends SortableTreeTableModel
         super(root, listPeptideScores);
         this.random = new Random();
         proteinGroupIdToProteinTableRow = new HashMap<Comparable, SortableProteinNode>();
+        mappedAccessionToNodes = new HashMap<String, List<SortableProteinNode>>();
+        proteinIdToNodes = new HashMap<Comparable, List<SortableProteinNode>>();
+        nodeToModelIndex = new IdentityHashMap<SortableProteinNode, Integer>();
     }
 
 
@@ -68,6 +84,13 @@ public class SortableProteinTreeTableModel extends SortableTreeTableModel
     private void addProteinTableRow(ProteinTableRow proteinTableRow) {
 
         SortableProteinNode proteinNode = new SortableProteinNode(proteinTableRow, columnNames, proteinScores);
+        indexProteinNode(proteinNode);
+        List<SortableProteinNode> memberNodes = proteinNode.getChildProteinTableRows();
+        for (int i = 0; i < memberNodes.size(); i++) {
+            SortableProteinNode memberNode = memberNodes.get(i);
+            indexProteinNode(memberNode);
+            nodeToModelIndex.put(memberNode, i);
+        }
 
         Comparable proteinGroupId = proteinTableRow.getProteinGroupId();
 
@@ -81,12 +104,16 @@ public class SortableProteinTreeTableModel extends SortableTreeTableModel
         if (parentProteinTableRow == null) {
             // add as a parent node
             proteinGroupIdToProteinTableRow.put(proteinGroupId, proteinNode);
-            ((SortableProteinNode) getRoot()).addChildProteinTableRow(proteinNode);
-            int childIndex = getIndexOfChild(getRoot(), proteinNode);
-            insertNodeInto(proteinNode, (SortableProteinNode) getRoot(), childIndex);
+            SortableProteinNode root = (SortableProteinNode) getRoot();
+            root.addChildProteinTableRow(proteinNode);
+            // just appended, no need to search for it
+            int childIndex = root.getChildProteinTableRows().size() - 1;
+            nodeToModelIndex.put(proteinNode, childIndex);
+            insertNodeInto(proteinNode, root, childIndex);
         } else {
             parentProteinTableRow.addChildProteinTableRow(proteinNode);
-            int childIndex = getIndexOfChild(parentProteinTableRow, proteinNode);
+            int childIndex = parentProteinTableRow.getChildProteinTableRows().size() - 1;
+            nodeToModelIndex.put(proteinNode, childIndex);
             insertNodeInto(proteinNode, parentProteinTableRow, childIndex);
         }
     }
@@ -98,46 +125,56 @@ public class SortableProteinTreeTableModel extends SortableTreeTableModel
         return childProteinTableRows.indexOf(child);
     }
 
-    private void addProteinDetailData(Object value) {
-        // get a map of protein accession to protein details
-        Map<String, Protein> proteins = (Map<String, Protein>) value;
-
-        // iterate over each row, set the protein name
-        Collection<SortableProteinNode> parentProteinTableRows = proteinGroupIdToProteinTableRow.values();
-        for (SortableProteinNode parentProteinTableRow : parentProteinTableRows) {
-            addProteinDetailsForProteinTableRow(proteins, parentProteinTableRow);
+    /**
+     * Add a node to the reverse indexes, so that protein details and sequence coverages only visit the affected nodes
+     */
+    private void indexProteinNode(SortableProteinNode proteinNode) {
+        ProteinAccession proteinAccession = proteinNode.getProteinAccession();
+        if (proteinAccession != null && proteinAccession.getMappedAccession() != null) {
+            addToIndex(mappedAccessionToNodes, proteinAccession.getMappedAccession(), proteinNode);
+        }
 
-            for (SortableProteinNode childProteinTableRow : parentProteinTableRow.getChildProteinTableRows()) {
-                addProteinDetailsForProteinTableRow(proteins, childProteinTableRow);
-            }
+        Comparable proteinId = proteinNode.getProteinId();
+        if (proteinId != null) {
+            addToIndex(proteinIdToNodes, proteinId, proteinNode);
         }
     }
 
-    private void addProteinDetailsForProteinTableRow(Map<String, Protein> proteins, SortableProteinNode childProteinTableRow) {
-        Object proteinAccession = childProteinTableRow.getProteinAccession();
-
-        if (proteinAccession != null) {
-
-            String mappedAccession = ((ProteinAccession) proteinAccession).getMappedAccession();
-
-            if (mappedAccession != null) {
-
-                Protein protein = proteins.get(mappedAccession);
-
-                if (protein != null) {
-                    AnnotatedProtein annotatedProtein = new AnnotatedProtein(protein);
-
-                    // set protein name
-                    childProteinTableRow.setProteinName(annotatedProtein.getName());
-                    childProteinTableRow.updatePropertyObject(columnNames, proteinScores);
+    private static <K> void addToIndex(Map<K, List<SortableProteinNode>> index, K key, SortableProteinNode proteinNode) {
+        List<SortableProteinNode> proteinNodes = index.get(key);
+        if (proteinNodes == null) {
+            // most accessions and protein ids appear in one node only
+            proteinNodes = new ArrayList<SortableProteinNode>(1);
+            index.put(key, proteinNodes);
+        }
+        proteinNodes.add(proteinNode);
+    }
 
-                    // set protein status
-                    childProteinTableRow.setProteinAccessionStatus(annotatedProtein.getStatus().name());
-                    childProteinTableRow.updatePropertyObject(columnNames, proteinScores);
+    private void addProteinDetailData(Object value) {
+        // get a map of protein accession to protein details
+        Map<String, Protein> proteins = (Map<String, Protein>) value;
 
+        Set<SortableProteinNode> changedNodes = Collections.newSetFromMap(new IdentityHashMap<SortableProteinNode, Boolean>());
+        for (Map.Entry<String, Protein> proteinEntry : proteins.entrySet()) {
+            List<SortableProteinNode> proteinNodes = mappedAccessionToNodes.get(proteinEntry.getKey());
+            Protein protein = proteinEntry.getValue();
+
+            if (proteinNodes != null && protein != null) {
+                AnnotatedProtein annotatedProtein = new AnnotatedProtein(protein);
+                String proteinName = annotatedProtein.getName();
+                String proteinStatus = annotatedProtein.getStatus().name();
+
+                for (SortableProteinNode proteinNode : proteinNodes) {
+                    // set protein name and status
+                    proteinNode.setProteinName(proteinName);
+                    proteinNode.setProteinAccessionStatus(proteinStatus);
+                    proteinNode.updatePropertyObject(columnNames, proteinScores);
+                    changedNodes.add(proteinNode);
                 }
             }
         }
+
+        fireNodesChanged(changedNodes);
     }
 
     /**
@@ -149,27 +186,67 @@ public class SortableProteinTreeTableModel extends SortableTreeTableModel
         // map contains sequence coverage
         Map<Comparable, Double> coverageMap = (Map<Comparable, Double>) newData;
 
-        // iterate over each row, set the protein name
-        Collection<SortableProteinNode> proteinTableRows = proteinGroupIdToProteinTableRow.values();
-        for (SortableProteinNode parentProteinTableRow : proteinTableRows) {
-            updateSequenceCoverageData(coverageMap, (SortableProteinNode) getRoot(), parentProteinTableRow);
+        Set<SortableProteinNode> changedNodes = Collections.newSetFromMap(new IdentityHashMap<SortableProteinNode, Boolean>());
+        for (Map.Entry<Comparable, Double> coverageEntry : coverageMap.entrySet()) {
+            List<SortableProteinNode> proteinNodes = proteinIdToNodes.get(coverageEntry.getKey());
+            Double coverage = coverageEntry.getValue();
 
-            for (SortableProteinNode childProteinTableRow : parentProteinTableRow.getChildProteinTableRows()) {
-                updateSequenceCoverageData(coverageMap, parentProteinTableRow, childProteinTableRow);
+            if (proteinNodes != null && coverage != null) {
+                for (SortableProteinNode proteinNode : proteinNodes) {
+                    proteinNode.setSequenceCoverage(coverage);
+                    proteinNode.updatePropertyObject(columnNames, proteinScores);
+                    changedNodes.add(proteinNode);
+                }
             }
         }
+
+        fireNodesChanged(changedNodes);
     }
 
-    private void updateSequenceCoverageData(Map<Comparable, Double> coverageMap,
-                                            SortableProteinNode parentProteinTableRow,
-                                            SortableProteinNode childProteinTableRow) {
-        Object proteinId = childProteinTableRow.getProteinId();
-        Double coverage = coverageMap.get(proteinId);
+    /**
+     * Notify the changed nodes, with one event per parent node.
+     * <p/>
+     * The view index of a node is looked up from its model index, so the cost depends on the number of
+     * changed nodes only, not on the number of rows. Filtered out nodes are not notified.
+     *
+     * @param changedNodes changed nodes
+     */
+    private void fireNodesChanged(Set<SortableProteinNode> changedNodes) {
+        if (changedNodes.isEmpty()) {
+            return;
+        }
+
+        Map<TreeTableNode, List<Integer>> parentToViewIndices = new IdentityHashMap<TreeTableNode, List<Integer>>();
+        for (SortableProteinNode changedNode : changedNodes) {
+            TreeTableNode parent = changedNode.getParent();
+            Integer modelIndex = nodeToModelIndex.get(changedNode);
+            if (parent instanceof SortableTreeTableNode && modelIndex != null) {
+                int viewIndex = ((SortableTreeTableNode) parent).convertRowIndexToView(modelIndex);
+                if (viewIndex >= 0 && viewIndex < parent.getChildCount() && parent.getChildAt(viewIndex) == changedNode) {
+                    List<Integer> viewIndices = parentToViewIndices.get(parent);
+                    if (viewIndices == null) {
+                        viewIndices = new ArrayList<Integer>();
+                        parentToViewIndices.put(parent, viewIndices);
+                    }
+                    viewIndices.add(viewIndex);
+                }
+            }
+        }
+
+        for (Map.Entry<TreeTableNode, List<Integer>> parentEntry : parentToViewIndices.entrySet()) {
+            TreeTableNode parent = parentEntry.getKey();
+            // the indices of a tree model event are in ascending order
+            List<Integer> viewIndices = parentEntry.getValue();
+            Collections.sort(viewIndices);
+
+            int[] indices = new int[viewIndices.size()];
+            Object[] children = new Object[viewIndices.size()];
+            for (int i = 0; i < indices.length; i++) {
+                indices[i] = viewIndices.get(i);
+                children[i] = parent.getChildAt(indices[i]);
+            }
 
-        if (coverage != null) {
-            // set protein name
-            childProteinTableRow.setSequenceCoverage(coverage);
-            childProteinTableRow.updatePropertyObject(columnNames, proteinScores);
+            modelSupport.fireChildrenChanged(new TreePath(getPathToRoot(parent)), indices, children);
         }
     }
 
@@ -118,6 +118,18 @@ public class DesktopContext extends PropertyChangeHelper {
         taskManager.addTask(task, notify);
     }
 
+    /**
+     * Add a task to task manager, it supersedes the previous task of the same class
+     * for the same owner and target
+     *
+     * @param task   new task
+     * @param owner  owner of the task
+     * @param target component to display the results
+     */
+    public final synchronized void addLatestTask(Task task, Object owner, Object target) {
+        taskManager.addLatestTask(task, owner, target);
+    }
+
     /**
      * Get the tasks which is listened by the input task listener
      *
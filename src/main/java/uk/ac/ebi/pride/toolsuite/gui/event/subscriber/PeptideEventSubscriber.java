@@ -35,6 +35,6 @@ public class PeptideEventSubscriber implements EventSubscriber<PSMEvent> {
 
         Task newTask = new RetrievePeptideTask(controller, protId, peptideId);
         newTask.addTaskListener(taskListener);
-        TaskUtil.startBackgroundTask(newTask, controller);
+        TaskUtil.startLatestBackgroundTask(newTask, controller, taskListener);
     }
 }
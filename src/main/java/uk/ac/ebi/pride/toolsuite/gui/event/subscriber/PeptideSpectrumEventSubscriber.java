@@ -36,6 +36,6 @@ public class PeptideSpectrumEventSubscriber implements EventSubscriber<PSMEvent>
 
         Task newTask = new RetrieveSpectrumTask(controller, protId, peptideId);
         newTask.addTaskListener(taskListener);
-        TaskUtil.startBackgroundTask(newTask, controller);
+        TaskUtil.startLatestBackgroundTask(newTask, controller, taskListener);
     }
 }
\ No newline at end of file
@@ -35,6 +35,6 @@ public class SpectrumEventSubscriber implements EventSubscriber<SpectrumEvent> {
 
         Task newTask = new RetrieveSpectrumTask(controller, specturmId);
         newTask.addTaskListener(taskListener);
-        TaskUtil.startBackgroundTask(newTask, controller);
+        TaskUtil.startLatestBackgroundTask(newTask, controller, taskListener);
     }
 }
\ No newline at end of file
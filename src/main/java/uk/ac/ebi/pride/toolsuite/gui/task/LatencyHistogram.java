@@ -0,0 +1,91 @@
+package uk.ac.ebi.pride.toolsuite.gui.task;
+
+import net.jcip.annotations.ThreadSafe;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * LatencyHistogram counts durations in power of two buckets of microseconds,
+ * recording a duration is a few atomic increments and never allocates.
+ * <p/>
+ * Percentiles are estimated with the upper bound of their bucket, so they are accurate within a factor of two.
+ *
+ * @author Rui Wang
+ * @version $Id$
+ */
+@ThreadSafe
+class LatencyHistogram {
+
+    /**
+     * bucket 0 counts durations under one microsecond, bucket i counts durations in [2^(i-1), 2^i) microseconds
+     */
+    private static final int NUMBER_OF_BUCKETS = 40;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(NUMBER_OF_BUCKETS);
+
+    private final AtomicLong count = new AtomicLong();
+
+    private final AtomicLong totalNanos = new AtomicLong();
+
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    /**
+     * Record a duration
+     *
+     * @param nanos duration in nanoseconds
+     */
+    void record(long nanos) {
+        if (nanos < 0) {
+            nanos = 0;
+        }
+
+        long micros = nanos / 1000;
+        int bucket = micros == 0 ? 0 : Math.min(NUMBER_OF_BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros));
+        buckets.incrementAndGet(bucket);
+        count.incrementAndGet();
+        totalNanos.addAndGet(nanos);
+
+        long max = maxNanos.get();
+        while (nanos > max && !maxNanos.compareAndSet(max, nanos)) {
+            max = maxNanos.get();
+        }
+    }
+
+    /**
+     * Get a snapshot of the histogram, the counters are read one by one while durations may still be recorded
+     *
+     * @return TaskStatistics.Timing   timing statistics
+     */
+    TaskStatistics.Timing getTiming() {
+        long[] counts = new long[NUMBER_OF_BUCKETS];
+        long total = 0;
+        for (int i = 0; i < NUMBER_OF_BUCKETS; i++) {
+            counts[i] = buckets.get(i);
+            total += counts[i];
+        }
+
+        long max = maxNanos.get();
+        return new TaskStatistics.Timing(count.get(), totalNanos.get(),
+                getPercentile(counts, total, 0.5, max),
+                getPercentile(counts, total, 0.95, max),
+                max);
+    }
+
+    private static long getPercentile(long[] counts, long total, double percentile, long max) {
+        if (total == 0) {
+            return 0;
+        }
+
+        long rank = (long) Math.ceil(total * percentile);
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                // upper bound of the bucket
+                return Math.min(max, (1L << i) * 1000);
+            }
+        }
+        return max;
+    }
+}
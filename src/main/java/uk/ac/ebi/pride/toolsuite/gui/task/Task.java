@@ -15,6 +15,7 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Task represents a background running threshold, this is not the same as EDT
@@ -56,6 +57,23 @@ public abstract class Task<T, V> extends SwingWorker<T, V> {
     @GuardedBy("this")
     private GUIBlocker blocker;
 
+    // scheduler lane of the task
+    @GuardedBy("this")
+    private TaskLane lane = TaskLane.BULK;
+
+    // priority of the task within its lane
+    @GuardedBy("this")
+    private TaskPriority priority = TaskPriority.NORMAL;
+
+    // true if a newer task has replaced this one, its results are dropped
+    private volatile boolean superseded = false;
+
+    // metrics of the task class, set by the task manager
+    private volatile TaskMetrics metrics;
+
+    // number of batches published but not yet delivered to the listeners
+    private final AtomicInteger numOfPendingBatches = new AtomicInteger();
+
     public Task() {
         addPropertyChangeListener(new TaskStateMonitor());
         owners = Collections.synchronizedList(new ArrayList<Object>());
@@ -116,6 +134,62 @@ public abstract class Task<T, V> extends SwingWorker<T, V> {
         }
     }
 
+    /**
+     * Check whether a newer task has replaced this task, a superseded task does not deliver any result
+     *
+     * @return boolean true if superseded
+     */
+    public boolean isSuperseded() {
+        return superseded;
+    }
+
+    /**
+     * Mark the task as superseded, it is called by {@link TaskManager} before cancelling the task
+     */
+    void supersede() {
+        superseded = true;
+    }
+
+    TaskMetrics getMetrics() {
+        return metrics;
+    }
+
+    void setMetrics(TaskMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    public synchronized TaskLane getLane() {
+        return lane;
+    }
+
+    /**
+     * Set the scheduler lane, this must be done before the task is added to {@link TaskManager}
+     *
+     * @param lane scheduler lane
+     */
+    public synchronized void setLane(TaskLane lane) {
+        if (lane == null) {
+            throw new IllegalArgumentException("Null Task Lane");
+        }
+        this.lane = lane;
+    }
+
+    public synchronized TaskPriority getPriority() {
+        return priority;
+    }
+
+    /**
+     * Set the priority within the lane, this must be done before the task is added to {@link TaskManager}
+     *
+     * @param priority task priority
+     */
+    public synchronized void setPriority(TaskPriority priority) {
+        if (priority == null) {
+            throw new IllegalArgumentException("Null Task Priority");
+        }
+        this.priority = priority;
+    }
+
     /**
      * Add a new owner to the task
      *
@@ -221,7 +295,58 @@ public abstract class Task<T, V> extends SwingWorker<T, V> {
     }
 
     protected void process(List<V> values) {
-        fireProcessListeners(values);
+        if (!superseded) {
+            long start = System.nanoTime();
+            fireProcessListeners(values);
+            recordPublished(values.size(), start);
+        }
+    }
+
+    /**
+     * Publish a batch of results, it can be called from any thread.
+     * <p/>
+     * The batch is delivered on the event dispatch thread, after the batches published before it,
+     * as a single process event.
+     *
+     * @param batch batch of results, it must not be changed once published
+     */
+    protected final void publishBatch(final List<V> batch) {
+        if (batch == null || batch.isEmpty()) {
+            return;
+        }
+
+        numOfPendingBatches.incrementAndGet();
+        EventQueue.invokeLater(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    if (!superseded) {
+                        long start = System.nanoTime();
+                        fireProcessListeners(batch);
+                        recordPublished(batch.size(), start);
+                    }
+                } finally {
+                    numOfPendingBatches.decrementAndGet();
+                }
+            }
+        });
+    }
+
+    private void recordPublished(int numOfItems, long start) {
+        TaskMetrics taskMetrics = metrics;
+        if (taskMetrics != null) {
+            taskMetrics.itemsPublished(numOfItems, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Get the number of batches which are waiting to be delivered,
+     * tasks can keep filling the next batch while the event dispatch thread is busy
+     *
+     * @return int number of pending batches
+     */
+    protected final int getNumOfPendingBatches() {
+        return numOfPendingBatches.get();
     }
 
     //ToDo: Interrupted() and failed() does not cover exceptions during doinbackground(), this is not ideal!
@@ -275,7 +400,7 @@ public abstract class Task<T, V> extends SwingWorker<T, V> {
 
     private void fireCompletionListeners() {
         try {
-            if (isCancelled())
+            if (isCancelled() || superseded)
                 fireCancelledListeners();
             else
                 fireSucceedListeners(get());
@@ -377,8 +502,9 @@ public abstract class Task<T, V> extends SwingWorker<T, V> {
             EventQueue.invokeLater(new Runnable() {
                 @Override
                 public void run() {
+                    long start = System.nanoTime();
                     try {
-                        if (isCancelled())
+                        if (isCancelled() || superseded)
                             cancelled();
                         else
                             succeed(get());
@@ -391,6 +517,10 @@ public abstract class Task<T, V> extends SwingWorker<T, V> {
                         try {
                             fireCompletionListeners();
                         } finally {
+                            TaskMetrics taskMetrics = metrics;
+                            if (taskMetrics != null) {
+                                taskMetrics.taskCompleted(System.nanoTime() - start);
+                            }
                             firePropertyChange(COMPLETED_PROP, false, true);
                         }
                     }
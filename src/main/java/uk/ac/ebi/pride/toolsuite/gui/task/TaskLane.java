@@ -0,0 +1,63 @@
+package uk.ac.ebi.pride.toolsuite.gui.task;
+
+/**
+ * Scheduler lanes of {@link TaskManager}, each lane has its own bounded pool of threads,
+ * so that short interactive tasks never wait behind file loading or downloads.
+ *
+ * @author Rui Wang
+ * @version $Id$
+ */
+public enum TaskLane {
+    /**
+     * short tasks triggered by the user, such as showing a spectrum
+     */
+    INTERACTIVE("interactive", 2, 4, Thread.NORM_PRIORITY),
+    /**
+     * long running tasks reading a data source, such as scanning an experiment or exporting
+     */
+    BULK("bulk", 2, 6, Thread.NORM_PRIORITY),
+    /**
+     * tasks waiting on the network, such as web services and downloads
+     */
+    IO("io", 4, 4, Thread.NORM_PRIORITY),
+    /**
+     * speculative tasks reading ahead of the user, such as the spectra next to the selected row,
+     * a single low priority thread so that they never hold up the other lanes
+     */
+    PREFETCH("prefetch", 1, 1, Thread.MIN_PRIORITY);
+
+    private final String name;
+    private final int minThreads;
+    private final int maxThreads;
+    private final int threadPriority;
+
+    private TaskLane(String name, int minThreads, int maxThreads, int threadPriority) {
+        this.name = name;
+        this.minThreads = minThreads;
+        this.maxThreads = maxThreads;
+        this.threadPriority = threadPriority;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Get the priority of the threads of the lane
+     *
+     * @return int thread priority
+     */
+    public int getThreadPriority() {
+        return threadPriority;
+    }
+
+    /**
+     * Get the number of threads of the lane, one per CPU within the lane bounds
+     *
+     * @return int number of threads
+     */
+    public int getNumberOfThreads() {
+        int numberOfCPUs = Runtime.getRuntime().availableProcessors();
+        return Math.max(minThreads, Math.min(maxThreads, numberOfCPUs));
+    }
+}
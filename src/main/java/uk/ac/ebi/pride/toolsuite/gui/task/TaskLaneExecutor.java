@@ -0,0 +1,213 @@
+package uk.ac.ebi.pride.toolsuite.gui.task;
+
+import net.jcip.annotations.GuardedBy;
+import net.jcip.annotations.ThreadSafe;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * TaskLaneExecutor runs the tasks of one {@link TaskLane} on a bounded pool of threads.
+ * <p/>
+ * Waiting tasks are started by priority first. Tasks with the same priority take turns between owners,
+ * such as data access controllers: each owner gets one task per round, so a file queueing many tasks
+ * does not hold back the tasks of the other files. Within an owner, tasks are started in arrival order.
+ * Tasks cancelled while waiting are skipped.
+ *
+ * @author Rui Wang
+ * @version $Id$
+ */
+@ThreadSafe
+class TaskLaneExecutor {
+
+    /**
+     * fairness key of the tasks without owner
+     */
+    private static final Object NO_OWNER = new Object();
+
+    /**
+     * number of owners remembered before removing the ones with no waiting task
+     */
+    private static final int MAX_NUMBER_OF_OWNERS = 16;
+
+    private final TaskLane lane;
+
+    private final ThreadPoolExecutor executor;
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    /**
+     * next round of each owner
+     */
+    @GuardedBy("this")
+    private final Map<Object, Long> nextRounds = new HashMap<Object, Long>();
+
+    /**
+     * round of the last started task
+     */
+    @GuardedBy("this")
+    private long currentRound;
+
+    TaskLaneExecutor(TaskLane lane) {
+        this.lane = lane;
+
+        int numberOfThreads = lane.getNumberOfThreads();
+        this.executor = new ThreadPoolExecutor(numberOfThreads, numberOfThreads,
+                60L, TimeUnit.SECONDS,
+                new PriorityBlockingQueue<Runnable>(),
+                new LaneThreadFactory(lane));
+        // release the threads of idle lanes
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    public TaskLane getLane() {
+        return lane;
+    }
+
+    /**
+     * Queue a task
+     *
+     * @param task task to run
+     */
+    public void execute(Task task) {
+        Object owner = getFairnessKey(task);
+
+        long round;
+        synchronized (this) {
+            Long nextRound = nextRounds.get(owner);
+            round = nextRound == null ? currentRound : Math.max(nextRound, currentRound);
+            nextRounds.put(owner, round + 1);
+
+            if (nextRounds.size() > MAX_NUMBER_OF_OWNERS) {
+                // owners already served up to the current round start again from the current round anyway
+                Iterator<Long> rounds = nextRounds.values().iterator();
+                while (rounds.hasNext()) {
+                    if (rounds.next() <= currentRound) {
+                        rounds.remove();
+                    }
+                }
+            }
+        }
+
+        executor.execute(new ScheduledTask(task, round, sequence.getAndIncrement()));
+    }
+
+    /**
+     * Get the number of tasks waiting for a thread
+     *
+     * @return int number of waiting tasks
+     */
+    public int getNumberOfWaitingTasks() {
+        return executor.getQueue().size();
+    }
+
+    /**
+     * Get the number of tasks running
+     *
+     * @return int number of running tasks
+     */
+    public int getNumberOfRunningTasks() {
+        return executor.getActiveCount();
+    }
+
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    public void shutdownNow() {
+        executor.shutdownNow();
+    }
+
+    private synchronized void started(long round) {
+        currentRound = Math.max(currentRound, round);
+    }
+
+    /**
+     * Tasks are fair between their first owner which is not a task, usually a data access controller
+     */
+    private Object getFairnessKey(Task task) {
+        for (Object owner : task.getOwners()) {
+            if (!(owner instanceof Task)) {
+                return owner;
+            }
+        }
+        return NO_OWNER;
+    }
+
+    /**
+     * A queued task, in start order
+     */
+    private class ScheduledTask implements Runnable, Comparable<ScheduledTask> {
+        private final Task task;
+        private final TaskPriority priority;
+        private final long round;
+        private final long sequence;
+        private final long queuedTime;
+
+        private ScheduledTask(Task task, long round, long sequence) {
+            this.task = task;
+            this.priority = task.getPriority();
+            this.round = round;
+            this.sequence = sequence;
+            this.queuedTime = System.nanoTime();
+        }
+
+        @Override
+        public void run() {
+            // cancelled while waiting, it is counted as cancelled by the task manager, not as started
+            if (task.isCancelled()) {
+                return;
+            }
+
+            started(round);
+
+            TaskMetrics metrics = task.getMetrics();
+            long startTime = System.nanoTime();
+            if (metrics != null) {
+                metrics.taskStarted(startTime - queuedTime);
+            }
+            try {
+                task.run();
+            } finally {
+                if (metrics != null) {
+                    metrics.taskFinished(System.nanoTime() - startTime);
+                }
+            }
+        }
+
+        @Override
+        public int compareTo(ScheduledTask other) {
+            int result = priority.compareTo(other.priority);
+            if (result == 0) {
+                result = round < other.round ? -1 : (round == other.round ? 0 : 1);
+            }
+            if (result == 0) {
+                result = sequence < other.sequence ? -1 : (sequence == other.sequence ? 0 : 1);
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Name the threads after the lane
+     */
+    private static class LaneThreadFactory implements ThreadFactory {
+        private final TaskLane lane;
+        private final AtomicInteger threadCount = new AtomicInteger();
+
+        private LaneThreadFactory(TaskLane lane) {
+            this.lane = lane;
+        }
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "task-" + lane.getName() + "-" + threadCount.incrementAndGet());
+            thread.setPriority(lane.getThreadPriority());
+            return thread;
+        }
+    }
+}
@@ -4,12 +4,12 @@ import net.jcip.annotations.GuardedBy;
 import net.jcip.annotations.ThreadSafe;
 import uk.ac.ebi.pride.toolsuite.gui.utils.GUIBlocker;
 import uk.ac.ebi.pride.toolsuite.gui.utils.PropertyChangeHelper;
-import uk.ac.ebi.pride.toolsuite.gui.utils.ThreadCalculator;
 
 import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
-import java.util.ArrayList;
-import java.util.List;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.*;
 import java.util.concurrent.*;
 
 /**
@@ -19,6 +19,12 @@ import java.util.concurrent.*;
  * <p/>
  * 2. manage a queue of Tasks
  * <p/>
+ * 3. run the Tasks on the bounded thread pool of their {@link TaskLane}, by priority and fairly between owners
+ * <p/>
+ * 4. cancel the Tasks superseded by a newer Task for the same owner and target
+ * <p/>
+ * 5. collect the metrics of each class of Tasks, see {@link #getTaskStatistics()}
+ * <p/>
  * User: rwang
  * Date: 22-Jan-2010
  * Time: 11:34:32
@@ -36,9 +42,9 @@ public class TaskManager extends PropertyChangeHelper {
     public final static String REMOVE_TASK_PROP = "remove_new_task";
 
     /**
-     * Threshold pool executor, it is responsible to running all the tasks
+     * One bounded thread pool per lane, they are responsible to running all the tasks
      */
-    private final ExecutorService executor;
+    private final Map<TaskLane, TaskLaneExecutor> laneExecutors;
 
     /**
      * task list lock
@@ -51,6 +57,17 @@ public class TaskManager extends PropertyChangeHelper {
     @GuardedBy("tasksLock")
     private final List<Task> tasks;
 
+    /**
+     * The latest task added for each owner, task class and target, see {@link #addLatestTask(Task, Object, Object)}
+     */
+    @GuardedBy("tasksLock")
+    private final Map<List<Object>, Task> latestTasks;
+
+    /**
+     * Metrics of each task class
+     */
+    private final ConcurrentMap<Class<?>, TaskMetrics> taskMetrics;
+
     /**
      * property change listener
      */
@@ -60,18 +77,22 @@ public class TaskManager extends PropertyChangeHelper {
      * Constructor
      */
     public TaskManager() {
-
-        // 8 means that the time spent on waiting for I/O is about 80% of the total time
-        int numberOfThreads = ThreadCalculator.calculateNumberOfThreads(8);
-
-        // thread pool
-        this.executor = new ThreadPoolExecutor(5, numberOfThreads,
-                                               0L, TimeUnit.MILLISECONDS,
-                                               new LinkedBlockingQueue<Runnable>());
+        // thread pools
+        Map<TaskLane, TaskLaneExecutor> executors = new EnumMap<TaskLane, TaskLaneExecutor>(TaskLane.class);
+        for (TaskLane lane : TaskLane.values()) {
+            executors.put(lane, new TaskLaneExecutor(lane));
+        }
+        this.laneExecutors = Collections.unmodifiableMap(executors);
 
         // a list of tasks
         this.tasks = new CopyOnWriteArrayList<Task>();
 
+        // the latest tasks
+        this.latestTasks = new HashMap<List<Object>, Task>();
+
+        // task metrics
+        this.taskMetrics = new ConcurrentHashMap<Class<?>, TaskMetrics>();
+
         // internal property change listener
         this.taskPropListener = new TaskPropertyListener();
     }
@@ -116,8 +137,105 @@ public class TaskManager extends PropertyChangeHelper {
         if (blocker != null)
             blocker.block();
 
+        // record the metrics of the task
+        TaskMetrics metrics = getTaskMetrics(task.getClass());
+        task.setMetrics(metrics);
+        metrics.taskSubmitted();
+
         // execute the task
-        executor.execute(task);
+        laneExecutors.get(task.getLane()).execute(task);
+    }
+
+    /**
+     * Add a new task which supersedes the previous task of the same class,
+     * added for the same owner and the same target.
+     * <p/>
+     * The previous task is cancelled and its results are dropped, even if it has finished already,
+     * so a quick succession of selections only delivers the results of the last one.
+     *
+     * @param task   new task
+     * @param owner  owner of the task, usually a data access controller
+     * @param target component to display the results, usually the task listener
+     */
+    public void addLatestTask(Task task, Object owner, Object target) {
+        List<Object> key = Arrays.asList(owner, task.getClass(), target);
+
+        Task previousTask;
+        synchronized (tasksLock) {
+            previousTask = latestTasks.put(key, task);
+        }
+
+        if (previousTask != null && previousTask != task) {
+            getTaskMetrics(previousTask.getClass()).taskSuperseded();
+            previousTask.supersede();
+            cancelTask(previousTask, true);
+        }
+
+        addTask(task);
+    }
+
+    private TaskMetrics getTaskMetrics(Class<?> taskClass) {
+        TaskMetrics metrics = taskMetrics.get(taskClass);
+        if (metrics == null) {
+            String name = taskClass.getSimpleName();
+            TaskMetrics newMetrics = new TaskMetrics(name.isEmpty() ? taskClass.getName() : name);
+            metrics = taskMetrics.putIfAbsent(taskClass, newMetrics);
+            if (metrics == null) {
+                metrics = newMetrics;
+            }
+        }
+        return metrics;
+    }
+
+    /**
+     * Get the statistics of each class of tasks added so far, sorted by name
+     *
+     * @return List<TaskStatistics> task statistics
+     */
+    public List<TaskStatistics> getTaskStatistics() {
+        List<TaskStatistics> statistics = new ArrayList<TaskStatistics>();
+        for (TaskMetrics metrics : taskMetrics.values()) {
+            statistics.add(metrics.getStatistics());
+        }
+
+        Collections.sort(statistics, new Comparator<TaskStatistics>() {
+            @Override
+            public int compare(TaskStatistics o1, TaskStatistics o2) {
+                return o1.getName().compareTo(o2.getName());
+            }
+        });
+
+        return statistics;
+    }
+
+    /**
+     * Write the task statistics and the state of each lane as JSON
+     *
+     * @param writer output writer, it is neither flushed nor closed
+     * @throws IOException failed to write
+     */
+    public void writeTaskStatistics(Writer writer) throws IOException {
+        new TaskStatisticsWriter(writer).write(this, getTaskStatistics());
+    }
+
+    /**
+     * Get the number of tasks waiting for a thread in a lane
+     *
+     * @param lane scheduler lane
+     * @return int number of waiting tasks
+     */
+    public int getNumberOfWaitingTasks(TaskLane lane) {
+        return laneExecutors.get(lane).getNumberOfWaitingTasks();
+    }
+
+    /**
+     * Get the number of tasks running in a lane
+     *
+     * @param lane scheduler lane
+     * @return int number of running tasks
+     */
+    public int getNumberOfRunningTasks(TaskLane lane) {
+        return laneExecutors.get(lane).getNumberOfRunningTasks();
     }
 
     /**
@@ -230,7 +348,11 @@ public class TaskManager extends PropertyChangeHelper {
                 List<Task> oldTasks, newTasks;
                 oldTasks = new ArrayList<Task>(tasks);
                 tasks.remove(task);
+                latestTasks.values().remove(task);
                 canceled = task.cancel(interrupt);
+                if (canceled) {
+                    getTaskMetrics(task.getClass()).taskCancelled();
+                }
                 newTasks = new ArrayList<Task>(tasks);
                 task.removePropertyChangeListener(taskPropListener);
 
@@ -260,14 +382,18 @@ public class TaskManager extends PropertyChangeHelper {
      * no task is submitted.
      */
     public void shutdown() {
-        executor.shutdown();
+        for (TaskLaneExecutor laneExecutor : laneExecutors.values()) {
+            laneExecutor.shutdown();
+        }
     }
 
     /**
      * attempt to stop all running tasks at once
      */
     public void shutdownNow() {
-        executor.shutdownNow();
+        for (TaskLaneExecutor laneExecutor : laneExecutors.values()) {
+            laneExecutor.shutdownNow();
+        }
     }
 
     /**
@@ -286,6 +412,10 @@ public class TaskManager extends PropertyChangeHelper {
                 synchronized (tasksLock) {
                     oldTasks = new ArrayList<Task>(tasks);
                     tasks.remove(task);
+                    latestTasks.values().remove(task);
+                    if (task.isCancelled()) {
+                        getTaskMetrics(task.getClass()).taskCancelled();
+                    }
                     // remove all the children tasks too
                     TaskManager.this.cancelTasksByOwner(task);
                     newTasks = new ArrayList<Task>(tasks);
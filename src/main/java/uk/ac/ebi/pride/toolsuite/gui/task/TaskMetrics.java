@@ -0,0 +1,79 @@
+package uk.ac.ebi.pride.toolsuite.gui.task;
+
+import net.jcip.annotations.ThreadSafe;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * TaskMetrics collects the metrics of one class of tasks, it is kept by {@link TaskManager}
+ * and updated by the lane executors and the tasks themselves.
+ *
+ * @author Rui Wang
+ * @version $Id$
+ */
+@ThreadSafe
+class TaskMetrics {
+
+    private final String name;
+
+    private final AtomicLong numOfSubmitted = new AtomicLong();
+
+    private final AtomicLong numOfStarted = new AtomicLong();
+
+    private final AtomicLong numOfFinished = new AtomicLong();
+
+    private final AtomicLong numOfCancelled = new AtomicLong();
+
+    private final AtomicLong numOfSuperseded = new AtomicLong();
+
+    private final AtomicLong numOfPublishedItems = new AtomicLong();
+
+    private final LatencyHistogram queueWait = new LatencyHistogram();
+
+    private final LatencyHistogram runTime = new LatencyHistogram();
+
+    private final LatencyHistogram publishTime = new LatencyHistogram();
+
+    private final LatencyHistogram completionTime = new LatencyHistogram();
+
+    TaskMetrics(String name) {
+        this.name = name;
+    }
+
+    void taskSubmitted() {
+        numOfSubmitted.incrementAndGet();
+    }
+
+    void taskStarted(long queueWaitNanos) {
+        numOfStarted.incrementAndGet();
+        queueWait.record(queueWaitNanos);
+    }
+
+    void taskFinished(long runNanos) {
+        numOfFinished.incrementAndGet();
+        runTime.record(runNanos);
+    }
+
+    void taskCancelled() {
+        numOfCancelled.incrementAndGet();
+    }
+
+    void taskSuperseded() {
+        numOfSuperseded.incrementAndGet();
+    }
+
+    void itemsPublished(int numOfItems, long nanos) {
+        numOfPublishedItems.addAndGet(numOfItems);
+        publishTime.record(nanos);
+    }
+
+    void taskCompleted(long nanos) {
+        completionTime.record(nanos);
+    }
+
+    TaskStatistics getStatistics() {
+        return new TaskStatistics(name, numOfSubmitted.get(), numOfStarted.get(), numOfFinished.get(),
+                numOfCancelled.get(), numOfSuperseded.get(), numOfPublishedItems.get(),
+                queueWait.getTiming(), runTime.getTiming(), publishTime.getTiming(), completionTime.getTiming());
+    }
+}
@@ -0,0 +1,13 @@
+package uk.ac.ebi.pride.toolsuite.gui.task;
+
+/**
+ * Priority of a task within its {@link TaskLane}, tasks with a higher priority are started first
+ *
+ * @author Rui Wang
+ * @version $Id$
+ */
+public enum TaskPriority {
+    HIGH,
+    NORMAL,
+    LOW
+}
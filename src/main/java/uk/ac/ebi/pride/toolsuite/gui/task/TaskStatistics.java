@@ -0,0 +1,165 @@
+package uk.ac.ebi.pride.toolsuite.gui.task;
+
+/**
+ * A snapshot of the metrics of one class of tasks, see {@link TaskManager#getTaskStatistics()}.
+ *
+ * @author Rui Wang
+ * @version $Id$
+ */
+public class TaskStatistics {
+
+    private final String name;
+    private final long numOfSubmitted;
+    private final long numOfStarted;
+    private final long numOfFinished;
+    private final long numOfCancelled;
+    private final long numOfSuperseded;
+    private final long numOfPublishedItems;
+    private final Timing queueWait;
+    private final Timing runTime;
+    private final Timing publishTime;
+    private final Timing completionTime;
+
+    public TaskStatistics(String name, long numOfSubmitted, long numOfStarted, long numOfFinished,
+                          long numOfCancelled, long numOfSuperseded, long numOfPublishedItems,
+                          Timing queueWait, Timing runTime, Timing publishTime, Timing completionTime) {
+        this.name = name;
+        this.numOfSubmitted = numOfSubmitted;
+        this.numOfStarted = numOfStarted;
+        this.numOfFinished = numOfFinished;
+        this.numOfCancelled = numOfCancelled;
+        this.numOfSuperseded = numOfSuperseded;
+        this.numOfPublishedItems = numOfPublishedItems;
+        this.queueWait = queueWait;
+        this.runTime = runTime;
+        this.publishTime = publishTime;
+        this.completionTime = completionTime;
+    }
+
+    /**
+     * Get the name of the task class
+     *
+     * @return String  simple class name
+     */
+    public String getName() {
+        return name;
+    }
+
+    public long getNumOfSubmitted() {
+        return numOfSubmitted;
+    }
+
+    public long getNumOfStarted() {
+        return numOfStarted;
+    }
+
+    public long getNumOfFinished() {
+        return numOfFinished;
+    }
+
+    public long getNumOfCancelled() {
+        return numOfCancelled;
+    }
+
+    public long getNumOfSuperseded() {
+        return numOfSuperseded;
+    }
+
+    /**
+     * Get the number of values and batch items delivered to the task listeners
+     *
+     * @return long    number of published items
+     */
+    public long getNumOfPublishedItems() {
+        return numOfPublishedItems;
+    }
+
+    /**
+     * Get the time between adding the tasks to the task manager and starting them
+     *
+     * @return Timing  queue wait
+     */
+    public Timing getQueueWait() {
+        return queueWait;
+    }
+
+    /**
+     * Get the time spent in the background, on a task manager thread
+     *
+     * @return Timing  run time
+     */
+    public Timing getRunTime() {
+        return runTime;
+    }
+
+    /**
+     * Get the time spent on the event dispatch thread delivering published values and batches
+     *
+     * @return Timing  publish time
+     */
+    public Timing getPublishTime() {
+        return publishTime;
+    }
+
+    /**
+     * Get the time spent on the event dispatch thread delivering the results when the tasks are done
+     *
+     * @return Timing  completion time
+     */
+    public Timing getCompletionTime() {
+        return completionTime;
+    }
+
+    /**
+     * Durations of one step of the tasks, in nanoseconds
+     */
+    public static class Timing {
+        private final long count;
+        private final long totalNanos;
+        private final long medianNanos;
+        private final long percentile95Nanos;
+        private final long maxNanos;
+
+        public Timing(long count, long totalNanos, long medianNanos, long percentile95Nanos, long maxNanos) {
+            this.count = count;
+            this.totalNanos = totalNanos;
+            this.medianNanos = medianNanos;
+            this.percentile95Nanos = percentile95Nanos;
+            this.maxNanos = maxNanos;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getTotalNanos() {
+            return totalNanos;
+        }
+
+        public long getMeanNanos() {
+            return count == 0 ? 0 : totalNanos / count;
+        }
+
+        /**
+         * Get the estimated median, accurate within a factor of two
+         *
+         * @return long    median in nanoseconds
+         */
+        public long getMedianNanos() {
+            return medianNanos;
+        }
+
+        /**
+         * Get the estimated 95th percentile, accurate within a factor of two
+         *
+         * @return long    95th percentile in nanoseconds
+         */
+        public long getPercentile95Nanos() {
+            return percentile95Nanos;
+        }
+
+        public long getMaxNanos() {
+            return maxNanos;
+        }
+    }
+}
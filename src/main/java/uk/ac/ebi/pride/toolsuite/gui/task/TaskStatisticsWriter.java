@@ -0,0 +1,103 @@
+package uk.ac.ebi.pride.toolsuite.gui.task;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * TaskStatisticsWriter writes the task statistics and the state of the scheduler lanes as JSON,
+ * durations are written in milliseconds.
+ *
+ * @author Rui Wang
+ * @version $Id$
+ */
+class TaskStatisticsWriter {
+
+    private final Writer writer;
+
+    TaskStatisticsWriter(Writer writer) {
+        this.writer = writer;
+    }
+
+    void write(TaskManager taskManager, List<TaskStatistics> statistics) throws IOException {
+        writer.write("{\n");
+        writer.write("  \"timestamp\": ");
+        writeString(new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSSZ", Locale.ENGLISH).format(new Date()));
+        writer.write(",\n");
+
+        // lanes
+        writer.write("  \"lanes\": [");
+        TaskLane[] lanes = TaskLane.values();
+        for (int i = 0; i < lanes.length; i++) {
+            TaskLane lane = lanes[i];
+            writer.write(i == 0 ? "\n" : ",\n");
+            writer.write("    {\"name\": ");
+            writeString(lane.getName());
+            writer.write(", \"threads\": " + lane.getNumberOfThreads());
+            writer.write(", \"running\": " + taskManager.getNumberOfRunningTasks(lane));
+            writer.write(", \"waiting\": " + taskManager.getNumberOfWaitingTasks(lane) + "}");
+        }
+        writer.write("\n  ],\n");
+
+        // tasks
+        writer.write("  \"tasks\": [");
+        for (int i = 0; i < statistics.size(); i++) {
+            TaskStatistics taskStatistics = statistics.get(i);
+            writer.write(i == 0 ? "\n" : ",\n");
+            writer.write("    {\n");
+            writer.write("      \"name\": ");
+            writeString(taskStatistics.getName());
+            writer.write(",\n");
+            writer.write("      \"submitted\": " + taskStatistics.getNumOfSubmitted() + ",\n");
+            writer.write("      \"started\": " + taskStatistics.getNumOfStarted() + ",\n");
+            writer.write("      \"finished\": " + taskStatistics.getNumOfFinished() + ",\n");
+            writer.write("      \"cancelled\": " + taskStatistics.getNumOfCancelled() + ",\n");
+            writer.write("      \"superseded\": " + taskStatistics.getNumOfSuperseded() + ",\n");
+            writer.write("      \"publishedItems\": " + taskStatistics.getNumOfPublishedItems() + ",\n");
+            writeTiming("queueWait", taskStatistics.getQueueWait());
+            writer.write(",\n");
+            writeTiming("runTime", taskStatistics.getRunTime());
+            writer.write(",\n");
+            writeTiming("publishTime", taskStatistics.getPublishTime());
+            writer.write(",\n");
+            writeTiming("completionTime", taskStatistics.getCompletionTime());
+            writer.write("\n    }");
+        }
+        writer.write("\n  ]\n");
+        writer.write("}\n");
+    }
+
+    private void writeTiming(String name, TaskStatistics.Timing timing) throws IOException {
+        writer.write("      ");
+        writeString(name);
+        writer.write(": {\"count\": " + timing.getCount());
+        writer.write(", \"totalMs\": " + toMillis(timing.getTotalNanos()));
+        writer.write(", \"meanMs\": " + toMillis(timing.getMeanNanos()));
+        writer.write(", \"medianMs\": " + toMillis(timing.getMedianNanos()));
+        writer.write(", \"p95Ms\": " + toMillis(timing.getPercentile95Nanos()));
+        writer.write(", \"maxMs\": " + toMillis(timing.getMaxNanos()) + "}");
+    }
+
+    private void writeString(String value) throws IOException {
+        writer.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                writer.write('\\');
+                writer.write(c);
+            } else if (c < 0x20) {
+                writer.write(String.format("\\u%04x", (int) c));
+            } else {
+                writer.write(c);
+            }
+        }
+        writer.write('"');
+    }
+
+    private static String toMillis(long nanos) {
+        return String.format(Locale.ENGLISH, "%.3f", nanos / 1000000.0);
+    }
+}
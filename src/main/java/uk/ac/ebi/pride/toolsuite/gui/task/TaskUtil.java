@@ -26,4 +26,19 @@ public final class TaskUtil {
         task.addOwner(taskOwner);
         startBackgroundTask(task);
     }
+
+    /**
+     * Start a background task for a selection, the previous task of the same class
+     * for the same owner and target is cancelled and its results are dropped
+     *
+     * @param task      new task
+     * @param taskOwner owner of the task, usually a data access controller
+     * @param target    component to display the results
+     */
+    public static void startLatestBackgroundTask(Task task, Object taskOwner, Object target) {
+        task.addOwner(taskOwner);
+        task.setGUIBlocker(new DefaultGUIBlocker(task, GUIBlocker.Scope.NONE, null));
+
+        context.addLatestTask(task, taskOwner, target);
+    }
 }
@@ -8,6 +8,7 @@ import org.apache.http.impl.client.DefaultHttpClient;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import uk.ac.ebi.pride.toolsuite.gui.task.TaskAdapter;
+import uk.ac.ebi.pride.toolsuite.gui.task.TaskLane;
 import uk.ac.ebi.pride.toolsuite.gui.utils.Constants;
 
 import java.io.BufferedReader;
@@ -27,6 +28,10 @@ public abstract class AbstractConnectPrideTask extends TaskAdapter<List<Map<Stri
     private static final Logger logger = LoggerFactory.getLogger(AbstractConnectPrideTask.class);
     private static final int BUFFER_SIZE = 1024;
 
+    protected AbstractConnectPrideTask() {
+        this.setLane(TaskLane.IO);
+    }
+
     /**
      * login to pride to download
      *
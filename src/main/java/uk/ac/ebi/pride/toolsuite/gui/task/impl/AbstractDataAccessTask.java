@@ -8,6 +8,8 @@ import uk.ac.ebi.pride.toolsuite.gui.desktop.Desktop;
 import uk.ac.ebi.pride.toolsuite.gui.task.TaskAdapter;
 import uk.ac.ebi.pride.utilities.data.controller.DataAccessController;
 
+import java.awt.*;
+
 /**
  * Tasks use any data access controller need to extends this class.
  * This class will guarantee that when data access controller is closed,
@@ -36,7 +38,7 @@ public abstract class AbstractDataAccessTask<K, V> extends TaskAdapter<K, V> {
     }
 
     /**
-     * doInBackground method catches out of memory exception.
+     * doInBackground method reports out of memory exception to the user, the task still fails.
      *
      * @return K    task result
      * @throws Exception    exceptions.
@@ -46,9 +48,8 @@ public abstract class AbstractDataAccessTask<K, V> extends TaskAdapter<K, V> {
         try {
             return retrieve();
         } catch (OutOfMemoryError ex) {
-            GUIUtilities.error(Desktop.getInstance().getMainComponent(),
-                                appContext.getProperty("out.of.memory.message"),
-                                appContext.getProperty("out.of.memory.title"));
+            showError(appContext.getProperty("out.of.memory.message"), appContext.getProperty("out.of.memory.title"));
+            throw ex;
         }  catch (InterruptedException e) {
             logger.warn("Task has been cancelled: {}", this.getClass().getDeclaringClass());
         }
@@ -65,6 +66,19 @@ public abstract class AbstractDataAccessTask<K, V> extends TaskAdapter<K, V> {
     protected abstract K retrieve() throws Exception;
 
 
+    /**
+     * Show an error message to the user, in headless mode there is no one to show it to,
+     * the task must fail instead
+     *
+     * @param msg   error message
+     * @param title title of the message
+     */
+    void showError(String msg, String title) {
+        if (!GraphicsEnvironment.isHeadless()) {
+            GUIUtilities.error(Desktop.getInstance().getMainComponent(), msg, title);
+        }
+    }
+
     /**
      * Get the data access controller
      * @return DataAccessController data access controller
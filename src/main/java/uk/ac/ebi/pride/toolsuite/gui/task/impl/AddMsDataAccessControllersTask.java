@@ -94,7 +94,7 @@ public class AddMsDataAccessControllersTask extends TaskAdapter<Void, Map<Spectr
                     TableModel tableModel = table.getModel();
                     task.addTaskListener((TaskListener) tableModel);
 
-                    TaskUtil.startBackgroundTask(task, controller);
+                    TaskUtil.startLatestBackgroundTask(task, controller, tableModel);
                     EventBus.publish(new SpectrumAddEvent<DataAccessController>(this, controller, SpectrumAddEvent.Status.SPECTRUM_ADDED));
 
                     contentPane.populate();
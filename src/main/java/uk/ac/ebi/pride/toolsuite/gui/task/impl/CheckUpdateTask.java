@@ -3,6 +3,7 @@ package uk.ac.ebi.pride.toolsuite.gui.task.impl;
 import uk.ac.ebi.pride.toolsuite.gui.PrideInspector;
 import uk.ac.ebi.pride.toolsuite.gui.desktop.DesktopContext;
 import uk.ac.ebi.pride.toolsuite.gui.task.TaskAdapter;
+import uk.ac.ebi.pride.toolsuite.gui.task.TaskLane;
 import uk.ac.ebi.pride.toolsuite.gui.utils.UpdateChecker;
 
 /**
@@ -17,6 +18,7 @@ public class CheckUpdateTask extends TaskAdapter<Boolean, Void> {
     public CheckUpdateTask() {
         String msg = "Checking for update";
         this.setName(msg);
+        this.setLane(TaskLane.IO);
         this.setDescription(msg);
     }
 
@@ -1,6 +1,7 @@
 package uk.ac.ebi.pride.toolsuite.gui.task.impl;
 
 import uk.ac.ebi.pride.toolsuite.gui.task.TaskAdapter;
+import uk.ac.ebi.pride.toolsuite.gui.task.TaskLane;
 import uk.ac.ebi.pride.toolsuite.gui.utils.DataTransferConfiguration;
 import uk.ac.ebi.pride.toolsuite.gui.utils.DataTransferPort;
 import uk.ac.ebi.pride.toolsuite.gui.utils.DataTransferProtocol;
@@ -21,6 +22,7 @@ public class DataTransferProtocolTask extends TaskAdapter<List<DataTransferProto
     private final List<DataTransferConfiguration> dataTransferConfigurations = new ArrayList<DataTransferConfiguration>();
 
     public DataTransferProtocolTask(DataTransferConfiguration ... dataTransferConfigurations) {
+        this.setLane(TaskLane.IO);
         if (dataTransferConfigurations != null)
             this.dataTransferConfigurations.addAll(Arrays.asList(dataTransferConfigurations));
     }
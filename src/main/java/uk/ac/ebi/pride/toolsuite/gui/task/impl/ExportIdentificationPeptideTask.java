@@ -5,8 +5,6 @@ import org.slf4j.LoggerFactory;
 import uk.ac.ebi.pride.utilities.data.controller.DataAccessController;
 import uk.ac.ebi.pride.utilities.data.controller.DataAccessException;
 import uk.ac.ebi.pride.utilities.data.core.ExperimentMetaData;
-import uk.ac.ebi.pride.toolsuite.gui.GUIUtilities;
-import uk.ac.ebi.pride.toolsuite.gui.desktop.Desktop;
 import uk.ac.ebi.pride.toolsuite.gui.utils.Constants;
 
 import java.io.File;
@@ -109,11 +107,13 @@ public class ExportIdentificationPeptideTask extends AbstractDataAccessTask<Void
         } catch (DataAccessException e2) {
             String msg = "Failed to retrieve data from data source";
             logger.error(msg, e2);
-            GUIUtilities.error(Desktop.getInstance().getMainComponent(), msg, "Export Error");
+            showError(msg, "Export Error");
+            throw e2;
         } catch (IOException e1) {
             String msg = "Failed to write data to the output file, please check you have the right permission";
             logger.error(msg, e1);
-            GUIUtilities.error(Desktop.getInstance().getMainComponent(), msg, "Export Error");
+            showError(msg, "Export Error");
+            throw e1;
         } finally {
             if (writer != null) {
                 writer.close();
@@ -4,26 +4,35 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import uk.ac.ebi.pride.utilities.data.controller.DataAccessController;
 import uk.ac.ebi.pride.utilities.data.controller.DataAccessException;
+import uk.ac.ebi.pride.utilities.data.core.BinaryDataArray;
 import uk.ac.ebi.pride.utilities.data.core.ExperimentMetaData;
 import uk.ac.ebi.pride.utilities.data.core.Spectrum;
-import uk.ac.ebi.pride.toolsuite.gui.GUIUtilities;
-import uk.ac.ebi.pride.toolsuite.gui.desktop.Desktop;
+import uk.ac.ebi.pride.toolsuite.gui.PrideInspectorCacheManager;
+import uk.ac.ebi.pride.toolsuite.gui.access.SpectrumPeakCache;
 import uk.ac.ebi.pride.toolsuite.gui.utils.Constants;
+import uk.ac.ebi.pride.toolsuite.gui.utils.MgfWriter;
 
 import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
-import java.io.PrintWriter;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 
 /**
  * Task to export to MGF file format
  * <p/>
+ * Spectra are read by a prefetch thread while this task encodes them using {@link MgfWriter},
+ * the output is gzipped if the file name ends with .gz.
+ * The task description reports the export throughput.
+ * <p/>
+ * Peaks kept by the {@link SpectrumPeakCache} are not read from the data source again,
+ * the peaks read by the export are not added to the cache.
+ * <p/>
  * User: dani, rwang
  * Date: 18-Oct-2010
  * Time: 10:46:54
  */
 public class ExportSpectrumMGFTask extends AbstractDataAccessTask<Void, Void> {
-    private static final Logger logger = LoggerFactory.getLogger(ExportSpectrumDescTask.class);
+    private static final Logger logger = LoggerFactory.getLogger(ExportSpectrumMGFTask.class);
 
     /**
      * the default task title
@@ -33,6 +42,18 @@ public class ExportSpectrumMGFTask extends AbstractDataAccessTask<Void, Void> {
      * the default task description
      */
     private static final String DEFAULT_TASK_DESCRIPTION = "Exporting Spectrum MGF format";
+    /**
+     * the number of spectra read ahead of the writer
+     */
+    private static final int PREFETCH_SIZE = 256;
+    /**
+     * the interval between two throughput updates in milliseconds
+     */
+    private static final long PROGRESS_INTERVAL = 1000;
+    /**
+     * marks the end of the prefetched spectra
+     */
+    private static final PrefetchedSpectrum END_OF_SPECTRA = new PrefetchedSpectrum(null, null, null, null, null);
     /**
      * output File
      */
@@ -42,7 +63,7 @@ public class ExportSpectrumMGFTask extends AbstractDataAccessTask<Void, Void> {
      * Retrieve spectrum data in an MGF file format
      *
      * @param controller     DataAccessController
-     * @param outputFilePath file to output the result.
+     * @param outputFilePath file to output the result, gzipped if it ends with .gz
      */
     public ExportSpectrumMGFTask(DataAccessController controller, String outputFilePath) {
         super(controller);
@@ -53,93 +74,208 @@ public class ExportSpectrumMGFTask extends AbstractDataAccessTask<Void, Void> {
 
     @Override
     protected Void retrieve() throws Exception {
-        PrintWriter writer = null;
+        MgfWriter writer = null;
+        Thread prefetchThread = null;
 
         try {
-            writer = new PrintWriter(new FileWriter(new File(outputFilePath)));
+            writer = new MgfWriter(new File(outputFilePath), outputFilePath.endsWith(Constants.GZIPPED_FILE));
             ExperimentMetaData exp = controller.getExperimentMetaData();
 
             //------- Comment section -------
 
             // data source
             if (controller.getType().equals(DataAccessController.Type.XML_FILE)) {
-                writer.println("# Data source: " + ((File) controller.getSource()).getAbsolutePath());
+                writer.writeComment("Data source: " + ((File) controller.getSource()).getAbsolutePath());
             } else if (controller.getType().equals(DataAccessController.Type.DATABASE)) {
-                writer.println("# Data source: pride public mysql instance");
+                writer.writeComment("Data source: pride public mysql instance");
             }
 
             // accession if exist
             String acc = (exp.getId() !=null)?exp.getId().toString():null;
             if (acc != null) {
-                writer.println("# PRIDE accession: " + acc);
+                writer.writeComment("PRIDE accession: " + acc);
             }
 
             String title = exp.getName();
             if (title != null) {
-                writer.println("# Experiment title: " + title);
+                writer.writeComment("Experiment title: " + title);
             }
 
             // number of spectrum
             if (controller.hasSpectrum()) {
-                writer.println("# Number of spectra: " + controller.getNumberOfSpectra());
+                writer.writeComment("Number of spectra: " + controller.getNumberOfSpectra());
             }
 
             // number of protein identifications
             if (controller.hasProtein()) {
-                writer.println("# Number of protein identifications: " + controller.getNumberOfProteins());
+                writer.writeComment("Number of protein identifications: " + controller.getNumberOfProteins());
             }
 
             // number of peptides
             if (controller.hasPeptide()) {
-                writer.println("# Number of peptides: " + controller.getNumberOfPeptides());
+                writer.writeComment("Number of peptides: " + controller.getNumberOfPeptides());
             }
 
             //------- MGF content section -------
-            for (Comparable spectrumId : controller.getSpectrumIds()) {
-                Spectrum spectrum = controller.getSpectrumById(spectrumId);
-                int msLevel = controller.getSpectrumMsLevel(spectrumId);
-                if (msLevel == 2) {
-                    writer.println("BEGIN IONS");
-                    writer.println("TITLE=" + spectrumId);
-                    writer.println("PEPMASS=" + controller.getSpectrumPrecursorMz(spectrumId));
-                    // precursor charge
-                    Integer charge = controller.getSpectrumPrecursorCharge(spectrumId);
-                    if (charge != null) {
-                        writer.println("CHARGE=" + charge + (charge >= 0 ? "+" : "-"));
-                    }
-                    //get both arrays
-                    double[] mzBinaryArray = spectrum.getMzBinaryDataArray().getDoubleArray();
-                    double[] intensityArray = spectrum.getIntensityBinaryDataArray().getDoubleArray();
+            SpectrumPrefetcher prefetcher = new SpectrumPrefetcher();
+            prefetchThread = new Thread(prefetcher, "mgf-prefetch");
+            prefetchThread.setDaemon(true);
+            prefetchThread.start();
 
-                    for (int i = 0; i < mzBinaryArray.length; i++) {
-                        writer.println(mzBinaryArray[i] + Constants.TAB + intensityArray[i]);
-                    }
-                    writer.println("END IONS" + Constants.LINE_SEPARATOR);
+            long startTime = System.currentTimeMillis();
+            long lastProgressTime = startTime;
+            PrefetchedSpectrum spectrum;
+            while ((spectrum = prefetcher.take()) != END_OF_SPECTRA) {
+                writer.writeSpectrum(spectrum.title, spectrum.precursorMz, spectrum.precursorCharge,
+                        spectrum.mz, spectrum.intensity);
 
-                    // this is important for cancelling
-                    if (Thread.interrupted()) {
-                        throw new InterruptedException();
-                    }
-                    writer.flush();
+                long now = System.currentTimeMillis();
+                if (now - lastProgressTime >= PROGRESS_INTERVAL) {
+                    lastProgressTime = now;
+                    setDescription(getProgressDescription(writer.getNumOfSpectra(), now - startTime));
                 }
 
                 checkInterruption();
             }
             writer.flush();
+
+            long elapsed = System.currentTimeMillis() - startTime;
+            setDescription(getProgressDescription(writer.getNumOfSpectra(), elapsed));
+            logger.info("Exported {} spectra to {} in {} ms", writer.getNumOfSpectra(), outputFilePath, elapsed);
         } catch (DataAccessException e2) {
             String msg = "Failed to retrieve data from data source";
             logger.error(msg, e2);
-            GUIUtilities.error(Desktop.getInstance().getMainComponent(), msg, "Export Error");
+            showError(msg, "Export Error");
+            throw e2;
         } catch (IOException e1) {
             String msg = "Failed to write data to the output file, please check you have the right permission";
             logger.error(msg, e1);
-            GUIUtilities.error(Desktop.getInstance().getMainComponent(), msg, "Export Error");
+            showError(msg, "Export Error");
+            throw e1;
         } finally {
+            if (prefetchThread != null) {
+                prefetchThread.interrupt();
+            }
             if (writer != null) {
-                writer.close();
+                try {
+                    writer.close();
+                } catch (IOException e) {
+                    logger.error("Failed to close the output file", e);
+                }
             }
         }
         return null;
     }
 
+    private String getProgressDescription(long numOfSpectra, long elapsed) {
+        long spectraPerSecond = elapsed > 0 ? numOfSpectra * 1000 / elapsed : numOfSpectra;
+        return DEFAULT_TASK_DESCRIPTION + ": " + numOfSpectra + " spectra (" + spectraPerSecond + " spectra/s)";
+    }
+
+    /**
+     * Read the MS2 spectra ahead of the writer
+     */
+    private class SpectrumPrefetcher implements Runnable {
+        private final BlockingQueue<PrefetchedSpectrum> spectra = new ArrayBlockingQueue<PrefetchedSpectrum>(PREFETCH_SIZE);
+        private final SpectrumPeakCache peakCache = PrideInspectorCacheManager.getInstance().getSpectrumPeakCache();
+        private volatile Throwable failure;
+
+        @Override
+        public void run() {
+            boolean writerStopped = false;
+            try {
+                for (Comparable spectrumId : controller.getSpectrumIds()) {
+                    if (controller.getSpectrumMsLevel(spectrumId) == 2) {
+                        PrefetchedSpectrum spectrum = prefetch(spectrumId);
+                        if (spectrum != null) {
+                            spectra.put(spectrum);
+                        } else {
+                            logger.warn("Spectrum {} cannot be found, it is not exported", spectrumId);
+                        }
+                    }
+                }
+            } catch (InterruptedException ex) {
+                writerStopped = true;
+            } catch (Throwable ex) {
+                // handed over to the writer, including errors such as running out of memory
+                failure = ex;
+            } finally {
+                // the writer waits for the end marker, unless it has stopped
+                if (!writerStopped) {
+                    try {
+                        spectra.put(END_OF_SPECTRA);
+                    } catch (InterruptedException ex) {
+                        // the writer has stopped
+                    }
+                }
+            }
+        }
+
+        /**
+         * Read a spectrum, the peaks are taken from the spectrum peak cache if possible.
+         * The spectra read from the data source are not added to the cache, an export would
+         * otherwise evict the spectra the user has been looking at.
+         *
+         * @return PrefetchedSpectrum  spectrum, null if the spectrum cannot be found
+         */
+        private PrefetchedSpectrum prefetch(Comparable spectrumId) {
+            String title = spectrumId.toString();
+            Double precursorMz = controller.getSpectrumPrecursorMz(spectrumId);
+            Integer precursorCharge = controller.getSpectrumPrecursorCharge(spectrumId);
+
+            SpectrumPeakCache.Peaks peaks = peakCache.getPeaks(controller, spectrumId);
+            if (peaks != null) {
+                return new PrefetchedSpectrum(title, precursorMz, precursorCharge, peaks.getMz(), peaks.getIntensity());
+            }
+
+            Spectrum spectrum = controller.getSpectrumById(spectrumId);
+            if (spectrum == null) {
+                return null;
+            }
+
+            // a spectrum without binary arrays is written with an empty peak list
+            return new PrefetchedSpectrum(title, precursorMz, precursorCharge,
+                    getDoubleArray(spectrum.getMzBinaryDataArray()), getDoubleArray(spectrum.getIntensityBinaryDataArray()));
+        }
+
+        private double[] getDoubleArray(BinaryDataArray binaryDataArray) {
+            return binaryDataArray == null ? null : binaryDataArray.getDoubleArray();
+        }
+
+        /**
+         * Take the next spectrum, rethrow the exception of the prefetch thread at the end
+         */
+        private PrefetchedSpectrum take() throws InterruptedException {
+            PrefetchedSpectrum spectrum = spectra.take();
+            Throwable cause = failure;
+            if (spectrum == END_OF_SPECTRA && cause != null) {
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                } else if (cause instanceof Error) {
+                    throw (Error) cause;
+                }
+                throw new IllegalStateException("Failed to read the spectra", cause);
+            }
+            return spectrum;
+        }
+    }
+
+    /**
+     * The details of a spectrum needed by MGF
+     */
+    private static class PrefetchedSpectrum {
+        private final String title;
+        private final Double precursorMz;
+        private final Integer precursorCharge;
+        private final double[] mz;
+        private final double[] intensity;
+
+        private PrefetchedSpectrum(String title, Double precursorMz, Integer precursorCharge, double[] mz, double[] intensity) {
+            this.title = title;
+            this.precursorMz = precursorMz;
+            this.precursorCharge = precursorCharge;
+            this.mz = mz;
+            this.intensity = intensity;
+        }
+    }
 }
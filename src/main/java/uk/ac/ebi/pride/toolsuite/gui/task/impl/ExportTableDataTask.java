@@ -3,18 +3,20 @@ package uk.ac.ebi.pride.toolsuite.gui.task.impl;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import uk.ac.ebi.pride.toolsuite.gui.GUIUtilities;
+import uk.ac.ebi.pride.toolsuite.gui.component.table.TableDataExporter;
 import uk.ac.ebi.pride.toolsuite.gui.desktop.Desktop;
 import uk.ac.ebi.pride.toolsuite.gui.task.TaskAdapter;
-import uk.ac.ebi.pride.toolsuite.gui.utils.Constants;
 
 import javax.swing.*;
-import java.io.File;
-import java.io.FileWriter;
-import java.io.IOException;
-import java.io.PrintWriter;
+import java.io.*;
 
 /**
- * Task to export quantitative data
+ * Task to export table data
+ * <p/>
+ * The rows and columns shown by the table are captured when the task is created,
+ * the values are then read from the table model by {@link TableDataExporter} in the background.
+ * The output is comma separated if the file name ends with .csv, tab separated otherwise.
+ * A failure to write is reported to the user, the task then fails with the exception.
  *
  * User: rwang
  * Date: 23/08/2011
@@ -22,7 +24,12 @@ import java.io.PrintWriter;
  */
 public class ExportTableDataTask extends TaskAdapter<Void, Void>{
 
-    private static final Logger logger = LoggerFactory.getLogger(ExportIdentificationDescTask.class);
+    private static final Logger logger = LoggerFactory.getLogger(ExportTableDataTask.class);
+
+    /**
+     * size of the output buffer
+     */
+    private static final int BUFFER_SIZE = 64 * 1024;
 
     /**
      * output File
@@ -30,13 +37,26 @@ public class ExportTableDataTask extends TaskAdapter<Void, Void>{
     private String outputFilePath;
 
     /**
-     * quantitative data table
+     * table model exporter
      */
-    private JTable table;
+    private TableDataExporter exporter;
 
+    /**
+     * Constructor, this must be called on the event dispatch thread
+     *
+     * @param table    table to export
+     * @param fileName output file
+     * @param taskName task name
+     * @param taskDesc task description
+     */
     public ExportTableDataTask(JTable table, String fileName,
                                String taskName, String taskDesc) {
-        this.table = table;
+        this(TableDataExporter.createExporter(table), fileName, taskName, taskDesc);
+    }
+
+    public ExportTableDataTask(TableDataExporter exporter, String fileName,
+                               String taskName, String taskDesc) {
+        this.exporter = exporter;
         this.outputFilePath = fileName;
         this.setName(taskName);
         this.setDescription(taskDesc);
@@ -44,49 +64,28 @@ public class ExportTableDataTask extends TaskAdapter<Void, Void>{
 
     @Override
     protected Void doInBackground() throws Exception {
-        PrintWriter writer = null;
+        Writer writer = null;
 
         try {
-            writer = new PrintWriter(new FileWriter(new File(outputFilePath)));
-
-            // header
-            int rowCnt = table.getRowCount();
-            int colCnt = table.getColumnCount();
+            writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(outputFilePath), "UTF-8"), BUFFER_SIZE);
 
-            String header = "";
-            for (int i = 0; i < colCnt; i++) {
-                header += table.getColumnName(i) + Constants.TAB;
-            }
-            writer.println(header);
-
-            // rows
-            for (int i = 0; i < rowCnt; i++) {
-                String row = "";
-                for (int j = 0; j < colCnt; j++) {
-                    Object value = table.getValueAt(i, j);
-                    row += (value == null ? "" : value) + Constants.TAB;
-                }
-                writer.println(row);
-
-                checkInterruption();
-            }
+            exporter.write(writer, TableDataExporter.Format.getFormat(outputFilePath));
 
             writer.flush();
         } catch (IOException e1) {
             String msg = "Failed to write data to the output file, please check you have the right permission";
             logger.error(msg, e1);
             GUIUtilities.error(Desktop.getInstance().getMainComponent(), msg, "Export Error");
+            throw e1;
         } finally {
             if (writer != null) {
-                writer.close();
+                try {
+                    writer.close();
+                } catch (IOException e) {
+                    logger.error("Failed to close the output file", e);
+                }
             }
         }
         return null;
     }
-
-    private void checkInterruption() throws InterruptedException {
-        if (Thread.currentThread().interrupted()) {
-            throw new InterruptedException();
-        }
-    }
 }
@@ -1,5 +1,7 @@
 package uk.ac.ebi.pride.toolsuite.gui.task.impl;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import uk.ac.ebi.pride.jmztab.model.MZTabFile;
 import uk.ac.ebi.pride.jmztab.utils.MZTabFileConverter;
 import uk.ac.ebi.pride.jmztab.utils.errors.MZTabErrorList;
@@ -22,6 +24,7 @@ import java.io.OutputStream;
 
 
 public class ExportTomzTabTask extends AbstractDataAccessTask<Void, Void> {
+    private static final Logger logger = LoggerFactory.getLogger(ExportTomzTabTask.class);
 
     /**
      * the default task title
@@ -63,16 +66,29 @@ public class ExportTomzTabTask extends AbstractDataAccessTask<Void, Void> {
             mzTabConverter = new MzIdentMLMzTabConverter((MzIdentMLControllerImpl)controller);
             mzTabFile = mzTabConverter.getMZTabFile();
         }
-        if(mzTabFile != null){
+        if (mzTabFile == null) {
+            String msg = "mzTab export is not supported for " + controller.getName();
+            logger.error(msg);
+            showError(msg, "Export Error");
+            throw new IllegalStateException(msg);
+        } else {
             MZTabFileConverter checker = new MZTabFileConverter();
             checker.check(mzTabFile);
 
             MZTabErrorList errorList = checker.getErrorList();
 
-            OutputStream out = new BufferedOutputStream(new FileOutputStream(outputFilePath));
+            if (!errorList.isEmpty()) {
+                String msg = "The mzTab file is not valid, it has not been exported";
+                logger.error(msg + ": {}", errorList);
+                showError(msg, "Export Error");
+                throw new IllegalStateException(msg + ": " + errorList);
+            }
 
-            if (errorList.isEmpty()) {
+            OutputStream out = new BufferedOutputStream(new FileOutputStream(outputFilePath));
+            try {
                 mzTabFile.printMZTab(out);
+            } finally {
+                out.close();
             }
         }
         return null;
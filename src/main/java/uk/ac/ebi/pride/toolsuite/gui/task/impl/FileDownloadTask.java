@@ -8,6 +8,7 @@ import uk.ac.ebi.pride.toolsuite.gui.PrideInspector;
 import uk.ac.ebi.pride.toolsuite.gui.PrideInspectorContext;
 import uk.ac.ebi.pride.toolsuite.gui.access.SilentSingleAssayFileOpener;
 import uk.ac.ebi.pride.toolsuite.gui.task.TaskAdapter;
+import uk.ac.ebi.pride.toolsuite.gui.task.TaskLane;
 
 import java.io.File;
 import java.io.IOException;
@@ -51,6 +52,7 @@ abstract class FileDownloadTask extends TaskAdapter<Void, String> {
         this.context = (PrideInspectorContext)PrideInspector.getInstance().getDesktopContext();
 
         this.setName(DEFAULT_TASK_TITLE);
+        this.setLane(TaskLane.IO);
         this.setDescription(DEFAULT_TASK_DESCRIPTION);
     }
 
@@ -2,6 +2,7 @@ package uk.ac.ebi.pride.toolsuite.gui.task.impl;
 
 import uk.ac.ebi.pride.toolsuite.gui.component.table.model.PeptideSpeciesTableModel;
 import uk.ac.ebi.pride.toolsuite.gui.task.Task;
+import uk.ac.ebi.pride.toolsuite.gui.task.TaskLane;
 
 /**
  * @author Rui Wang
@@ -20,6 +21,7 @@ public class FilterPeptideRankingTask extends Task<Void, Void> {
         this.rankingThreshold = rankingThreshold;
 
         this.setName(DEFAULT_TASK_TITLE);
+        this.setLane(TaskLane.INTERACTIVE);
         this.setDescription(DEFAULT_TASK_DESCRIPTION);
     }
 
@@ -7,6 +7,7 @@ import uk.ac.ebi.pride.toolsuite.gui.EDTUtils;
 import uk.ac.ebi.pride.toolsuite.gui.PrideInspector;
 import uk.ac.ebi.pride.toolsuite.gui.desktop.DesktopContext;
 import uk.ac.ebi.pride.toolsuite.gui.task.Task;
+import uk.ac.ebi.pride.toolsuite.gui.task.TaskLane;
 
 import javax.swing.*;
 import java.util.List;
@@ -37,6 +38,7 @@ public class GetAssayMetadataTask extends Task<Void, AssayDetail> {
         this.numberOfAssays = numberOfAssays;
 
         this.setName(DEFAULT_TASK_TITLE);
+        this.setLane(TaskLane.IO);
         this.setDescription(DEFAULT_TASK_DESCRIPTION);
 
     }
@@ -8,6 +8,7 @@ import uk.ac.ebi.pride.archive.web.service.model.file.FileDetailList;
 import uk.ac.ebi.pride.toolsuite.gui.PrideInspector;
 import uk.ac.ebi.pride.toolsuite.gui.desktop.DesktopContext;
 import uk.ac.ebi.pride.toolsuite.gui.task.Task;
+import uk.ac.ebi.pride.toolsuite.gui.task.TaskLane;
 
 import java.util.Arrays;
 
@@ -36,6 +37,7 @@ public class GetMyProjectFilesMetadataTask extends Task<FileDetailList, String>
         this.restTemplate = new RestTemplate();
 
         this.setName(DEFAULT_TASK_TITLE);
+        this.setLane(TaskLane.IO);
         this.setDescription(DEFAULT_TASK_DESCRIPTION);
     }
 
@@ -19,6 +19,7 @@ import uk.ac.ebi.pride.archive.dataprovider.file.ProjectFileType;
 import uk.ac.ebi.pride.toolsuite.gui.action.impl.OpenFileAction;
 import uk.ac.ebi.pride.toolsuite.gui.component.reviewer.SubmissionFileDetail;
 import uk.ac.ebi.pride.toolsuite.gui.task.TaskAdapter;
+import uk.ac.ebi.pride.toolsuite.gui.task.TaskLane;
 
 import java.io.*;
 import java.net.URL;
@@ -62,6 +63,7 @@ public class GetPrideFileTask extends TaskAdapter<Void, String> {
 
         String msg = "Downloading PRIDE submission";
         this.setName(msg);
+        this.setLane(TaskLane.IO);
         this.setDescription(msg);
     }
 
@@ -7,6 +7,7 @@ import uk.ac.ebi.pride.toolsuite.gui.EDTUtils;
 import uk.ac.ebi.pride.toolsuite.gui.PrideInspector;
 import uk.ac.ebi.pride.toolsuite.gui.desktop.DesktopContext;
 import uk.ac.ebi.pride.toolsuite.gui.task.Task;
+import uk.ac.ebi.pride.toolsuite.gui.task.TaskLane;
 import uk.ac.ebi.pride.utilities.util.Tuple;
 
 import javax.swing.*;
@@ -36,6 +37,7 @@ public class GetProjectFileMetadataTask extends Task<Void, Tuple<FileDetail, Boo
         this.projectAccession = projectAccession;
 
         this.setName(DEFAULT_TASK_TITLE);
+        this.setLane(TaskLane.IO);
         this.setDescription(DEFAULT_TASK_DESCRIPTION);
     }
 
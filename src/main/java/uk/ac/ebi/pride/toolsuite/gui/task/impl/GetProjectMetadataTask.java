@@ -7,6 +7,7 @@ import uk.ac.ebi.pride.toolsuite.gui.EDTUtils;
 import uk.ac.ebi.pride.toolsuite.gui.PrideInspector;
 import uk.ac.ebi.pride.toolsuite.gui.desktop.DesktopContext;
 import uk.ac.ebi.pride.toolsuite.gui.task.Task;
+import uk.ac.ebi.pride.toolsuite.gui.task.TaskLane;
 
 import javax.swing.*;
 import java.util.List;
@@ -36,6 +37,7 @@ public class GetProjectMetadataTask extends Task<Void, ProjectSummary> {
         this.searchTerm = searchTerm;
 
         this.setName(DEFAULT_TASK_TITLE);
+        this.setLane(TaskLane.IO);
         this.setDescription(DEFAULT_TASK_DESCRIPTION);
 
     }
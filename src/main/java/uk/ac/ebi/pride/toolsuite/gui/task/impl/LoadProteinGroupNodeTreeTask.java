@@ -4,6 +4,7 @@ package uk.ac.ebi.pride.toolsuite.gui.task.impl;
 import uk.ac.ebi.pride.utilities.data.controller.DataAccessController;
 import uk.ac.ebi.pride.utilities.data.core.Protein;
 import uk.ac.ebi.pride.utilities.data.core.ProteinGroup;
+import uk.ac.ebi.pride.toolsuite.gui.task.TaskLane;
 
 
 
@@ -27,6 +28,7 @@ public class LoadProteinGroupNodeTreeTask extends AbstractDataAccessTask<Void, P
         this.proteinGroupId = proteinGroupId;
 
         this.setName(DEFAULT_TASK_TITLE);
+        this.setLane(TaskLane.INTERACTIVE);
         this.setDescription(DEFAULT_TASK_DESCRIPTION);
     }
 
@@ -10,6 +10,7 @@ import uk.ac.ebi.pride.toolsuite.gui.component.reviewer.PrideLoginDialog;
 import uk.ac.ebi.pride.toolsuite.gui.component.reviewer.SubmissionFileDetail;
 import uk.ac.ebi.pride.toolsuite.gui.desktop.Desktop;
 import uk.ac.ebi.pride.toolsuite.gui.task.*;
+import uk.ac.ebi.pride.toolsuite.gui.task.TaskLane;
 
 import javax.swing.*;
 import java.util.ArrayList;
@@ -45,6 +46,7 @@ public class OpenMyProjectTask extends TaskAdapter<Void, Void> implements TaskLi
         this.password = password;
 
         this.setName(DEFAULT_TASK_TITLE);
+        this.setLane(TaskLane.IO);
         this.setDescription(DEFAULT_TASK_DESCRIPTION);
 
     }
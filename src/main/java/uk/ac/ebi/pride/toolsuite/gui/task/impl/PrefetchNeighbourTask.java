@@ -0,0 +1,154 @@
+package uk.ac.ebi.pride.toolsuite.gui.task.impl;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import uk.ac.ebi.pride.toolsuite.gui.access.NeighbourPrefetchCache;
+import uk.ac.ebi.pride.toolsuite.gui.task.TaskLane;
+import uk.ac.ebi.pride.toolsuite.gui.task.TaskPriority;
+import uk.ac.ebi.pride.utilities.data.controller.DataAccessController;
+import uk.ac.ebi.pride.utilities.data.controller.DataAccessException;
+import uk.ac.ebi.pride.utilities.util.Tuple;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Read the spectra or chromatograms of the rows next to the selected row into the {@link NeighbourPrefetchCache},
+ * so that {@link RetrieveSpectrumTask} and {@link RetrieveChromatogramTask} find them when the user steps to them.
+ * <p/>
+ * The task runs on the prefetch lane, it should be started as the latest task of its table,
+ * so that a new selection cancels the prefetch of the previous one.
+ *
+ * @author Rui Wang
+ * @version $Id$
+ */
+public class PrefetchNeighbourTask extends AbstractDataAccessTask<Void, Void> {
+    private static final Logger logger = LoggerFactory.getLogger(PrefetchNeighbourTask.class);
+
+    /**
+     * number of rows prefetched after and before the selected row
+     */
+    public static final int DEFAULT_DISTANCE = 3;
+
+    private static final String DEFAULT_TASK_TITLE = "Prefetching spectra";
+
+    private static final String DEFAULT_TASK_DESCRIPTION = "Prefetching the spectra next to the selected row";
+
+    private enum EntryType {
+        SPECTRUM,
+        PSM,
+        CHROMATOGRAM
+    }
+
+    private final EntryType entryType;
+
+    /**
+     * spectrum ids, PSMs as protein identification id and peptide id, or chromatogram ids
+     */
+    private final List<?> entryIds;
+
+    private PrefetchNeighbourTask(DataAccessController controller, EntryType entryType, List<?> entryIds) {
+        super(controller);
+        this.entryType = entryType;
+        this.entryIds = new ArrayList<Object>(entryIds);
+
+        this.setName(DEFAULT_TASK_TITLE);
+        this.setDescription(DEFAULT_TASK_DESCRIPTION);
+        this.setLane(TaskLane.PREFETCH);
+        this.setPriority(TaskPriority.LOW);
+    }
+
+    /**
+     * Prefetch spectra selected by spectrum id
+     *
+     * @param controller  data access controller
+     * @param spectrumIds spectrum ids, in the order they should be read
+     * @return PrefetchNeighbourTask   prefetch task
+     */
+    public static PrefetchNeighbourTask createSpectrumTask(DataAccessController controller, List<Comparable> spectrumIds) {
+        return new PrefetchNeighbourTask(controller, EntryType.SPECTRUM, spectrumIds);
+    }
+
+    /**
+     * Prefetch the spectra of PSMs
+     *
+     * @param controller data access controller
+     * @param psms       protein identification id and peptide id of the PSMs, in the order they should be read
+     * @return PrefetchNeighbourTask   prefetch task
+     */
+    public static PrefetchNeighbourTask createPsmTask(DataAccessController controller, List<Tuple<Comparable, Comparable>> psms) {
+        return new PrefetchNeighbourTask(controller, EntryType.PSM, psms);
+    }
+
+    /**
+     * Prefetch chromatograms
+     *
+     * @param controller      data access controller
+     * @param chromatogramIds chromatogram ids, in the order they should be read
+     * @return PrefetchNeighbourTask   prefetch task
+     */
+    public static PrefetchNeighbourTask createChromatogramTask(DataAccessController controller, List<Comparable> chromatogramIds) {
+        return new PrefetchNeighbourTask(controller, EntryType.CHROMATOGRAM, chromatogramIds);
+    }
+
+    /**
+     * Get the rows next to a selected row, alternately after and before it,
+     * starting with the nearest ones
+     *
+     * @param selectedRow selected row, in view order
+     * @param rowCount    number of rows
+     * @param distance    maximum distance to the selected row
+     * @return List<Integer>   rows in view order
+     */
+    public static List<Integer> getNeighbourRows(int selectedRow, int rowCount, int distance) {
+        List<Integer> rows = new ArrayList<Integer>();
+        for (int i = 1; i <= distance; i++) {
+            if (selectedRow + i < rowCount) {
+                rows.add(selectedRow + i);
+            }
+            if (selectedRow - i >= 0) {
+                rows.add(selectedRow - i);
+            }
+        }
+        return rows;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected Void retrieve() throws Exception {
+        NeighbourPrefetchCache cache = NeighbourPrefetchCache.getInstance(controller);
+
+        for (Object entryId : entryIds) {
+            checkInterruption();
+
+            try {
+                switch (entryType) {
+                    case SPECTRUM:
+                        Comparable spectrumId = (Comparable) entryId;
+                        if (!cache.containsSpectrum(spectrumId)) {
+                            cache.putSpectrum(spectrumId, controller.getSpectrumById(spectrumId));
+                        }
+                        break;
+                    case PSM:
+                        Tuple<Comparable, Comparable> psm = (Tuple<Comparable, Comparable>) entryId;
+                        if (!cache.containsPsmSpectrum(psm.getKey(), psm.getValue())) {
+                            cache.putPsmSpectrum(psm.getKey(), psm.getValue(),
+                                    RetrieveSpectrumTask.getSpectrum(controller.getPeptideByIndex(psm.getKey(), psm.getValue())));
+                        }
+                        break;
+                    case CHROMATOGRAM:
+                        Comparable chromatogramId = (Comparable) entryId;
+                        if (!cache.containsChromatogram(chromatogramId)) {
+                            cache.putChromatogram(chromatogramId, controller.getChromatogramById(chromatogramId));
+                        }
+                        break;
+                }
+            } catch (DataAccessException ex) {
+                // the entry is read again when it is selected, which reports the error
+                logger.debug("Failed to prefetch " + entryId, ex);
+            }
+        }
+
+        return null;
+    }
+}
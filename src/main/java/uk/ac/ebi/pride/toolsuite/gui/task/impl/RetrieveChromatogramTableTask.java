@@ -2,16 +2,15 @@ package uk.ac.ebi.pride.toolsuite.gui.task.impl;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import uk.ac.ebi.pride.toolsuite.gui.access.DataAccessIdIndex;
 import uk.ac.ebi.pride.utilities.util.Tuple;
 import uk.ac.ebi.pride.utilities.data.controller.DataAccessController;
 import uk.ac.ebi.pride.utilities.data.controller.DataAccessException;
-import uk.ac.ebi.pride.utilities.data.utils.CollectionUtils;
 import uk.ac.ebi.pride.toolsuite.gui.component.exception.ThrowableEntry;
 import uk.ac.ebi.pride.toolsuite.gui.component.message.MessageType;
 import uk.ac.ebi.pride.toolsuite.gui.component.table.model.TableContentType;
 
 import java.util.ArrayList;
-import java.util.Collection;
 import java.util.List;
 
 /**
@@ -87,9 +86,9 @@ public class RetrieveChromatogramTableTask extends AbstractDataAccessTask<Void,
     protected Void retrieve() throws Exception {
 
         try {
-            Collection<Comparable> chromatogramIds = controller.getChromatogramIds();
+            DataAccessIdIndex idIndex = DataAccessIdIndex.getIndex(controller);
 
-            int chromaSize = chromatogramIds.size();
+            int chromaSize = idIndex.getNumberOfChromatograms();
             if (start >= 0 && start < chromaSize && size > 0) {
                 int stop = start + size;
                 stop = stop > chromaSize ? chromaSize : stop;
@@ -98,7 +97,7 @@ public class RetrieveChromatogramTableTask extends AbstractDataAccessTask<Void,
 
                     List<Object> content = new ArrayList<Object>();
                     // spectrum id
-                    Comparable chromaId = CollectionUtils.getElement(chromatogramIds, i);
+                    Comparable chromaId = idIndex.getChromatogramId(i);
                     content.add(chromaId);
                     publish(new Tuple<TableContentType, List<Object>>(TableContentType.CHROMATOGRAM, content));
 
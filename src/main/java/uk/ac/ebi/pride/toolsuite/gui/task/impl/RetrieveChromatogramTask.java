@@ -5,11 +5,13 @@ import org.slf4j.LoggerFactory;
 import uk.ac.ebi.pride.utilities.data.controller.DataAccessController;
 import uk.ac.ebi.pride.utilities.data.controller.DataAccessException;
 import uk.ac.ebi.pride.utilities.data.core.Chromatogram;
+import uk.ac.ebi.pride.toolsuite.gui.access.NeighbourPrefetchCache;
 import uk.ac.ebi.pride.toolsuite.gui.component.exception.ThrowableEntry;
 import uk.ac.ebi.pride.toolsuite.gui.component.message.MessageType;
+import uk.ac.ebi.pride.toolsuite.gui.task.TaskLane;
 
 /**
- * Retrieve chromatogram
+ * Retrieve chromatogram, chromatograms prefetched by {@link PrefetchNeighbourTask} are not read again
  *
  * User: rwang
  * Date: 10/06/11
@@ -27,17 +29,17 @@ public class RetrieveChromatogramTask extends AbstractDataAccessTask<Chromatogra
         this.chromaId = chromaId;
 
         this.setName(DEFAULT_TASK_TITLE);
+        this.setLane(TaskLane.INTERACTIVE);
         this.setDescription(DEFAULT_TASK_DESCRIPTION);
     }
 
     @Override
     protected Chromatogram retrieve() throws Exception {
         Chromatogram result = null;
-
         try {
             checkInterruption();
 
-            result = controller.getChromatogramById(chromaId);
+            result = readChromatogram(controller, chromaId);
         } catch (DataAccessException dex) {
             String msg = "Failed to retrieve data entry from data source";
             logger.error(msg, dex);
@@ -46,4 +48,17 @@ public class RetrieveChromatogramTask extends AbstractDataAccessTask<Chromatogra
 
         return result;
     }
+
+    /**
+     * Get chromatogram by chromatogram id, a prefetched chromatogram is not read again
+     *
+     * @param controller data access controller
+     * @param chromaId   chromatogram id
+     * @return Chromatogram    chromatogram
+     * @throws DataAccessException failed to read the chromatogram
+     */
+    static Chromatogram readChromatogram(DataAccessController controller, Comparable chromaId) throws DataAccessException {
+        Chromatogram chromatogram = NeighbourPrefetchCache.getInstance(controller).getChromatogram(chromaId);
+        return chromatogram != null ? chromatogram : controller.getChromatogramById(chromaId);
+    }
 }
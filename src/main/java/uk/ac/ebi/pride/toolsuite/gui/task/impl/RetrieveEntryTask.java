@@ -9,6 +9,7 @@ import uk.ac.ebi.pride.utilities.data.core.Protein;
 import uk.ac.ebi.pride.utilities.data.core.Spectrum;
 import uk.ac.ebi.pride.toolsuite.gui.component.exception.ThrowableEntry;
 import uk.ac.ebi.pride.toolsuite.gui.component.message.MessageType;
+import uk.ac.ebi.pride.toolsuite.gui.task.TaskLane;
 
 /**
  * User: rwang
@@ -26,6 +27,7 @@ public class RetrieveEntryTask<T> extends AbstractDataAccessTask<T, String> {
         this.id = id;
         this.classType = classType;
         this.setName("Loading " + classType.getSimpleName());
+        this.setLane(TaskLane.INTERACTIVE);
         this.setDescription("Loading " + classType.getSimpleName() + "[ID: " + id + "]");
     }
 
@@ -3,6 +3,7 @@ package uk.ac.ebi.pride.toolsuite.gui.task.impl;
 import org.bushe.swing.event.EventBus;
 import uk.ac.ebi.pride.toolsuite.gui.component.table.model.TableContentType;
 import uk.ac.ebi.pride.toolsuite.gui.event.ProcessingDataSourceEvent;
+import uk.ac.ebi.pride.toolsuite.gui.task.TaskLane;
 import uk.ac.ebi.pride.utilities.data.controller.DataAccessController;
 import uk.ac.ebi.pride.utilities.data.core.Modification;
 import uk.ac.ebi.pride.utilities.mol.MoleculeUtilities;
@@ -34,6 +35,7 @@ public class RetrievePeptideSpectrumDetailTask extends AbstractDataAccessTask<Vo
 
         // set name and description
         this.setName(DEFAULT_TASK_NAME);
+        this.setLane(TaskLane.INTERACTIVE);
         this.setDescription(DEFAULT_TASK_DESC);
     }
 
@@ -2,6 +2,7 @@ package uk.ac.ebi.pride.toolsuite.gui.task.impl;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import uk.ac.ebi.pride.toolsuite.gui.access.DataAccessIdIndex;
 import uk.ac.ebi.pride.toolsuite.gui.component.exception.ThrowableEntry;
 import uk.ac.ebi.pride.toolsuite.gui.component.message.MessageType;
 import uk.ac.ebi.pride.toolsuite.gui.component.table.TableDataRetriever;
@@ -9,10 +10,10 @@ import uk.ac.ebi.pride.toolsuite.gui.component.table.model.PeptideTableRow;
 import uk.ac.ebi.pride.toolsuite.gui.component.table.model.TableContentType;
 import uk.ac.ebi.pride.utilities.data.controller.DataAccessController;
 import uk.ac.ebi.pride.utilities.data.controller.DataAccessException;
-import uk.ac.ebi.pride.utilities.data.utils.CollectionUtils;
 import uk.ac.ebi.pride.utilities.util.Tuple;
 
-import java.util.Collection;
+import java.util.Arrays;
+import java.util.List;
 
 /**
  * User: rwang, ypriverol
@@ -54,7 +55,7 @@ public class RetrievePeptideTableTask extends AbstractDataAccessTask<Void, Tuple
     }
 
     public RetrievePeptideTableTask(DataAccessController controller, Comparable identId) throws DataAccessException {
-        this(controller, controller.indexOfProtein(identId), 1);
+        this(controller, DataAccessIdIndex.getIndex(controller).indexOfProtein(identId), 1);
     }
 
     /**
@@ -88,26 +89,18 @@ public class RetrievePeptideTableTask extends AbstractDataAccessTask<Void, Tuple
     protected Void retrieve() throws Exception {
         try {
 
-            Collection<Comparable> identIds = controller.getProteinIds();
+            DataAccessIdIndex idIndex = DataAccessIdIndex.getIndex(controller);
 
-            int identSize = identIds.size();
+            int identSize = idIndex.getNumberOfProteins();
             if (start >= 0 && start < identSize && size > 0) {
                 int stop = start + size;
                 stop = stop > identSize ? identSize : stop;
 
                 for (int i = start; i < stop; i++) {
-                    Comparable identId = CollectionUtils.getElement(identIds, i);
-                    Collection<Comparable> ids = controller.getPeptideIds(identId);
-                    if (ids != null) {
-                        for (Comparable peptideId : ids) {
-                            PeptideTableRow content = TableDataRetriever.getPeptideTableRow(controller, identId, peptideId);
-                            publish(new Tuple<TableContentType, Object>(TableContentType.PEPTIDE, content));
-                        }
-                    }
+                    publishPeptideRows(getPeptideTableRows(idIndex, i));
 
                     checkInterruption();
                 }
-
             }
         } catch (DataAccessException dex) {
             String msg = "Failed to retrieve peptide related data";
@@ -117,4 +110,32 @@ public class RetrievePeptideTableTask extends AbstractDataAccessTask<Void, Tuple
 
         return null;
     }
+
+    /**
+     * Build all the peptide rows of the protein identification at the given index
+     *
+     * @param idIndex      id index of the data access controller
+     * @param proteinIndex index of the protein identification
+     * @return List<PeptideTableRow>   peptide rows
+     */
+    private List<PeptideTableRow> getPeptideTableRows(DataAccessIdIndex idIndex, int proteinIndex) {
+        Comparable identId = idIndex.getProteinId(proteinIndex);
+        return TableDataRetriever.getPeptideTableRows(controller, identId, Arrays.asList(idIndex.getPeptideIds(proteinIndex)));
+    }
+
+    /**
+     * Publish a batch of peptide rows in one go
+     *
+     * @param rows peptide rows
+     */
+    @SuppressWarnings("unchecked")
+    private void publishPeptideRows(List<PeptideTableRow> rows) {
+        if (!rows.isEmpty()) {
+            Tuple<TableContentType, Object>[] batch = new Tuple[rows.size()];
+            for (int i = 0; i < batch.length; i++) {
+                batch[i] = new Tuple<TableContentType, Object>(TableContentType.PEPTIDE, rows.get(i));
+            }
+            publish(batch);
+        }
+    }
 }
@@ -7,6 +7,7 @@ import uk.ac.ebi.pride.utilities.data.controller.DataAccessException;
 import uk.ac.ebi.pride.utilities.data.core.Peptide;
 import uk.ac.ebi.pride.toolsuite.gui.component.exception.ThrowableEntry;
 import uk.ac.ebi.pride.toolsuite.gui.component.message.MessageType;
+import uk.ac.ebi.pride.toolsuite.gui.task.TaskLane;
 
 /**
  * Retrieve a peptide object using identification id and peptide id
@@ -26,6 +27,7 @@ public class RetrievePeptideTask extends AbstractDataAccessTask<Peptide, String>
         this.identId = identId;
         this.peptideId = peptideId;
         this.setName("Loading Spectrum");
+        this.setLane(TaskLane.INTERACTIVE);
         this.setDescription("Loading Spectrum [ID: " + peptideId + "]");
     }
 
@@ -6,13 +6,14 @@ import uk.ac.ebi.pride.utilities.data.controller.DataAccessController;
 import uk.ac.ebi.pride.utilities.data.controller.DataAccessException;
 import uk.ac.ebi.pride.utilities.data.core.Modification;
 import uk.ac.ebi.pride.toolsuite.gui.PrideInspectorCacheManager;
+import uk.ac.ebi.pride.toolsuite.gui.access.ResolvedAccessionCache;
 import uk.ac.ebi.pride.toolsuite.gui.component.exception.ThrowableEntry;
 import uk.ac.ebi.pride.toolsuite.gui.component.message.MessageType;
 import uk.ac.ebi.pride.toolsuite.gui.component.sequence.AnnotatedProtein;
 import uk.ac.ebi.pride.toolsuite.gui.component.sequence.PTMAnnotation;
 import uk.ac.ebi.pride.toolsuite.gui.component.sequence.PeptideAnnotation;
+import uk.ac.ebi.pride.toolsuite.gui.task.TaskLane;
 import uk.ac.ebi.pride.tools.protein_details_fetcher.model.Protein;
-import uk.ac.ebi.pride.tools.utils.AccessionResolver;
 
 import java.util.Collection;
 
@@ -51,6 +52,7 @@ public class RetrieveProteinDetailModelTask extends AbstractDataAccessTask<Annot
         this.peptideId = peptideId;
 
         this.setName(DEFAULT_TASK_TITLE);
+        this.setLane(TaskLane.INTERACTIVE);
         this.setDescription(DEFAULT_TASK_DESCRIPTION);
     }
 
@@ -84,11 +86,7 @@ public class RetrieveProteinDetailModelTask extends AbstractDataAccessTask<Annot
      */
     private Protein getExistingProteinDetails() throws DataAccessException {
         // get formmatted protein accession
-        String protAcc = controller.getProteinAccession(identId);
-        String protAccVersion = controller.getProteinAccessionVersion(identId);
-        String database = (controller.getSearchDatabase(identId).getName() == null)?"":controller.getSearchDatabase(identId).getName();
-        AccessionResolver resolver = new AccessionResolver(protAcc, protAccVersion, database, true);
-        String mappedProtAcc = resolver.isValidAccession()? resolver.getAccession() : null;
+        String mappedProtAcc = ResolvedAccessionCache.getInstance(controller).getResolvedAccession(identId).getMappedAccession();
 
         // get protein details
         return PrideInspectorCacheManager.getInstance().getProteinDetails(mappedProtAcc);
@@ -3,19 +3,25 @@ package uk.ac.ebi.pride.toolsuite.gui.task.impl;
 import org.bushe.swing.event.EventBus;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import uk.ac.ebi.pride.tools.protein_details_fetcher.ProteinDetailFetcher;
 import uk.ac.ebi.pride.tools.protein_details_fetcher.model.Protein;
-import uk.ac.ebi.pride.tools.utils.AccessionResolver;
 import uk.ac.ebi.pride.toolsuite.gui.PrideInspectorCacheManager;
+import uk.ac.ebi.pride.toolsuite.gui.access.DataAccessIdIndex;
+import uk.ac.ebi.pride.toolsuite.gui.access.ProteinCoverageStore;
+import uk.ac.ebi.pride.toolsuite.gui.access.ProteinDetailService;
+import uk.ac.ebi.pride.toolsuite.gui.access.ResolvedAccession;
+import uk.ac.ebi.pride.toolsuite.gui.access.ResolvedAccessionCache;
 import uk.ac.ebi.pride.toolsuite.gui.component.sequence.AnnotatedProtein;
 import uk.ac.ebi.pride.toolsuite.gui.component.sequence.PeptideAnnotation;
 import uk.ac.ebi.pride.toolsuite.gui.component.sequence.PeptideFitState;
 import uk.ac.ebi.pride.toolsuite.gui.component.table.model.TableContentType;
 import uk.ac.ebi.pride.toolsuite.gui.event.container.SortProteinTableEvent;
+import uk.ac.ebi.pride.toolsuite.gui.task.TaskLane;
 import uk.ac.ebi.pride.utilities.data.controller.DataAccessController;
 import uk.ac.ebi.pride.utilities.util.Tuple;
 
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 /**
  * Retrieve protein name for a given set of proteins
@@ -34,14 +40,9 @@ public class RetrieveProteinDetailTask extends AbstractDataAccessTask<Void, Tupl
     private static final String DEFAULT_TASK_DESC = "Downloading protein details using web services";
 
     /**
-     * The number of proteins for each batch download
+     * The number of proteins published together
      */
-    private static final int MAX_BATCH_DOWNLOAD_SIZE = 10;
-
-    /**
-     * Fetcher to download protein details
-     */
-    private ProteinDetailFetcher fetcher;
+    private static final int MAX_BATCH_PUBLISH_SIZE = ProteinDetailService.DEFAULT_BATCH_SIZE;
 
 
     /**
@@ -54,9 +55,8 @@ public class RetrieveProteinDetailTask extends AbstractDataAccessTask<Void, Tupl
 
         // set name and description
         this.setName(DEFAULT_TASK_NAME);
+        this.setLane(TaskLane.IO);
         this.setDescription(DEFAULT_TASK_DESC);
-
-        this.fetcher = new ProteinDetailFetcher();
     }
 
     @Override
@@ -64,88 +64,109 @@ public class RetrieveProteinDetailTask extends AbstractDataAccessTask<Void, Tupl
         // protein identification id
         Collection<Comparable> protIdentIds = controller.getProteinIds();
 
+        // protein identification id to mapped accession
+        Map<Comparable, String> mappedAccs = new LinkedHashMap<Comparable, String>();
 
-        //protein identification id and accession buffer
-        Map<Comparable, String> accBuffer = new LinkedHashMap<Comparable, String>();
+        // protein details already in the cache
+        Map<String, Protein> cachedProteins = new HashMap<String, Protein>();
 
-        // protein map
-        Map<String, Protein> proteins = new HashMap<String, Protein>();
+        // proteins whose accession can not be resolved
+        Map<String, Protein> unknownProteins = new HashMap<String, Protein>();
 
         if (controller.hasProteinAmbiguityGroup())
             EventBus.publish(new SortProteinTableEvent(controller, SortProteinTableEvent.Type.DISABLE_SORT));
 
+        // resolved accessions are shared with the protein and peptide tables
+        ResolvedAccessionCache accessionCache = ResolvedAccessionCache.getInstance(controller);
+
         // iterate over each protein
         for (Comparable protIdentId : protIdentIds) {
             // get mapped protein accession
-            String protAcc = controller.getProteinAccession(protIdentId);
-            String protAccVersion = controller.getProteinAccessionVersion(protIdentId);
-            String database = controller.getSearchDatabase(protIdentId).getName();
-
-            try {
-                AccessionResolver resolver = new AccessionResolver(protAcc, protAccVersion, database, true);
-                String mappedProtAcc = resolver.isValidAccession() ? resolver.getAccession() : null;
+            ResolvedAccession resolvedAccession = accessionCache.getResolvedAccession(protIdentId);
 
+            if (resolvedAccession.isResolvable()) {
+                String mappedProtAcc = resolvedAccession.getMappedAccession();
 
                 if (mappedProtAcc != null) {
                     // get existing protein details
                     Protein protDetails = PrideInspectorCacheManager.getInstance().getProteinDetails(mappedProtAcc);
                     if (protDetails != null) {
-                        proteins.put(mappedProtAcc, protDetails);
+                        cachedProteins.put(mappedProtAcc, protDetails);
                     }
 
-                    accBuffer.put(protIdentId, mappedProtAcc);
-                    if (accBuffer.size() == MAX_BATCH_DOWNLOAD_SIZE) {
-                        // fetch and publish protein details
-                        fetchAndPublish(accBuffer, proteins);
-
-                        // clear accession buffer
-                        accBuffer.clear();
-
-                        // clear protein map
-                        proteins = new HashMap<String, Protein>();
-                    }
+                    mappedAccs.put(protIdentId, mappedProtAcc);
                 }
-                // clear protein map
-                proteins = new HashMap<String, Protein>();
-            } catch (IllegalArgumentException ex) {
+            } else {
+                String protAcc = resolvedAccession.getAccession();
                 Protein protein = new Protein(protAcc);
                 protein.setStatus(Protein.STATUS.UNKNOWN);
-                proteins.put(protAcc, protein);
+                unknownProteins.put(protAcc, protein);
             }
 
             checkInterruption();
         }
 
-        if (!accBuffer.isEmpty() || !proteins.isEmpty()) {
-            fetchAndPublish(accBuffer, proteins);
+        if (!unknownProteins.isEmpty()) {
+            publish(new Tuple<TableContentType, Object>(TableContentType.PROTEIN_DETAILS, unknownProteins));
+        }
+
+        // start downloading all the missing protein details, the batches are downloaded concurrently
+        // and shared with any other task asking for the same proteins
+        Set<String> accsToFetch = new LinkedHashSet<String>(mappedAccs.values());
+        accsToFetch.removeAll(cachedProteins.keySet());
+        ProteinDetailService proteinDetailService = ProteinDetailService.getInstance();
+        Map<String, Future<Map<String, Protein>>> downloads = proteinDetailService.fetch(accsToFetch);
+
+        try {
+            // publish in the order of the proteins, while the following batches are still downloading
+            Map<Comparable, String> accBuffer = new LinkedHashMap<Comparable, String>();
+            for (Map.Entry<Comparable, String> mappedAcc : mappedAccs.entrySet()) {
+                accBuffer.put(mappedAcc.getKey(), mappedAcc.getValue());
+                if (accBuffer.size() == MAX_BATCH_PUBLISH_SIZE) {
+                    waitAndPublish(accBuffer, cachedProteins, downloads);
+                    accBuffer.clear();
+                }
+            }
+
+            if (!accBuffer.isEmpty()) {
+                waitAndPublish(accBuffer, cachedProteins, downloads);
+            }
+        } finally {
+            // when the task is cancelled, or its controller closed, the batches no other task waits for stop
+            proteinDetailService.release(downloads);
         }
 
 
         if (controller.hasProteinAmbiguityGroup())
             EventBus.publish(new SortProteinTableEvent(controller, SortProteinTableEvent.Type.ENABLE_SORT));
 
+        logger.debug("Resolved accession cache for {}: {} hits, {} misses", controller.getUid(), accessionCache.getHitCount(), accessionCache.getMissCount());
 
         return null;
     }
 
     /**
-     * Fetch then publish
+     * Wait for the protein details to be downloaded, then publish
      *
-     * @param accs     protein accessions
-     * @param proteins protein map
+     * @param accs           protein accessions
+     * @param cachedProteins protein details already in the cache
+     * @param downloads      protein accession to its download
      * @throws Exception exception while fetching the protein
      */
-    private void fetchAndPublish(Map<Comparable, String> accs, Map<String, Protein> proteins) throws Exception {
-
-        Collection<String> accsToFetch = new HashSet<String>(accs.values());
+    private void waitAndPublish(Map<Comparable, String> accs,
+                                Map<String, Protein> cachedProteins,
+                                Map<String, Future<Map<String, Protein>>> downloads) throws Exception {
+        Map<String, Protein> proteins = new HashMap<String, Protein>();
+        for (String acc : new HashSet<String>(accs.values())) {
+            Protein protein = cachedProteins.get(acc);
+            if (protein == null) {
+                protein = getDownloadedProtein(acc, downloads);
+            }
 
-        accsToFetch.removeAll(proteins.keySet());
-        // fetch protein details
-        Map<String, Protein> results = fetcher.getProteinDetails(accsToFetch);
-        // add results to cache
-        PrideInspectorCacheManager.getInstance().addProteinDetails(results.values());
-        // add results to protein map
-        proteins.putAll(results);
+            if (protein != null) {
+                proteins.put(acc, protein);
+            }
+        }
         // public results
         publish(new Tuple<TableContentType, Object>(TableContentType.PROTEIN_DETAILS, proteins));
 
@@ -154,66 +175,73 @@ public class RetrieveProteinDetailTask extends AbstractDataAccessTask<Void, Tupl
         // peptide fits
         Map<Tuple<Comparable, Comparable>, Integer> peptideFits = new HashMap<Tuple<Comparable, Comparable>, Integer>();
 
+        DataAccessIdIndex idIndex = DataAccessIdIndex.getIndex(controller);
+        ProteinCoverageStore coverageStore = ProteinCoverageStore.getInstance(controller);
+
         for (Comparable protIdentId : accs.keySet()) {
+            int proteinIndex = idIndex.indexOfProtein(protIdentId);
+            if (proteinIndex < 0) {
+                continue;
+            }
+
+            String mappedProtAcc = accs.get(protIdentId);
+
+            // get protein details
+            Protein protein = proteins.get(mappedProtAcc);
+            AnnotatedProtein annotatedProtein = protein == null ? null : new AnnotatedProtein(protein);
+
+            // peptides, read once for both the sequence coverage and the peptide fits
+            List<Comparable> peptideIds = Arrays.asList(idIndex.getPeptideIds(proteinIndex));
+            List<PeptideAnnotation> peptides = new ArrayList<PeptideAnnotation>(peptideIds.size());
+            for (Comparable peptideId : peptideIds) {
+                PeptideAnnotation peptide = new PeptideAnnotation();
+                peptide.setSequence(controller.getPeptideSequence(protIdentId, peptideId));
+                peptide.setStart(controller.getPeptideSequenceStart(protIdentId, peptideId));
+                peptide.setEnd(controller.getPeptideSequenceEnd(protIdentId, peptideId));
+                peptides.add(peptide);
+            }
+
             // protein sequence coverage
-            Double coverage = PrideInspectorCacheManager.getInstance().getSequenceCoverage(controller.getUid(), protIdentId);
+            Double coverage = coverageStore.getSequenceCoverage(proteinIndex);
             if (coverage == null) {
-                String mappedProtAcc = accs.get(protIdentId);
-
-                // get protein details
-                Protein protein = proteins.get(mappedProtAcc);
-                if (protein != null) {
-                    AnnotatedProtein annotatedProtein = new AnnotatedProtein(protein);
-                    Collection<Comparable> peptideIds = controller.getPeptideIds(protIdentId);
-                    for (Comparable peptideId : peptideIds) {
-                        PeptideAnnotation peptide = new PeptideAnnotation();
-                        peptide.setSequence(controller.getPeptideSequence(protIdentId, peptideId));
-                        peptide.setStart(controller.getPeptideSequenceStart(protIdentId, peptideId));
-                        peptide.setEnd(controller.getPeptideSequenceEnd(protIdentId, peptideId));
+                if (annotatedProtein != null) {
+                    for (PeptideAnnotation peptide : peptides) {
                         annotatedProtein.addAnnotation(peptide);
                     }
                     coverage = annotatedProtein.getSequenceCoverage();
                     coverageMap.put(protIdentId, coverage);
                     // cache the sequence coverage
-                    PrideInspectorCacheManager.getInstance().addSequenceCoverage(controller.getUid(), protIdentId, coverage);
+                    coverageStore.addSequenceCoverage(proteinIndex, coverage);
                 }
             } else {
                 coverageMap.put(protIdentId, coverage);
             }
 
-            // peptide fits
-            Collection<Comparable> peptideIdentIds = controller.getPeptideIds(protIdentId);
-            for (Comparable peptideIdentId : peptideIdentIds) {
-                Integer state = PrideInspectorCacheManager.getInstance().getPeptideFitState(controller.getUid(), protIdentId, peptideIdentId);
+            // peptide fits, all the peptides are searched in one pass over the protein sequence
+            Map<String, Set<Integer>> startingPositions = null;
+            for (int i = 0; i < peptideIds.size(); i++) {
+                Comparable peptideIdentId = peptideIds.get(i);
+                Integer state = coverageStore.getPeptideFitState(proteinIndex, i);
                 if (state == null) {
-                    String mappedProtAcc = accs.get(protIdentId);
-
-                    // get protein details
-                    Protein protein = proteins.get(mappedProtAcc);
-                    if (protein != null) {
-                        protein = new AnnotatedProtein(protein);
-                    }
-
-                    // get peptide sequence
-                    String sequence = controller.getPeptideSequence(protIdentId, peptideIdentId);
-
-                    // start and end position
-                    int start = controller.getPeptideSequenceStart(protIdentId, peptideIdentId);
-                    int end = controller.getPeptideSequenceEnd(protIdentId, peptideIdentId);
+                    PeptideAnnotation peptide = peptides.get(i);
 
                     // peptide present
-                    if (protein == null || sequence == null || protein.getSequenceString() == null) {
+                    if (annotatedProtein == null || peptide.getSequence() == null || annotatedProtein.getSequenceString() == null) {
                         state = PeptideFitState.UNKNOWN;
                     } else {
-                        if (protein.hasSubSequenceString(sequence, start, end)) {
+                        if (startingPositions == null) {
+                            startingPositions = annotatedProtein.searchStartingPositions(peptides);
+                        }
+
+                        if (annotatedProtein.isStrictValidPeptideAnnotation(peptide)) {
                             state = PeptideFitState.STRICT_FIT;
-                        } else if (protein.hasSubSequenceString(sequence)) {
+                        } else if (startingPositions.containsKey(peptide.getSequence())) {
                             state = PeptideFitState.FIT;
                         } else {
                             state = PeptideFitState.NOT_FIT;
                         }
                     }
-                    PrideInspectorCacheManager.getInstance().addPeptideFitState(controller.getUid(), protIdentId, peptideIdentId, state);
+                    coverageStore.addPeptideFitState(proteinIndex, i, state);
                 }
 
                 peptideFits.put(new Tuple<Comparable, Comparable>(protIdentId, peptideIdentId), state);
@@ -229,4 +257,26 @@ public class RetrieveProteinDetailTask extends AbstractDataAccessTask<Void, Tupl
         // publish peptide fit result
         publish(new Tuple<TableContentType, Object>(TableContentType.PEPTIDE_FIT, peptideFits));
     }
+
+    /**
+     * Get the details of a protein from its download, wait if it is still downloading
+     *
+     * @param acc       protein accession
+     * @param downloads protein accession to its download
+     * @return Protein protein details, null if it could not be found
+     * @throws Exception exception while fetching the protein
+     */
+    private Protein getDownloadedProtein(String acc, Map<String, Future<Map<String, Protein>>> downloads) throws Exception {
+        Future<Map<String, Protein>> download = downloads.get(acc);
+        if (download == null) {
+            return null;
+        }
+
+        try {
+            return download.get().get(acc);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof Exception ? (Exception) cause : e;
+        }
+    }
 }
@@ -6,6 +6,7 @@ import uk.ac.ebi.pride.utilities.data.core.Modification;
 import uk.ac.ebi.pride.toolsuite.gui.component.sequence.AnnotatedProtein;
 import uk.ac.ebi.pride.toolsuite.gui.component.sequence.PTMAnnotation;
 import uk.ac.ebi.pride.toolsuite.gui.component.sequence.PeptideAnnotation;
+import uk.ac.ebi.pride.toolsuite.gui.task.TaskLane;
 
 import java.util.Collection;
 
@@ -45,6 +46,7 @@ public class RetrieveSelectedPeptideAnnotation extends AbstractDataAccessTask<Vo
         this.peptideId = peptideId;
 
         this.setName(DEFAULT_TASK_TITLE);
+        this.setLane(TaskLane.INTERACTIVE);
         this.setDescription(DEFAULT_TASK_DESCRIPTION);
     }
 
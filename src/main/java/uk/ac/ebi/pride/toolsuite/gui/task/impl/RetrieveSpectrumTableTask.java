@@ -3,10 +3,10 @@ package uk.ac.ebi.pride.toolsuite.gui.task.impl;
 import org.bushe.swing.event.EventBus;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import uk.ac.ebi.pride.toolsuite.gui.access.DataAccessIdIndex;
 import uk.ac.ebi.pride.utilities.util.Tuple;
 import uk.ac.ebi.pride.utilities.data.controller.DataAccessController;
 import uk.ac.ebi.pride.utilities.data.controller.DataAccessException;
-import uk.ac.ebi.pride.utilities.data.utils.CollectionUtils;
 import uk.ac.ebi.pride.toolsuite.gui.component.exception.ThrowableEntry;
 import uk.ac.ebi.pride.toolsuite.gui.component.message.MessageType;
 import uk.ac.ebi.pride.toolsuite.gui.component.table.model.TableContentType;
@@ -14,7 +14,6 @@ import uk.ac.ebi.pride.toolsuite.gui.event.ProcessingDataSourceEvent;
 import uk.ac.ebi.pride.utilities.util.NumberUtilities;
 
 import java.util.ArrayList;
-import java.util.Collection;
 import java.util.List;
 
 /**
@@ -91,9 +90,9 @@ public class RetrieveSpectrumTableTask extends AbstractDataAccessTask<Void, Tupl
             long date = System.currentTimeMillis();
 
             EventBus.publish(new ProcessingDataSourceEvent<DataAccessController>(controller, ProcessingDataSourceEvent.Status.SPECTRA_READING, controller));
-            Collection<Comparable> specIds = controller.getSpectrumIds();
+            DataAccessIdIndex idIndex = DataAccessIdIndex.getIndex(controller);
 
-            int specSize = specIds.size();
+            int specSize = idIndex.getNumberOfSpectra();
             if (start >= 0 && start < specSize && size > 0) {
                 int stop = start + size;
                 stop = stop > specSize ? specSize : stop;
@@ -101,7 +100,7 @@ public class RetrieveSpectrumTableTask extends AbstractDataAccessTask<Void, Tupl
                 for (int i = start; i < stop; i++) {
                     List<Object> content = new ArrayList<Object>();
                     // spectrum id
-                    Comparable specId = CollectionUtils.getElement(specIds, i);
+                    Comparable specId = idIndex.getSpectrumId(i);
                     content.add(specId);
                     //ms level
                     int msLevel = controller.getSpectrumMsLevel(specId);
@@ -6,13 +6,17 @@ import uk.ac.ebi.pride.utilities.data.controller.DataAccessController;
 import uk.ac.ebi.pride.utilities.data.controller.DataAccessException;
 import uk.ac.ebi.pride.utilities.data.core.Peptide;
 import uk.ac.ebi.pride.utilities.data.core.Spectrum;
+import uk.ac.ebi.pride.toolsuite.gui.access.NeighbourPrefetchCache;
 import uk.ac.ebi.pride.toolsuite.gui.component.exception.ThrowableEntry;
 import uk.ac.ebi.pride.toolsuite.gui.component.message.MessageType;
+import uk.ac.ebi.pride.toolsuite.gui.task.TaskLane;
 
 import java.util.ArrayList;
 import java.util.List;
 
 /**
+ * Retrieve the spectrum of a selected row, spectra prefetched by {@link PrefetchNeighbourTask} are not read again
+ *
  * User: rwang
  * Date: 10/06/11
  * Time: 15:34
@@ -28,6 +32,7 @@ public class RetrieveSpectrumTask extends AbstractDataAccessTask<Spectrum, Void>
     public RetrieveSpectrumTask(DataAccessController controller, Comparable spectrumId) {
         super(controller);
         this.spectrumId = spectrumId;
+        this.setLane(TaskLane.INTERACTIVE);
     }
 
     public RetrieveSpectrumTask(DataAccessController controller, Comparable identId, Comparable peptideId) {
@@ -35,6 +40,7 @@ public class RetrieveSpectrumTask extends AbstractDataAccessTask<Spectrum, Void>
         this.identId = identId;
         this.peptideId = peptideId;
         this.setName("Loading Spectrum");
+        this.setLane(TaskLane.INTERACTIVE);
         this.setDescription("Loading Spectrum [ID: " + peptideId + "]");
     }
 
@@ -59,9 +65,8 @@ public class RetrieveSpectrumTask extends AbstractDataAccessTask<Spectrum, Void>
      */
     private Spectrum getSpectrum(Comparable spectrumId) {
         Spectrum result = null;
-
         try {
-            result = controller.getSpectrumById(spectrumId);
+            result = readSpectrum(controller, spectrumId);
         } catch (DataAccessException dex) {
             String msg = "Failed to retrieve data entry from data source";
             logger.error(msg, dex);
@@ -79,15 +84,52 @@ public class RetrieveSpectrumTask extends AbstractDataAccessTask<Spectrum, Void>
      * @return Spectrum    spectrum
      */
     private Spectrum getSpectrum(Comparable identId, Comparable peptideId) {
-        Peptide peptide = null;
+        Spectrum spectrum = null;
         try {
-            peptide = controller.getPeptideByIndex(identId, peptideId);
+            spectrum = readPsmSpectrum(controller, identId, peptideId);
         } catch (DataAccessException dex) {
             String msg = "Failed to retrieve peptide";
             logger.error(msg, dex);
             appContext.addThrowableEntry(new ThrowableEntry(MessageType.ERROR, msg, dex));
         }
 
+        return spectrum;
+    }
+
+    /**
+     * Get spectrum by spectrum id, a prefetched spectrum is not read again
+     *
+     * @param controller data access controller
+     * @param spectrumId spectrum id
+     * @return Spectrum    spectrum
+     * @throws DataAccessException failed to read the spectrum
+     */
+    static Spectrum readSpectrum(DataAccessController controller, Comparable spectrumId) throws DataAccessException {
+        Spectrum spectrum = NeighbourPrefetchCache.getInstance(controller).getSpectrum(spectrumId);
+        return spectrum != null ? spectrum : controller.getSpectrumById(spectrumId);
+    }
+
+    /**
+     * Get the spectrum of a PSM, a prefetched spectrum is not read again
+     *
+     * @param controller data access controller
+     * @param identId    protein identification id
+     * @param peptideId  peptide id
+     * @return Spectrum    spectrum, with the peptide assigned
+     * @throws DataAccessException failed to read the peptide
+     */
+    static Spectrum readPsmSpectrum(DataAccessController controller, Comparable identId, Comparable peptideId) throws DataAccessException {
+        Spectrum spectrum = NeighbourPrefetchCache.getInstance(controller).getPsmSpectrum(identId, peptideId);
+        return spectrum != null ? spectrum : getSpectrum(controller.getPeptideByIndex(identId, peptideId));
+    }
+
+    /**
+     * Get the spectrum of a peptide, with the peptide assigned to the spectrum
+     *
+     * @param peptide peptide, can be null
+     * @return Spectrum    spectrum, null if there is no spectrum
+     */
+    static Spectrum getSpectrum(Peptide peptide) {
         Spectrum spectrum = null;
         if (peptide != null) {
             // get spectrum
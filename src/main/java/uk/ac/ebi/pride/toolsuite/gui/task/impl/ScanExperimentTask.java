@@ -25,6 +25,9 @@ import java.util.*;
 /**
  * Scan experiment for all the data related to identification, peptide and quantitation
  * <p/>
+ * Rows are collected into a batch, which is published at most once per publish interval.
+ * While the previous batch is still waiting for the event dispatch thread, the rows keep going into the next batch.
+ * <p/>
  * @author rwang
  * @author ypriverol
  *
@@ -43,10 +46,27 @@ public class ScanExperimentTask extends AbstractDataAccessTask<Void, Tuple<Table
      */
     private static final String DEFAULT_TASK_DESCRIPTION = "Loading experiment content";
 
+    /**
+     * the default interval between two published batches in milliseconds
+     */
+    public static final long DEFAULT_PUBLISH_INTERVAL = 100;
+
     private int missingSpectrumLinks = 0;
 
     private final Map<String, String> ptmMap = new HashMap<String, String>();
 
+    /**
+     * interval between two published batches in milliseconds
+     */
+    private final long publishInterval;
+
+    /**
+     * rows not yet published
+     */
+    private List<Tuple<TableContentType, Object>> batch = new ArrayList<Tuple<TableContentType, Object>>();
+
+    private long lastPublishTime = 0;
+
 
     /**
      * Retrieve a subset of identifications.
@@ -55,6 +75,7 @@ public class ScanExperimentTask extends AbstractDataAccessTask<Void, Tuple<Table
      */
     public ScanExperimentTask(DataAccessController controller) {
         super(controller);
+        this.publishInterval = getPublishInterval();
         this.setName(DEFAULT_TASK_TITLE);
         this.setDescription(DEFAULT_TASK_DESCRIPTION);
     }
@@ -75,37 +96,25 @@ public class ScanExperimentTask extends AbstractDataAccessTask<Void, Tuple<Table
             Collection<Comparable> proteinGroupIds = getProteinGroupIds();
 
             // retrieve protein, peptide and PTM details
+            Map<String, String> ptms = new LinkedHashMap<String, String>();
             for (Comparable proteinGroupId : proteinGroupIds) {
                 // retrieve protein id belongs to the protein group
                 Collection<Comparable> proteinIds = getProteinIds(proteinGroupId);
 
                 for (Comparable proteinId : proteinIds) {
-                    // get and publish protein related details
-                    ProteinTableRow proteinData = getProteinData(proteinId, proteinGroupId);
-
+                    scanProtein(proteinId, proteinGroupId, hasQuantData, batch, ptms);
 
-                    if (hasQuantData) {
-                        // get and publish quantitative data
-                        getQuantData(proteinId, proteinData);
-                    }
+                    sendPTMNotifications(ptms);
+                    ptms.clear();
 
-                    // get and publish peptide related details
-                    Collection<Comparable> ids = controller.getPeptideIds(proteinId);
-                    if (ids != null) {
-                        for (Comparable peptideId : ids) {
-                            getPeptideData(proteinId, peptideId);
-//                            if (!peptideData.isSpectrumInformation()) {
-//                                missingSpectrumLinks++;
-//                            }
-
-                            sendPTMNotification(proteinId, peptideId);
-                        }
-                    }
+                    publishRows(false);
 
                     checkInterruption();
                 }
             }
 
+            publishRows(true);
+
             missingSpectrumLinks = controller.getNumberOfMissingSpectra();
             EventBus.publish(new ProcessingDataSourceEvent<DataAccessController>(controller, ProcessingDataSourceEvent.Status.IDENTIFICATION_READING, controller));
             if (controller.hasProteinAmbiguityGroup())
@@ -116,6 +125,8 @@ public class ScanExperimentTask extends AbstractDataAccessTask<Void, Tuple<Table
             }
             logger.debug("LOAD INFORMATION | All the proteins has been shown in: |{}| milliseconds", System.currentTimeMillis() - date);
         } catch (DataAccessException dex) {
+            // show the rows retrieved so far
+            publishRows(true);
             String msg = "Failed to retrieve protein and peptide related data";
             logger.error(msg, dex);
             appContext.addThrowableEntry(new ThrowableEntry(MessageType.ERROR, msg, dex));
@@ -124,6 +135,61 @@ public class ScanExperimentTask extends AbstractDataAccessTask<Void, Tuple<Table
         return null;
     }
 
+    /**
+     * Get the protein, quantitation and peptide rows of a protein
+     *
+     * @param proteinId      protein identification id
+     * @param proteinGroupId protein group id, null if there is no protein group
+     * @param hasQuantData   true if there is quantitative data
+     * @param rows           batch to add the rows to
+     * @param ptms           map to add the PTMs of the peptides to
+     */
+    private void scanProtein(Comparable proteinId, Comparable proteinGroupId, boolean hasQuantData,
+                             List<Tuple<TableContentType, Object>> rows, Map<String, String> ptms) {
+        // get protein related details
+        ProteinTableRow proteinData = getProteinData(proteinId, proteinGroupId, rows);
+
+        if (hasQuantData) {
+            // get quantitative data
+            getQuantData(proteinId, proteinData, rows);
+        }
+
+        // get peptide related details
+        List<PeptideTableRow> peptideData = getPeptideData(proteinId, rows);
+        for (PeptideTableRow peptideTableRow : peptideData) {
+            collectPTMs(proteinId, peptideTableRow.getPeptideId(), ptms);
+        }
+    }
+
+    /**
+     * Publish the collected rows as one batch
+     *
+     * @param force true to publish straight away, false to wait for the publish interval
+     *              and for the previous batch to be delivered
+     */
+    private void publishRows(boolean force) {
+        long now = System.currentTimeMillis();
+        if (!force && (now - lastPublishTime < publishInterval || getNumOfPendingBatches() > 0)) {
+            return;
+        }
+
+        if (!batch.isEmpty()) {
+            publishBatch(batch);
+            batch = new ArrayList<Tuple<TableContentType, Object>>();
+        }
+        lastPublishTime = now;
+    }
+
+    private long getPublishInterval() {
+        String interval = appContext.getProperty("scan.experiment.publish.interval");
+        try {
+            return interval == null ? DEFAULT_PUBLISH_INTERVAL : Long.parseLong(interval.trim());
+        } catch (NumberFormatException ex) {
+            logger.warn("Invalid publish interval: {}", interval);
+            return DEFAULT_PUBLISH_INTERVAL;
+        }
+    }
+
     private Collection<Comparable> getProteinGroupIds() {
         Collection<Comparable> proteinGroupIds;
         if (controller.hasProteinAmbiguityGroup()) {
@@ -150,37 +216,59 @@ public class ScanExperimentTask extends AbstractDataAccessTask<Void, Tuple<Table
         }
     }
 
-    private void sendPTMNotification(Comparable proteinId, Comparable peptideId) {
+    /**
+     * Collect the PTMs of a peptide
+     *
+     * @param proteinId protein identification id
+     * @param peptideId peptide id
+     * @param ptms      PTM accession to PTM name
+     */
+    private void collectPTMs(Comparable proteinId, Comparable peptideId, Map<String, String> ptms) {
         Collection<Modification> mods = controller.getPTMs(proteinId, peptideId);
         if (mods != null) {
             for (Modification mod : mods) {
                 String accession = (mod.getId() != null) ? mod.getId().toString() : null;
-                String name = mod.getName();
-                if (!ptmMap.containsKey(accession)) {
-                    accession = (accession == null || accession.length() ==0)?"Unknown":accession;
-                    EventBus.publish(new SummaryReportEvent(this, controller, new SummaryReportMessage(SummaryReportMessage.Type.INFO, "Mod: " + accession,
-                            "Modification found: [" + accession + "]\t" + name)));
-                    ptmMap.put(mod.getId().toString(), mod.getName());
+                accession = (accession == null || accession.length() == 0) ? "Unknown" : accession;
+                if (!ptms.containsKey(accession)) {
+                    ptms.put(accession, mod.getName());
                 }
             }
         }
     }
 
-    private ProteinTableRow getProteinData(Comparable proteinId, Comparable proteinGroupId) {
+    /**
+     * Send a summary report notification for each PTM seen for the first time
+     *
+     * @param ptms PTM accession to PTM name
+     */
+    private void sendPTMNotifications(Map<String, String> ptms) {
+        for (Map.Entry<String, String> ptm : ptms.entrySet()) {
+            String accession = ptm.getKey();
+            if (!ptmMap.containsKey(accession)) {
+                EventBus.publish(new SummaryReportEvent(this, controller, new SummaryReportMessage(SummaryReportMessage.Type.INFO, "Mod: " + accession,
+                        "Modification found: [" + accession + "]\t" + ptm.getValue())));
+                ptmMap.put(accession, ptm.getValue());
+            }
+        }
+    }
+
+    private ProteinTableRow getProteinData(Comparable proteinId, Comparable proteinGroupId, List<Tuple<TableContentType, Object>> rows) {
         logger.debug("Scan protein details: {}", proteinId);
         ProteinTableRow proteinTableRow = TableDataRetriever.getProteinTableRow(controller, proteinId, proteinGroupId);
-        publish(new Tuple<TableContentType, Object>(TableContentType.PROTEIN, proteinTableRow));
+        rows.add(new Tuple<TableContentType, Object>(TableContentType.PROTEIN, proteinTableRow));
         return proteinTableRow;
     }
 
-    private PeptideTableRow getPeptideData(Comparable identId, Comparable peptideId) {
-        logger.debug("Scan peptide details: {}-{}", identId, peptideId);
-        PeptideTableRow peptideTableRow = TableDataRetriever.getPeptideTableRow(controller, identId, peptideId);
-        publish(new Tuple<TableContentType, Object>(TableContentType.PEPTIDE, peptideTableRow));
-        return peptideTableRow;
+    private List<PeptideTableRow> getPeptideData(Comparable identId, List<Tuple<TableContentType, Object>> rows) {
+        logger.debug("Scan peptide details: {}", identId);
+        List<PeptideTableRow> peptideTableRows = TableDataRetriever.getPeptideTableRows(controller, identId);
+        for (PeptideTableRow peptideTableRow : peptideTableRows) {
+            rows.add(new Tuple<TableContentType, Object>(TableContentType.PEPTIDE, peptideTableRow));
+        }
+        return peptideTableRows;
     }
 
-    private void getQuantData(Comparable identId, ProteinTableRow proteinTableRow) {
+    private void getQuantData(Comparable identId, ProteinTableRow proteinTableRow, List<Tuple<TableContentType, Object>> rows) {
         logger.debug("Scan quantification details: {}", identId);
         if(!controller.getType().equals(DataAccessController.Type.MZTAB)){
             List<Object> identQuantContent = TableDataRetriever.getProteinQuantTableRow(controller, identId, -1);
@@ -189,7 +277,7 @@ public class ScanExperimentTask extends AbstractDataAccessTask<Void, Tuple<Table
             List<Object> identQuantContent = TableDataRetriever.getProteinQuantTableRow(controller, identId);
             proteinTableRow.addQuantifications(identQuantContent);
         }
-        publish(new Tuple<TableContentType, Object>(TableContentType.PROTEIN_QUANTITATION, proteinTableRow));
+        rows.add(new Tuple<TableContentType, Object>(TableContentType.PROTEIN_QUANTITATION, proteinTableRow));
     }
 
     private void getQuantHeaders() {
@@ -197,7 +285,7 @@ public class ScanExperimentTask extends AbstractDataAccessTask<Void, Tuple<Table
         // protein quantitative table header
         if(!controller.getType().equals(DataAccessController.Type.MZTAB)){
             List<Object> proteinQuantHeaders = TableDataRetriever.getProteinQuantTableHeaders(controller, -1);
-            publish(new Tuple<TableContentType, Object>(TableContentType.PROTEIN_QUANTITATION_HEADER, proteinQuantHeaders));
+            batch.add(new Tuple<TableContentType, Object>(TableContentType.PROTEIN_QUANTITATION_HEADER, proteinQuantHeaders));
         }
     }
 }
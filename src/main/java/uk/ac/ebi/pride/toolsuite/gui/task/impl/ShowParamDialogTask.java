@@ -11,6 +11,7 @@ import uk.ac.ebi.pride.toolsuite.gui.PrideInspectorContext;
 import uk.ac.ebi.pride.toolsuite.gui.component.dialog.ParamGroupDialog;
 import uk.ac.ebi.pride.toolsuite.gui.desktop.Desktop;
 import uk.ac.ebi.pride.toolsuite.gui.task.TaskAdapter;
+import uk.ac.ebi.pride.toolsuite.gui.task.TaskLane;
 
 /**
  * Task to show a dialog which shows all the params in a param group
@@ -55,6 +56,7 @@ public class ShowParamDialogTask extends TaskAdapter<Void, Void> {
      */
     public ShowParamDialogTask(DataAccessController controller, Comparable protId, Comparable peptideId) {
         this.setName(TASK_NAME);
+        this.setLane(TaskLane.INTERACTIVE);
         this.setDescription(TASK_DESCRIPTION);
 
         this.controller = controller;
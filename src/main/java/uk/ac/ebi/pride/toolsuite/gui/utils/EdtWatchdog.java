@@ -0,0 +1,414 @@
+package uk.ac.ebi.pride.toolsuite.gui.utils;
+
+import net.jcip.annotations.GuardedBy;
+import net.jcip.annotations.ThreadSafe;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.awt.*;
+import java.io.IOException;
+import java.io.Writer;
+import java.text.SimpleDateFormat;
+import java.util.*;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * EdtWatchdog measures how long the event dispatch thread takes to dispatch each event,
+ * and samples its stack while a dispatch takes longer than a threshold.
+ * <p/>
+ * The samples are aggregated by frame, so the report shows which code keeps the event dispatch thread busy
+ * when the user interface freezes. The watchdog is opt-in, it replaces the system event queue when installed.
+ *
+ * @author Rui Wang
+ * @version $Id$
+ */
+@ThreadSafe
+public class EdtWatchdog {
+    private static final Logger logger = LoggerFactory.getLogger(EdtWatchdog.class);
+
+    /**
+     * dispatch latency buckets in milliseconds, a dispatch is counted in the largest bucket not above its latency
+     */
+    private static final long[] LATENCY_BUCKETS = {16, 50, 100, 250, 500, 1000, 5000};
+
+    /**
+     * frames of the application, used to find the innermost application frame of a sample
+     */
+    private static final String APPLICATION_PACKAGE = "uk.ac.ebi.pride.";
+
+    /**
+     * maximum number of distinct frames counted, to bound the memory used by a long session
+     */
+    private static final int MAX_NUMBER_OF_FRAMES = 5000;
+
+    /**
+     * number of frames listed in each section of the report
+     */
+    private static final int NUMBER_OF_REPORTED_FRAMES = 30;
+
+    @GuardedBy("EdtWatchdog.class")
+    private static EdtWatchdog instance;
+
+    private final long thresholdNanos;
+
+    private final long sampleInterval;
+
+    /**
+     * start of the current dispatch, 0 if the event dispatch thread is idle.
+     * Once a nested dispatch has finished, the start of the outer dispatch is moved forward by the nested time.
+     */
+    private volatile long dispatchStart;
+
+    /**
+     * changes whenever a dispatch starts or ends, to tell the stalls apart
+     */
+    private volatile long dispatchId;
+
+    private volatile Thread dispatchThread;
+
+    /**
+     * dispatches in progress, the innermost first, only accessed on the event dispatch thread
+     */
+    private final Deque<Dispatch> dispatches = new ArrayDeque<Dispatch>();
+
+    private final AtomicLong numOfDispatches = new AtomicLong();
+
+    private final AtomicLong maxDispatchNanos = new AtomicLong();
+
+    private final AtomicLongArray latencyCounts = new AtomicLongArray(LATENCY_BUCKETS.length);
+
+    @GuardedBy("this")
+    private long numOfStalls;
+
+    @GuardedBy("this")
+    private long numOfSamples;
+
+    @GuardedBy("this")
+    private long lastStalledDispatchId = -1;
+
+    /**
+     * number of samples with the frame at the top of the stack
+     */
+    @GuardedBy("this")
+    private final Map<String, Long> topFrames = new HashMap<String, Long>();
+
+    /**
+     * number of samples with the frame as the innermost application frame
+     */
+    @GuardedBy("this")
+    private final Map<String, Long> applicationFrames = new HashMap<String, Long>();
+
+    /**
+     * number of samples with the frame anywhere on the stack
+     */
+    @GuardedBy("this")
+    private final Map<String, Long> inclusiveFrames = new HashMap<String, Long>();
+
+    EdtWatchdog(long thresholdMillis, long sampleIntervalMillis) {
+        this.thresholdNanos = thresholdMillis * 1000000L;
+        this.sampleInterval = sampleIntervalMillis;
+    }
+
+    /**
+     * Install the watchdog on the system event queue, it is installed once only
+     *
+     * @param thresholdMillis      a dispatch taking longer than this is a stall, in milliseconds
+     * @param sampleIntervalMillis interval between two stack samples during a stall, in milliseconds
+     * @return EdtWatchdog  the installed watchdog
+     */
+    public static synchronized EdtWatchdog install(long thresholdMillis, long sampleIntervalMillis) {
+        if (thresholdMillis <= 0 || sampleIntervalMillis <= 0) {
+            throw new IllegalArgumentException("Threshold and sample interval must be positive");
+        }
+
+        if (instance == null) {
+            EdtWatchdog watchdog = new EdtWatchdog(thresholdMillis, sampleIntervalMillis);
+            Toolkit.getDefaultToolkit().getSystemEventQueue().push(watchdog.new MonitoredEventQueue());
+
+            Thread sampler = new Thread(watchdog.new StackSampler(), "edt-watchdog");
+            sampler.setDaemon(true);
+            sampler.setPriority(Thread.MAX_PRIORITY);
+            sampler.start();
+
+            instance = watchdog;
+            logger.info("EDT watchdog installed, threshold {} ms", thresholdMillis);
+        }
+
+        return instance;
+    }
+
+    /**
+     * Get the installed watchdog
+     *
+     * @return EdtWatchdog  the watchdog, null if it has not been installed
+     */
+    public static synchronized EdtWatchdog getInstance() {
+        return instance;
+    }
+
+    public long getNumOfDispatches() {
+        return numOfDispatches.get();
+    }
+
+    public long getMaxDispatchMillis() {
+        return maxDispatchNanos.get() / 1000000L;
+    }
+
+    /**
+     * @param now start of the dispatch, in nanoseconds
+     */
+    void dispatchStarted(long now) {
+        Dispatch outer = dispatches.peek();
+        if (outer != null && outer.firstNestedStart < 0) {
+            outer.firstNestedStart = now;
+        }
+        dispatches.push(new Dispatch(now));
+
+        dispatchThread = Thread.currentThread();
+        dispatchId++;
+        dispatchStart = now;
+    }
+
+    /**
+     * When a nested dispatch, such as an event of a modal dialog, finishes, the stall timer of the outer dispatch
+     * is restored. The time spent from the first nested dispatch to the end of the last one is not counted
+     * in the latency of the outer dispatch, so the timer goes on from the time the outer dispatch had taken
+     * before its nested event loop. While the nested event loop waits for events, the stack is not sampled.
+     *
+     * @param now end of the dispatch, in nanoseconds
+     */
+    void dispatchFinished(long now) {
+        Dispatch dispatch = dispatches.pop();
+        dispatchId++;
+
+        Dispatch outer = dispatches.peek();
+        if (outer != null) {
+            outer.lastNestedEnd = now;
+            dispatchStart = now - (outer.firstNestedStart - outer.start);
+        } else {
+            dispatchStart = 0;
+        }
+
+        long latency = dispatch.firstNestedStart < 0 ? now - dispatch.start
+                : (dispatch.firstNestedStart - dispatch.start) + (now - dispatch.lastNestedEnd);
+        numOfDispatches.incrementAndGet();
+
+        long max = maxDispatchNanos.get();
+        while (latency > max && !maxDispatchNanos.compareAndSet(max, latency)) {
+            max = maxDispatchNanos.get();
+        }
+
+        long latencyMillis = latency / 1000000L;
+        for (int i = LATENCY_BUCKETS.length - 1; i >= 0; i--) {
+            if (latencyMillis >= LATENCY_BUCKETS[i]) {
+                latencyCounts.incrementAndGet(i);
+                break;
+            }
+        }
+    }
+
+    /**
+     * Whether the current dispatch has taken longer than the threshold
+     *
+     * @param now current time, in nanoseconds
+     * @return boolean true if the event dispatch thread is stalled
+     */
+    boolean isStalled(long now) {
+        long start = dispatchStart;
+        return start != 0 && now - start >= thresholdNanos;
+    }
+
+    private void sample() {
+        Thread thread = dispatchThread;
+        long id = dispatchId;
+        if (thread == null || !isStalled(System.nanoTime())) {
+            return;
+        }
+
+        StackTraceElement[] stack = thread.getStackTrace();
+        // the dispatch may have finished while the stack was taken,
+        // or the outer dispatch may be waiting for the events of a nested event loop
+        if (stack.length == 0 || id != dispatchId || isWaitingForEvents(stack)) {
+            return;
+        }
+
+        synchronized (this) {
+            if (id != lastStalledDispatchId) {
+                lastStalledDispatchId = id;
+                numOfStalls++;
+            }
+            numOfSamples++;
+
+            count(topFrames, stack[0].toString());
+
+            Set<String> frames = new HashSet<String>();
+            boolean applicationFrameFound = false;
+            for (StackTraceElement element : stack) {
+                String frame = element.toString();
+                if (!applicationFrameFound && element.getClassName().startsWith(APPLICATION_PACKAGE)
+                        && !element.getClassName().startsWith(EdtWatchdog.class.getName())) {
+                    applicationFrameFound = true;
+                    count(applicationFrames, frame);
+                }
+                // count recursive frames once
+                if (frames.add(frame)) {
+                    count(inclusiveFrames, frame);
+                }
+            }
+        }
+    }
+
+    /**
+     * Whether the event dispatch thread waits for the next event, within a nested event loop
+     *
+     * @param stack stack of the event dispatch thread
+     * @return boolean true if the thread waits for an event
+     */
+    static boolean isWaitingForEvents(StackTraceElement[] stack) {
+        for (StackTraceElement element : stack) {
+            if ("getNextEvent".equals(element.getMethodName()) && EventQueue.class.getName().equals(element.getClassName())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void count(Map<String, Long> counts, String frame) {
+        Long count = counts.get(frame);
+        if (count != null) {
+            counts.put(frame, count + 1);
+        } else if (counts.size() < MAX_NUMBER_OF_FRAMES) {
+            counts.put(frame, 1L);
+        }
+    }
+
+    /**
+     * Write a plain text report of the dispatch latencies and the hottest frames during the stalls
+     *
+     * @param writer output writer, it is neither flushed nor closed
+     * @throws IOException failed to write
+     */
+    public void writeReport(Writer writer) throws IOException {
+        String separator = Constants.LINE_SEPARATOR;
+
+        writer.write("EDT watchdog report, " + new SimpleDateFormat("yyyy-MM-dd HH:mm:ss").format(new Date()) + separator);
+        writer.write("Stall threshold: " + thresholdNanos / 1000000L + " ms, sample interval: " + sampleInterval + " ms" + separator);
+        writer.write(separator);
+
+        writer.write("Dispatched events: " + numOfDispatches.get() + separator);
+        writer.write("Longest dispatch: " + maxDispatchNanos.get() / 1000000L + " ms" + separator);
+        for (int i = 0; i < LATENCY_BUCKETS.length; i++) {
+            String range = i + 1 < LATENCY_BUCKETS.length ? LATENCY_BUCKETS[i] + "-" + LATENCY_BUCKETS[i + 1] + " ms"
+                    : ">= " + LATENCY_BUCKETS[i] + " ms";
+            writer.write("  " + range + ": " + latencyCounts.get(i) + separator);
+        }
+        writer.write(separator);
+
+        long stalls, samples;
+        List<Map.Entry<String, Long>> top, application, inclusive;
+        synchronized (this) {
+            stalls = numOfStalls;
+            samples = numOfSamples;
+            top = sortByCount(topFrames);
+            application = sortByCount(applicationFrames);
+            inclusive = sortByCount(inclusiveFrames);
+        }
+
+        writer.write("Stalls: " + stalls + ", stack samples: " + samples + separator);
+        writeFrames(writer, "Top of the stack", top, samples);
+        writeFrames(writer, "Innermost application frame", application, samples);
+        writeFrames(writer, "Anywhere on the stack", inclusive, samples);
+    }
+
+    private static List<Map.Entry<String, Long>> sortByCount(Map<String, Long> counts) {
+        List<Map.Entry<String, Long>> entries = new ArrayList<Map.Entry<String, Long>>();
+        for (Map.Entry<String, Long> entry : counts.entrySet()) {
+            entries.add(new AbstractMap.SimpleImmutableEntry<String, Long>(entry));
+        }
+
+        Collections.sort(entries, new Comparator<Map.Entry<String, Long>>() {
+            @Override
+            public int compare(Map.Entry<String, Long> o1, Map.Entry<String, Long> o2) {
+                return o2.getValue().compareTo(o1.getValue());
+            }
+        });
+
+        return entries;
+    }
+
+    private static void writeFrames(Writer writer, String title, List<Map.Entry<String, Long>> frames,
+                                    long numOfSamples) throws IOException {
+        String separator = Constants.LINE_SEPARATOR;
+
+        writer.write(separator);
+        writer.write(title + separator);
+        int size = Math.min(NUMBER_OF_REPORTED_FRAMES, frames.size());
+        for (int i = 0; i < size; i++) {
+            Map.Entry<String, Long> frame = frames.get(i);
+            writer.write(String.format("%8d %5.1f%%  %s", frame.getValue(), frame.getValue() * 100.0 / numOfSamples, frame.getKey()));
+            writer.write(separator);
+        }
+    }
+
+    /**
+     * Event queue timing each dispatch
+     */
+    private class MonitoredEventQueue extends EventQueue {
+
+        @Override
+        protected void dispatchEvent(AWTEvent event) {
+            dispatchStarted(System.nanoTime());
+            try {
+                super.dispatchEvent(event);
+            } finally {
+                dispatchFinished(System.nanoTime());
+            }
+        }
+    }
+
+    /**
+     * A dispatch in progress
+     */
+    private static class Dispatch {
+        private final long start;
+
+        /**
+         * start of the first nested dispatch, -1 if there is none
+         */
+        private long firstNestedStart = -1;
+
+        /**
+         * end of the last nested dispatch
+         */
+        private long lastNestedEnd;
+
+        private Dispatch(long start) {
+            this.start = start;
+        }
+    }
+
+    /**
+     * Sample the stack of the event dispatch thread while it is stalled
+     */
+    private class StackSampler implements Runnable {
+
+        @Override
+        public void run() {
+            while (!Thread.currentThread().isInterrupted()) {
+                try {
+                    Thread.sleep(sampleInterval);
+                } catch (InterruptedException e) {
+                    return;
+                }
+
+                try {
+                    sample();
+                } catch (RuntimeException e) {
+                    logger.warn("Failed to sample the event dispatch thread", e);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,280 @@
+package uk.ac.ebi.pride.toolsuite.gui.utils;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * MgfWriter writes spectra in MGF format through a large buffered channel.
+ * <p/>
+ * Peak values are formatted straight into the output buffer with a fixed number of decimal places,
+ * trailing zeros removed, so writing a peak list does not create any object.
+ * Values too large or too small for the fixed notation fall back to {@link Double#toString(double)}.
+ * <p/>
+ * This class is not thread safe.
+ *
+ * @author Rui Wang
+ * @version $Id$
+ */
+public class MgfWriter implements Closeable {
+
+    /**
+     * size of the output buffer
+     */
+    public static final int DEFAULT_BUFFER_SIZE = 1024 * 1024;
+
+    /**
+     * number of decimal places for peak values
+     */
+    public static final int DEFAULT_DECIMAL_PLACES = 6;
+
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    private static final byte[] LINE_SEPARATOR = Constants.LINE_SEPARATOR.getBytes(UTF8);
+
+    /**
+     * largest number of characters of a formatted number
+     */
+    private static final int MAX_NUMBER_LENGTH = 32;
+
+    /**
+     * values at or above this are written by Double.toString, so that the scaled value stays an exact long
+     */
+    private static final double MAX_FIXED_VALUE = 1e9;
+
+    /**
+     * non zero values below this are written by Double.toString, to keep their significant digits
+     */
+    private static final double MIN_FIXED_VALUE = 1e-3;
+
+    private final WritableByteChannel channel;
+
+    private final ByteBuffer buffer;
+
+    private final int decimalPlaces;
+
+    private final long scale;
+
+    /**
+     * scratch space for the digits of a number, filled backwards
+     */
+    private final byte[] digits = new byte[20];
+
+    private long numOfSpectra;
+
+    /**
+     * Constructor
+     *
+     * @param file output file
+     * @param gzip true to compress the output using gzip
+     * @throws IOException failed to open the output file
+     */
+    public MgfWriter(File file, boolean gzip) throws IOException {
+        this(gzip ? Channels.newChannel(new GZIPOutputStream(new FileOutputStream(file), 64 * 1024))
+                : new FileOutputStream(file).getChannel(), DEFAULT_BUFFER_SIZE, DEFAULT_DECIMAL_PLACES);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param channel       output channel, closed with the writer
+     * @param bufferSize    size of the output buffer in bytes
+     * @param decimalPlaces number of decimal places for peak values, between 0 and 6
+     */
+    public MgfWriter(WritableByteChannel channel, int bufferSize, int decimalPlaces) {
+        if (channel == null || bufferSize < MAX_NUMBER_LENGTH || decimalPlaces < 0 || decimalPlaces > 6) {
+            throw new IllegalArgumentException("Channel cannot be null, buffer size must be at least "
+                    + MAX_NUMBER_LENGTH + " and decimal places must be between 0 and 6");
+        }
+
+        this.channel = channel;
+        this.buffer = ByteBuffer.allocate(bufferSize);
+        this.decimalPlaces = decimalPlaces;
+
+        long s = 1;
+        for (int i = 0; i < decimalPlaces; i++) {
+            s *= 10;
+        }
+        this.scale = s;
+    }
+
+    /**
+     * Write a comment line, a '#' is added at the beginning
+     *
+     * @param comment comment
+     * @throws IOException failed to write
+     */
+    public void writeComment(String comment) throws IOException {
+        putString("# ");
+        putString(comment);
+        putLineSeparator();
+    }
+
+    /**
+     * Write one spectrum, the peak list is empty if either array is null
+     *
+     * @param title           spectrum title
+     * @param precursorMz     precursor m/z, can be null
+     * @param precursorCharge precursor charge, can be null
+     * @param mz              m/z array, can be null
+     * @param intensity       intensity array, same length as the m/z array, can be null
+     * @throws IOException failed to write
+     */
+    public void writeSpectrum(String title, Double precursorMz, Integer precursorCharge,
+                              double[] mz, double[] intensity) throws IOException {
+        putString("BEGIN IONS");
+        putLineSeparator();
+
+        putString("TITLE=");
+        putString(title);
+        putLineSeparator();
+
+        putString("PEPMASS=");
+        if (precursorMz == null) {
+            putString("null");
+        } else {
+            putDouble(precursorMz);
+        }
+        putLineSeparator();
+
+        if (precursorCharge != null) {
+            putString("CHARGE=");
+            ensureCapacity(MAX_NUMBER_LENGTH);
+            putLong(Math.abs((long) precursorCharge));
+            buffer.put(precursorCharge >= 0 ? (byte) '+' : (byte) '-');
+            putLineSeparator();
+        }
+
+        int numOfPeaks = mz == null || intensity == null ? 0 : Math.min(mz.length, intensity.length);
+        for (int i = 0; i < numOfPeaks; i++) {
+            putDouble(mz[i]);
+            ensureCapacity(1);
+            buffer.put((byte) '\t');
+            putDouble(intensity[i]);
+            putLineSeparator();
+        }
+
+        putString("END IONS");
+        putLineSeparator();
+        putLineSeparator();
+
+        numOfSpectra++;
+    }
+
+    /**
+     * Get the number of spectra written
+     *
+     * @return long    number of spectra
+     */
+    public long getNumOfSpectra() {
+        return numOfSpectra;
+    }
+
+    /**
+     * Write the buffered content to the output channel
+     *
+     * @throws IOException failed to write
+     */
+    public void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+
+    private void ensureCapacity(int numOfBytes) throws IOException {
+        if (buffer.remaining() < numOfBytes) {
+            flush();
+        }
+    }
+
+    private void putLineSeparator() throws IOException {
+        ensureCapacity(LINE_SEPARATOR.length);
+        buffer.put(LINE_SEPARATOR);
+    }
+
+    private void putString(String str) throws IOException {
+        int length = str.length();
+        for (int i = 0; i < length; i++) {
+            char c = str.charAt(i);
+            if (c >= 0x80) {
+                // not ascii, encode the rest of the string
+                putBytes(str.substring(i).getBytes(UTF8));
+                return;
+            }
+            ensureCapacity(1);
+            buffer.put((byte) c);
+        }
+    }
+
+    private void putBytes(byte[] bytes) throws IOException {
+        int offset = 0;
+        while (offset < bytes.length) {
+            ensureCapacity(1);
+            int length = Math.min(buffer.remaining(), bytes.length - offset);
+            buffer.put(bytes, offset, length);
+            offset += length;
+        }
+    }
+
+    private void putDouble(double value) throws IOException {
+        double abs = Math.abs(value);
+        if (Double.isNaN(value) || abs >= MAX_FIXED_VALUE || (abs != 0 && abs < MIN_FIXED_VALUE)) {
+            putString(Double.toString(value));
+            return;
+        }
+
+        ensureCapacity(MAX_NUMBER_LENGTH);
+
+        long scaled = Math.round(abs * scale);
+        if (value < 0 && scaled != 0) {
+            buffer.put((byte) '-');
+        }
+        putLong(scaled / scale);
+
+        long fraction = scaled % scale;
+        if (fraction != 0) {
+            buffer.put((byte) '.');
+            int numOfDigits = decimalPlaces;
+            // remove trailing zeros
+            while (fraction % 10 == 0) {
+                fraction /= 10;
+                numOfDigits--;
+            }
+            int position = digits.length;
+            for (int i = 0; i < numOfDigits; i++) {
+                digits[--position] = (byte) ('0' + fraction % 10);
+                fraction /= 10;
+            }
+            buffer.put(digits, position, numOfDigits);
+        }
+    }
+
+    /**
+     * Put a non negative number, the buffer must have enough space
+     */
+    private void putLong(long value) {
+        int position = digits.length;
+        do {
+            digits[--position] = (byte) ('0' + value % 10);
+            value /= 10;
+        } while (value != 0);
+        buffer.put(digits, position, digits.length - position);
+    }
+}
@@ -0,0 +1,68 @@
+package uk.ac.ebi.pride.toolsuite.gui;
+
+import org.junit.Test;
+import uk.ac.ebi.pride.toolsuite.gui.task.Task;
+import uk.ac.ebi.pride.toolsuite.gui.task.TaskAdapter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Rui Wang
+ * @version $Id$
+ */
+public class PrideInspectorHeadlessTest {
+
+    @Test
+    public void testFailedExportGivesNonZeroExitCode() throws Exception {
+        Task task = new TaskAdapter<Void, Void>() {
+            @Override
+            protected Void doInBackground() throws Exception {
+                throw new IOException("Failed to write data to the output file");
+            }
+        };
+        task.run();
+
+        List<PrideInspectorHeadless.Stage> stages = new ArrayList<PrideInspectorHeadless.Stage>();
+        stages.add(new PrideInspectorHeadless.Stage("open", "test.xml", System.nanoTime(), true));
+        boolean succeeded = PrideInspectorHeadless.waitFor(task, "export mgf of test.xml");
+        stages.add(new PrideInspectorHeadless.Stage("export mgf", "test_spectrum.mgf", System.nanoTime(), succeeded));
+
+        assertFalse(succeeded);
+        assertEquals(1, PrideInspectorHeadless.getExitCode(stages));
+    }
+
+    @Test
+    public void testFailedExportWithErrorGivesNonZeroExitCode() throws Exception {
+        Task task = new TaskAdapter<Void, Void>() {
+            @Override
+            protected Void doInBackground() throws Exception {
+                throw new OutOfMemoryError();
+            }
+        };
+        task.run();
+
+        assertFalse(PrideInspectorHeadless.waitFor(task, "export peptide of test.xml"));
+    }
+
+    @Test
+    public void testSucceededExportGivesZeroExitCode() throws Exception {
+        Task task = new TaskAdapter<Void, Void>() {
+            @Override
+            protected Void doInBackground() throws Exception {
+                return null;
+            }
+        };
+        task.run();
+
+        List<PrideInspectorHeadless.Stage> stages = new ArrayList<PrideInspectorHeadless.Stage>();
+        boolean succeeded = PrideInspectorHeadless.waitFor(task, "export mgf of test.xml");
+        stages.add(new PrideInspectorHeadless.Stage("export mgf", "test_spectrum.mgf", System.nanoTime(), succeeded));
+
+        assertTrue(succeeded);
+        assertEquals(0, PrideInspectorHeadless.getExitCode(stages));
+    }
+}
@@ -0,0 +1,196 @@
+package uk.ac.ebi.pride.toolsuite.gui;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import uk.ac.ebi.pride.tools.protein_details_fetcher.model.Protein;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Rui Wang
+ * @version $Id$
+ */
+public class ProteinDetailStoreTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testProteinsSurviveRestart() throws Exception {
+        File file = new File(folder.getRoot(), ProteinDetailStore.DEFAULT_STORE_FILE_NAME);
+
+        ProteinDetailStore store = new ProteinDetailStore(file, ProteinDetailStore.DEFAULT_MAX_SIZE);
+        store.put(createProtein("P12345", "Test protein", "MPEPTIDEK"));
+        store.close();
+
+        store = new ProteinDetailStore(file, ProteinDetailStore.DEFAULT_MAX_SIZE);
+        Protein protein = store.get("P12345");
+        assertNotNull(protein);
+        assertEquals("Test protein", protein.getName());
+        assertEquals("MPEPTIDEK", protein.getSequenceString());
+        assertEquals(Protein.STATUS.ACTIVE, protein.getStatus());
+        assertNull(store.get("Q12345"));
+        store.close();
+    }
+
+    @Test
+    public void testLeastRecentlyUsedAreEvicted() throws Exception {
+        File file = new File(folder.getRoot(), ProteinDetailStore.DEFAULT_STORE_FILE_NAME);
+
+        ProteinDetailStore store = new ProteinDetailStore(file, 200);
+        for (int i = 0; i < 20; i++) {
+            store.put(createProtein("P" + i, "Protein " + i, "MPEPTIDEK"));
+            // keep the first protein in use
+            store.get("P0");
+        }
+
+        assertTrue(store.size() < 20);
+        assertNotNull(store.get("P0"));
+        assertNotNull(store.get("P19"));
+        assertNull(store.get("P1"));
+        store.close();
+    }
+
+    @Test
+    public void testStoreIsOpenedOnFirstAccess() throws Exception {
+        File file = new File(folder.getRoot(), ProteinDetailStore.DEFAULT_STORE_FILE_NAME);
+
+        ProteinDetailStore store = new ProteinDetailStore(file, ProteinDetailStore.DEFAULT_MAX_SIZE);
+        assertFalse(store.isLoaded());
+        assertFalse(file.exists());
+
+        assertNull(store.get("P12345"));
+        assertTrue(store.isLoaded());
+        store.close();
+        assertFalse(store.isLoaded());
+    }
+
+    @Test
+    public void testSameDetailsAreNotAppended() throws Exception {
+        File file = new File(folder.getRoot(), ProteinDetailStore.DEFAULT_STORE_FILE_NAME);
+
+        ProteinDetailStore store = new ProteinDetailStore(file, ProteinDetailStore.DEFAULT_MAX_SIZE);
+        store.put(createProtein("P12345", "Test protein", "MPEPTIDEK"));
+        long fileSize = store.getFileSize();
+        for (int i = 0; i < 10; i++) {
+            store.put(createProtein("P12345", "Test protein", "MPEPTIDEK"));
+        }
+        assertEquals(fileSize, store.getFileSize());
+
+        store.put(createProtein("P12345", "Test protein", "MPEPTIDEKR"));
+        assertTrue(store.getFileSize() > fileSize);
+        assertEquals("MPEPTIDEKR", store.get("P12345").getSequenceString());
+        store.close();
+    }
+
+    @Test
+    public void testReplacedRecordsAreCompactedWhileWriting() throws Exception {
+        File file = new File(folder.getRoot(), ProteinDetailStore.DEFAULT_STORE_FILE_NAME);
+
+        ProteinDetailStore store = new ProteinDetailStore(file, 8000);
+        store.put(createProtein("P0", "Protein 0", "MPEPTIDEK"));
+        long recordSize = store.getFileSize();
+        for (int i = 1; i <= 200; i++) {
+            store.put(createProtein("P0", "Protein " + i, "MPEPTIDEK"));
+        }
+
+        // without compaction the file would hold 200 records
+        assertTrue(store.getFileSize() < 50 * recordSize);
+        assertEquals("Protein 200", store.get("P0").getName());
+        store.close();
+
+        store = new ProteinDetailStore(file, 8000);
+        assertEquals("Protein 200", store.get("P0").getName());
+        assertEquals(1, store.size());
+        store.close();
+    }
+
+    @Test
+    public void testRemovalRecordsAreCountedAsGarbage() throws Exception {
+        File file = new File(folder.getRoot(), ProteinDetailStore.DEFAULT_STORE_FILE_NAME);
+
+        ProteinDetailStore store = new ProteinDetailStore(file, 200);
+        for (int i = 0; i < 20; i++) {
+            store.put(createProtein("P" + i, "Protein " + i, "MPEPTIDEK"));
+            // the file holds the header, the live records and the dead ones, nothing else
+            assertEquals(store.getFileSize(), 8 + store.getLiveSize() + store.getGarbageSize());
+        }
+        store.close();
+
+        store = new ProteinDetailStore(file, 200);
+        assertTrue(store.size() > 0);
+        assertEquals(store.getFileSize(), 8 + store.getLiveSize() + store.getGarbageSize());
+        store.close();
+    }
+
+    @Test
+    public void testCorruptRecordIsDroppedOnRead() throws Exception {
+        File file = new File(folder.getRoot(), ProteinDetailStore.DEFAULT_STORE_FILE_NAME);
+
+        ProteinDetailStore store = new ProteinDetailStore(file, ProteinDetailStore.DEFAULT_MAX_SIZE);
+        store.put(createProtein("P12345", "Test protein", "MPEPTIDEK"));
+        store.put(createProtein("P23456", "Other protein", "MPEPTIDEK"));
+        store.close();
+
+        // file header, record header, accession and status, then the length of the name
+        writeInt(file, 8 + 5 + 2 + 6 + 2 + 6, Integer.MAX_VALUE - 16);
+
+        store = new ProteinDetailStore(file, ProteinDetailStore.DEFAULT_MAX_SIZE);
+        assertEquals(2, store.size());
+        assertNull(store.get("P12345"));
+        assertEquals(1, store.size());
+        assertEquals("Other protein", store.get("P23456").getName());
+        store.close();
+
+        store = new ProteinDetailStore(file, ProteinDetailStore.DEFAULT_MAX_SIZE);
+        assertNull(store.get("P12345"));
+        assertEquals("Other protein", store.get("P23456").getName());
+        store.close();
+    }
+
+    @Test
+    public void testFileIsCutAtCorruptRecordOnLoad() throws Exception {
+        File file = new File(folder.getRoot(), ProteinDetailStore.DEFAULT_STORE_FILE_NAME);
+
+        ProteinDetailStore store = new ProteinDetailStore(file, ProteinDetailStore.DEFAULT_MAX_SIZE);
+        store.put(createProtein("P12345", "Test protein", "MPEPTIDEK"));
+        long firstRecordEnd = store.getFileSize();
+        store.put(createProtein("P23456", "Other protein", "MPEPTIDEK"));
+        store.close();
+
+        // the length of the accession of the second record
+        writeInt(file, firstRecordEnd + 5, 0xFFFF0000);
+
+        store = new ProteinDetailStore(file, ProteinDetailStore.DEFAULT_MAX_SIZE);
+        assertEquals(1, store.size());
+        assertEquals("Test protein", store.get("P12345").getName());
+        assertNull(store.get("P23456"));
+        assertEquals(firstRecordEnd, file.length());
+
+        store.put(createProtein("P23456", "Other protein", "MPEPTIDEK"));
+        assertEquals("Other protein", store.get("P23456").getName());
+        store.close();
+    }
+
+    private void writeInt(File file, long position, int value) throws Exception {
+        RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+        try {
+            randomAccessFile.seek(position);
+            randomAccessFile.writeInt(value);
+        } finally {
+            randomAccessFile.close();
+        }
+    }
+
+    private Protein createProtein(String accession, String name, String sequence) {
+        Protein protein = new Protein(accession);
+        protein.setName(name);
+        protein.setStatus(Protein.STATUS.ACTIVE);
+        protein.setSequenceString(sequence);
+        return protein;
+    }
+}
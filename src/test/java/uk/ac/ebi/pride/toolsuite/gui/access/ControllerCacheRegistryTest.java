@@ -0,0 +1,85 @@
+package uk.ac.ebi.pride.toolsuite.gui.access;
+
+import org.junit.Test;
+import uk.ac.ebi.pride.utilities.data.controller.DataAccessController;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Rui Wang
+ * @version $Id$
+ */
+public class ControllerCacheRegistryTest {
+
+    @Test
+    public void testInstancesAreEvictedWithTheirController() throws Exception {
+        ControllerCacheRegistry<StubCacheUsage> registry = createRegistry();
+
+        DataAccessController first = new EmptyDataAccessController();
+        DataAccessController second = new EmptyDataAccessController();
+
+        assertSame(registry.get(first), registry.get(first));
+        assertNotSame(registry.get(first), registry.get(second));
+        assertEquals(2, registry.getNumOfControllers());
+
+        CacheStatistics statistics = registry.getStatistics();
+        assertEquals("Stub", statistics.getName());
+        assertEquals(20, statistics.getNumOfEntries());
+        assertEquals(2000, statistics.getEstimatedBytes());
+        assertEquals(0.75, statistics.getHitRatio(), 0.0001);
+
+        registry.evict(first);
+        assertEquals(1, registry.getNumOfControllers());
+        assertEquals(10, registry.getStatistics().getNumOfEntries());
+
+        registry.evict(second);
+        assertEquals(0, registry.getStatistics().getEstimatedBytes());
+        assertTrue(Double.isNaN(registry.getStatistics().getHitRatio()));
+    }
+
+    @Test
+    public void testEvictedControllersAreNotRegisteredAgain() throws Exception {
+        ControllerCacheRegistry<StubCacheUsage> registry = createRegistry();
+
+        DataAccessController controller = new EmptyDataAccessController();
+        registry.get(controller);
+        registry.evict(controller);
+
+        // a task still running for the closed controller
+        StubCacheUsage instance = registry.get(controller);
+        assertNotNull(instance);
+        assertNotSame(instance, registry.get(controller));
+        assertEquals(0, registry.getNumOfControllers());
+    }
+
+    private static ControllerCacheRegistry<StubCacheUsage> createRegistry() {
+        return new ControllerCacheRegistry<StubCacheUsage>("Stub") {
+            @Override
+            protected StubCacheUsage create(DataAccessController controller) {
+                return new StubCacheUsage();
+            }
+        };
+    }
+
+    private static class StubCacheUsage implements CacheUsage {
+        @Override
+        public int getNumOfEntries() {
+            return 10;
+        }
+
+        @Override
+        public long getEstimatedBytes() {
+            return 1000;
+        }
+
+        @Override
+        public long getHitCount() {
+            return 3;
+        }
+
+        @Override
+        public long getMissCount() {
+            return 1;
+        }
+    }
+}
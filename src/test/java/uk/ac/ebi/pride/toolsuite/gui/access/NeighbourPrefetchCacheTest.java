@@ -0,0 +1,71 @@
+package uk.ac.ebi.pride.toolsuite.gui.access;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Rui Wang
+ * @version $Id$
+ */
+public class NeighbourPrefetchCacheTest {
+
+    @Test
+    public void testLeastRecentlyUsedEntriesAreRemovedFirst() throws Exception {
+        // room for three entries of 100 bytes
+        NeighbourPrefetchCache cache = new NeighbourPrefetchCache(300);
+
+        cache.put(NeighbourPrefetchCache.createKey(NeighbourPrefetchCache.SPECTRUM, 1), "1", 100);
+        cache.put(NeighbourPrefetchCache.createKey(NeighbourPrefetchCache.SPECTRUM, 2), "2", 100);
+        cache.put(NeighbourPrefetchCache.createKey(NeighbourPrefetchCache.SPECTRUM, 3), "3", 100);
+        assertEquals("1", cache.get(NeighbourPrefetchCache.createKey(NeighbourPrefetchCache.SPECTRUM, 1)));
+
+        cache.put(NeighbourPrefetchCache.createKey(NeighbourPrefetchCache.SPECTRUM, 4), "4", 100);
+        assertEquals(3, cache.getNumOfEntries());
+        assertEquals(300, cache.getEstimatedBytes());
+        assertNull(cache.get(NeighbourPrefetchCache.createKey(NeighbourPrefetchCache.SPECTRUM, 2)));
+        assertEquals("1", cache.get(NeighbourPrefetchCache.createKey(NeighbourPrefetchCache.SPECTRUM, 1)));
+
+        assertEquals(2, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+    }
+
+    @Test
+    public void testEntriesAreBoundedByBytes() throws Exception {
+        NeighbourPrefetchCache cache = new NeighbourPrefetchCache(300);
+
+        cache.put(NeighbourPrefetchCache.createKey(NeighbourPrefetchCache.SPECTRUM, 1), "1", 100);
+        cache.put(NeighbourPrefetchCache.createKey(NeighbourPrefetchCache.SPECTRUM, 2), "2", 100);
+
+        // one large entry makes room by removing both
+        cache.put(NeighbourPrefetchCache.createKey(NeighbourPrefetchCache.SPECTRUM, 3), "3", 250);
+        assertEquals(1, cache.getNumOfEntries());
+        assertEquals(250, cache.getEstimatedBytes());
+
+        // replacing an entry counts its new size only
+        cache.put(NeighbourPrefetchCache.createKey(NeighbourPrefetchCache.SPECTRUM, 3), "3", 50);
+        assertEquals(50, cache.getEstimatedBytes());
+
+        // larger than the cache
+        cache.put(NeighbourPrefetchCache.createKey(NeighbourPrefetchCache.SPECTRUM, 4), "4", 301);
+        assertFalse(cache.containsSpectrum(4));
+        assertEquals(1, cache.getNumOfEntries());
+        assertEquals(50, cache.getEstimatedBytes());
+    }
+
+    @Test
+    public void testPsmSpectraAreKeptApartFromSpectra() throws Exception {
+        NeighbourPrefetchCache cache = new NeighbourPrefetchCache(NeighbourPrefetchCache.DEFAULT_MAX_BYTES);
+
+        cache.put(NeighbourPrefetchCache.createPsmKey(1, 2), "psm", 100);
+        assertTrue(cache.containsPsmSpectrum(1, 2));
+        assertFalse(cache.containsPsmSpectrum(2, 1));
+        assertFalse(cache.containsSpectrum(2));
+        assertFalse(cache.containsChromatogram(2));
+
+        cache.put(NeighbourPrefetchCache.createKey(NeighbourPrefetchCache.SPECTRUM, 2), "spectrum", 100);
+        assertTrue(cache.containsSpectrum(2));
+        assertEquals("psm", cache.get(NeighbourPrefetchCache.createPsmKey(1, 2)));
+        assertEquals("spectrum", cache.get(NeighbourPrefetchCache.createKey(NeighbourPrefetchCache.SPECTRUM, 2)));
+    }
+}
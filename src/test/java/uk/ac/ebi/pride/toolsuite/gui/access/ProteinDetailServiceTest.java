@@ -0,0 +1,104 @@
+package uk.ac.ebi.pride.toolsuite.gui.access;
+
+import org.junit.Test;
+import uk.ac.ebi.pride.tools.protein_details_fetcher.model.Protein;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Rui Wang
+ * @version $Id$
+ */
+public class ProteinDetailServiceTest {
+
+    @Test
+    public void testInFlightAccessionsAreShared() throws Exception {
+        StubProteinDetailSource source = new StubProteinDetailSource();
+        ProteinDetailService service = new ProteinDetailService(source, 2, 2);
+
+        Map<String, Future<Map<String, Protein>>> first = service.fetch(Arrays.asList("P1", "P2", "P3"));
+        Map<String, Future<Map<String, Protein>>> second = service.fetch(Arrays.asList("P2", "P3", "P4"));
+
+        assertSame(first.get("P2"), second.get("P2"));
+        assertSame(first.get("P3"), second.get("P3"));
+        assertEquals(3, service.getNumOfBatches());
+        assertEquals(2, service.getNumOfSharedAccessions());
+
+        source.release();
+        for (String accession : Arrays.asList("P2", "P3", "P4")) {
+            assertEquals(accession, second.get(accession).get(5, TimeUnit.SECONDS).get(accession).getAccession());
+        }
+        first.get("P1").get(5, TimeUnit.SECONDS);
+
+        for (String accession : Arrays.asList("P1", "P2", "P3", "P4")) {
+            assertEquals(1, source.getNumOfRequests(accession));
+        }
+    }
+
+    @Test
+    public void testBatchesNobodyWaitsForAreCancelled() throws Exception {
+        StubProteinDetailSource source = new StubProteinDetailSource();
+        ProteinDetailService service = new ProteinDetailService(source, 2, 1);
+
+        Map<String, Future<Map<String, Protein>>> first = service.fetch(Arrays.asList("P1", "P2", "P3"));
+        Map<String, Future<Map<String, Protein>>> second = service.fetch(Arrays.asList("P3", "P4"));
+
+        // P3 is still wanted by the second caller
+        service.release(first);
+        assertTrue(first.get("P1").isCancelled());
+        assertFalse(second.get("P3").isCancelled());
+        assertEquals(2, service.getNumOfInFlightAccessions());
+
+        // a cancelled batch is not shared
+        Map<String, Future<Map<String, Protein>>> third = service.fetch(Arrays.asList("P1"));
+        assertNotSame(first.get("P1"), third.get("P1"));
+
+        source.release();
+        assertEquals("P3", second.get("P3").get(5, TimeUnit.SECONDS).get("P3").getAccession());
+        assertEquals("P4", second.get("P4").get(5, TimeUnit.SECONDS).get("P4").getAccession());
+        assertEquals("P1", third.get("P1").get(5, TimeUnit.SECONDS).get("P1").getAccession());
+        service.release(second);
+        service.release(third);
+
+        assertEquals(0, source.getNumOfRequests("P2"));
+        assertEquals(1, source.getNumOfRequests("P1"));
+    }
+
+    /**
+     * Local protein detail source, blocks until released
+     */
+    private static class StubProteinDetailSource implements ProteinDetailSource {
+        private final CountDownLatch latch = new CountDownLatch(1);
+        private final ConcurrentMap<String, AtomicInteger> numOfRequests = new ConcurrentHashMap<String, AtomicInteger>();
+
+        @Override
+        public Map<String, Protein> getProteinDetails(Collection<String> accessions) throws Exception {
+            latch.await();
+
+            Map<String, Protein> proteins = new HashMap<String, Protein>();
+            for (String accession : accessions) {
+                numOfRequests.putIfAbsent(accession, new AtomicInteger());
+                numOfRequests.get(accession).incrementAndGet();
+                proteins.put(accession, new Protein(accession));
+            }
+            return proteins;
+        }
+
+        public void release() {
+            latch.countDown();
+        }
+
+        public int getNumOfRequests(String accession) {
+            AtomicInteger count = numOfRequests.get(accession);
+            return count == null ? 0 : count.get();
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package uk.ac.ebi.pride.toolsuite.gui.access;
+
+import uk.ac.ebi.pride.toolsuite.gui.component.table.model.PeptideTableRow;
+import uk.ac.ebi.pride.toolsuite.gui.utils.ProteinAccession;
+import uk.ac.ebi.pride.utilities.data.core.Modification;
+import uk.ac.ebi.pride.utilities.data.core.PeptideSequence;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compare the heap used by the PSMs of a large identification file
+ * when each PSM is an object with boxed fields, as peptide table rows used to be,
+ * and when the PSMs are kept in a {@link PsmStore}.
+ * <p/>
+ * This is not a unit test, run it with a fixed heap, for example:
+ * java -Xms2g -Xmx2g uk.ac.ebi.pride.toolsuite.gui.access.PsmStoreBenchmark 1000000
+ *
+ * @author Rui Wang
+ * @version $Id$
+ */
+public class PsmStoreBenchmark {
+
+    private static final int NUMBER_OF_SCORES = 3;
+
+    private static final int PSMS_PER_PROTEIN = 20;
+
+    private static final int PSMS_PER_SEQUENCE = 4;
+
+    public static void main(String[] args) throws Exception {
+        int numOfPsms = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+
+        long baseline = usedHeap();
+        List<LegacyPeptideTableRow> legacyRows = createLegacyRows(numOfPsms);
+        long legacyBytes = usedHeap() - baseline;
+        System.out.println("Rows with boxed fields: " + legacyRows.size() + " PSMs, " + legacyBytes / (1024 * 1024) + " MB, "
+                + legacyBytes / numOfPsms + " bytes per PSM");
+        legacyRows = null;
+
+        baseline = usedHeap();
+        List<PeptideTableRow> rows = createStoreRows(numOfPsms);
+        long storeBytes = usedHeap() - baseline;
+        System.out.println("PSM store: " + rows.size() + " PSMs, " + storeBytes / (1024 * 1024) + " MB, "
+                + storeBytes / numOfPsms + " bytes per PSM");
+
+        System.out.println(String.format("Heap reduction: %.1f%%", (legacyBytes - storeBytes) * 100.0 / legacyBytes));
+    }
+
+    private static List<LegacyPeptideTableRow> createLegacyRows(int numOfPsms) {
+        List<LegacyPeptideTableRow> rows = new ArrayList<LegacyPeptideTableRow>(numOfPsms);
+        ProteinAccession accession = null;
+        for (int i = 0; i < numOfPsms; i++) {
+            if (i % PSMS_PER_PROTEIN == 0) {
+                accession = new ProteinAccession("P" + i, "P" + i);
+            }
+
+            LegacyPeptideTableRow row = new LegacyPeptideTableRow();
+            row.sequence = createSequence(i);
+            row.proteinAccession = accession;
+            row.ranking = 1;
+            row.precursorCharge = 2 + i % 3;
+            row.precursorMz = 400.0 + i % 1000 / 10.0;
+            row.deltaMz = i % 100 / 1000.0;
+            row.numberOfFragmentIons = i % 40;
+            for (int j = 0; j < NUMBER_OF_SCORES; j++) {
+                row.scores.add(i % 500 / 7.0 + j);
+            }
+            row.sequenceStartPosition = i % 300;
+            row.sequenceEndPosition = i % 300 + 12;
+            row.spectrumId = "spectrum " + i;
+            row.proteinId = "protein " + i / PSMS_PER_PROTEIN;
+            row.peptideId = i % PSMS_PER_PROTEIN;
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    private static List<PeptideTableRow> createStoreRows(int numOfPsms) {
+        PsmStore store = new PsmStore(NUMBER_OF_SCORES);
+        List<PeptideTableRow> rows = new ArrayList<PeptideTableRow>(numOfPsms);
+        ProteinAccession accession = null;
+        Comparable proteinId = null;
+        for (int i = 0; i < numOfPsms; i++) {
+            if (i % PSMS_PER_PROTEIN == 0) {
+                accession = new ProteinAccession("P" + i, "P" + i);
+                proteinId = "protein " + i / PSMS_PER_PROTEIN;
+            }
+
+            PeptideTableRow row = new PeptideTableRow(store, store.addRow());
+            row.setSequence(createSequence(i));
+            row.setProteinAccession(accession);
+            row.setRanking(1);
+            row.setPrecursorCharge(2 + i % 3);
+            row.setPrecursorMz(400.0 + i % 1000 / 10.0);
+            row.setDeltaMz(i % 100 / 1000.0);
+            row.setNumberOfFragmentIons(i % 40);
+            for (int j = 0; j < NUMBER_OF_SCORES; j++) {
+                row.setScore(j, i % 500 / 7.0 + j);
+            }
+            row.setSequenceStartPosition(i % 300);
+            row.setSequenceEndPosition(i % 300 + 12);
+            row.setSpectrumId("spectrum " + i);
+            row.setProteinId(proteinId);
+            row.setPeptideId(i % PSMS_PER_PROTEIN);
+            store.register(row.getRow(), i / PSMS_PER_PROTEIN, i % PSMS_PER_PROTEIN);
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    /**
+     * A new sequence object for each PSM, as read from a data access controller
+     */
+    private static PeptideSequence createSequence(int psmIndex) {
+        String sequence = "PEPTIDEK" + Integer.toString(psmIndex / PSMS_PER_SEQUENCE, 26).toUpperCase();
+        return new PeptideSequence(null, null, sequence, new ArrayList<Modification>(), null);
+    }
+
+    private static long usedHeap() throws InterruptedException {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(200);
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /**
+     * The fields of a peptide table row before the PSM store
+     */
+    private static class LegacyPeptideTableRow {
+        private Boolean comparisonState = false;
+        private PeptideSequence sequence;
+        private ProteinAccession proteinAccession;
+        private String proteinName;
+        private String proteinAccessionStatus;
+        private Double sequenceCoverage;
+        private int peptideFitState;
+        private Integer ranking;
+        private Double deltaMz;
+        private Integer precursorCharge;
+        private Double precursorMz;
+        private Integer numberOfFragmentIons;
+        private final List<Double> scores = new ArrayList<Double>();
+        private Integer sequenceStartPosition;
+        private Integer sequenceEndPosition;
+        private Comparable spectrumId;
+        private Comparable proteinId;
+        private Comparable peptideId;
+        private final List<Object> quantifications = new ArrayList<Object>();
+    }
+}
@@ -0,0 +1,139 @@
+package uk.ac.ebi.pride.toolsuite.gui.access;
+
+import org.junit.Test;
+import uk.ac.ebi.pride.toolsuite.gui.utils.ProteinAccession;
+import uk.ac.ebi.pride.utilities.data.core.Modification;
+import uk.ac.ebi.pride.utilities.data.core.PeptideSequence;
+
+import java.util.ArrayList;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Rui Wang
+ * @version $Id$
+ */
+public class PsmStoreTest {
+
+    @Test
+    public void testValuesAreStoredByRow() throws Exception {
+        PsmStore store = new PsmStore(2);
+
+        // fill more than one chunk
+        int numOfRows = 10000;
+        for (int i = 0; i < numOfRows; i++) {
+            int row = store.addRow();
+            assertEquals(i, row);
+            store.setRanking(row, i % 3 + 1);
+            store.setPrecursorCharge(row, i % 2 == 0 ? 2 : null);
+            store.setPrecursorMz(row, 400.5 + i);
+            store.setScore(row, 1, (double) i);
+            store.setPeptideId(row, "peptide " + i);
+        }
+
+        assertEquals(numOfRows, store.getNumOfRows());
+        assertEquals(Integer.valueOf(3), store.getRanking(9998));
+        assertEquals(Integer.valueOf(2), store.getPrecursorCharge(9998));
+        assertNull(store.getPrecursorCharge(9999));
+        assertEquals(10399.5, store.getPrecursorMz(9999), 0);
+        assertNull(store.getScore(9999, 0));
+        assertEquals(9999.0, store.getScore(9999, 1), 0);
+        assertNull(store.getDeltaMz(9999));
+        assertNull(store.getSequence(9999));
+        assertEquals("peptide 4096", store.getPeptideId(4096));
+    }
+
+    @Test
+    public void testDictionaryValuesAreShared() throws Exception {
+        PsmStore store = new PsmStore(0);
+
+        int first = store.addRow();
+        int second = store.addRow();
+        store.setSequence(first, new PeptideSequence(null, null, "PEPTIDE", new ArrayList<Modification>(), null));
+        store.setSequence(second, new PeptideSequence(null, null, "PEPTIDE", new ArrayList<Modification>(), null));
+        store.setProteinAccession(first, new ProteinAccession("P12345", "P12345"));
+        store.setProteinAccession(second, new ProteinAccession("P12345", "P12345"));
+        store.setProteinId(first, "protein 1");
+        store.setProteinId(second, "protein 1");
+
+        assertSame(store.getSequence(first), store.getSequence(second));
+        assertEquals("", store.getModificationNames(first));
+
+        // protein name and coverage are shared, null values do not replace known ones
+        store.setProteinName(first, "Protein name");
+        store.setProteinName(second, null);
+        store.setSequenceCoverage(second, 0.25);
+        assertEquals("Protein name", store.getProteinName(second));
+        assertEquals(0.25, store.getSequenceCoverage(first), 0);
+    }
+
+    @Test
+    public void testRowsAreRegisteredOnce() throws Exception {
+        PsmStore store = new PsmStore(0);
+
+        assertEquals(-1, store.getRow(3, 5));
+
+        int row = store.addRow();
+        assertEquals(row, store.register(row, 3, 5));
+
+        // a PSM built twice keeps the first row
+        int duplicatedRow = store.addRow();
+        assertEquals(row, store.register(duplicatedRow, 3, 5));
+        assertEquals(row, store.getRow(3, 5));
+        assertEquals(-1, store.getRow(3, 4));
+
+        Object key = "quantitation peptide";
+        assertEquals(-1, store.getRow(key));
+        int keyedRow = store.addRow();
+        assertEquals(keyedRow, store.register(keyedRow, key));
+        assertEquals(keyedRow, store.getRow(key));
+    }
+
+    @Test
+    public void testRowsLosingTheRegistrationAreReused() throws Exception {
+        PsmStore store = new PsmStore(2);
+
+        int row = store.addRow();
+        store.register(row, 3, 5);
+
+        // another task built the same PSM
+        int duplicatedRow = store.addRow();
+        store.setRanking(duplicatedRow, 1);
+        store.setPrecursorMz(duplicatedRow, 400.5);
+        store.setScore(duplicatedRow, 1, 2.0);
+        store.setPeptideId(duplicatedRow, "peptide");
+        assertEquals(row, store.register(duplicatedRow, 3, 5));
+        assertEquals(1, store.getNumOfEntries());
+
+        // the row is handed out again, empty
+        assertEquals(duplicatedRow, store.addRow());
+        assertNull(store.getRanking(duplicatedRow));
+        assertNull(store.getPrecursorMz(duplicatedRow));
+        assertNull(store.getScore(duplicatedRow, 1));
+        assertNull(store.getPeptideId(duplicatedRow));
+        assertEquals(2, store.getNumOfRows());
+
+        // same for keyed rows
+        store.register(duplicatedRow, "quantitation peptide");
+        int duplicatedKeyedRow = store.addRow();
+        assertEquals(duplicatedRow, store.register(duplicatedKeyedRow, "quantitation peptide"));
+        assertEquals(duplicatedKeyedRow, store.addRow());
+    }
+
+    @Test
+    public void testReleasedRowsAreReused() throws Exception {
+        PsmStore store = new PsmStore(1);
+
+        // a PSM which failed to be read
+        int row = store.addRow();
+        store.setRanking(row, 1);
+        store.setScore(row, 0, 2.0);
+        store.releaseRow(row);
+        assertEquals(0, store.getNumOfEntries());
+
+        assertEquals(row, store.addRow());
+        assertNull(store.getRanking(row));
+        assertNull(store.getScore(row, 0));
+        assertEquals(1, store.getNumOfRows());
+    }
+}
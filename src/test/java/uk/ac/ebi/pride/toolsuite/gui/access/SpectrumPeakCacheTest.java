@@ -0,0 +1,87 @@
+package uk.ac.ebi.pride.toolsuite.gui.access;
+
+import org.junit.Test;
+import uk.ac.ebi.pride.utilities.data.controller.DataAccessController;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Rui Wang
+ * @version $Id$
+ */
+public class SpectrumPeakCacheTest {
+
+    @Test
+    public void testPeaksAreReadBack() throws Exception {
+        SpectrumPeakCache cache = new SpectrumPeakCache("Spectrum peaks", SpectrumPeakCache.DEFAULT_MAX_BYTES);
+        DataAccessController controller = new EmptyDataAccessController();
+
+        // spans more than one block
+        double[] mz = createPeaks(1000, 100.0);
+        double[] intensity = createPeaks(999, 0.5);
+        cache.put(controller, "spectrum 1", mz, intensity);
+
+        SpectrumPeakCache.Peaks peaks = cache.getPeaks(controller, "spectrum 1");
+        assertArrayEquals(mz, peaks.getMz(), 0);
+        assertArrayEquals(intensity, peaks.getIntensity(), 0);
+
+        assertNull(cache.getPeaks(controller, "spectrum 2"));
+        assertNull(cache.getPeaks(new EmptyDataAccessController(), "spectrum 1"));
+
+        CacheStatistics statistics = cache.getStatistics();
+        assertEquals(1, statistics.getNumOfEntries());
+        assertEquals(1, statistics.getHitCount());
+        assertEquals(2, statistics.getMissCount());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedPeaksAreEvicted() throws Exception {
+        // room for three spectra of one block each
+        SpectrumPeakCache cache = new SpectrumPeakCache("Spectrum peaks", 3 * SpectrumPeakCache.BLOCK_SIZE);
+        DataAccessController controller = new EmptyDataAccessController();
+        int numOfPeaks = SpectrumPeakCache.BLOCK_SIZE / 16;
+
+        cache.put(controller, 1, createPeaks(numOfPeaks, 1), createPeaks(numOfPeaks, 1));
+        cache.put(controller, 2, createPeaks(numOfPeaks, 2), createPeaks(numOfPeaks, 2));
+        cache.put(controller, 3, createPeaks(numOfPeaks, 3), createPeaks(numOfPeaks, 3));
+        assertNotNull(cache.getPeaks(controller, 1));
+
+        cache.put(controller, 4, createPeaks(numOfPeaks, 4), createPeaks(numOfPeaks, 4));
+        assertEquals(3, cache.size());
+        assertNull(cache.getPeaks(controller, 2));
+        assertEquals(1.0, cache.getPeaks(controller, 1).getMz()[0], 0);
+        assertEquals(4.0, cache.getPeaks(controller, 4).getIntensity()[0], 0);
+
+        // larger than the cache
+        cache.put(controller, 5, createPeaks(numOfPeaks * 4, 5), createPeaks(numOfPeaks * 4, 5));
+        assertNull(cache.getPeaks(controller, 5));
+        assertEquals(3, cache.size());
+    }
+
+    @Test
+    public void testPeaksAreEvictedWithTheirController() throws Exception {
+        SpectrumPeakCache cache = new SpectrumPeakCache("Spectrum peaks", SpectrumPeakCache.DEFAULT_MAX_BYTES);
+        DataAccessController first = new EmptyDataAccessController();
+        DataAccessController second = new EmptyDataAccessController();
+
+        cache.put(first, 1, createPeaks(10, 1), createPeaks(10, 1));
+        cache.put(second, 1, createPeaks(10, 2), createPeaks(10, 2));
+
+        cache.evict(first);
+        assertNull(cache.getPeaks(first, 1));
+        assertEquals(2.0, cache.getPeaks(second, 1).getMz()[0], 0);
+
+        cache.setMaxBytes(0);
+        cache.put(second, 2, createPeaks(10, 2), createPeaks(10, 2));
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.getStatistics().getEstimatedBytes());
+    }
+
+    private static double[] createPeaks(int numOfPeaks, double start) {
+        double[] peaks = new double[numOfPeaks];
+        for (int i = 0; i < numOfPeaks; i++) {
+            peaks[i] = start + i;
+        }
+        return peaks;
+    }
+}
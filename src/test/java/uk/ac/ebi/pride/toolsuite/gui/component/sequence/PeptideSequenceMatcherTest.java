@@ -0,0 +1,44 @@
+package uk.ac.ebi.pride.toolsuite.gui.component.sequence;
+
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Rui Wang
+ * @version $Id$
+ */
+public class PeptideSequenceMatcherTest {
+
+    @Test
+    public void testOverlappingPeptides() throws Exception {
+        PeptideSequenceMatcher matcher = new PeptideSequenceMatcher(Arrays.asList("PEP", "PEPP", "EPP", "KR", "KR"));
+        Map<String, Set<Integer>> positions = matcher.search("MPEPPEPPKR");
+
+        assertEquals(Arrays.asList(1, 4), new ArrayList<Integer>(positions.get("PEP")));
+        assertEquals(Arrays.asList(1, 4), new ArrayList<Integer>(positions.get("PEPP")));
+        assertEquals(Arrays.asList(2, 5), new ArrayList<Integer>(positions.get("EPP")));
+        assertEquals(Arrays.asList(8), new ArrayList<Integer>(positions.get("KR")));
+    }
+
+    @Test
+    public void testMissingPeptide() throws Exception {
+        PeptideSequenceMatcher matcher = new PeptideSequenceMatcher(Arrays.asList("MPE", "XYZ"));
+        Map<String, Set<Integer>> positions = matcher.search("MPEPPEPPKR");
+
+        assertTrue(positions.containsKey("MPE"));
+        assertFalse(positions.containsKey("XYZ"));
+        assertTrue(matcher.search(null).isEmpty());
+    }
+
+    @Test
+    public void testCaseInsensitive() throws Exception {
+        PeptideSequenceMatcher matcher = new PeptideSequenceMatcher(Arrays.asList("pep", "PEP"));
+        Map<String, Set<Integer>> positions = matcher.search("mPEPk");
+
+        assertEquals(Collections.singleton(1), positions.get("pep"));
+        assertEquals(Collections.singleton(1), positions.get("PEP"));
+    }
+}
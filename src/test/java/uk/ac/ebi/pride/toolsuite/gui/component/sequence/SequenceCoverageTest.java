@@ -0,0 +1,120 @@
+package uk.ac.ebi.pride.toolsuite.gui.component.sequence;
+
+import org.junit.Test;
+import uk.ac.ebi.pride.tools.protein_details_fetcher.model.Protein;
+
+import java.util.BitSet;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Rui Wang
+ * @version $Id$
+ */
+public class SequenceCoverageTest {
+
+    private static final String SEQUENCE = "MKWVTFISLLLLFSSAYS";
+
+    @Test
+    public void testOverlappingPeptides() throws Exception {
+        AnnotatedProtein protein = createProtein();
+        PeptideAnnotation first = new PeptideAnnotation("WVTFIS", 3, 8);
+        PeptideAnnotation second = new PeptideAnnotation("FISLLL", 6, 11);
+        protein.addAnnotation(first);
+        protein.addAnnotation(second);
+
+        SequenceCoverage coverage = SequenceCoverage.compute(protein);
+        assertEquals(2, coverage.getNumOfValidPeptides());
+        assertEquals(2, coverage.getNumOfUniquePeptides());
+        // residues 3 to 11 are covered once, overlaps are not counted twice
+        assertEquals(9, coverage.getNumOfAminoAcidCovered());
+        assertEquals(9.0 / SEQUENCE.length(), coverage.getSequenceCoverage(), 0.0001);
+        assertEquals(range(2, 11), coverage.getCoveredResidues());
+
+        int[] states = coverage.getResidueFitStates(null);
+        assertEquals(PeptideFitState.NOT_FIT, states[1]);
+        assertEquals(PeptideFitState.STRICT_FIT, states[2]);
+        assertEquals(PeptideFitState.STRICT_FIT, states[4]);
+        assertEquals(PeptideFitState.OVERLAP, states[5]);
+        assertEquals(PeptideFitState.OVERLAP, states[7]);
+        assertEquals(PeptideFitState.STRICT_FIT, states[8]);
+        assertEquals(PeptideFitState.STRICT_FIT, states[10]);
+        assertEquals(PeptideFitState.NOT_FIT, states[11]);
+
+        // the selected peptide takes over the overlap
+        states = coverage.getResidueFitStates(second);
+        assertEquals(PeptideFitState.STRICT_FIT, states[4]);
+        assertEquals(PeptideFitState.SELECTED, states[5]);
+        assertEquals(PeptideFitState.SELECTED, states[10]);
+    }
+
+    @Test
+    public void testAdjacentPeptides() throws Exception {
+        AnnotatedProtein protein = createProtein();
+        protein.addAnnotation(new PeptideAnnotation("MK", 1, 2));
+        protein.addAnnotation(new PeptideAnnotation("WVT", 3, 5));
+        // the same peptide twice counts once
+        protein.addAnnotation(new PeptideAnnotation("WVT", 3, 5));
+
+        SequenceCoverage coverage = SequenceCoverage.compute(protein);
+        assertEquals(3, coverage.getNumOfValidPeptides());
+        assertEquals(2, coverage.getNumOfUniquePeptides());
+        assertEquals(5, coverage.getNumOfAminoAcidCovered());
+        assertEquals(range(0, 5), coverage.getCoveredResidues());
+
+        int[] states = coverage.getResidueFitStates(null);
+        for (int i = 0; i < 5; i++) {
+            assertEquals(PeptideFitState.STRICT_FIT, states[i]);
+        }
+        assertEquals(PeptideFitState.NOT_FIT, states[5]);
+    }
+
+    @Test
+    public void testOutOfRangePeptides() throws Exception {
+        AnnotatedProtein protein = createProtein();
+        // reported beyond the end of the sequence, placed where it is found
+        PeptideAnnotation misplaced = new PeptideAnnotation("LLLF", 30, 33);
+        misplaced.addPtmAnnotation(new PTMAnnotation("MOD:00001", 1, "mod", null, null));
+        protein.addAnnotation(misplaced);
+        // not in the sequence
+        protein.addAnnotation(new PeptideAnnotation("KWQ", 2, 4));
+
+        SequenceCoverage coverage = SequenceCoverage.compute(protein);
+        assertEquals(1, coverage.getNumOfValidPeptides());
+        assertEquals(1, coverage.getNumOfUniquePeptides());
+        assertEquals(4, coverage.getNumOfAminoAcidCovered());
+        assertEquals(range(9, 13), coverage.getCoveredResidues());
+
+        int[] states = coverage.getResidueFitStates(null);
+        assertEquals(PeptideFitState.NOT_FIT, states[8]);
+        assertEquals(PeptideFitState.FIT, states[9]);
+        assertEquals(PeptideFitState.FIT, states[12]);
+        assertEquals(PeptideFitState.NOT_FIT, states[13]);
+
+        Map<Integer, Integer> ptmStates = coverage.getPTMFitStates(null);
+        assertEquals(1, ptmStates.size());
+        assertEquals(Integer.valueOf(PTMFitState.FIT), ptmStates.get(9));
+    }
+
+    @Test
+    public void testProteinWithoutSequence() throws Exception {
+        AnnotatedProtein protein = new AnnotatedProtein("P12345", "protein", Protein.STATUS.DELETED, null);
+        protein.addAnnotation(new PeptideAnnotation("MK", 1, 2));
+
+        SequenceCoverage coverage = SequenceCoverage.compute(protein);
+        assertEquals(0, coverage.getNumOfAminoAcidCovered());
+        assertEquals(-1, coverage.getSequenceCoverage(), 0);
+        assertEquals(0, coverage.getResidueFitStates(null).length);
+    }
+
+    private static AnnotatedProtein createProtein() {
+        return new AnnotatedProtein("P12345", "protein", Protein.STATUS.ACTIVE, SEQUENCE);
+    }
+
+    private static BitSet range(int fromIndex, int toIndex) {
+        BitSet bits = new BitSet();
+        bits.set(fromIndex, toIndex);
+        return bits;
+    }
+}
@@ -0,0 +1,130 @@
+package uk.ac.ebi.pride.toolsuite.gui.component.table;
+
+import org.junit.Test;
+import uk.ac.ebi.pride.toolsuite.gui.component.table.model.RowObjectTableModel;
+import uk.ac.ebi.pride.toolsuite.gui.utils.Constants;
+
+import javax.swing.*;
+import javax.swing.table.AbstractTableModel;
+import javax.swing.table.DefaultTableModel;
+import javax.swing.table.TableRowSorter;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Rui Wang
+ * @version $Id$
+ */
+public class TableDataExporterTest {
+
+    @Test
+    public void testFilteredRowsAndProjectedColumns() throws Exception {
+        DefaultTableModel model = new DefaultTableModel(new Object[][]{
+                {"PEPTIDE", "P1", 2},
+                {"PEPTIDEK", "P2", 3},
+                {"MPEPTIDE", "P3", 1}
+        }, new Object[]{"Peptide", "Protein", "Charge"});
+
+        JTable table = new JTable(model);
+        TableRowSorter<DefaultTableModel> sorter = new TableRowSorter<DefaultTableModel>(model);
+        sorter.setRowFilter(RowFilter.regexFilter("^PEPTIDE", 0));
+        table.setRowSorter(sorter);
+        // hide the protein column
+        table.removeColumn(table.getColumnModel().getColumn(1));
+
+        TableDataExporter exporter = TableDataExporter.createExporter(table);
+        assertEquals(2, exporter.getNumOfRows());
+        assertEquals(2, exporter.getNumOfColumns());
+
+        StringWriter writer = new StringWriter();
+        exporter.write(writer, TableDataExporter.Format.TSV);
+
+        String separator = Constants.LINE_SEPARATOR;
+        assertEquals("Peptide\tCharge" + separator +
+                "PEPTIDE\t2" + separator +
+                "PEPTIDEK\t3" + separator, writer.toString());
+    }
+
+    @Test
+    public void testCsvValuesAreQuoted() throws Exception {
+        DefaultTableModel model = new DefaultTableModel(new Object[][]{
+                {"P1,P2", "say \"hi\"", null}
+        }, new Object[]{"Proteins", "Name", "Score"});
+
+        StringWriter writer = new StringWriter();
+        new TableDataExporter(model, null, null).write(writer, TableDataExporter.Format.CSV);
+
+        String separator = Constants.LINE_SEPARATOR;
+        assertEquals("Proteins,Name,Score" + separator +
+                "\"P1,P2\",\"say \"\"hi\"\"\"," + separator, writer.toString());
+        assertEquals(TableDataExporter.Format.CSV, TableDataExporter.Format.getFormat("table.csv"));
+        assertEquals(TableDataExporter.Format.TSV, TableDataExporter.Format.getFormat("table.tsv"));
+    }
+
+    @Test
+    public void testRowObjectsAreReadDirectly() throws Exception {
+        StubRowObjectTableModel model = new StubRowObjectTableModel();
+        model.addRow("PEPTIDE", "2");
+        model.addRow("PEPTIDEK", "3");
+        model.addRow("MPEPTIDE", "1");
+
+        // last row first, peptide column only
+        TableDataExporter exporter = new TableDataExporter(model, new int[]{2, 0}, new int[]{0});
+        // rows added after the creation of the exporter are not exported
+        model.addRow("KPEPTIDE", "4");
+
+        StringWriter writer = new StringWriter();
+        exporter.write(writer, TableDataExporter.Format.TSV);
+
+        String separator = Constants.LINE_SEPARATOR;
+        assertEquals("Peptide" + separator +
+                "MPEPTIDE" + separator +
+                "PEPTIDE" + separator, writer.toString());
+    }
+
+    /**
+     * Table model whose cells can only be read through the row objects
+     */
+    private static class StubRowObjectTableModel extends AbstractTableModel implements RowObjectTableModel {
+        private final String[] columnNames = {"Peptide", "Charge"};
+        private final List<String[]> rows = new ArrayList<String[]>();
+
+        private void addRow(String... values) {
+            rows.add(values);
+        }
+
+        @Override
+        public Object getRowObject(int rowIndex) {
+            return rows.get(rowIndex);
+        }
+
+        @Override
+        public Object getValue(Object rowObject, int columnIndex, String columnName) {
+            assertEquals(columnNames[columnIndex], columnName);
+            return ((String[]) rowObject)[columnIndex];
+        }
+
+        @Override
+        public String getColumnName(int column) {
+            return columnNames[column];
+        }
+
+        @Override
+        public int getRowCount() {
+            return rows.size();
+        }
+
+        @Override
+        public int getColumnCount() {
+            return columnNames.length;
+        }
+
+        @Override
+        public Object getValueAt(int rowIndex, int columnIndex) {
+            throw new UnsupportedOperationException("Values are read from the row objects");
+        }
+    }
+}
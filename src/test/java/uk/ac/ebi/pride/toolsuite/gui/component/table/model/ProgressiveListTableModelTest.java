@@ -0,0 +1,128 @@
+package uk.ac.ebi.pride.toolsuite.gui.component.table.model;
+
+import org.junit.Before;
+import org.junit.Test;
+import uk.ac.ebi.pride.toolsuite.gui.task.Task;
+import uk.ac.ebi.pride.toolsuite.gui.task.TaskAdapter;
+import uk.ac.ebi.pride.toolsuite.gui.task.TaskEvent;
+
+import javax.swing.event.TableModelEvent;
+import javax.swing.event.TableModelListener;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Rui Wang
+ * @version $Id$
+ */
+public class ProgressiveListTableModelTest {
+
+    private StubTableModel tableModel;
+
+    private List<TableModelEvent> events;
+
+    private Task<Void, Object> task;
+
+    @Before
+    public void setUp() throws Exception {
+        tableModel = new StubTableModel();
+        tableModel.addData("first");
+        tableModel.addData("second");
+
+        events = new ArrayList<TableModelEvent>();
+        tableModel.addTableModelListener(new TableModelListener() {
+            @Override
+            public void tableChanged(TableModelEvent e) {
+                events.add(e);
+            }
+        });
+
+        task = new TaskAdapter<Void, Object>() {
+            @Override
+            protected Void doInBackground() throws Exception {
+                return null;
+            }
+        };
+    }
+
+    @Test
+    public void testRowsOutsideOfABatchAreNotCoalesced() throws Exception {
+        tableModel.addData("third");
+        tableModel.addData("fourth");
+
+        assertEquals(2, events.size());
+        assertEvent(events.get(0), TableModelEvent.INSERT, 2, 2);
+        assertEvent(events.get(1), TableModelEvent.INSERT, 3, 3);
+    }
+
+    @Test
+    public void testInsertedRowsFireOneEvent() throws Exception {
+        process("third", "fourth", "fifth");
+
+        assertEquals(1, events.size());
+        assertEvent(events.get(0), TableModelEvent.INSERT, 2, 4);
+        assertEquals(5, tableModel.getRowCount());
+    }
+
+    @Test
+    public void testUpdatedRowsAreMerged() throws Exception {
+        // updates of existing rows, and of a row inserted by the batch
+        process(1, "third", 0, 2);
+
+        assertEquals(2, events.size());
+        assertEvent(events.get(0), TableModelEvent.INSERT, 2, 2);
+        assertEvent(events.get(1), TableModelEvent.UPDATE, 0, 1);
+    }
+
+    @Test
+    public void testRemovedRowsFireDataChanged() throws Exception {
+        process("third", StubTableModel.REMOVE_ALL, "first");
+
+        assertEquals(1, events.size());
+        assertEvent(events.get(0), TableModelEvent.UPDATE, 0, Integer.MAX_VALUE);
+        assertEquals(1, tableModel.getRowCount());
+    }
+
+    private void process(Object... newData) {
+        tableModel.process(new TaskEvent<List<Object>>(task, Arrays.asList(newData)));
+    }
+
+    private static void assertEvent(TableModelEvent event, int type, int firstRow, int lastRow) {
+        assertEquals(type, event.getType());
+        assertEquals(firstRow, event.getFirstRow());
+        assertEquals(lastRow, event.getLastRow());
+    }
+
+    /**
+     * Table model which appends strings as rows and updates the row given by an integer
+     */
+    private static class StubTableModel extends ProgressiveListTableModel<Void, Object> {
+        private static final String REMOVE_ALL = "remove all";
+
+        @Override
+        public void initializeTableModel() {
+        }
+
+        @Override
+        public void addData(Object newData) {
+            if (REMOVE_ALL.equals(newData)) {
+                removeAllRows();
+            } else if (newData instanceof Integer) {
+                int row = (Integer) newData;
+                fireTableRowsUpdated(row, row);
+            } else {
+                addRow(newData);
+                int row = getRowCount() - 1;
+                fireTableRowsInserted(row, row);
+            }
+        }
+
+        @Override
+        public Object getValueAt(int rowIndex, int columnIndex) {
+            return getRow(rowIndex);
+        }
+    }
+}
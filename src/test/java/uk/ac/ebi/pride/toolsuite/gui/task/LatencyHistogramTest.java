@@ -0,0 +1,43 @@
+package uk.ac.ebi.pride.toolsuite.gui.task;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * @author Rui Wang
+ * @version $Id$
+ */
+public class LatencyHistogramTest {
+
+    @Test
+    public void testEmptyHistogram() throws Exception {
+        TaskStatistics.Timing timing = new LatencyHistogram().getTiming();
+        assertEquals(0, timing.getCount());
+        assertEquals(0, timing.getMeanNanos());
+        assertEquals(0, timing.getMedianNanos());
+        assertEquals(0, timing.getMaxNanos());
+    }
+
+    @Test
+    public void testPercentilesAreBucketUpperBounds() throws Exception {
+        LatencyHistogram histogram = new LatencyHistogram();
+        // 90 durations of 3 microseconds, 10 durations of 5 milliseconds
+        for (int i = 0; i < 90; i++) {
+            histogram.record(3000);
+        }
+        for (int i = 0; i < 10; i++) {
+            histogram.record(5000000);
+        }
+        histogram.record(-1);
+
+        TaskStatistics.Timing timing = histogram.getTiming();
+        assertEquals(101, timing.getCount());
+        assertEquals(90 * 3000L + 10 * 5000000L, timing.getTotalNanos());
+        // 3 microseconds falls in [2, 4) microseconds
+        assertEquals(4000, timing.getMedianNanos());
+        // capped by the maximum
+        assertEquals(5000000, timing.getPercentile95Nanos());
+        assertEquals(5000000, timing.getMaxNanos());
+    }
+}
@@ -0,0 +1,126 @@
+package uk.ac.ebi.pride.toolsuite.gui.task;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Rui Wang
+ * @version $Id$
+ */
+public class TaskLaneExecutorTest {
+
+    private TaskLaneExecutor executor;
+
+    private CountDownLatch blockerStarted;
+
+    private CountDownLatch blockerReleased;
+
+    private List<String> startedTasks;
+
+    @Before
+    public void setUp() throws Exception {
+        // the prefetch lane has a single thread, it is held by a blocking task while the other tasks are queued
+        executor = new TaskLaneExecutor(TaskLane.PREFETCH);
+        blockerStarted = new CountDownLatch(1);
+        blockerReleased = new CountDownLatch(1);
+        startedTasks = Collections.synchronizedList(new ArrayList<String>());
+
+        executor.execute(new TaskAdapter<Void, Void>() {
+            @Override
+            protected Void doInBackground() throws Exception {
+                blockerStarted.countDown();
+                blockerReleased.await();
+                return null;
+            }
+        });
+        assertTrue(blockerStarted.await(10, TimeUnit.SECONDS));
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        blockerReleased.countDown();
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testHigherPrioritiesStartFirst() throws Exception {
+        CountDownLatch finished = new CountDownLatch(3);
+        executor.execute(createTask("low", "file", TaskPriority.LOW, finished));
+        executor.execute(createTask("normal", "file", TaskPriority.NORMAL, finished));
+        executor.execute(createTask("high", "file", TaskPriority.HIGH, finished));
+        assertEquals(3, executor.getNumberOfWaitingTasks());
+
+        blockerReleased.countDown();
+        assertTrue(finished.await(10, TimeUnit.SECONDS));
+        assertEquals(Arrays.asList("high", "normal", "low"), startedTasks);
+    }
+
+    @Test
+    public void testOwnersTakeTurns() throws Exception {
+        CountDownLatch finished = new CountDownLatch(5);
+        executor.execute(createTask("first 1", "first file", TaskPriority.NORMAL, finished));
+        executor.execute(createTask("first 2", "first file", TaskPriority.NORMAL, finished));
+        executor.execute(createTask("first 3", "first file", TaskPriority.NORMAL, finished));
+        executor.execute(createTask("second 1", "second file", TaskPriority.NORMAL, finished));
+        executor.execute(createTask("second 2", "second file", TaskPriority.NORMAL, finished));
+
+        blockerReleased.countDown();
+        assertTrue(finished.await(10, TimeUnit.SECONDS));
+        assertEquals(Arrays.asList("first 1", "second 1", "first 2", "second 2", "first 3"), startedTasks);
+    }
+
+    @Test
+    public void testPriorityComesBeforeTurns() throws Exception {
+        CountDownLatch finished = new CountDownLatch(3);
+        executor.execute(createTask("first 1", "first file", TaskPriority.NORMAL, finished));
+        executor.execute(createTask("first 2", "first file", TaskPriority.HIGH, finished));
+        executor.execute(createTask("second 1", "second file", TaskPriority.NORMAL, finished));
+
+        blockerReleased.countDown();
+        assertTrue(finished.await(10, TimeUnit.SECONDS));
+        assertEquals(Arrays.asList("first 2", "first 1", "second 1"), startedTasks);
+    }
+
+    @Test
+    public void testCancelledTasksAreSkipped() throws Exception {
+        TaskMetrics metrics = new TaskMetrics("test");
+        CountDownLatch finished = new CountDownLatch(1);
+        Task cancelledTask = createTask("cancelled", "file", TaskPriority.NORMAL, finished);
+        cancelledTask.setMetrics(metrics);
+        Task task = createTask("task", "file", TaskPriority.NORMAL, finished);
+        task.setMetrics(metrics);
+
+        executor.execute(cancelledTask);
+        executor.execute(task);
+        cancelledTask.cancel(true);
+
+        blockerReleased.countDown();
+        assertTrue(finished.await(10, TimeUnit.SECONDS));
+        assertEquals(Arrays.asList("task"), startedTasks);
+        assertEquals(1, metrics.getStatistics().getNumOfStarted());
+    }
+
+    private Task createTask(final String name, Object owner, TaskPriority priority, final CountDownLatch finished) {
+        Task task = new TaskAdapter<Void, Void>() {
+            @Override
+            protected Void doInBackground() throws Exception {
+                startedTasks.add(name);
+                finished.countDown();
+                return null;
+            }
+        };
+        task.addOwner(owner);
+        task.setPriority(priority);
+        return task;
+    }
+}
@@ -0,0 +1,104 @@
+package uk.ac.ebi.pride.toolsuite.gui.task;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Rui Wang
+ * @version $Id$
+ */
+public class TaskManagerTest {
+
+    private TaskManager taskManager;
+
+    private CountDownLatch released;
+
+    @Before
+    public void setUp() throws Exception {
+        taskManager = new TaskManager();
+        released = new CountDownLatch(1);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        released.countDown();
+        taskManager.shutdownNow();
+    }
+
+    @Test
+    public void testLatestTaskSupersedesThePreviousOne() throws Exception {
+        Object owner = new Object();
+        Object target = new Object();
+
+        BlockingTask first = new BlockingTask(released);
+        BlockingTask second = new BlockingTask(released);
+        taskManager.addLatestTask(first, owner, target);
+        taskManager.addLatestTask(second, owner, target);
+
+        assertTrue(first.isSuperseded());
+        assertTrue(first.isCancelled());
+        assertFalse(taskManager.hasTask(first));
+
+        assertFalse(second.isSuperseded());
+        assertFalse(second.isCancelled());
+        assertTrue(taskManager.hasTask(second));
+
+        TaskStatistics statistics = taskManager.getTaskStatistics().get(0);
+        assertEquals(2, statistics.getNumOfSubmitted());
+        assertEquals(1, statistics.getNumOfSuperseded());
+    }
+
+    @Test
+    public void testTasksOfOtherTargetsAreKept() throws Exception {
+        Object owner = new Object();
+
+        BlockingTask first = new BlockingTask(released);
+        BlockingTask second = new BlockingTask(released);
+        BlockingTask third = new BlockingTask(released);
+        taskManager.addLatestTask(first, owner, "first table");
+        taskManager.addLatestTask(second, owner, "second table");
+        taskManager.addLatestTask(third, new Object(), "first table");
+
+        assertFalse(first.isSuperseded());
+        assertFalse(second.isSuperseded());
+        assertFalse(third.isSuperseded());
+        assertTrue(taskManager.hasTask(first));
+        assertTrue(taskManager.hasTask(second));
+        assertTrue(taskManager.hasTask(third));
+    }
+
+    @Test
+    public void testAddingTheSameTaskAgainDoesNotSupersedeIt() throws Exception {
+        Object owner = new Object();
+        Object target = new Object();
+
+        BlockingTask task = new BlockingTask(released);
+        taskManager.addLatestTask(task, owner, target);
+        taskManager.addLatestTask(task, owner, target);
+
+        assertFalse(task.isSuperseded());
+        assertFalse(task.isCancelled());
+    }
+
+    /**
+     * Task which waits until it is released or cancelled
+     */
+    private static class BlockingTask extends TaskAdapter<Void, Void> {
+        private final CountDownLatch released;
+
+        private BlockingTask(CountDownLatch released) {
+            this.released = released;
+        }
+
+        @Override
+        protected Void doInBackground() throws Exception {
+            released.await();
+            return null;
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package uk.ac.ebi.pride.toolsuite.gui.task.impl;
+
+import org.junit.Test;
+import uk.ac.ebi.pride.toolsuite.gui.access.EmptyDataAccessController;
+import uk.ac.ebi.pride.toolsuite.gui.access.NeighbourPrefetchCache;
+import uk.ac.ebi.pride.utilities.data.core.Chromatogram;
+import uk.ac.ebi.pride.utilities.data.core.Peptide;
+import uk.ac.ebi.pride.utilities.data.core.Spectrum;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Rui Wang
+ * @version $Id$
+ */
+public class PrefetchNeighbourTaskTest {
+
+    @Test
+    public void testNeighbourRowsAlternateFromTheNearest() throws Exception {
+        assertEquals(Arrays.asList(6, 4, 7, 3, 8, 2), PrefetchNeighbourTask.getNeighbourRows(5, 20, 3));
+    }
+
+    @Test
+    public void testNeighbourRowsStayWithinTheTable() throws Exception {
+        assertEquals(Arrays.asList(1, 2, 3), PrefetchNeighbourTask.getNeighbourRows(0, 20, 3));
+        assertEquals(Arrays.asList(3, 2), PrefetchNeighbourTask.getNeighbourRows(4, 5, 2));
+        assertEquals(Collections.<Integer>emptyList(), PrefetchNeighbourTask.getNeighbourRows(0, 1, 3));
+    }
+
+    @Test
+    public void testPrefetchedSpectraAreNotReadAgain() throws Exception {
+        CountingDataAccessController controller = new CountingDataAccessController();
+        NeighbourPrefetchCache cache = NeighbourPrefetchCache.getInstance(controller);
+        Spectrum spectrum = newEmptyInstance(Spectrum.class);
+        Spectrum psmSpectrum = newEmptyInstance(Spectrum.class);
+
+        assertNull(RetrieveSpectrumTask.readSpectrum(controller, "spectrum 1"));
+        assertEquals(1, controller.numOfReads);
+
+        cache.putSpectrum("spectrum 1", spectrum);
+        assertSame(spectrum, RetrieveSpectrumTask.readSpectrum(controller, "spectrum 1"));
+        assertEquals(1, controller.numOfReads);
+
+        // a PSM with the same id is not the spectrum read by id
+        assertNull(RetrieveSpectrumTask.readPsmSpectrum(controller, 1, "spectrum 1"));
+        assertEquals(2, controller.numOfReads);
+
+        cache.putPsmSpectrum(1, "spectrum 1", psmSpectrum);
+        assertSame(psmSpectrum, RetrieveSpectrumTask.readPsmSpectrum(controller, 1, "spectrum 1"));
+        assertSame(spectrum, RetrieveSpectrumTask.readSpectrum(controller, "spectrum 1"));
+        assertEquals(2, controller.numOfReads);
+
+        NeighbourPrefetchCache.getControllerCache().evict(controller);
+    }
+
+    @Test
+    public void testPrefetchedChromatogramsAreNotReadAgain() throws Exception {
+        CountingDataAccessController controller = new CountingDataAccessController();
+        Chromatogram chromatogram = newEmptyInstance(Chromatogram.class);
+
+        assertNull(RetrieveChromatogramTask.readChromatogram(controller, "chromatogram 1"));
+        assertEquals(1, controller.numOfReads);
+
+        NeighbourPrefetchCache.getInstance(controller).putChromatogram("chromatogram 1", chromatogram);
+        assertSame(chromatogram, RetrieveChromatogramTask.readChromatogram(controller, "chromatogram 1"));
+        assertEquals(1, controller.numOfReads);
+
+        NeighbourPrefetchCache.getControllerCache().evict(controller);
+    }
+
+    /**
+     * The data core classes have no short constructor, the first constructor accepting empty arguments is used
+     */
+    private static <T> T newEmptyInstance(Class<T> type) throws Exception {
+        for (Constructor<?> constructor : type.getConstructors()) {
+            Class<?>[] parameterTypes = constructor.getParameterTypes();
+            Object[] arguments = new Object[parameterTypes.length];
+            for (int i = 0; i < parameterTypes.length; i++) {
+                if (parameterTypes[i] == int.class) {
+                    arguments[i] = 0;
+                } else if (parameterTypes[i] == boolean.class) {
+                    arguments[i] = false;
+                }
+            }
+
+            try {
+                return type.cast(constructor.newInstance(arguments));
+            } catch (InvocationTargetException e) {
+                // try the next constructor
+            } catch (IllegalArgumentException e) {
+                // try the next constructor
+            }
+        }
+        throw new IllegalStateException("No constructor of " + type.getName() + " accepts empty arguments");
+    }
+
+    /**
+     * Data access controller without data, which counts the spectra, peptides and chromatograms read
+     */
+    private static class CountingDataAccessController extends EmptyDataAccessController {
+        private int numOfReads = 0;
+
+        @Override
+        public Spectrum getSpectrumById(Comparable id) {
+            numOfReads++;
+            return null;
+        }
+
+        @Override
+        public Peptide getPeptideByIndex(Comparable proteinId, Comparable peptideId) {
+            numOfReads++;
+            return null;
+        }
+
+        @Override
+        public Chromatogram getChromatogramById(Comparable id) {
+            numOfReads++;
+            return null;
+        }
+    }
+}
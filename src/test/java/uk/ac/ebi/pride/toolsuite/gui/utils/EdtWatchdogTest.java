@@ -0,0 +1,97 @@
+package uk.ac.ebi.pride.toolsuite.gui.utils;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Rui Wang
+ * @version $Id$
+ */
+public class EdtWatchdogTest {
+
+    private static final long MILLIS = 1000000L;
+
+    @Test
+    public void testNestedDispatchesAreNotCountedAsStalls() throws Exception {
+        EdtWatchdog watchdog = new EdtWatchdog(100, 10);
+        long start = 1000 * MILLIS;
+
+        // a click opens a modal dialog after 10 ms
+        watchdog.dispatchStarted(start);
+        watchdog.dispatchStarted(start + 10 * MILLIS);
+        watchdog.dispatchFinished(start + 20 * MILLIS);
+
+        // the user reads the dialog for seconds, the event dispatch thread waits for events, it is not sampled
+        assertTrue(EdtWatchdog.isWaitingForEvents(new StackTraceElement[]{
+                new StackTraceElement("java.lang.Object", "wait", null, -2),
+                new StackTraceElement("java.awt.EventQueue", "getNextEvent", null, 0),
+                new StackTraceElement("java.awt.EventDispatchThread", "pumpOneEventForFilters", null, 0),
+                new StackTraceElement("java.awt.Dialog", "show", null, 0)}));
+        assertFalse(EdtWatchdog.isWaitingForEvents(new StackTraceElement[]{
+                new StackTraceElement("java.awt.EventQueue", "dispatchEvent", null, 0),
+                new StackTraceElement("java.awt.EventDispatchThread", "pumpOneEventForFilters", null, 0)}));
+
+        // a slow event within the dialog is a stall
+        watchdog.dispatchStarted(start + 5000 * MILLIS);
+        assertTrue(watchdog.isStalled(start + 5200 * MILLIS));
+        watchdog.dispatchFinished(start + 5300 * MILLIS);
+
+        // the dialog is closed, the click takes 5 ms more
+        watchdog.dispatchFinished(start + 5305 * MILLIS);
+        assertFalse(watchdog.isStalled(start + 7000 * MILLIS));
+
+        assertEquals(3, watchdog.getNumOfDispatches());
+        // the click took 15 ms of its own, the slow event 300 ms
+        assertEquals(300, watchdog.getMaxDispatchMillis());
+    }
+
+    @Test
+    public void testOuterDispatchIsStalledAfterNestedDispatch() throws Exception {
+        EdtWatchdog watchdog = new EdtWatchdog(100, 10);
+        long start = 1000 * MILLIS;
+
+        // the outer dispatch takes 10 ms before a nested dispatch of 20 ms
+        watchdog.dispatchStarted(start);
+        watchdog.dispatchStarted(start + 10 * MILLIS);
+        watchdog.dispatchFinished(start + 30 * MILLIS);
+
+        // the outer dispatch goes on, its own 10 ms before the nested dispatch count
+        assertFalse(watchdog.isStalled(start + 110 * MILLIS));
+        assertTrue(watchdog.isStalled(start + 120 * MILLIS));
+
+        watchdog.dispatchFinished(start + 180 * MILLIS);
+        assertFalse(watchdog.isStalled(start + 2000 * MILLIS));
+        assertEquals(160, watchdog.getMaxDispatchMillis());
+    }
+
+    @Test
+    public void testOuterDispatchExcludesNestedTime() throws Exception {
+        EdtWatchdog watchdog = new EdtWatchdog(100, 10);
+        long start = 1000 * MILLIS;
+
+        watchdog.dispatchStarted(start);
+        watchdog.dispatchStarted(start + 30 * MILLIS);
+        watchdog.dispatchFinished(start + 40 * MILLIS);
+        watchdog.dispatchStarted(start + 2000 * MILLIS);
+        watchdog.dispatchFinished(start + 2020 * MILLIS);
+        watchdog.dispatchFinished(start + 2070 * MILLIS);
+
+        assertEquals(3, watchdog.getNumOfDispatches());
+        assertEquals(80, watchdog.getMaxDispatchMillis());
+    }
+
+    @Test
+    public void testSlowDispatchIsAStall() throws Exception {
+        EdtWatchdog watchdog = new EdtWatchdog(100, 10);
+        long start = 1000 * MILLIS;
+
+        assertFalse(watchdog.isStalled(start));
+        watchdog.dispatchStarted(start);
+        assertFalse(watchdog.isStalled(start + 50 * MILLIS));
+        assertTrue(watchdog.isStalled(start + 150 * MILLIS));
+        watchdog.dispatchFinished(start + 150 * MILLIS);
+
+        assertEquals(150, watchdog.getMaxDispatchMillis());
+    }
+}
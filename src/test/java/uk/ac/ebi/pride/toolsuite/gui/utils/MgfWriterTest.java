@@ -0,0 +1,90 @@
+package uk.ac.ebi.pride.toolsuite.gui.utils;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.*;
+import java.nio.channels.Channels;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Rui Wang
+ * @version $Id$
+ */
+public class MgfWriterTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testPeaksAreFormatted() throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        // small buffer, to flush in the middle of the spectrum
+        MgfWriter writer = new MgfWriter(Channels.newChannel(output), 64, 6);
+        writer.writeSpectrum("spectrum 1", 445.12003326416016, 2,
+                new double[]{100.0, 0.1, 1234.5678901, -3.25, 1e-5, 2e10},
+                new double[]{5, 6, 7, 8, 9, 10});
+        writer.close();
+
+        String separator = Constants.LINE_SEPARATOR;
+        String expected = "BEGIN IONS" + separator +
+                "TITLE=spectrum 1" + separator +
+                "PEPMASS=445.120033" + separator +
+                "CHARGE=2+" + separator +
+                "100\t5" + separator +
+                "0.1\t6" + separator +
+                "1234.56789\t7" + separator +
+                "-3.25\t8" + separator +
+                "1.0E-5\t9" + separator +
+                "2.0E10\t10" + separator +
+                "END IONS" + separator + separator;
+        assertEquals(expected, output.toString("UTF-8"));
+        assertEquals(1, writer.getNumOfSpectra());
+    }
+
+    @Test
+    public void testMissingPeaksWriteAnEmptyPeakList() throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        MgfWriter writer = new MgfWriter(Channels.newChannel(output), 64, 6);
+        writer.writeSpectrum("spectrum 1", null, null, null, null);
+        writer.writeSpectrum("spectrum 2", 500.5, 1, new double[]{200.25}, null);
+        writer.close();
+
+        String separator = Constants.LINE_SEPARATOR;
+        String expected = "BEGIN IONS" + separator +
+                "TITLE=spectrum 1" + separator +
+                "PEPMASS=null" + separator +
+                "END IONS" + separator + separator +
+                "BEGIN IONS" + separator +
+                "TITLE=spectrum 2" + separator +
+                "PEPMASS=500.5" + separator +
+                "CHARGE=1+" + separator +
+                "END IONS" + separator + separator;
+        assertEquals(expected, output.toString("UTF-8"));
+        assertEquals(2, writer.getNumOfSpectra());
+    }
+
+    @Test
+    public void testGzipOutput() throws Exception {
+        File file = folder.newFile("spectrum.mgf.gz");
+        MgfWriter writer = new MgfWriter(file, true);
+        writer.writeComment("Number of spectra: 1");
+        writer.writeSpectrum("spectrum 1", 500.5, null, new double[]{200.25}, new double[]{1000});
+        writer.close();
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(new GZIPInputStream(new FileInputStream(file)), "UTF-8"));
+        try {
+            assertEquals("# Number of spectra: 1", reader.readLine());
+            assertEquals("BEGIN IONS", reader.readLine());
+            assertEquals("TITLE=spectrum 1", reader.readLine());
+            assertEquals("PEPMASS=500.5", reader.readLine());
+            assertEquals("200.25\t1000", reader.readLine());
+            assertEquals("END IONS", reader.readLine());
+        } finally {
+            reader.close();
+        }
+    }
+}